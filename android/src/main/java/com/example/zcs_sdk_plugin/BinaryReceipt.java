@@ -0,0 +1,324 @@
+package com.example.zcs_sdk_plugin;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BinaryReceipt - receipt data read straight from a binary-framed buffer
+ *
+ * Large receipts sent as nested maps cost a StandardMessageCodec round of
+ * maps, lists and boxed values on both sides, and the Java side then casts
+ * its way back through them. This format carries the same fields in one
+ * flat buffer that the template binds against directly: decode() walks it
+ * once to check the framing and note where each field starts, and values
+ * are only materialised when the template asks for them. Item lists travel
+ * as tables with the column names sent once, and are read with a single
+ * reusable row cursor.
+ *
+ * Layout, big-endian; str is a u16 byte length followed by UTF-8:
+ * <pre>
+ *   u8[2] magic "ZR", u8 version, u8 flags (bit 0: raster)
+ *   str   template id, empty for the default template
+ *   u16   field count, then per field: str name, value
+ *
+ *   value: u8 tag, then
+ *     0 null
+ *     1 string  str
+ *     2 int     i64
+ *     3 double  f64
+ *     4 bool    u8
+ *     5 bytes   u32 length, bytes
+ *     6 table   u8 column count, str per column,
+ *               u32 row count, then row by row one value per column
+ *               (tables do not nest)
+ * </pre>
+ */
+class BinaryReceipt implements ReceiptTemplate.Data {
+
+    static final int VERSION = 1;
+    static final int FLAG_RASTER = 0x01;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_INT = 2;
+    static final byte TAG_DOUBLE = 3;
+    static final byte TAG_BOOL = 4;
+    static final byte TAG_BYTES = 5;
+    static final byte TAG_TABLE = 6;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final int flags;
+    private final String templateId;
+    private final String[] names;
+    private final int[] offsets;
+    // Fields set on this side, e.g. a generated order number
+    private Map<String, Object> overrides;
+
+    private BinaryReceipt(ByteBuffer buffer, int flags, String templateId, String[] names, int[] offsets) {
+        this.buffer = buffer;
+        this.flags = flags;
+        this.templateId = templateId;
+        this.names = names;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Checks the framing and indexes the top-level fields. The buffer must
+     * not change afterwards; values are read from it while rendering.
+     */
+    static BinaryReceipt decode(ByteBuffer message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Receipt buffer cannot be null");
+        }
+        ByteBuffer buffer = message.slice().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.get() != 'Z' || buffer.get() != 'R') {
+                throw new IllegalArgumentException("Not a binary receipt");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported receipt format version: " + version);
+            }
+            int flags = buffer.get() & 0xFF;
+            String templateId = readString(buffer, buffer.position());
+            buffer.position(skipString(buffer, buffer.position()));
+
+            int count = buffer.getShort() & 0xFFFF;
+            String[] names = new String[count];
+            int[] offsets = new int[count];
+            int pos = buffer.position();
+            for (int i = 0; i < count; i++) {
+                names[i] = readString(buffer, pos);
+                pos = skipString(buffer, pos);
+                offsets[i] = pos;
+                pos = skipValue(buffer, pos, true);
+            }
+            if (pos != buffer.limit()) {
+                throw new IllegalArgumentException("Trailing bytes after receipt fields");
+            }
+            return new BinaryReceipt(buffer, flags, templateId.isEmpty() ? null : templateId, names, offsets);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated receipt buffer", e);
+        }
+    }
+
+    /** Template to bind against; null means the default. */
+    String getTemplateId() {
+        return templateId;
+    }
+
+    boolean isRaster() {
+        return (flags & FLAG_RASTER) != 0;
+    }
+
+    int fieldCount() {
+        return names.length;
+    }
+
+    /** Sets a field on top of the buffer contents. */
+    void put(String field, Object value) {
+        if (overrides == null) {
+            overrides = new HashMap<>();
+        }
+        overrides.put(field, value);
+    }
+
+    /** A table reads as its row count, so "when" conditions on it work. */
+    @Override
+    public Object get(String field) {
+        if (overrides != null && overrides.containsKey(field)) {
+            return overrides.get(field);
+        }
+        int index = indexOf(field);
+        return index >= 0 ? readValue(buffer, offsets[index]) : null;
+    }
+
+    @Override
+    public ReceiptTemplate.Rows rows(String field) {
+        int index = indexOf(field);
+        if (index < 0 || buffer.get(offsets[index]) != TAG_TABLE) {
+            return null;
+        }
+        return new TableRows(buffer, offsets[index]);
+    }
+
+    private int indexOf(String field) {
+        // Receipts carry a dozen or so fields; a scan beats hashing them all
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Cursor over a table; offsets of the current row are kept in one array. */
+    private static final class TableRows implements ReceiptTemplate.Rows {
+        private final ByteBuffer buffer;
+        private final String[] columns;
+        private final int[] cells;
+        private final int rowCount;
+        private int row = -1;
+        private int nextRowOffset;
+
+        TableRows(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            int pos = offset + 1;
+            columns = new String[buffer.get(pos) & 0xFF];
+            pos++;
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = readString(buffer, pos);
+                pos = skipString(buffer, pos);
+            }
+            rowCount = buffer.getInt(pos);
+            cells = new int[columns.length];
+            nextRowOffset = pos + 4;
+        }
+
+        @Override
+        public boolean next() {
+            if (row + 1 >= rowCount) {
+                row = rowCount;
+                return false;
+            }
+            row++;
+            int pos = nextRowOffset;
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = pos;
+                pos = skipValue(buffer, pos, false);
+            }
+            nextRowOffset = pos;
+            return true;
+        }
+
+        @Override
+        public Object get(String field) {
+            if (row < 0 || row >= rowCount) {
+                return null;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(field)) {
+                    return readValue(buffer, cells[i]);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public ReceiptTemplate.Rows rows(String field) {
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Buffer access; all absolute, the buffer position is left alone
+    // ---------------------------------------------------------------------
+
+    private static Object readValue(ByteBuffer buffer, int pos) {
+        byte tag = buffer.get(pos);
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(buffer, pos + 1);
+            case TAG_INT:
+                return buffer.getLong(pos + 1);
+            case TAG_DOUBLE:
+                return buffer.getDouble(pos + 1);
+            case TAG_BOOL:
+                return buffer.get(pos + 1) != 0;
+            case TAG_BYTES:
+                byte[] bytes = new byte[buffer.getInt(pos + 1)];
+                ByteBuffer view = buffer.duplicate();
+                view.position(pos + 5);
+                view.get(bytes);
+                return bytes;
+            case TAG_TABLE:
+                int columnCount = buffer.get(pos + 1) & 0xFF;
+                int at = pos + 2;
+                for (int i = 0; i < columnCount; i++) {
+                    at = skipString(buffer, at);
+                }
+                return buffer.getInt(at);
+            default:
+                throw new IllegalArgumentException("Unknown value tag: " + tag);
+        }
+    }
+
+    /** Returns the offset after the value, checking it lies inside the buffer. */
+    private static int skipValue(ByteBuffer buffer, int pos, boolean allowTable) {
+        byte tag = buffer.get(pos);
+        switch (tag) {
+            case TAG_NULL:
+                return pos + 1;
+            case TAG_STRING:
+                return skipString(buffer, pos + 1);
+            case TAG_INT:
+            case TAG_DOUBLE:
+                return checked(buffer, pos + 9);
+            case TAG_BOOL:
+                return checked(buffer, pos + 2);
+            case TAG_BYTES:
+                int length = buffer.getInt(pos + 1);
+                if (length < 0) {
+                    throw new IllegalArgumentException("Negative byte length");
+                }
+                return checked(buffer, pos + 5 + length);
+            case TAG_TABLE:
+                if (!allowTable) {
+                    throw new IllegalArgumentException("Tables cannot be nested");
+                }
+                int columnCount = buffer.get(pos + 1) & 0xFF;
+                int at = pos + 2;
+                for (int i = 0; i < columnCount; i++) {
+                    at = skipString(buffer, at);
+                }
+                int rowCount = buffer.getInt(at);
+                if (rowCount < 0) {
+                    throw new IllegalArgumentException("Negative row count");
+                }
+                at += 4;
+                for (int row = 0; row < rowCount; row++) {
+                    for (int column = 0; column < columnCount; column++) {
+                        at = skipValue(buffer, at, false);
+                    }
+                }
+                return at;
+            default:
+                throw new IllegalArgumentException("Unknown value tag: " + tag);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int pos) {
+        int length = buffer.getShort(pos) & 0xFFFF;
+        if (length == 0) {
+            return "";
+        }
+        checked(buffer, pos + 2 + length);
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + pos + 2, length, UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(pos + 2);
+        view.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int skipString(ByteBuffer buffer, int pos) {
+        return checked(buffer, pos + 2 + (buffer.getShort(pos) & 0xFFFF));
+    }
+
+    private static int checked(ByteBuffer buffer, int end) {
+        if (end > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Value runs past the end of the buffer");
+        }
+        return end;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.zcs_sdk_plugin;
+
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.StandardMessageCodec;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BinaryReplyResult - a method-channel Result that answers a binary message
+ *
+ * Lets the binary receipt channel reuse the method-channel print path. The
+ * response map is encoded with the standard codec, so Dart decodes it the
+ * same way a method-channel result arrives; errors become a map with
+ * success false and the error code under "error".
+ */
+class BinaryReplyResult implements MethodChannel.Result {
+
+    private final BasicMessageChannel.Reply<ByteBuffer> reply;
+
+    BinaryReplyResult(BasicMessageChannel.Reply<ByteBuffer> reply) {
+        this.reply = reply;
+    }
+
+    @Override
+    public void success(Object result) {
+        reply.reply(StandardMessageCodec.INSTANCE.encodeMessage(result));
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", errorCode);
+        response.put("message", errorMessage);
+        reply.reply(StandardMessageCodec.INSTANCE.encodeMessage(response));
+    }
+
+    @Override
+    public void notImplemented() {
+        error("NOT_IMPLEMENTED", "Not implemented", null);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BitmapPool - mutable bitmaps kept for reuse by image decoding
+ *
+ * Decoding a logo or photo needs a full-size bitmap for the decoder and
+ * another for scaling, both thrown away once the printable bitmap exists.
+ * On low-memory terminals that churn is what triggers GC pauses and OOMs.
+ * The pool keeps released bitmaps up to a byte budget and hands them out
+ * again, either as BitmapFactory.Options.inBitmap or reconfigured to a new
+ * size. Since API 19 any bitmap with a large enough allocation can be
+ * reused that way, so bitmaps are matched on allocation size only: the
+ * smallest one that fits is taken. All methods are thread-safe.
+ */
+class BitmapPool {
+
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private final long maxBytes;
+
+    // Guarded by this; oldest first
+    private final List<Bitmap> free = new ArrayList<>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long drops;
+
+    BitmapPool() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * A bitmap with room for width x height pixels in config, reconfigured
+     * to that size. Contents are undefined.
+     */
+    Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = take((long) width * height * bytesPerPixel(config));
+        if (bitmap != null) {
+            bitmap.reconfigure(width, height, config);
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * A bitmap to decode into with inBitmap, or null when none is large
+     * enough. The decoder may pick ARGB_8888 for images with alpha, so the
+     * size is checked for four bytes per pixel.
+     */
+    Bitmap getForDecode(int width, int height) {
+        return take((long) width * height * 4);
+    }
+
+    /** Returns a bitmap to the pool; immutable or recycled ones are ignored. */
+    void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        long size = bitmap.getAllocationByteCount();
+        if (size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        List<Bitmap> dropped = new ArrayList<>();
+        synchronized (this) {
+            free.add(bitmap);
+            bytes += size;
+            while (bytes > maxBytes) {
+                Bitmap oldest = free.remove(0);
+                bytes -= oldest.getAllocationByteCount();
+                dropped.add(oldest);
+                drops++;
+            }
+        }
+        for (Bitmap oldest : dropped) {
+            oldest.recycle();
+        }
+    }
+
+    synchronized void clear() {
+        for (Bitmap bitmap : free) {
+            bitmap.recycle();
+        }
+        free.clear();
+        bytes = 0;
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("drops", drops);
+        stats.put("entries", free.size());
+        stats.put("size", bytes);
+        stats.put("maxSize", maxBytes);
+        return stats;
+    }
+
+    synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        drops = 0;
+    }
+
+    private synchronized Bitmap take(long needed) {
+        int best = -1;
+        long bestSize = Long.MAX_VALUE;
+        for (int i = 0; i < free.size(); i++) {
+            long size = free.get(i).getAllocationByteCount();
+            if (size >= needed && size < bestSize) {
+                best = i;
+                bestSize = size;
+            }
+        }
+        if (best < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        bytes -= bestSize;
+        return free.remove(best);
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        return 4;
+    }
+}
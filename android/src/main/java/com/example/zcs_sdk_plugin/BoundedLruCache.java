@@ -0,0 +1,119 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BoundedLruCache - least-recently-used cache bounded by a size budget
+ *
+ * Entries are weighed with sizeOf() (bytes for bitmaps, 1 for a plain entry
+ * count) and the least recently used ones are dropped once the total goes
+ * over the budget. Hits, misses and evictions are counted so callers can
+ * report how well the cache works in the field. All methods are thread-safe.
+ */
+class BoundedLruCache<K, V> {
+
+    /** Weighs one cached value. */
+    interface Sizer<V> {
+        long sizeOf(V value);
+    }
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Sizer<V> sizer;
+    private final long maxSize;
+    private long size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    BoundedLruCache(long maxSize, Sizer<V> sizer) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.sizer = sizer;
+    }
+
+    synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Stores value under key. A value larger than the whole budget is not
+     * cached at all.
+     */
+    synchronized void put(K key, V value) {
+        long valueSize = sizer.sizeOf(value);
+        V previous = entries.remove(key);
+        if (previous != null) {
+            size -= sizer.sizeOf(previous);
+        }
+        if (valueSize > maxSize) {
+            return;
+        }
+        entries.put(key, value);
+        size += valueSize;
+        trimToSize();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    synchronized int count() {
+        return entries.size();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("entries", entries.size());
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        return stats;
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Map.Entry<K, V> eldest = it.next();
+            size -= sizer.sizeOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+}
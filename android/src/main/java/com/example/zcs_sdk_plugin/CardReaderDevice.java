@@ -0,0 +1,113 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import com.zcs.sdk.card.CardInfoEntity;
+import com.zcs.sdk.card.CardReaderManager;
+import com.zcs.sdk.card.CardReaderTypeEnum;
+import com.zcs.sdk.listener.OnSearchCardListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CardReaderDevice - CardSearch.Device on top of the SDK CardReaderManager
+ *
+ * The slots of a search map onto one combined CardReaderTypeEnum
+ * (MAG_IC_RF_CARD and friends), so the SDK polls them all from a single
+ * searchCard call instead of one search per slot. The detected card is
+ * turned into a channel map right in the SDK callback.
+ */
+class CardReaderDevice implements CardSearch.Device {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    private final CardReaderManager manager;
+
+    CardReaderDevice(CardReaderManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void search(Set<CardSearch.Slot> slots, long timeoutMs, CardSearch.Callback callback) {
+        manager.searchCard(readerType(slots), (int) Math.min(Integer.MAX_VALUE, timeoutMs),
+                new OnSearchCardListener() {
+                    @Override
+                    public void onCardInfo(CardInfoEntity info) {
+                        callback.onCard(toMap(info));
+                    }
+
+                    @Override
+                    public void onError(int code) {
+                        callback.onError(code);
+                    }
+
+                    @Override
+                    public void onNoCard(CardReaderTypeEnum type, boolean present) {
+                        // Slot status while polling; the search keeps going
+                        Log.d(TAG, "No card on " + type);
+                    }
+                });
+    }
+
+    @Override
+    public void cancel() {
+        manager.cancelSearchCard();
+    }
+
+    static CardReaderTypeEnum readerType(Set<CardSearch.Slot> slots) {
+        boolean mag = slots.contains(CardSearch.Slot.MAG);
+        boolean ic = slots.contains(CardSearch.Slot.IC);
+        boolean rf = slots.contains(CardSearch.Slot.RF);
+        if (mag && ic && rf) {
+            return CardReaderTypeEnum.MAG_IC_RF_CARD;
+        }
+        if (mag && ic) {
+            return CardReaderTypeEnum.MAG_IC_CARD;
+        }
+        if (mag && rf) {
+            return CardReaderTypeEnum.MAG_RF_CARD;
+        }
+        if (ic && rf) {
+            return CardReaderTypeEnum.IC_RF_CARD;
+        }
+        if (mag) {
+            return CardReaderTypeEnum.MAG_CARD;
+        }
+        if (ic) {
+            return CardReaderTypeEnum.IC_CARD;
+        }
+        return CardReaderTypeEnum.RF_CARD;
+    }
+
+    private static Map<String, Object> toMap(CardInfoEntity info) {
+        Map<String, Object> card = new HashMap<>();
+        CardReaderTypeEnum type = info.getCardExistslot();
+        CardSearch.Slot slot = CardSearch.Slot.RF;
+        if (type == CardReaderTypeEnum.MAG_CARD) {
+            slot = CardSearch.Slot.MAG;
+        } else if (type == CardReaderTypeEnum.IC_CARD) {
+            slot = CardSearch.Slot.IC;
+        }
+        card.put("slot", slot.channelName());
+        switch (slot) {
+            case MAG:
+                card.put("cardNo", info.getCardNo());
+                card.put("track1", info.getTk1());
+                card.put("track2", info.getTk2());
+                card.put("track3", info.getTk3());
+                card.put("expiryDate", info.getExpiredDate());
+                card.put("serviceCode", info.getServiceCode());
+                break;
+            case IC:
+                card.put("atr", Hex.encode(info.getAtr()));
+                break;
+            default:
+                card.put("uid", Hex.encode(info.getRFuid()));
+                card.put("rfCardType", info.getRfCardType() & 0xFF);
+                break;
+        }
+        return card;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CardSearch - waits for a card on several reader slots at once
+ *
+ * A search arms the magnetic, IC and contactless readers together in one
+ * device call and returns immediately; the first card detected on any slot
+ * ends it. The search is then cancelled on the remaining slots, so a card
+ * tapped while another is swiped cannot produce a second result. The search
+ * also ends on its timeout, on stop() or when the reader reports an error.
+ *
+ * Device calls run on the card executor, never on the printer thread, so
+ * a receipt still printing does not delay arming the readers for the next
+ * customer. Detection is reported straight from the reader callback; only
+ * the cancel of the other slots is queued behind it. Because that executor
+ * is serial, a search started right after a detection arms the readers only
+ * once the previous cancel has gone through.
+ */
+class CardSearch {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_TIMEOUT_MS = 60_000;
+
+    // Reasons passed to Listener.onStopped
+    static final String TIMEOUT = "timeout";
+    static final String CANCELLED = "cancelled";
+    static final String ERROR = "error";
+
+    enum Slot {
+        MAG, IC, RF;
+
+        /** Parses the channel names "mag", "ic" and "rf" (also "nfc"). */
+        static Slot parse(String name) {
+            switch (name.trim().toLowerCase()) {
+                case "mag":
+                case "magnetic":
+                    return MAG;
+                case "ic":
+                case "chip":
+                    return IC;
+                case "rf":
+                case "nfc":
+                case "contactless":
+                    return RF;
+                default:
+                    throw new IllegalArgumentException("Unknown card slot: " + name);
+            }
+        }
+
+        /** All slots when names is null or empty. */
+        static Set<Slot> parseAll(List<String> names) {
+            if (names == null || names.isEmpty()) {
+                return EnumSet.allOf(Slot.class);
+            }
+            Set<Slot> slots = EnumSet.noneOf(Slot.class);
+            for (String name : names) {
+                slots.add(parse(name));
+            }
+            return slots;
+        }
+
+        String channelName() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** The card readers as a search needs them. */
+    interface Device {
+        /**
+         * Arms the readers for the given slots and returns without waiting.
+         * The callback may fire on any thread.
+         */
+        void search(Set<Slot> slots, long timeoutMs, Callback callback) throws Exception;
+
+        /** Stops the search on every slot. */
+        void cancel();
+    }
+
+    interface Callback {
+        /** The card as a channel map; must contain "slot". */
+        void onCard(Map<String, Object> card);
+
+        void onError(int code);
+    }
+
+    interface Listener {
+        /** The first card; "elapsedMs" is added to the device's map. */
+        void onCard(Map<String, Object> card);
+
+        /** The search ended without a card; code is set for ERROR only. */
+        void onStopped(String reason, int code);
+    }
+
+    private static final class Session {
+        final Listener listener;
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean finished = new AtomicBoolean();
+        volatile ScheduledFuture<?> timeout;
+
+        Session(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private final Device device;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private Session current;
+
+    CardSearch(Device device, ScheduledExecutorService executor) {
+        this.device = device;
+        this.executor = executor;
+    }
+
+    /** Starts a search; returns false while another one is running. */
+    boolean start(Set<Slot> slots, long timeoutMs, Listener listener) {
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("At least one card slot is required");
+        }
+        long timeout = timeoutMs > 0 ? timeoutMs : DEFAULT_TIMEOUT_MS;
+        Session session = new Session(listener);
+        synchronized (this) {
+            if (current != null) {
+                return false;
+            }
+            current = session;
+        }
+        Set<Slot> armed = EnumSet.copyOf(slots);
+        executor.execute(() -> arm(session, armed, timeout));
+        session.timeout = executor.schedule(() -> finish(session, TIMEOUT, 0, null),
+                timeout, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /** Cancels the running search; its listener is told CANCELLED. */
+    boolean stop() {
+        Session session;
+        synchronized (this) {
+            session = current;
+        }
+        return session != null && finish(session, CANCELLED, 0, null);
+    }
+
+    synchronized boolean isRunning() {
+        return current != null;
+    }
+
+    private void arm(Session session, Set<Slot> slots, long timeoutMs) {
+        if (session.finished.get()) {
+            return;
+        }
+        try {
+            // Our own timer ends the search; the reader's must not fire first
+            device.search(slots, timeoutMs + 1_000, new Callback() {
+                @Override
+                public void onCard(Map<String, Object> card) {
+                    finish(session, null, 0, card);
+                }
+
+                @Override
+                public void onError(int code) {
+                    finish(session, ERROR, code, null);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Card search failed to start", e);
+            finish(session, ERROR, -1, null);
+        }
+    }
+
+    /** Ends the session once; later outcomes of the same session are dropped. */
+    private boolean finish(Session session, String reason, int code, Map<String, Object> card) {
+        if (!session.finished.compareAndSet(false, true)) {
+            return false;
+        }
+        ScheduledFuture<?> timeout = session.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        synchronized (this) {
+            if (current == session) {
+                current = null;
+            }
+        }
+        // Disarms the slots that did not fire; harmless when the reader already stopped
+        executor.execute(() -> {
+            try {
+                device.cancel();
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to cancel card search", e);
+            }
+        });
+
+        if (card != null) {
+            card.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.startNanos));
+            session.listener.onCard(card);
+        } else {
+            session.listener.onStopped(reason, code);
+        }
+        return true;
+    }
+}
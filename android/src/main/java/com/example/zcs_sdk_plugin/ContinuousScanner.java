@@ -0,0 +1,198 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContinuousScanner - keeps the QR scanner powered and streams every decode
+ *
+ * A session powers the scanner once and then decodes in short slices on the
+ * scanner executor, one task per slice, so other scanner calls can still get
+ * in between. Each decoded value goes to the listener, except the same value
+ * read again within the duplicate window (a ticket held under the reader).
+ * The session ends when stop() is called, when nothing has been decoded for
+ * the idle timeout, or when a scanner call throws. The device is then
+ * released and the listener told why.
+ */
+class ContinuousScanner {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_IDLE_TIMEOUT_MS = 60_000;
+    static final long DEFAULT_DUPLICATE_WINDOW_MS = 1_000;
+
+    // Longest a single decode call may block the scanner executor
+    static final int DECODE_SLICE_MS = 500;
+
+    // Reasons passed to Listener.onStopped
+    static final String STOPPED = "stopped";
+    static final String IDLE = "idle";
+    static final String ERROR = "error";
+
+    /** The scanner hardware as the session needs it. */
+    interface Device {
+        void powerOn() throws Exception;
+
+        /**
+         * Waits up to timeoutMs for a code; null when nothing was read.
+         * Throws on scanner errors, which end the session.
+         */
+        String decode(int timeoutMs) throws Exception;
+
+        void powerOff();
+    }
+
+    interface Listener {
+        void onScan(String data);
+
+        void onStopped(String reason);
+    }
+
+    /**
+     * Device on a PosHardware scanner whose power goes through the shared
+     * ScannerPower, so a session starts warm when a scan ran shortly before
+     * and leaves the scanner in standby when it ends.
+     */
+    static final class PoweredDevice implements Device {
+        private final PosHardware.Scanner scanner;
+        private final ScannerPower power;
+
+        PoweredDevice(PosHardware.Scanner scanner, ScannerPower power) {
+            this.scanner = scanner;
+            this.power = power;
+        }
+
+        @Override
+        public void powerOn() throws Exception {
+            power.acquire();
+        }
+
+        @Override
+        public String decode(int timeoutMs) throws Exception {
+            return scanner.decode(timeoutMs);
+        }
+
+        @Override
+        public void powerOff() {
+            scanner.stopDecoding();
+            power.release();
+        }
+    }
+
+    private static final class Session {
+        final Listener listener;
+        final long idleTimeoutNanos;
+        final long duplicateWindowNanos;
+        boolean powered;
+        long lastActivityNanos;
+        String lastData;
+        long lastDataNanos;
+        volatile String stopReason;
+
+        Session(Listener listener, long idleTimeoutMs, long duplicateWindowMs) {
+            this.listener = listener;
+            this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+            this.duplicateWindowNanos = TimeUnit.MILLISECONDS.toNanos(duplicateWindowMs);
+        }
+    }
+
+    private final Device device;
+    private final Executor executor;
+
+    // Guarded by this; cleared only once the scanner is powered off again
+    private Session current;
+
+    ContinuousScanner(Device device, Executor executor) {
+        this.device = device;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a session. Returns false while one is running or still
+     * shutting down. An idle timeout of 0 keeps the session open until
+     * stop() is called.
+     */
+    synchronized boolean start(long idleTimeoutMs, long duplicateWindowMs, Listener listener) {
+        if (current != null) {
+            return false;
+        }
+        Session session = new Session(listener, Math.max(0, idleTimeoutMs), Math.max(0, duplicateWindowMs));
+        current = session;
+        executor.execute(() -> step(session));
+        return true;
+    }
+
+    /** Ends the running session after the current decode slice. */
+    synchronized boolean stop() {
+        if (current == null || current.stopReason != null) {
+            return false;
+        }
+        current.stopReason = STOPPED;
+        return true;
+    }
+
+    /** True from start() until the session has been asked to stop. */
+    synchronized boolean isRunning() {
+        return current != null && current.stopReason == null;
+    }
+
+    /** True until the scanner of the last session has been powered off. */
+    synchronized boolean isBusy() {
+        return current != null;
+    }
+
+    private void step(Session session) {
+        if (session.stopReason != null) {
+            finish(session);
+            return;
+        }
+
+        try {
+            if (!session.powered) {
+                // Set first so a half-finished power-up is still undone
+                session.powered = true;
+                device.powerOn();
+                session.lastActivityNanos = System.nanoTime();
+            }
+            String data = device.decode(DECODE_SLICE_MS);
+            long now = System.nanoTime();
+            if (data != null && !data.isEmpty()) {
+                session.lastActivityNanos = now;
+                boolean duplicate = data.equals(session.lastData)
+                        && now - session.lastDataNanos < session.duplicateWindowNanos;
+                session.lastData = data;
+                session.lastDataNanos = now;
+                if (!duplicate) {
+                    session.listener.onScan(data);
+                }
+            } else if (session.idleTimeoutNanos > 0
+                    && now - session.lastActivityNanos >= session.idleTimeoutNanos) {
+                session.stopReason = IDLE;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Continuous scan failed", e);
+            if (session.stopReason == null) {
+                session.stopReason = ERROR;
+            }
+        }
+        executor.execute(() -> step(session));
+    }
+
+    private void finish(Session session) {
+        if (session.powered) {
+            try {
+                device.powerOff();
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to power off scanner", e);
+            }
+        }
+        synchronized (this) {
+            if (current == session) {
+                current = null;
+            }
+        }
+        session.listener.onStopped(session.stopReason);
+    }
+}
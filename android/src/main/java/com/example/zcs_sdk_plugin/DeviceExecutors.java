@@ -0,0 +1,78 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * DeviceExecutors - one serial executor per hardware resource
+ *
+ * Printing, scanning and status queries used to share a single thread, so
+ * a status poll or a scanner stop waited behind a receipt that could take
+ * seconds. Each peripheral now gets its own serial executor: calls to the
+ * same hardware stay ordered, calls to different hardware never wait for
+ * each other. Status queries run on their own thread and never queue
+ * behind print jobs. Threads are named after their resource so they show
+ * up clearly in traces and ANR dumps. The PIN pad has a thread of its
+ * own as well, so PIN entry and MACing never depend on the printer.
+ */
+class DeviceExecutors {
+
+    /** Owns the Printer: append, start, completion wait, cutter. */
+    final ScheduledExecutorService printer;
+
+    /** CPU-only receipt layout, symbol generation and template compiling. */
+    final ExecutorService render;
+
+    /**
+     * Decodes printImage images. Kept off the render thread, which blocks
+     * while rendered receipts wait for the printer.
+     */
+    final ExecutorService image;
+
+    /** Owns the QR scanner and its standby timer. */
+    final ScheduledExecutorService scanner;
+
+    /** Cheap state queries that must not wait for a print job, and status polling. */
+    final ScheduledExecutorService status;
+
+    /** Owns the card readers: arming, cancelling and the search timeout. */
+    final ScheduledExecutorService card;
+
+    /** Runs EMV transactions, which block while the kernel waits for answers. */
+    final ExecutorService emv;
+
+    /** Owns the PIN pad: PIN entry, MAC and encryption. Shared with nothing else. */
+    final ScheduledExecutorService secure;
+
+    DeviceExecutors() {
+        printer = Executors.newSingleThreadScheduledExecutor(named("zcs-printer"));
+        render = Executors.newSingleThreadExecutor(named("zcs-render"));
+        image = Executors.newSingleThreadExecutor(named("zcs-image"));
+        scanner = Executors.newSingleThreadScheduledExecutor(named("zcs-scanner"));
+        status = Executors.newSingleThreadScheduledExecutor(named("zcs-status"));
+        card = Executors.newSingleThreadScheduledExecutor(named("zcs-card"));
+        emv = Executors.newSingleThreadExecutor(named("zcs-emv"));
+        secure = Executors.newSingleThreadScheduledExecutor(named("zcs-secure"));
+    }
+
+    void shutdown() {
+        printer.shutdown();
+        render.shutdown();
+        image.shutdown();
+        scanner.shutdown();
+        status.shutdown();
+        card.shutdown();
+        emv.shutdown();
+        secure.shutdown();
+    }
+
+    static ThreadFactory named(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeviceStateEvents - coalesced printer and scanner state transitions
+ *
+ * Tracks a handful of boolean device states (paper out, printer busy,
+ * scanner powered, scan active) and pushes only their transitions to a
+ * sink, so Flutter can listen instead of polling. Changes are batched: the
+ * first change after a quiet period is sent at once, further changes within
+ * the minimum interval are merged into one event carrying the latest
+ * values, and a state that flips back before the event goes out is dropped.
+ *
+ * Each event is a map with "changes" (only the keys that changed) and
+ * "state" (all tracked keys). A new listener first receives the full state
+ * with every key listed under "changes".
+ */
+class DeviceStateEvents {
+
+    static final String PAPER_OUT = "paperOut";
+    static final String PRINTER_BUSY = "printerBusy";
+    static final String SCANNER_POWERED = "scannerPowered";
+    static final String SCAN_ACTIVE = "scanActive";
+
+    static final long DEFAULT_MIN_INTERVAL_MS = 100;
+
+    /** Receives the events; called on the scheduler thread. */
+    interface Sink {
+        void emit(Map<String, Object> event);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final long minIntervalMs;
+
+    // Guarded by this
+    private final Map<String, Boolean> state = new LinkedHashMap<>();
+    private final Map<String, Boolean> emitted = new HashMap<>();
+    private Sink sink;
+    private ScheduledFuture<?> scheduledEmit;
+    private long lastEmitNanos;
+
+    DeviceStateEvents(ScheduledExecutorService scheduler) {
+        this(scheduler, DEFAULT_MIN_INTERVAL_MS);
+    }
+
+    DeviceStateEvents(ScheduledExecutorService scheduler, long minIntervalMs) {
+        this.scheduler = scheduler;
+        this.minIntervalMs = minIntervalMs;
+        state.put(PAPER_OUT, false);
+        state.put(PRINTER_BUSY, false);
+        state.put(SCANNER_POWERED, false);
+        state.put(SCAN_ACTIVE, false);
+        emitted.putAll(state);
+        lastEmitNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+    }
+
+    /** Attaches a listener and sends it the current state. Null detaches. */
+    synchronized void setSink(Sink sink) {
+        this.sink = sink;
+        if (sink != null) {
+            emitted.clear();
+            scheduleEmit();
+        }
+    }
+
+    synchronized void update(String key, boolean value) {
+        Boolean previous = state.put(key, value);
+        if (previous != null && previous == value) {
+            return;
+        }
+        if (sink != null) {
+            scheduleEmit();
+        }
+    }
+
+    synchronized boolean get(String key) {
+        Boolean value = state.get(key);
+        return value != null && value;
+    }
+
+    private void scheduleEmit() {
+        if (scheduledEmit != null) {
+            return;
+        }
+        long sinceLastMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastEmitNanos);
+        long delayMs = Math.max(0, minIntervalMs - sinceLastMs);
+        scheduledEmit = scheduler.schedule(this::emit, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void emit() {
+        Sink target;
+        Map<String, Object> event;
+        synchronized (this) {
+            scheduledEmit = null;
+            target = sink;
+            if (target == null) {
+                return;
+            }
+
+            Map<String, Object> changes = new HashMap<>();
+            for (Map.Entry<String, Boolean> entry : state.entrySet()) {
+                if (!entry.getValue().equals(emitted.get(entry.getKey()))) {
+                    changes.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            emitted.putAll(state);
+            lastEmitNanos = System.nanoTime();
+
+            event = new HashMap<>();
+            event.put("changes", changes);
+            event.put("state", new HashMap<String, Object>(state));
+        }
+        target.emit(event);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+
+/**
+ * Ditherer - reduces images to the 1-bit dots a thermal head can print
+ *
+ * Works a scanline at a time on ARGB int rows, rewriting each pixel as
+ * opaque black or white in place:
+ * - THRESHOLD: black at or below a luminance cut-off; right for text,
+ *   signatures and line-art logos.
+ * - BAYER: 8x8 ordered dither; stable patterns, no state between rows.
+ * - FLOYD_STEINBERG: error diffusion; best for photos.
+ *
+ * Luminance uses fixed-point weights and transparent pixels are blended onto
+ * white paper. Everything runs on int arithmetic over buffers owned by the
+ * instance (the error rows and, for bitmaps, one scanline), so nothing is
+ * allocated per pixel or per row. An instance is single-threaded; it may
+ * be reused for any number of images.
+ */
+class Ditherer {
+
+    enum Mode {
+        THRESHOLD, BAYER, FLOYD_STEINBERG;
+
+        /**
+         * Parses the channel name ("threshold", "bayer", "floydSteinberg").
+         * "none" gives null, leaving the image to the printer.
+         */
+        static Mode parse(String name, Mode fallback) {
+            if (name == null) {
+                return fallback;
+            }
+            switch (name.trim().toLowerCase()) {
+                case "none":
+                    return null;
+                case "threshold":
+                    return THRESHOLD;
+                case "bayer":
+                case "ordered":
+                    return BAYER;
+                case "floydsteinberg":
+                case "floyd-steinberg":
+                case "floyd_steinberg":
+                    return FLOYD_STEINBERG;
+                default:
+                    throw new IllegalArgumentException("Unknown dither mode: " + name);
+            }
+        }
+    }
+
+    static final int BLACK = 0xFF000000;
+    static final int WHITE = 0xFFFFFFFF;
+    static final int DEFAULT_THRESHOLD = 128;
+
+    // 8x8 Bayer matrix scaled to 0..255, centred on each step
+    private static final int[] BAYER_8X8 = bayer8x8();
+
+    private final Mode mode;
+    private final int threshold;
+
+    // Floyd-Steinberg error for this row and the next, one slot of margin each side
+    private int[] errors = new int[0];
+    private int[] nextErrors = new int[0];
+    private int[] scanline = new int[0];
+
+    Ditherer(Mode mode) {
+        this(mode, DEFAULT_THRESHOLD);
+    }
+
+    Ditherer(Mode mode, int threshold) {
+        this.mode = mode;
+        this.threshold = Math.max(0, Math.min(255, threshold));
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    /** Clears carried error; call before the first row of each image. */
+    void begin(int width) {
+        if (errors.length < width + 2) {
+            errors = new int[width + 2];
+            nextErrors = new int[width + 2];
+        } else {
+            Arrays.fill(errors, 0);
+            Arrays.fill(nextErrors, 0);
+        }
+    }
+
+    /** Dithers row y of an image, width pixels starting at offset. */
+    void ditherRow(int[] row, int offset, int width, int y) {
+        switch (mode) {
+            case THRESHOLD:
+                thresholdRow(row, offset, width);
+                break;
+            case BAYER:
+                bayerRow(row, offset, width, y);
+                break;
+            default:
+                floydSteinbergRow(row, offset, width);
+                break;
+        }
+    }
+
+    /**
+     * Scales the bitmap down to the head width when it is wider and returns
+     * a dithered RGB_565 copy. The source is left to the caller.
+     */
+    Bitmap apply(Bitmap source, int headWidth) {
+        Bitmap scaled = source;
+        if (headWidth > 0 && source.getWidth() > headWidth) {
+            int scaledHeight = Math.max(1, source.getHeight() * headWidth / source.getWidth());
+            scaled = Bitmap.createScaledBitmap(source, headWidth, scaledHeight, true);
+        }
+
+        int w = scaled.getWidth();
+        int h = scaled.getHeight();
+        if (scanline.length < w) {
+            scanline = new int[w];
+        }
+        // Rows are read with their alpha, so transparent areas come out as paper
+        Bitmap out = Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565);
+        begin(w);
+        for (int y = 0; y < h; y++) {
+            scaled.getPixels(scanline, 0, w, 0, y, w, 1);
+            ditherRow(scanline, 0, w, y);
+            out.setPixels(scanline, 0, w, 0, y, w, 1);
+        }
+        if (scaled != source) {
+            scaled.recycle();
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+    // Row kernels
+    // ---------------------------------------------------------------------
+
+    private void thresholdRow(int[] row, int offset, int width) {
+        int cut = threshold;
+        for (int i = offset, end = offset + width; i < end; i++) {
+            row[i] = luminance(row[i]) <= cut ? BLACK : WHITE;
+        }
+    }
+
+    private static void bayerRow(int[] row, int offset, int width, int y) {
+        int base = (y & 7) << 3;
+        for (int x = 0; x < width; x++) {
+            int i = offset + x;
+            row[i] = luminance(row[i]) < BAYER_8X8[base + (x & 7)] ? BLACK : WHITE;
+        }
+    }
+
+    private void floydSteinbergRow(int[] row, int offset, int width) {
+        int[] current = errors;
+        int[] next = nextErrors;
+        int cut = threshold;
+        for (int x = 0; x < width; x++) {
+            int i = offset + x;
+            // Errors are kept in sixteenths so the 7/3/5/1 split stays exact
+            int value = luminance(row[i]) + (current[x + 1] >> 4);
+            int error;
+            if (value < cut) {
+                row[i] = BLACK;
+                error = value;
+            } else {
+                row[i] = WHITE;
+                error = value - 255;
+            }
+            current[x + 2] += error * 7;
+            next[x] += error * 3;
+            next[x + 1] += error * 5;
+            next[x + 2] += error;
+        }
+        // The next row becomes current; the old one is cleared for reuse
+        Arrays.fill(current, 0, width + 2, 0);
+        errors = next;
+        nextErrors = current;
+    }
+
+    /** Rec. 601 luminance 0..255 in fixed point, blended onto white by alpha. */
+    static int luminance(int argb) {
+        int luma = (((argb >> 16) & 0xFF) * 77 + ((argb >> 8) & 0xFF) * 151 + (argb & 0xFF) * 28) >> 8;
+        int alpha = argb >>> 24;
+        if (alpha == 0xFF) {
+            return luma;
+        }
+        return (luma * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    private static int[] bayer8x8() {
+        int[] matrix = new int[64];
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                // Bit-interleave x ^ y (high) and y (low), reversed, for the
+                // classic recursive order: the first row is 0, 32, 8, 40, ...
+                int v = 0;
+                int xc = x ^ y;
+                int yc = y;
+                for (int bit = 0; bit < 3; bit++) {
+                    v = (v << 2) | (((xc >> bit) & 1) << 1) | ((yc >> bit) & 1);
+                }
+                matrix[(y << 3) + x] = (v * 256 + 128) / 64;
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,583 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import com.zcs.sdk.emv.EmvData;
+import com.zcs.sdk.emv.EmvResult;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * EmvEngine - runs EMV transactions against a kernel loaded once
+ *
+ * Terminal parameters, AIDs and CAPKs go into the kernel through
+ * configure() and stay resident; a transaction only fills the amount,
+ * date and sequence number into the template the kernel prepared at load
+ * time, so tapping a card never waits for the kernel to be reconfigured.
+ * configure() compares table checksums with what the kernel holds and
+ * reloads only the tables that changed (all of them when the terminal
+ * parameters change, since AIDs carry merchant data).
+ *
+ * That saving only holds within one process. A new engine knows nothing
+ * about the kernel, so its first configure() loads every table: the
+ * transaction templates are built in memory by loadTerminal(), which also
+ * runs kernelInit(), and the SDK gives no way to read back which AIDs and
+ * CAPKs the kernel still holds. Restoring the stored tables at startup
+ * therefore always costs one full load, done on the EMV executor before
+ * the first transaction.
+ *
+ * Sequence numbers run from 1 to MAX_SEQUENCE and wrap. With an
+ * EmvSequenceStore set, numbering continues from the last saved number and
+ * each number is saved before its transaction starts.
+ *
+ * The kernel runs a transaction as one blocking call on the EMV executor
+ * and asks for decisions through callbacks (application selection, PIN,
+ * online authorisation). Each question becomes an event with an id; the
+ * kernel thread waits until respond() delivers the answer for that id, the
+ * prompt times out, or the transaction is cancelled. Steps with an obvious
+ * answer (a single application, card number confirmation when not asked
+ * for) are answered without a round trip to Flutter.
+ *
+ * Field 55 and the receipt fields come from one packTags() call per
+ * transaction; Tlv walks that blob in place and copies the field 55
+ * elements into a buffer the engine keeps, so only the strings handed to
+ * Flutter are allocated.
+ */
+class EmvEngine {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_PROMPT_TIMEOUT_MS = 60_000;
+
+    // Data sent to the acquirer in ISO 8583 field 55
+    static final int[] FIELD_55_TAGS = {
+            0x9F26, 0x9F27, 0x9F10, 0x9F37, 0x9F36, 0x95, 0x9A, 0x9C, 0x9F02, 0x5F2A,
+            0x82, 0x9F1A, 0x9F03, 0x9F33, 0x9F34, 0x9F35, 0x9F1E, 0x84, 0x9F09, 0x9F41,
+            0x5F34,
+    };
+
+    // Printed on the receipt besides the field 55 data
+    static final int[] RECEIPT_TAGS = {0x4F, 0x50, 0x9B};
+
+    // Both lists, so a transaction needs a single packTags() call
+    private static final int[] PACKED_TAGS = Arrays.copyOf(FIELD_55_TAGS, FIELD_55_TAGS.length + RECEIPT_TAGS.length);
+
+    static {
+        System.arraycopy(RECEIPT_TAGS, 0, PACKED_TAGS, FIELD_55_TAGS.length, RECEIPT_TAGS.length);
+    }
+
+    // TransNo is six digits
+    static final int MAX_SEQUENCE = 999_999;
+
+    // ISO 8583 caps field 55 at 999 bytes
+    static final int FIELD_55_MAX = 999;
+
+    // Event types
+    static final String SELECT_APP = "selectApp";
+    static final String CONFIRM_CARD_NO = "confirmCardNo";
+    static final String INPUT_PIN = "inputPin";
+    static final String VERIFY_CERT = "verifyCert";
+    static final String ONLINE = "online";
+    static final String RESULT = "result";
+
+    // Outcomes reported with RESULT
+    static final String APPROVED = "approved";
+    static final String DECLINED = "declined";
+    static final String GO_ONLINE = "goOnline";
+    static final String CANCELLED = "cancelled";
+    static final String FAILED = "failed";
+
+    /** One transaction as the kernel needs it. */
+    static final class Transaction {
+        long amount;
+        long amountOther;
+        int transType;
+        boolean contactless;
+        boolean forceOnline;
+        boolean confirmCardNo;
+        int sequence;
+    }
+
+    /** The kernel decisions, called on the EMV executor during transact(). */
+    interface Callbacks {
+        /** Index of the chosen application, or a negative EmvResult code. */
+        int selectApp(String[] apps);
+
+        int confirmCardNo(String cardNo);
+
+        /** pinType is one of the EmvData PIN constants. */
+        int inputPin(int pinType);
+
+        int verifyCert(int type, String number);
+
+        int online();
+    }
+
+    /** The EMV kernel; only the EMV executor calls in. */
+    interface Kernel {
+        /** Initialises the kernel and prepares the transaction templates. */
+        void loadTerminal(Map<String, String> terminal) throws Exception;
+
+        /** Replaces the AID list; terminal supplies merchant data. */
+        void loadAids(List<EmvParameters.Aid> aids, Map<String, String> terminal) throws Exception;
+
+        /** Replaces the CAPK list. */
+        void loadCapks(List<EmvParameters.Capk> capks) throws Exception;
+
+        /**
+         * Runs a transaction to completion and returns the EmvResult code;
+         * outcome[0] receives the EmvData APPROVE_M/ONLINE_M/DECLINE_M flag.
+         */
+        int transact(Transaction transaction, Callbacks callbacks, byte[] outcome);
+
+        /** The given tags as one TLV blob; empty when none are present. */
+        byte[] packTags(int[] tags);
+
+        void setTag(int tag, byte[] value);
+
+        void setPinBlock(byte[] pinBlock);
+    }
+
+    /** Receives prompts and the result; called on the EMV executor. */
+    interface Listener {
+        void onEvent(Map<String, Object> event);
+    }
+
+    /** Completion of configure(); error is null on success. */
+    interface Done {
+        void onDone(Map<String, Object> summary, Exception error);
+    }
+
+    private static final class Prompt {
+        final int id;
+        final CountDownLatch answered = new CountDownLatch(1);
+        volatile Map<String, Object> answer;
+
+        Prompt(int id) {
+            this.id = id;
+        }
+    }
+
+    private final class Session implements Callbacks {
+        final Transaction transaction;
+        final Listener listener;
+        final long startNanos = System.nanoTime();
+        volatile boolean cancelled;
+
+        Session(Transaction transaction, Listener listener) {
+            this.transaction = transaction;
+            this.listener = listener;
+        }
+
+        @Override
+        public int selectApp(String[] apps) {
+            if (apps.length == 1) {
+                return 0;
+            }
+            Map<String, Object> prompt = new HashMap<>();
+            prompt.put("apps", new ArrayList<>(Arrays.asList(apps)));
+            Map<String, Object> answer = ask(this, SELECT_APP, prompt);
+            Object index = answer != null ? answer.get("index") : null;
+            if (!(index instanceof Number)) {
+                return EmvResult.EMV_USER_CANCEL;
+            }
+            return ((Number) index).intValue();
+        }
+
+        @Override
+        public int confirmCardNo(String cardNo) {
+            if (!transaction.confirmCardNo) {
+                return EmvResult.EMV_OK;
+            }
+            Map<String, Object> prompt = new HashMap<>();
+            prompt.put("cardNo", cardNo);
+            return confirmed(ask(this, CONFIRM_CARD_NO, prompt)) ? EmvResult.EMV_OK : EmvResult.EMV_USER_CANCEL;
+        }
+
+        @Override
+        public int inputPin(int pinType) {
+            Map<String, Object> prompt = new HashMap<>();
+            prompt.put("pinType", pinTypeName(pinType));
+            Map<String, Object> answer = ask(this, INPUT_PIN, prompt);
+            if (answer == null || Boolean.FALSE.equals(answer.get("confirmed"))) {
+                return EmvResult.EMV_USER_CANCEL;
+            }
+            Object pinBlock = answer.get("pinBlock");
+            if (pinBlock instanceof String) {
+                kernel.setPinBlock(Hex.decode((String) pinBlock));
+            }
+            // Bypass (no PIN entered) is the kernel's EMV_NO_PASSWORD
+            return Boolean.TRUE.equals(answer.get("bypass")) ? EmvResult.EMV_NO_PASSWORD : EmvResult.EMV_OK;
+        }
+
+        @Override
+        public int verifyCert(int type, String number) {
+            Map<String, Object> prompt = new HashMap<>();
+            prompt.put("certType", type);
+            prompt.put("certNo", number);
+            return confirmed(ask(this, VERIFY_CERT, prompt)) ? EmvResult.EMV_OK : EmvResult.EMV_USER_CANCEL;
+        }
+
+        @Override
+        public int online() {
+            Map<String, Object> prompt = new HashMap<>();
+            prompt.put("field55", field55(kernel.packTags(FIELD_55_TAGS)));
+            Map<String, Object> answer = ask(this, ONLINE, prompt);
+            if (answer == null || !Boolean.TRUE.equals(answer.get("connected"))) {
+                return EmvResult.EMV_ONLINE_FAILED;
+            }
+            // Host response data (8A, 91, scripts) goes back into the kernel,
+            // either as the host's TLV blob or tag by tag
+            try {
+                Object response = answer.get("responseTlv");
+                if (response instanceof String) {
+                    byte[] tlv = Hex.decode((String) response);
+                    tlvReader.reset(tlv);
+                    while (tlvReader.next()) {
+                        int offset = tlvReader.valueOffset();
+                        kernel.setTag(tlvReader.tag(), Arrays.copyOfRange(tlv, offset, offset + tlvReader.valueLength()));
+                    }
+                }
+                Object tags = answer.get("tags");
+                if (tags instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) tags).entrySet()) {
+                        int tag = Integer.parseInt(entry.getKey().toString(), 16);
+                        kernel.setTag(tag, Hex.decode(entry.getValue().toString()));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unreadable host response: " + e.getMessage());
+                return EmvResult.EMV_ONLINE_FAILED;
+            }
+            return EmvResult.EMV_OK;
+        }
+    }
+
+    private final Kernel kernel;
+    private final ExecutorService executor;
+    private final long promptTimeoutMs;
+    private final AtomicInteger promptIds = new AtomicInteger();
+    private final AtomicReference<Prompt> pending = new AtomicReference<>();
+    private final byte[] outcome = new byte[1];
+
+    // Only the EMV executor uses these
+    private final Tlv.Reader tlvReader = new Tlv.Reader();
+    private final Tlv.Writer tlvWriter = new Tlv.Writer();
+    private final byte[] field55 = new byte[FIELD_55_MAX];
+
+    // Guarded by this
+    private Session current;
+    private EmvParameters loaded;
+    private EmvParameterStore.Checksums loadedChecksums;
+    private int sequence;
+    private EmvSequenceStore sequenceStore;
+
+    EmvEngine(Kernel kernel, ExecutorService executor) {
+        this(kernel, executor, DEFAULT_PROMPT_TIMEOUT_MS);
+    }
+
+    EmvEngine(Kernel kernel, ExecutorService executor, long promptTimeoutMs) {
+        this.kernel = kernel;
+        this.executor = executor;
+        this.promptTimeoutMs = promptTimeoutMs;
+    }
+
+    /** Loads parameters into the kernel; queued behind a running transaction. */
+    void configure(EmvParameters params, Done done) {
+        executor.execute(() -> {
+            try {
+                EmvParameterStore.Checksums checksums = EmvParameterStore.checksums(params);
+                EmvParameterStore.Checksums previous;
+                synchronized (this) {
+                    // Null for a new engine, so the first load is always a full one
+                    previous = loadedChecksums;
+                    // Until the load completes the kernel state is unknown
+                    loadedChecksums = null;
+                }
+                List<String> reloaded = new ArrayList<>();
+                boolean terminalChanged = previous == null || previous.terminal != checksums.terminal;
+                if (terminalChanged) {
+                    kernel.loadTerminal(params.terminal);
+                    reloaded.add("terminal");
+                }
+                if (terminalChanged || previous.aids != checksums.aids) {
+                    kernel.loadAids(params.aids, params.terminal);
+                    reloaded.add("aids");
+                }
+                if (terminalChanged || previous.capks != checksums.capks) {
+                    kernel.loadCapks(params.capks);
+                    reloaded.add("capks");
+                }
+                synchronized (this) {
+                    loaded = params;
+                    loadedChecksums = checksums;
+                }
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("aids", params.aids.size());
+                summary.put("capks", params.capks.size());
+                summary.put("reloaded", reloaded);
+                done.onDone(summary, null);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load EMV parameters", e);
+                done.onDone(null, e);
+            }
+        });
+    }
+
+    /** Continues numbering after the store's last sequence and saves each one used. */
+    void setSequenceStore(EmvSequenceStore store) {
+        int last;
+        try {
+            last = store.load();
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable EMV sequence number", e);
+            last = 0;
+        }
+        synchronized (this) {
+            sequenceStore = store;
+            sequence = last >= 0 && last <= MAX_SEQUENCE ? last : 0;
+        }
+    }
+
+    synchronized boolean isConfigured() {
+        return loaded != null;
+    }
+
+    synchronized boolean isBusy() {
+        return current != null;
+    }
+
+    /**
+     * Starts a transaction on the card already in the reader. Returns false
+     * while another one runs; throws IllegalStateException before configure().
+     */
+    boolean start(Transaction transaction, Listener listener) {
+        Session session = new Session(transaction, listener);
+        synchronized (this) {
+            if (loaded == null) {
+                throw new IllegalStateException("EMV parameters not loaded");
+            }
+            if (current != null) {
+                return false;
+            }
+            sequence = sequence % MAX_SEQUENCE + 1;
+            transaction.sequence = sequence;
+            current = session;
+        }
+        executor.execute(() -> run(session));
+        return true;
+    }
+
+    /** Answers the prompt with this id; false when it is no longer waiting. */
+    boolean respond(int id, Map<String, Object> answer) {
+        Prompt prompt = pending.get();
+        if (prompt == null || prompt.id != id) {
+            return false;
+        }
+        prompt.answer = answer;
+        prompt.answered.countDown();
+        return true;
+    }
+
+    /** Cancels at the next prompt; a waiting prompt is answered at once. */
+    boolean cancel() {
+        Session session;
+        synchronized (this) {
+            session = current;
+        }
+        if (session == null) {
+            return false;
+        }
+        session.cancelled = true;
+        Prompt prompt = pending.get();
+        if (prompt != null) {
+            prompt.answered.countDown();
+        }
+        return true;
+    }
+
+    private void run(Session session) {
+        EmvSequenceStore store;
+        synchronized (this) {
+            store = sequenceStore;
+        }
+        if (store != null) {
+            try {
+                store.save(session.transaction.sequence);
+            } catch (IOException e) {
+                // The number is still unique for as long as this process runs
+                Log.w(TAG, "Failed to save EMV sequence number", e);
+            }
+        }
+
+        int code;
+        outcome[0] = EmvData.DECLINE_M;
+        try {
+            code = session.cancelled
+                    ? EmvResult.EMV_USER_CANCEL
+                    : kernel.transact(session.transaction, session, outcome);
+        } catch (Exception e) {
+            Log.e(TAG, "EMV transaction failed", e);
+            code = EmvResult.EMV_TERMINATE;
+        }
+        byte[] packed = null;
+        if (code == EmvResult.EMV_OK && !session.cancelled) {
+            packed = kernel.packTags(PACKED_TAGS);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("type", RESULT);
+        result.put("code", code);
+        result.put("sequence", session.transaction.sequence);
+        if (session.cancelled) {
+            result.put("outcome", CANCELLED);
+        } else if (code != EmvResult.EMV_OK) {
+            result.put("outcome", FAILED);
+        } else {
+            result.put("outcome", outcomeName(outcome[0]));
+            result.put("field55", field55(packed));
+            result.put("receipt", receipt(packed));
+        }
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.startNanos));
+
+        synchronized (this) {
+            current = null;
+        }
+        session.listener.onEvent(result);
+    }
+
+    /**
+     * The FIELD_55_TAGS elements of packed as hex, in the kernel's order.
+     * Malformed kernel data yields what was read before the fault.
+     */
+    private String field55(byte[] packed) {
+        int length;
+        try {
+            length = assembleField55(tlvReader.reset(packed), tlvWriter.reset(field55));
+        } catch (IllegalArgumentException | BufferOverflowException e) {
+            Log.w(TAG, "Field 55 truncated: " + e.getMessage());
+            length = tlvWriter.length();
+        }
+        return Hex.encode(field55, 0, length);
+    }
+
+    /** Copies the reader's FIELD_55_TAGS elements to the writer; returns the bytes written. */
+    static int assembleField55(Tlv.Reader reader, Tlv.Writer writer) {
+        while (reader.next()) {
+            if (contains(FIELD_55_TAGS, reader.tag())) {
+                writer.put(reader);
+            }
+        }
+        return writer.length();
+    }
+
+    /** Receipt fields found in packed; absent tags are left out. */
+    private Map<String, Object> receipt(byte[] packed) {
+        Map<String, Object> receipt = new HashMap<>();
+        try {
+            tlvReader.reset(packed);
+            while (tlvReader.next()) {
+                switch (tlvReader.tag()) {
+                    case 0x4F:
+                        receipt.put("aid", tlvReader.valueHex());
+                        break;
+                    case 0x84:
+                        // Dedicated file name; the AID when 4F is missing
+                        if (!receipt.containsKey("aid")) {
+                            receipt.put("aid", tlvReader.valueHex());
+                        }
+                        break;
+                    case 0x50:
+                        receipt.put("appLabel", new String(packed, tlvReader.valueOffset(), tlvReader.valueLength(),
+                                StandardCharsets.ISO_8859_1).trim());
+                        break;
+                    case 0x95:
+                        receipt.put("tvr", tlvReader.valueHex());
+                        break;
+                    case 0x9B:
+                        receipt.put("tsi", tlvReader.valueHex());
+                        break;
+                    case 0x9F26:
+                        receipt.put("cryptogram", tlvReader.valueHex());
+                        break;
+                    case 0x9F27:
+                        receipt.put("cid", tlvReader.valueHex());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Receipt tags truncated: " + e.getMessage());
+        }
+        return receipt;
+    }
+
+    private static boolean contains(int[] tags, int tag) {
+        for (int t : tags) {
+            if (t == tag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Sends a prompt and waits for its answer; null on timeout or cancel. */
+    private Map<String, Object> ask(Session session, String type, Map<String, Object> prompt) {
+        if (session.cancelled) {
+            return null;
+        }
+        Prompt waiting = new Prompt(promptIds.incrementAndGet());
+        pending.set(waiting);
+        prompt.put("type", type);
+        prompt.put("id", waiting.id);
+        session.listener.onEvent(prompt);
+        try {
+            if (!waiting.answered.await(promptTimeoutMs, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "EMV prompt " + type + " timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pending.compareAndSet(waiting, null);
+        return session.cancelled ? null : waiting.answer;
+    }
+
+    private static boolean confirmed(Map<String, Object> answer) {
+        return answer != null && Boolean.TRUE.equals(answer.get("confirmed"));
+    }
+
+    static String outcomeName(byte flag) {
+        switch (flag) {
+            case EmvData.APPROVE_M:
+                return APPROVED;
+            case EmvData.ONLINE_M:
+                return GO_ONLINE;
+            default:
+                return DECLINED;
+        }
+    }
+
+    static String pinTypeName(int pinType) {
+        switch (pinType) {
+            case EmvData.OFFLINE_PLAINTEXT_PIN:
+                return "offlinePlaintext";
+            case EmvData.OFFLINE_ENCIPHERED_PIN:
+                return "offlineEnciphered";
+            default:
+                return "online";
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.zcs_sdk_plugin;
+
+import com.zcs.sdk.emv.EmvApp;
+import com.zcs.sdk.emv.EmvCapk;
+import com.zcs.sdk.emv.EmvData;
+import com.zcs.sdk.emv.EmvHandler;
+import com.zcs.sdk.emv.EmvResult;
+import com.zcs.sdk.emv.EmvTermParam;
+import com.zcs.sdk.emv.EmvTransParam;
+import com.zcs.sdk.emv.OnEmvListener;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EmvKernel - EmvEngine.Kernel on top of the SDK EmvHandler
+ *
+ * loadTerminal() pushes the terminal parameters into EmvTermParam and
+ * kernelInit() and builds one EmvTransParam per interface (contact and
+ * contactless); loadAids() and loadCapks() replace their lists. A transaction
+ * then only sets amount, type, date, time and sequence number on the
+ * matching template before emvTrans()/qTrans(). The kernel callbacks are
+ * forwarded to the engine's Callbacks on the same thread.
+ */
+class EmvKernel implements EmvEngine.Kernel {
+
+    static final String DEFAULT_READER_TTQ = "26000080";
+
+    private final EmvHandler handler;
+
+    // Built by loadTerminal(); only the EMV executor touches them
+    private EmvTransParam contactTemplate;
+    private EmvTransParam contactlessTemplate;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyMMdd", Locale.US);
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HHmmss", Locale.US);
+    private final Date now = new Date();
+    private final byte[] ecTransFlag = new byte[1];
+    private final byte[] ecBalance = new byte[6];
+
+    EmvKernel(EmvHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void loadTerminal(Map<String, String> terminal) {
+        applyTerminal(terminal);
+        handler.kernelInit(new EmvTermParam());
+
+        contactTemplate = new EmvTransParam();
+        contactTemplate.setTransKernalType(EmvData.KERNAL_EMV_PBOC);
+        contactlessTemplate = new EmvTransParam();
+        contactlessTemplate.setTransKernalType(EmvData.KERNAL_CONTACTLESS_ENTRY_POINT);
+        contactlessTemplate.setReaderTTQ(value(terminal, EmvParameters.READER_TTQ, DEFAULT_READER_TTQ));
+    }
+
+    @Override
+    public void loadAids(List<EmvParameters.Aid> aids, Map<String, String> terminal) throws Exception {
+        handler.delAllApp();
+        for (EmvParameters.Aid aid : aids) {
+            int ret = handler.addApp(toEmvApp(aid, terminal));
+            if (ret != EmvResult.EMV_OK) {
+                throw new Exception("Failed to add AID " + aid.aid + ": " + ret);
+            }
+        }
+    }
+
+    @Override
+    public void loadCapks(List<EmvParameters.Capk> capks) throws Exception {
+        handler.delAllCapk();
+        for (EmvParameters.Capk capk : capks) {
+            int ret = handler.addCapk(toEmvCapk(capk));
+            if (ret != EmvResult.EMV_OK) {
+                throw new Exception("Failed to add CAPK " + capk.rid + "/" + capk.index + ": " + ret);
+            }
+        }
+    }
+
+    @Override
+    public int transact(EmvEngine.Transaction transaction, EmvEngine.Callbacks callbacks, byte[] outcome) {
+        EmvTransParam param = transaction.contactless ? contactlessTemplate : contactTemplate;
+        now.setTime(System.currentTimeMillis());
+        param.setAmountAuth(digits(transaction.amount, 12));
+        param.setAmountOther(digits(transaction.amountOther, 12));
+        param.setTransType((byte) transaction.transType);
+        param.setIsForceOnline((byte) (transaction.forceOnline ? 1 : 0));
+        param.setTransNo(digits(transaction.sequence, 6));
+        param.setTransDate(dateFormat.format(now));
+        param.setTransTime(timeFormat.format(now));
+
+        OnEmvListener listener = new OnEmvListener() {
+            @Override
+            public byte[] onExchangeApdu(byte[] apdu) {
+                // Only used with EmvTermParam.useCallBackApdu, which stays off
+                return null;
+            }
+
+            @Override
+            public int onSelApp(String[] apps) {
+                return callbacks.selectApp(apps);
+            }
+
+            @Override
+            public int onConfirmCardNo(String cardNo) {
+                return callbacks.confirmCardNo(cardNo);
+            }
+
+            @Override
+            public int onInputPIN(byte pinType) {
+                return callbacks.inputPin(pinType);
+            }
+
+            @Override
+            public int onCertVerify(int type, String number) {
+                return callbacks.verifyCert(type, number);
+            }
+
+            @Override
+            public int onlineProc() {
+                return callbacks.online();
+            }
+        };
+        if (transaction.contactless) {
+            return handler.qTrans(param, listener, ecTransFlag, ecBalance, outcome);
+        }
+        return handler.emvTrans(param, listener, ecTransFlag, ecBalance, outcome);
+    }
+
+    @Override
+    public byte[] packTags(int[] tags) {
+        byte[] tlv = handler.packageTlvList(tags);
+        return tlv != null ? tlv : new byte[0];
+    }
+
+    @Override
+    public void setTag(int tag, byte[] value) {
+        handler.setTlvData(tag, value);
+    }
+
+    @Override
+    public void setPinBlock(byte[] pinBlock) {
+        handler.setPinBlock(pinBlock);
+    }
+
+    private static void applyTerminal(Map<String, String> terminal) {
+        EmvTermParam.terminalCountry = value(terminal, EmvParameters.COUNTRY_CODE, EmvTermParam.terminalCountry);
+        EmvTermParam.tranCurrCode = value(terminal, EmvParameters.CURRENCY_CODE, EmvTermParam.tranCurrCode);
+        EmvTermParam.tranRefCurr = EmvTermParam.tranCurrCode;
+        String exponent = terminal.get(EmvParameters.CURRENCY_EXPONENT);
+        if (exponent != null) {
+            EmvTermParam.tranCurrExp = Byte.parseByte(exponent);
+            EmvTermParam.tranRefCurrExp = EmvTermParam.tranCurrExp;
+        }
+        String type = terminal.get(EmvParameters.TERMINAL_TYPE);
+        if (type != null) {
+            EmvTermParam.termType = (byte) Integer.parseInt(type, 16);
+        }
+        EmvTermParam.termCapa = value(terminal, EmvParameters.CAPABILITIES, EmvTermParam.termCapa);
+        EmvTermParam.addTermCapa = value(terminal, EmvParameters.ADDITIONAL_CAPABILITIES, EmvTermParam.addTermCapa);
+        EmvTermParam.merchantID = value(terminal, EmvParameters.MERCHANT_ID, EmvTermParam.merchantID);
+        EmvTermParam.merchantNameLocation = value(terminal, EmvParameters.MERCHANT_NAME, EmvTermParam.merchantNameLocation);
+        EmvTermParam.merchantCode = value(terminal, EmvParameters.MERCHANT_CATEGORY_CODE, EmvTermParam.merchantCode);
+        EmvTermParam.termID = value(terminal, EmvParameters.TERMINAL_ID, EmvTermParam.termID);
+        EmvTermParam.acquirerID = value(terminal, EmvParameters.ACQUIRER_ID, EmvTermParam.acquirerID);
+        EmvTermParam.ifd = value(terminal, EmvParameters.IFD_SERIAL, EmvTermParam.ifd);
+    }
+
+    private static EmvApp toEmvApp(EmvParameters.Aid aid, Map<String, String> terminal) {
+        EmvApp app = new EmvApp();
+        app.setAid(aid.aid);
+        // 0 selects on a partial AID match, 1 only on the full AID
+        app.setSelFlag((byte) (aid.partialMatch ? 0 : 1));
+        app.setTargetPer((byte) aid.targetPercent);
+        app.setMaxTargetPer((byte) aid.maxTargetPercent);
+        app.setFloorLimit((int) aid.floorLimit);
+        app.setThreshold((int) aid.threshold);
+        app.setTacDenial(aid.tacDenial);
+        app.setTacOnline(aid.tacOnline);
+        app.setTacDefault(aid.tacDefault);
+        app.setdDOL(aid.ddol);
+        app.settDOL(aid.tdol);
+        app.setVersion(aid.version);
+        app.setClTransLimit(digits(aid.contactlessTransLimit, 12));
+        app.setClOfflineLimit(digits(aid.contactlessFloorLimit, 12));
+        app.setClCVMLimit(digits(aid.contactlessCvmLimit, 12));
+        app.setOnLinePINFlag((byte) (aid.onlinePin ? 1 : 0));
+        app.setAcquierId(value(terminal, EmvParameters.ACQUIRER_ID, app.getAcquierId()));
+        app.setMerchId(value(terminal, EmvParameters.MERCHANT_ID, app.getMerchId()));
+        app.setMerName(value(terminal, EmvParameters.MERCHANT_NAME, app.getMerName()));
+        app.setMerchCateCode(value(terminal, EmvParameters.MERCHANT_CATEGORY_CODE, app.getMerchCateCode()));
+        app.setTermId(value(terminal, EmvParameters.TERMINAL_ID, app.getTermId()));
+        app.setTransCurrCode(value(terminal, EmvParameters.CURRENCY_CODE, app.getTransCurrCode()));
+        return app;
+    }
+
+    private static EmvCapk toEmvCapk(EmvParameters.Capk capk) {
+        EmvCapk key = new EmvCapk();
+        key.setRID(capk.rid);
+        key.setKeyID((byte) capk.index);
+        key.setHashIndicator((byte) capk.hashAlgorithm);
+        key.setCapkIndicator((byte) capk.keyAlgorithm);
+        key.setModul(capk.modulus);
+        key.setExponent(capk.exponent);
+        key.setExpDate(capk.expiry);
+        key.setCheckSum(capk.checksum);
+        return key;
+    }
+
+    private static String value(Map<String, String> terminal, String key, String fallback) {
+        String value = terminal.get(key);
+        return value != null ? value : fallback;
+    }
+
+    /** Zero-padded decimal, as the kernel takes amounts and counters. */
+    static String digits(long value, int width) {
+        char[] out = new char[width];
+        long rest = Math.max(0, value);
+        for (int i = width - 1; i >= 0; i--) {
+            out[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.zcs_sdk_plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * EmvParameterStore - EMV tables persisted in a compact binary file
+ *
+ * AIDs and CAPKs arrive from the acquirer now and then but are needed at
+ * every start. Parsing them from JSON and hex each time is slow, so they
+ * are kept in one versioned file under app storage and read back through a
+ * memory-mapped FileChannel.
+ *
+ * Layout (big-endian):
+ *   "ZE", u8 version, u8 reserved
+ *   u32 CRC32 and u32 length of the terminal, AID and CAPK sections
+ *   terminal: u16 count, then per entry str key, str value
+ *   AIDs:     u16 count, then per AID hex aid, u8 flags, u8 target%,
+ *             u8 max target%, i64 floor limit, i64 threshold, hex TAC
+ *             denial/online/default, hex DDOL, TDOL, version, i64
+ *             contactless trans/floor/CVM limits
+ *   CAPKs:    u16 count, then per key hex rid, u8 index, u8 hash
+ *             algorithm, u8 key algorithm, hex modulus, exponent, expiry,
+ *             checksum
+ * str is u16 length + UTF-8; hex is u16 length + the raw bytes.
+ *
+ * Each section's CRC doubles as its identity: the engine compares them to
+ * reload only the tables that changed since its last load, and save()
+ * skips the write when the file already holds the same tables. The stored
+ * checksums say what the file holds, not what the kernel holds, so they
+ * are not used to skip the full load at startup. Plain java.io/nio only, so it runs
+ * on a JVM with files alone.
+ */
+class EmvParameterStore {
+
+    static final String FILE_NAME = "emv_parameters.bin";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte MAGIC_0 = 'Z';
+    private static final byte MAGIC_1 = 'E';
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 3 * 8;
+
+    private static final int FLAG_PARTIAL_MATCH = 1;
+    private static final int FLAG_ONLINE_PIN = 2;
+
+    /** CRC32 of each encoded table; equal checksums mean equal tables. */
+    static final class Checksums {
+        final long terminal;
+        final long aids;
+        final long capks;
+
+        Checksums(long terminal, long aids, long capks) {
+            this.terminal = terminal;
+            this.aids = aids;
+            this.capks = capks;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Checksums)) {
+                return false;
+            }
+            Checksums that = (Checksums) other;
+            return terminal == that.terminal && aids == that.aids && capks == that.capks;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (terminal * 31 * 31 + aids * 31 + capks);
+        }
+    }
+
+    private final File file;
+
+    EmvParameterStore(File file) {
+        this.file = file;
+    }
+
+    static Checksums checksums(EmvParameters params) {
+        try {
+            return new Checksums(crc(encodeTerminal(params)), crc(encodeAids(params)), crc(encodeCapks(params)));
+        } catch (IOException e) {
+            // Writes to a byte array do not fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The stored tables, or null when nothing has been saved yet. */
+    EmvParameters load() throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Checksums in the file header without decoding the tables; null when absent. */
+    Checksums storedChecksums() throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            raf.getChannel().read(header, 0);
+            header.flip();
+            if (!readMagic(header)) {
+                return null;
+            }
+            long terminal = header.getInt() & 0xFFFFFFFFL;
+            header.getInt();
+            long aids = header.getInt() & 0xFFFFFFFFL;
+            header.getInt();
+            long capks = header.getInt() & 0xFFFFFFFFL;
+            return new Checksums(terminal, aids, capks);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes the tables unless the file already holds them. The file is
+     * replaced by rename, so a crash leaves the old or the new one.
+     * Returns true when it was written.
+     */
+    boolean save(EmvParameters params) throws IOException {
+        byte[] terminal = encodeTerminal(params);
+        byte[] aids = encodeAids(params);
+        byte[] capks = encodeCapks(params);
+        Checksums checksums = new Checksums(crc(terminal), crc(aids), crc(capks));
+        Checksums stored;
+        try {
+            stored = storedChecksums();
+        } catch (IOException e) {
+            // An older or damaged file is simply replaced
+            stored = null;
+        }
+        if (checksums.equals(stored)) {
+            return false;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC_0).put(MAGIC_1).put((byte) VERSION).put((byte) 0);
+        header.putInt((int) checksums.terminal).putInt(terminal.length);
+        header.putInt((int) checksums.aids).putInt(aids.length);
+        header.putInt((int) checksums.capks).putInt(capks.length);
+
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(header.array());
+            out.write(terminal);
+            out.write(aids);
+            out.write(capks);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to replace " + file);
+        }
+        return true;
+    }
+
+    void delete() {
+        file.delete();
+    }
+
+    // ---------------------------------------------------------------------
+    // Decoding
+    // ---------------------------------------------------------------------
+
+    static EmvParameters decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || !readMagic(buffer)) {
+            throw new IOException("Not an EMV parameter file");
+        }
+        long[] crcs = new long[3];
+        int[] lengths = new int[3];
+        for (int i = 0; i < 3; i++) {
+            crcs[i] = buffer.getInt() & 0xFFFFFFFFL;
+            lengths[i] = buffer.getInt();
+        }
+        if ((long) lengths[0] + lengths[1] + lengths[2] != buffer.remaining()) {
+            throw new IOException("EMV parameter file truncated");
+        }
+        ByteBuffer[] sections = new ByteBuffer[3];
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer section = buffer.slice();
+            section.limit(lengths[i]);
+            if (crc(section.duplicate()) != crcs[i]) {
+                throw new IOException("EMV parameter file checksum mismatch");
+            }
+            sections[i] = section;
+            buffer.position(buffer.position() + lengths[i]);
+        }
+
+        try {
+            return new EmvParameters(decodeTerminal(sections[0]), decodeAids(sections[1]),
+                    decodeCapks(sections[2]));
+        } catch (RuntimeException e) {
+            // A matching CRC with bad content means a format bug, not corruption
+            throw new IOException("Malformed EMV parameter file", e);
+        }
+    }
+
+    private static boolean readMagic(ByteBuffer buffer) throws IOException {
+        if (buffer.get() != MAGIC_0 || buffer.get() != MAGIC_1) {
+            return false;
+        }
+        int version = buffer.get() & 0xFF;
+        buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported EMV parameter file version " + version);
+        }
+        return true;
+    }
+
+    private static Map<String, String> decodeTerminal(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        Map<String, String> terminal = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            terminal.put(readString(in), readString(in));
+        }
+        return terminal;
+    }
+
+    private static List<EmvParameters.Aid> decodeAids(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        List<EmvParameters.Aid> aids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EmvParameters.Aid aid = new EmvParameters.Aid();
+            aid.aid = readHex(in);
+            int flags = in.get() & 0xFF;
+            aid.partialMatch = (flags & FLAG_PARTIAL_MATCH) != 0;
+            aid.onlinePin = (flags & FLAG_ONLINE_PIN) != 0;
+            aid.targetPercent = in.get() & 0xFF;
+            aid.maxTargetPercent = in.get() & 0xFF;
+            aid.floorLimit = in.getLong();
+            aid.threshold = in.getLong();
+            aid.tacDenial = readHex(in);
+            aid.tacOnline = readHex(in);
+            aid.tacDefault = readHex(in);
+            aid.ddol = readHex(in);
+            aid.tdol = readHex(in);
+            aid.version = readHex(in);
+            aid.contactlessTransLimit = in.getLong();
+            aid.contactlessFloorLimit = in.getLong();
+            aid.contactlessCvmLimit = in.getLong();
+            aids.add(aid);
+        }
+        return aids;
+    }
+
+    private static List<EmvParameters.Capk> decodeCapks(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        List<EmvParameters.Capk> capks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EmvParameters.Capk capk = new EmvParameters.Capk();
+            capk.rid = readHex(in);
+            capk.index = in.get() & 0xFF;
+            capk.hashAlgorithm = in.get() & 0xFF;
+            capk.keyAlgorithm = in.get() & 0xFF;
+            capk.modulus = readHex(in);
+            capk.exponent = readHex(in);
+            capk.expiry = readHex(in);
+            capk.checksum = readHex(in);
+            capks.add(capk);
+        }
+        return capks;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static String readHex(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return Hex.encode(bytes);
+    }
+
+    // ---------------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------------
+
+    private static byte[] encodeTerminal(EmvParameters params) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // The map is sorted, so equal terminals encode (and checksum) equally
+        out.writeShort(params.terminal.size());
+        for (Map.Entry<String, String> entry : params.terminal.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeAids(EmvParameters params) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(params.aids.size());
+        for (EmvParameters.Aid aid : params.aids) {
+            writeHex(out, aid.aid);
+            out.writeByte((aid.partialMatch ? FLAG_PARTIAL_MATCH : 0) | (aid.onlinePin ? FLAG_ONLINE_PIN : 0));
+            out.writeByte(aid.targetPercent);
+            out.writeByte(aid.maxTargetPercent);
+            out.writeLong(aid.floorLimit);
+            out.writeLong(aid.threshold);
+            writeHex(out, aid.tacDenial);
+            writeHex(out, aid.tacOnline);
+            writeHex(out, aid.tacDefault);
+            writeHex(out, aid.ddol);
+            writeHex(out, aid.tdol);
+            writeHex(out, aid.version);
+            out.writeLong(aid.contactlessTransLimit);
+            out.writeLong(aid.contactlessFloorLimit);
+            out.writeLong(aid.contactlessCvmLimit);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeCapks(EmvParameters params) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(params.capks.size());
+        for (EmvParameters.Capk capk : params.capks) {
+            writeHex(out, capk.rid);
+            out.writeByte(capk.index);
+            out.writeByte(capk.hashAlgorithm);
+            out.writeByte(capk.keyAlgorithm);
+            writeHex(out, capk.modulus);
+            writeHex(out, capk.exponent);
+            writeHex(out, capk.expiry);
+            writeHex(out, capk.checksum);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeHex(DataOutputStream out, String hex) throws IOException {
+        byte[] bytes = Hex.decode(hex != null ? hex : "");
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static long crc(ByteBuffer buffer) {
+        // CRC32.update(ByteBuffer) is API 26; read through a small array instead
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[4096];
+        while (buffer.hasRemaining()) {
+            int n = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EmvParameters - terminal parameters, AIDs and CAPKs for the EMV kernel
+ *
+ * Plain values parsed once from the channel maps, so the engine, the kernel
+ * adapter and tests can share them without touching the SDK beans (which
+ * need the device runtime to load). Hex fields stay hex strings as the
+ * acquirer delivers them; amounts are in minor units. Instances are
+ * immutable once built.
+ */
+final class EmvParameters {
+
+    // Terminal keys, applied to EmvTermParam by the kernel adapter
+    static final String COUNTRY_CODE = "countryCode";
+    static final String CURRENCY_CODE = "currencyCode";
+    static final String CURRENCY_EXPONENT = "currencyExponent";
+    static final String TERMINAL_TYPE = "terminalType";
+    static final String CAPABILITIES = "capabilities";
+    static final String ADDITIONAL_CAPABILITIES = "additionalCapabilities";
+    static final String MERCHANT_ID = "merchantId";
+    static final String MERCHANT_NAME = "merchantName";
+    static final String MERCHANT_CATEGORY_CODE = "merchantCategoryCode";
+    static final String TERMINAL_ID = "terminalId";
+    static final String ACQUIRER_ID = "acquirerId";
+    static final String IFD_SERIAL = "ifdSerial";
+    static final String READER_TTQ = "readerTtq";
+
+    /** One application the terminal accepts, keyed by its AID. */
+    static final class Aid {
+        String aid;
+        boolean partialMatch = true;
+        int targetPercent;
+        int maxTargetPercent;
+        long floorLimit;
+        long threshold;
+        String tacDenial = "0000000000";
+        String tacOnline = "0000000000";
+        String tacDefault = "0000000000";
+        String ddol = "";
+        String tdol = "";
+        String version = "";
+        long contactlessTransLimit;
+        long contactlessFloorLimit;
+        long contactlessCvmLimit;
+        boolean onlinePin = true;
+    }
+
+    /** One certification authority public key, keyed by RID and index. */
+    static final class Capk {
+        String rid;
+        int index;
+        int hashAlgorithm = 1;
+        int keyAlgorithm = 1;
+        String modulus;
+        String exponent = "03";
+        String expiry = "";
+        String checksum = "";
+    }
+
+    final Map<String, String> terminal;
+    final List<Aid> aids;
+    final List<Capk> capks;
+
+    EmvParameters(Map<String, String> terminal, List<Aid> aids, List<Capk> capks) {
+        this.terminal = Collections.unmodifiableMap(new TreeMap<>(terminal));
+        this.aids = Collections.unmodifiableList(new ArrayList<>(aids));
+        this.capks = Collections.unmodifiableList(new ArrayList<>(capks));
+    }
+
+    /**
+     * Builds parameters from channel maps; throws IllegalArgumentException
+     * naming the first entry that is missing its key fields.
+     */
+    static EmvParameters fromChannel(Map<String, Object> terminal,
+                                     List<Map<String, Object>> aids,
+                                     List<Map<String, Object>> capks) {
+        Map<String, String> terminalValues = new TreeMap<>();
+        if (terminal != null) {
+            for (Map.Entry<String, Object> entry : terminal.entrySet()) {
+                if (entry.getValue() != null) {
+                    terminalValues.put(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+        }
+
+        List<Aid> aidList = new ArrayList<>();
+        if (aids != null) {
+            for (Map<String, Object> map : aids) {
+                aidList.add(aid(map));
+            }
+        }
+        List<Capk> capkList = new ArrayList<>();
+        if (capks != null) {
+            for (Map<String, Object> map : capks) {
+                capkList.add(capk(map));
+            }
+        }
+        return new EmvParameters(terminalValues, aidList, capkList);
+    }
+
+    private static Aid aid(Map<String, Object> map) {
+        Aid aid = new Aid();
+        aid.aid = hexString(map, "aid", null);
+        if (aid.aid == null || aid.aid.isEmpty()) {
+            throw new IllegalArgumentException("AID entry without aid");
+        }
+        aid.partialMatch = bool(map, "partialMatch", aid.partialMatch);
+        aid.targetPercent = (int) number(map, "targetPercent", aid.targetPercent);
+        aid.maxTargetPercent = (int) number(map, "maxTargetPercent", aid.maxTargetPercent);
+        aid.floorLimit = number(map, "floorLimit", aid.floorLimit);
+        aid.threshold = number(map, "threshold", aid.threshold);
+        aid.tacDenial = hexString(map, "tacDenial", aid.tacDenial);
+        aid.tacOnline = hexString(map, "tacOnline", aid.tacOnline);
+        aid.tacDefault = hexString(map, "tacDefault", aid.tacDefault);
+        aid.ddol = hexString(map, "ddol", aid.ddol);
+        aid.tdol = hexString(map, "tdol", aid.tdol);
+        aid.version = hexString(map, "version", aid.version);
+        aid.contactlessTransLimit = number(map, "contactlessTransLimit", aid.contactlessTransLimit);
+        aid.contactlessFloorLimit = number(map, "contactlessFloorLimit", aid.contactlessFloorLimit);
+        aid.contactlessCvmLimit = number(map, "contactlessCvmLimit", aid.contactlessCvmLimit);
+        aid.onlinePin = bool(map, "onlinePin", aid.onlinePin);
+        return aid;
+    }
+
+    private static Capk capk(Map<String, Object> map) {
+        Capk capk = new Capk();
+        capk.rid = hexString(map, "rid", null);
+        capk.modulus = hexString(map, "modulus", null);
+        if (capk.rid == null || capk.modulus == null || !map.containsKey("index")) {
+            throw new IllegalArgumentException("CAPK entry needs rid, index and modulus: " + capk.rid);
+        }
+        capk.index = (int) number(map, "index", 0);
+        capk.hashAlgorithm = (int) number(map, "hashAlgorithm", capk.hashAlgorithm);
+        capk.keyAlgorithm = (int) number(map, "keyAlgorithm", capk.keyAlgorithm);
+        capk.exponent = hexString(map, "exponent", capk.exponent);
+        capk.expiry = hexString(map, "expiry", capk.expiry);
+        capk.checksum = hexString(map, "checksum", capk.checksum);
+        return capk;
+    }
+
+    private static String hexString(Map<String, Object> map, String key, String fallback) {
+        Object value = map.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        String hex = value.toString().replace(" ", "").toUpperCase();
+        // Validates the digits; the kernel is given the string
+        Hex.decode(hex);
+        return hex;
+    }
+
+    private static long number(Map<String, Object> map, String key, long fallback) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    private static boolean bool(Map<String, Object> map, String key, boolean fallback) {
+        Object value = map.get(key);
+        return value instanceof Boolean ? (Boolean) value : fallback;
+    }
+}
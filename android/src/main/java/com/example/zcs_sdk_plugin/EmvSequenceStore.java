@@ -0,0 +1,58 @@
+package com.example.zcs_sdk_plugin;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * EmvSequenceStore - the EMV transaction sequence counter across restarts
+ *
+ * The engine numbers transactions (TransNo, tag 9F41) and the acquirer
+ * expects the numbers not to repeat, so the counter cannot start over at
+ * 1 with every process. The last number used is kept as a single big-endian
+ * int in a file next to the EMV parameters. It is written before the
+ * transaction reaches the card, so a crash part way through does not hand
+ * the same number out again. The file is replaced by rename, like
+ * EmvParameterStore's.
+ */
+class EmvSequenceStore {
+
+    static final String FILE_NAME = "emv_sequence.bin";
+
+    private final File file;
+
+    EmvSequenceStore(File file) {
+        this.file = file;
+    }
+
+    /** The last sequence number saved, or 0 when there is none. */
+    int load() throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            return in.readInt();
+        } finally {
+            in.close();
+        }
+    }
+
+    void save(int sequence) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            new DataOutputStream(out).writeInt(sequence);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to replace " + file);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.zcs_sdk_plugin;
+
+import android.os.SystemClock;
+
+import com.zcs.sdk.HQrsanner;
+import com.zcs.sdk.SdkResult;
+
+import java.nio.charset.Charset;
+
+/**
+ * HQrScannerDevice - PosHardware.Scanner on top of the SDK HQrsanner
+ *
+ * The raw power sequence, which ScannerPower drives, and reads through the
+ * decoder API into receive buffers reused between decodes; only the
+ * scanner executor calls in. A decode that times out reads as no code,
+ * any other SDK error is thrown.
+ */
+class HQrScannerDevice implements PosHardware.Scanner {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MAX_CODE_LENGTH = 2048;
+
+    private final HQrsanner scanner;
+    private final byte[] buffer = new byte[MAX_CODE_LENGTH];
+    private final int[] length = new int[1];
+
+    HQrScannerDevice(HQrsanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public void powerOn() {
+        scanner.QRScanerCtrl((byte) 1);
+        scanner.QRScanerPowerCtrl((byte) 0);
+        SystemClock.sleep(10);
+        scanner.QRScanerPowerCtrl((byte) 1);
+        SystemClock.sleep(100);
+    }
+
+    @Override
+    public void activate(boolean on) {
+        scanner.QRScanerCtrl((byte) (on ? 1 : 0));
+    }
+
+    @Override
+    public void powerOff() {
+        scanner.QRScanerCtrl((byte) 0);
+        scanner.QRScanerPowerCtrl((byte) 0);
+    }
+
+    @Override
+    public String decode(int timeoutMs) throws Exception {
+        length[0] = 0;
+        int ret = scanner.QRstartDecdingAndReciveData(timeoutMs, buffer, length);
+        if (ret == SdkResult.SDK_TIMEOUT || (ret == SdkResult.SDK_OK && length[0] <= 0)) {
+            return null;
+        }
+        if (ret != SdkResult.SDK_OK) {
+            // A failing scanner answers at once; passing it off as "no code" would spin
+            throw new Exception("QR decode failed: " + ret);
+        }
+        return new String(buffer, 0, Math.min(length[0], buffer.length), UTF_8).trim();
+    }
+
+    @Override
+    public void stopDecoding() {
+        scanner.QRstopDecoding();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.zcs_sdk_plugin;
+
+/**
+ * Hex - upper-case hex strings for card data crossing the channel
+ *
+ * Card and EMV values (ATR, UID, TLV, keys) travel to Dart as hex text, as
+ * acquirer specs print them. Decoding accepts either case and ignores
+ * spaces, so values pasted from a spec work as-is.
+ */
+final class Hex {
+
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Hex() {
+    }
+
+    static String encode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return encode(bytes, 0, bytes.length);
+    }
+
+    static String encode(byte[] bytes, int offset, int length) {
+        char[] out = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i];
+            out[i * 2] = DIGITS[(b >> 4) & 0xF];
+            out[i * 2 + 1] = DIGITS[b & 0xF];
+        }
+        return new String(out);
+    }
+
+    /** Throws IllegalArgumentException on odd length or a non-hex digit. */
+    static byte[] decode(String hex) {
+        if (hex == null) {
+            return null;
+        }
+        String digits = hex.indexOf(' ') >= 0 ? hex.replace(" ", "") : hex;
+        if ((digits.length() & 1) != 0) {
+            throw new IllegalArgumentException("Odd number of hex digits: " + hex);
+        }
+        byte[] out = new byte[digits.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int high = Character.digit(digits.charAt(i * 2), 16);
+            int low = Character.digit(digits.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Not a hex string: " + hex);
+            }
+            out[i] = (byte) ((high << 4) | low);
+        }
+        return out;
+    }
+}
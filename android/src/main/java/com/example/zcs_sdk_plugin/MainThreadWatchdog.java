@@ -0,0 +1,143 @@
+package com.example.zcs_sdk_plugin;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MainThreadWatchdog - reports main-thread work that overruns a frame
+ *
+ * Hardware calls belong on the device executors; anything slow that still
+ * lands on the main thread shows up here. Method calls are timed by name,
+ * and so is every Runnable the plugin posts through handler(). Work that
+ * takes longer than the threshold is logged and kept in a short list of
+ * recent stalls.
+ *
+ * Off until the app turns it on. Only the plugin's own work is timed; the
+ * main Looper's message logging belongs to the app and is left alone.
+ */
+class MainThreadWatchdog {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    // One frame at 60 Hz
+    static final long DEFAULT_THRESHOLD_MS = 16;
+    static final int MAX_RECORDED_STALLS = 20;
+
+    private volatile boolean enabled;
+    private volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MS);
+
+    // Guarded by this
+    private final ArrayDeque<Map<String, Object>> recent = new ArrayDeque<>();
+    private long checked;
+    private long stalls;
+    private long worstNanos;
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    long getThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    void setThresholdMs(long thresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMs));
+    }
+
+    /** A Handler on the looper whose dispatched messages are timed while enabled. */
+    Handler handler(Looper looper) {
+        return new Handler(looper) {
+            @Override
+            public void dispatchMessage(Message msg) {
+                long started = begin();
+                super.dispatchMessage(msg);
+                if (started != 0) {
+                    end(describe(msg.getCallback(), msg.what), started);
+                }
+            }
+        };
+    }
+
+    /** Starts timing a piece of main-thread work; pass the result to end(). */
+    long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void end(String task, long startNanos) {
+        if (startNanos == 0 || !enabled) {
+            return;
+        }
+        record(task, System.nanoTime() - startNanos);
+    }
+
+    void record(String task, long durationNanos) {
+        long threshold = thresholdNanos;
+        synchronized (this) {
+            checked++;
+            if (durationNanos <= threshold) {
+                return;
+            }
+            stalls++;
+            worstNanos = Math.max(worstNanos, durationNanos);
+
+            Map<String, Object> stall = new HashMap<>();
+            stall.put("task", task);
+            stall.put("durationMs", TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            stall.put("timestamp", System.currentTimeMillis());
+            if (recent.size() == MAX_RECORDED_STALLS) {
+                recent.removeFirst();
+            }
+            recent.addLast(stall);
+        }
+        Log.w(TAG, "Main thread stalled " + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+                + " ms in " + task);
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("thresholdMs", getThresholdMs());
+        stats.put("checked", checked);
+        stats.put("stalls", stalls);
+        stats.put("worstMs", TimeUnit.NANOSECONDS.toMillis(worstNanos));
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Map<String, Object> stall : recent) {
+            list.add(new HashMap<>(stall));
+        }
+        stats.put("recent", list);
+        return stats;
+    }
+
+    synchronized void reset() {
+        recent.clear();
+        checked = 0;
+        stalls = 0;
+        worstNanos = 0;
+    }
+
+    // "ZcsSdkPlugin$$Lambda$12" for a posted lambda, "message 3" otherwise
+    static String describe(Runnable callback, int what) {
+        if (callback == null) {
+            return "message " + what;
+        }
+        String name = callback.getClass().getName();
+        int slash = name.indexOf('/');
+        if (slash >= 0) {
+            name = name.substring(0, slash);
+        }
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
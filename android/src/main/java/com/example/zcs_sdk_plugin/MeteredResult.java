@@ -0,0 +1,60 @@
+package com.example.zcs_sdk_plugin;
+
+import io.flutter.plugin.common.MethodChannel;
+
+import java.util.Map;
+
+/**
+ * MeteredResult - times a method call from dispatch to its answer
+ *
+ * Wraps the Result handed to onMethodCall so the latency recorded is what
+ * the Dart caller waits for, including executor queueing and hardware
+ * time, not just the main-thread dispatch. error() counts as an error, and
+ * so does a response map with success false. Only the first answer is
+ * recorded; notImplemented() is not recorded at all.
+ */
+class MeteredResult implements MethodChannel.Result {
+
+    private final MethodChannel.Result result;
+    private final Metrics.Histogram histogram;
+    private final long startNanos = System.nanoTime();
+    private boolean recorded;
+
+    MeteredResult(MethodChannel.Result result, Metrics.Histogram histogram) {
+        this.result = result;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void success(Object response) {
+        if (response instanceof Map && Boolean.FALSE.equals(((Map<?, ?>) response).get("success"))) {
+            finish(true);
+        } else {
+            finish(false);
+        }
+        result.success(response);
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+        finish(true);
+        result.error(errorCode, errorMessage, errorDetails);
+    }
+
+    @Override
+    public void notImplemented() {
+        result.notImplemented();
+    }
+
+    // Results are answered on the main thread, so no locking is needed
+    private void finish(boolean failed) {
+        if (recorded) {
+            return;
+        }
+        recorded = true;
+        histogram.record(System.nanoTime() - startNanos);
+        if (failed) {
+            histogram.error();
+        }
+    }
+}
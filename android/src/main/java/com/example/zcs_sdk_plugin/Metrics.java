@@ -0,0 +1,177 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics - latency histograms and error counters by operation name
+ *
+ * Each name gets a Histogram of fixed log-scale buckets: four per power of
+ * two of microseconds, so a bucket is at most a quarter wider than its
+ * lower bound and percentiles are exact to within that. Recording is one
+ * leading-zero count and a few atomic increments, with no locks and no
+ * allocation once the name exists, so it can sit on every method call and
+ * every hardware call. Percentiles are computed only when a snapshot is
+ * taken; they report the upper bound of the bucket holding the rank,
+ * capped at the largest value seen.
+ *
+ * A snapshot with reset hands back the counts and zeroes them, so
+ * consecutive snapshots cover consecutive periods. Values recorded while
+ * a snapshot is being taken land in one period or the next.
+ */
+class Metrics {
+
+    // Durations above 2^40 us (12 days) share the last bucket
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = 4 * (MAX_EXPONENT - 1) + 4;
+
+    /** Latencies plus error and timeout counts of one operation. */
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        void record(long durationNanos) {
+            long micros = Math.max(0, durationNanos / 1_000);
+            buckets.incrementAndGet(bucket(micros));
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+            long max;
+            do {
+                max = maxMicros.get();
+            } while (micros > max && !maxMicros.compareAndSet(max, micros));
+        }
+
+        void error() {
+            errors.incrementAndGet();
+        }
+
+        void timeout() {
+            timeouts.incrementAndGet();
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        Map<String, Object> snapshot(boolean reset) {
+            long[] counts = new long[BUCKET_COUNT];
+            long n = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = reset ? buckets.getAndSet(i, 0) : buckets.get(i);
+                n += counts[i];
+            }
+            long total = reset ? totalMicros.getAndSet(0) : totalMicros.get();
+            long max = reset ? maxMicros.getAndSet(0) : maxMicros.get();
+            long errorCount = reset ? errors.getAndSet(0) : errors.get();
+            long timeoutCount = reset ? timeouts.getAndSet(0) : timeouts.get();
+            if (reset) {
+                count.addAndGet(-n);
+            }
+
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("count", n);
+            snapshot.put("errors", errorCount);
+            snapshot.put("timeouts", timeoutCount);
+            snapshot.put("p50Ms", millis(percentile(counts, n, 0.50, max)));
+            snapshot.put("p95Ms", millis(percentile(counts, n, 0.95, max)));
+            snapshot.put("p99Ms", millis(percentile(counts, n, 0.99, max)));
+            snapshot.put("maxMs", millis(max));
+            snapshot.put("meanMs", n > 0 ? millis(total / n) : 0.0);
+            return snapshot;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final AtomicLong periodStartNanos = new AtomicLong(System.nanoTime());
+
+    /** The histogram for name, created on first use. */
+    Histogram get(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    /** Records the time since startNanos, a System.nanoTime() reading. */
+    void record(String name, long startNanos) {
+        get(name).record(System.nanoTime() - startNanos);
+    }
+
+    void error(String name) {
+        get(name).error();
+    }
+
+    void timeout(String name) {
+        get(name).timeout();
+    }
+
+    /** Every histogram by name, plus "periodMs" since the last reset. */
+    Map<String, Object> snapshot(boolean reset) {
+        Map<String, Object> operations = new HashMap<>();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            operations.put(entry.getKey(), entry.getValue().snapshot(reset));
+        }
+        long now = System.nanoTime();
+        long start = reset ? periodStartNanos.getAndSet(now) : periodStartNanos.get();
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("operations", operations);
+        snapshot.put("periodMs", TimeUnit.NANOSECONDS.toMillis(now - start));
+        return snapshot;
+    }
+
+    /** Bucket of a duration: exact below 4 us, then four per power of two. */
+    static int bucket(long micros) {
+        if (micros < 4) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - 2)) & 3;
+        return 4 * (exponent - 1) + sub;
+    }
+
+    /** Exclusive upper bound of a bucket in microseconds. */
+    static long upperBound(int bucket) {
+        if (bucket < 4) {
+            return bucket + 1;
+        }
+        int exponent = bucket / 4 + 1;
+        int sub = bucket % 4;
+        return (long) (4 + sub + 1) << (exponent - 2);
+    }
+
+    private static long percentile(long[] counts, long n, double p, long max) {
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
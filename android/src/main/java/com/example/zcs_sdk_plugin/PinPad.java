@@ -0,0 +1,369 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PinPad - PIN entry, MAC and data encryption on the secure executor
+ *
+ * PIN entry is asynchronous: start() arms the PIN pad and returns, and the
+ * PIN block (or why there is none) arrives later as one event. Only one
+ * entry runs at a time; it ends on the pad's result, cancel() or its own
+ * timeout, whichever comes first.
+ *
+ * MAC and encryption requests come in batches: run() takes any number of
+ * operations from one channel call and performs them back to back in a
+ * single executor task, so MACing a series of host messages costs one
+ * round trip instead of one per message. A failing operation reports its
+ * code and the batch carries on with the next.
+ *
+ * Every device call runs on the secure executor, which only this class
+ * uses, so neither PIN entry nor MACing waits behind a print job.
+ */
+class PinPad {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_TIMEOUT_MS = 60_000;
+    static final int DEFAULT_MIN_LENGTH = 4;
+    static final int DEFAULT_MAX_LENGTH = 12;
+    // Bounds one channel call; larger sets are split by the caller
+    static final int MAX_BATCH_SIZE = 512;
+
+    static final int MAC_LENGTH = 8;
+    // DES/3DES block; encrypted data is zero-padded to a multiple of it
+    static final int BLOCK_SIZE = 8;
+
+    // Outcomes of a PIN entry
+    static final String ENTERED = "entered";
+    static final String BYPASSED = "bypassed";
+    static final String CANCELLED = "cancelled";
+    static final String TIMEOUT = "timeout";
+    static final String ERROR = "error";
+
+    enum MacAlgorithm {
+        ECB, X9_9, X9_19, XOR;
+
+        /** Parses "ecb", "x9.9", "x9.19" and "xor". */
+        static MacAlgorithm parse(String name) {
+            if (name == null) {
+                return X9_19;
+            }
+            switch (name.trim().toLowerCase()) {
+                case "ecb":
+                    return ECB;
+                case "x9.9":
+                case "x99":
+                    return X9_9;
+                case "x9.19":
+                case "x919":
+                    return X9_19;
+                case "xor":
+                    return XOR;
+                default:
+                    throw new IllegalArgumentException("Unknown MAC algorithm: " + name);
+            }
+        }
+    }
+
+    enum KeyType {
+        PIN, MAC, DATA;
+
+        /** Parses "pin", "mac" and "data"; data keys when name is null. */
+        static KeyType parse(String name) {
+            if (name == null) {
+                return DATA;
+            }
+            switch (name.trim().toLowerCase()) {
+                case "pin":
+                    return PIN;
+                case "mac":
+                    return MAC;
+                case "data":
+                    return DATA;
+                default:
+                    throw new IllegalArgumentException("Unknown key type: " + name);
+            }
+        }
+    }
+
+    /** One PIN entry. */
+    static final class PinRequest {
+        int keyIndex;
+        String pan = "";
+        int minLength = DEFAULT_MIN_LENGTH;
+        int maxLength = DEFAULT_MAX_LENGTH;
+        long timeoutMs = DEFAULT_TIMEOUT_MS;
+        boolean offline;
+        boolean allowBypass;
+        // ISO 9564 format 0 (ANSI X9.8) unless set; format 3 is X3.92
+        boolean format3;
+    }
+
+    /** One MAC or encryption in a batch. */
+    static final class Operation {
+        static final String MAC = "mac";
+        static final String ENCRYPT = "encrypt";
+
+        final String type;
+        final int keyIndex;
+        final MacAlgorithm algorithm;
+        final KeyType keyType;
+        final byte[] data;
+
+        Operation(String type, int keyIndex, MacAlgorithm algorithm, KeyType keyType, byte[] data) {
+            this.type = type;
+            this.keyIndex = keyIndex;
+            this.algorithm = algorithm;
+            this.keyType = keyType;
+            this.data = data;
+        }
+
+        /**
+         * Reads {"op", "keyIndex", "algorithm" | "keyType", "data"}. Encryption
+         * only accepts the data key type.
+         */
+        static Operation fromChannel(Map<String, Object> map) {
+            Object op = map.get("op");
+            Object keyIndex = map.get("keyIndex");
+            Object data = map.get("data");
+            if (!(data instanceof byte[])) {
+                throw new IllegalArgumentException("Operation data must be bytes");
+            }
+            int index = keyIndex instanceof Number ? ((Number) keyIndex).intValue() : 0;
+            if (MAC.equals(op)) {
+                return new Operation(MAC, index, MacAlgorithm.parse((String) map.get("algorithm")), null, (byte[]) data);
+            }
+            if (ENCRYPT.equals(op)) {
+                // Data under the PIN or MAC key would let the caller forge PIN blocks and MACs
+                KeyType keyType = KeyType.parse((String) map.get("keyType"));
+                if (keyType != KeyType.DATA) {
+                    throw new IllegalArgumentException("Only the data key may encrypt data");
+                }
+                return new Operation(ENCRYPT, index, null, keyType, (byte[]) data);
+            }
+            throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    /** The PIN pad; only the secure executor calls in. */
+    interface Device {
+        /** Shows the PIN pad and returns; the callback may fire on any thread. */
+        void inputPin(PinRequest request, PinCallback callback) throws Exception;
+
+        void cancelPin();
+
+        /** MACs data into out (MAC_LENGTH bytes); returns an SdkResult code. */
+        int mac(int keyIndex, MacAlgorithm algorithm, byte[] data, byte[] out);
+
+        /** Encrypts data, a multiple of BLOCK_SIZE, into out; returns an SdkResult code. */
+        int encrypt(int keyIndex, KeyType keyType, byte[] data, byte[] out);
+    }
+
+    interface PinCallback {
+        void onPin(byte[] pinBlock);
+
+        void onError(int code);
+    }
+
+    /** Receives the outcome of a PIN entry. */
+    interface Listener {
+        void onEvent(Map<String, Object> event);
+    }
+
+    /** Receives the results of a batch, in operation order. */
+    interface BatchDone {
+        void onDone(List<Map<String, Object>> results);
+    }
+
+    private static final class Session {
+        final Listener listener;
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean finished = new AtomicBoolean();
+        volatile ScheduledFuture<?> timeout;
+
+        Session(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private final Device device;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private Session current;
+
+    PinPad(Device device, ScheduledExecutorService executor) {
+        this.device = device;
+        this.executor = executor;
+    }
+
+    /** Starts a PIN entry; returns false while another one is running. */
+    boolean start(PinRequest request, Listener listener) {
+        if (request.minLength < 0 || request.maxLength < request.minLength || request.maxLength > 12) {
+            throw new IllegalArgumentException("Invalid PIN length " + request.minLength + ".." + request.maxLength);
+        }
+        if (request.timeoutMs <= 0) {
+            request.timeoutMs = DEFAULT_TIMEOUT_MS;
+        }
+        Session session = new Session(listener);
+        synchronized (this) {
+            if (current != null) {
+                return false;
+            }
+            current = session;
+        }
+        executor.execute(() -> arm(session, request));
+        // The pad's own timeout should fire first; this one covers a pad that never answers
+        session.timeout = executor.schedule(() -> finish(session, TIMEOUT, 0, null),
+                request.timeoutMs + 1_000, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /** Cancels the running PIN entry; its listener is told CANCELLED. */
+    boolean cancel() {
+        Session session;
+        synchronized (this) {
+            session = current;
+        }
+        return session != null && finish(session, CANCELLED, 0, null);
+    }
+
+    synchronized boolean isEntering() {
+        return current != null;
+    }
+
+    /** Runs the operations in one executor task and reports each result. */
+    void run(List<Operation> operations, BatchDone done) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " operations per batch");
+        }
+        executor.execute(() -> done.onDone(runNow(operations)));
+    }
+
+    private List<Map<String, Object>> runNow(List<Operation> operations) {
+        List<Map<String, Object>> results = new ArrayList<>(operations.size());
+        byte[] mac = new byte[MAC_LENGTH];
+        for (Operation operation : operations) {
+            Map<String, Object> result = new HashMap<>();
+            int code;
+            byte[] output;
+            try {
+                if (Operation.MAC.equals(operation.type)) {
+                    code = device.mac(operation.keyIndex, operation.algorithm, operation.data, mac);
+                    output = mac.clone();
+                } else {
+                    byte[] padded = pad(operation.data);
+                    output = new byte[padded.length];
+                    code = device.encrypt(operation.keyIndex, operation.keyType, padded, output);
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Secure operation failed", e);
+                code = SdkResult.SDK_PAD_ERR_EXCEPTION;
+                output = null;
+            }
+            result.put("success", code == SdkResult.SDK_OK);
+            result.put("code", code);
+            if (code == SdkResult.SDK_OK) {
+                result.put("data", output);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /** Zero-pads to a multiple of BLOCK_SIZE (ISO 9797-1 method 1); data itself when aligned. */
+    static byte[] pad(byte[] data) {
+        int remainder = data.length % BLOCK_SIZE;
+        if (remainder == 0 && data.length > 0) {
+            return data;
+        }
+        byte[] padded = new byte[data.length + BLOCK_SIZE - remainder];
+        System.arraycopy(data, 0, padded, 0, data.length);
+        return padded;
+    }
+
+    private void arm(Session session, PinRequest request) {
+        if (session.finished.get()) {
+            return;
+        }
+        try {
+            device.inputPin(request, new PinCallback() {
+                @Override
+                public void onPin(byte[] pinBlock) {
+                    finish(session, ENTERED, 0, pinBlock);
+                }
+
+                @Override
+                public void onError(int code) {
+                    finish(session, outcome(code), code, null);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "PIN entry failed to start", e);
+            finish(session, ERROR, SdkResult.SDK_PAD_ERR_EXCEPTION, null);
+        }
+    }
+
+    static String outcome(int code) {
+        switch (code) {
+            case SdkResult.SDK_PAD_ERR_NOPIN:
+                return BYPASSED;
+            case SdkResult.SDK_PAD_ERR_CANCEL:
+                return CANCELLED;
+            case SdkResult.SDK_PAD_ERR_TIMEOUT:
+                return TIMEOUT;
+            default:
+                return ERROR;
+        }
+    }
+
+    /** Ends the session once; later outcomes of the same session are dropped. */
+    private boolean finish(Session session, String outcome, int code, byte[] pinBlock) {
+        if (!session.finished.compareAndSet(false, true)) {
+            return false;
+        }
+        ScheduledFuture<?> timeout = session.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        synchronized (this) {
+            if (current == session) {
+                current = null;
+            }
+        }
+        if (!ENTERED.equals(outcome) && !BYPASSED.equals(outcome)) {
+            // Takes the pad down when we, not the pad, ended the entry
+            executor.execute(() -> {
+                try {
+                    device.cancelPin();
+                } catch (Exception e) {
+                    Log.w(TAG, "Failed to cancel PIN entry", e);
+                }
+            });
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "pin");
+        event.put("outcome", outcome);
+        if (code != 0) {
+            event.put("code", code);
+        }
+        if (pinBlock != null) {
+            event.put("pinBlock", Hex.encode(pinBlock));
+        }
+        event.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.startNanos));
+        session.listener.onEvent(event);
+        return true;
+    }
+}
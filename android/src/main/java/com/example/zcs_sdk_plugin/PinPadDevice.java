@@ -0,0 +1,91 @@
+package com.example.zcs_sdk_plugin;
+
+import android.content.Context;
+
+import com.zcs.sdk.pin.PinAlgorithmMode;
+import com.zcs.sdk.pin.PinMacTypeEnum;
+import com.zcs.sdk.pin.PinWorkKeyTypeEnum;
+import com.zcs.sdk.pin.pinpad.PinPadManager;
+
+/**
+ * PinPadDevice - PinPad.Device on top of the SDK PinPadManager
+ *
+ * PIN entry uses the SDK's own secure keyboard, which shows itself and
+ * reports the PIN block (online) or the verification result (offline)
+ * through OnPinPadInputListener. MAC and encryption map the plugin's
+ * algorithm and key names onto PinMacTypeEnum and PinWorkKeyTypeEnum.
+ */
+class PinPadDevice implements PinPad.Device {
+
+    private final PinPadManager manager;
+    private final Context context;
+
+    PinPadDevice(PinPadManager manager, Context context) {
+        this.manager = manager;
+        this.context = context;
+    }
+
+    @Override
+    public void inputPin(PinPad.PinRequest request, PinPad.PinCallback callback) {
+        PinPadManager.OnPinPadInputListener listener = new PinPadManager.OnPinPadInputListener() {
+            @Override
+            public void onSuccess(byte[] pinBlock) {
+                callback.onPin(pinBlock != null ? pinBlock : new byte[0]);
+            }
+
+            @Override
+            public void onError(int code) {
+                callback.onError(code);
+            }
+        };
+        // The pad takes its timeout in seconds
+        int timeoutSeconds = (int) Math.max(1, request.timeoutMs / 1_000);
+        if (request.offline) {
+            manager.inputOfflinePin(context, (byte) request.minLength, (byte) request.maxLength,
+                    timeoutSeconds, request.allowBypass, listener);
+        } else {
+            manager.inputOnlinePin(context, (byte) request.minLength, (byte) request.maxLength,
+                    timeoutSeconds, request.allowBypass, request.pan, (byte) request.keyIndex,
+                    request.format3 ? PinAlgorithmMode.ANSI_X_3_92 : PinAlgorithmMode.ANSI_X_9_8, listener);
+        }
+    }
+
+    @Override
+    public void cancelPin() {
+        manager.cancelInputPin();
+    }
+
+    @Override
+    public int mac(int keyIndex, PinPad.MacAlgorithm algorithm, byte[] data, byte[] out) {
+        return manager.pinPadMac(keyIndex, macType(algorithm), data, data.length, out);
+    }
+
+    @Override
+    public int encrypt(int keyIndex, PinPad.KeyType keyType, byte[] data, byte[] out) {
+        return manager.pinPadEncryptData(keyIndex, workKeyType(keyType), data, data.length, out);
+    }
+
+    static PinMacTypeEnum macType(PinPad.MacAlgorithm algorithm) {
+        switch (algorithm) {
+            case ECB:
+                return PinMacTypeEnum.ECB;
+            case X9_9:
+                return PinMacTypeEnum.ANSI_X_9_9;
+            case XOR:
+                return PinMacTypeEnum.XOR;
+            default:
+                return PinMacTypeEnum.ANSI_X_9_19;
+        }
+    }
+
+    static PinWorkKeyTypeEnum workKeyType(PinPad.KeyType keyType) {
+        switch (keyType) {
+            case PIN:
+                return PinWorkKeyTypeEnum.PIN_KEY;
+            case MAC:
+                return PinWorkKeyTypeEnum.MAC_KEY;
+            default:
+                return PinWorkKeyTypeEnum.TDKEY;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.text.Layout;
+
+import com.zcs.sdk.print.PrnStrFormat;
+
+/**
+ * PosHardware - the printer, printer status and QR scanner behind the plugin
+ *
+ * The plugin reaches this hardware only through these interfaces. On a
+ * terminal they are backed by the SDK (SdkHardware); tests back them with
+ * an in-memory simulator, so the queueing, completion polling, status
+ * caching and scanner power policy can run under realistic timing on a
+ * machine without the device.
+ *
+ * Status codes and return values are the SDK's (SdkResult). Calls are made
+ * from the serial executor that owns the resource, never concurrently.
+ */
+interface PosHardware {
+
+    /** The print buffer and print engine. */
+    interface Printer {
+        boolean hasCutter();
+
+        boolean is80mm();
+
+        void appendText(String text, PrnStrFormat format);
+
+        void appendBitmap(Bitmap bitmap, Layout.Alignment alignment);
+
+        /** Prints and clears the buffer; SDK_OK once printing has started. */
+        int start();
+
+        int cut();
+    }
+
+    /** The printer's live status, SDK_OK when idle with paper. */
+    interface Status {
+        int getPrinterStatus();
+    }
+
+    /** The QR scanner: power and decoder switches plus reading codes. */
+    interface Scanner extends ScannerPower.Switch {
+        /**
+         * Waits up to timeoutMs for a code; null when nothing was read.
+         * Throws when the scanner reports an error.
+         */
+        String decode(int timeoutMs) throws Exception;
+
+        /** Ends a decode in progress. */
+        void stopDecoding();
+    }
+
+    Printer printer();
+
+    Status status();
+
+    /** The scanner, or null on terminals without one. */
+    Scanner scanner();
+}
@@ -0,0 +1,64 @@
+package com.example.zcs_sdk_plugin;
+
+import com.zcs.sdk.SdkResult;
+
+/**
+ * PrintCompletionWaiter - detects the end of a print job from printer status
+ *
+ * After setPrintStart() the printer reports SDK_PRN_STATUS_PRINTING until the
+ * paper has been fed out. Instead of sleeping for a fixed time the waiter
+ * polls getPrinterStatus() with a backoff that starts short and doubles up to
+ * a ceiling, and gives up once the configured upper bound has passed.
+ */
+class PrintCompletionWaiter {
+
+    static final long DEFAULT_TIMEOUT_MS = 5000;
+    static final long DEFAULT_INITIAL_BACKOFF_MS = 10;
+    static final long DEFAULT_MAX_BACKOFF_MS = 160;
+
+    private volatile long timeoutMs = DEFAULT_TIMEOUT_MS;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    PrintCompletionWaiter() {
+        this(DEFAULT_INITIAL_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS);
+    }
+
+    PrintCompletionWaiter(long initialBackoffMs, long maxBackoffMs) {
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = Math.max(0, timeoutMs);
+    }
+
+    long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Blocks until the printer stops reporting SDK_PRN_STATUS_PRINTING or the
+     * timeout passes. Returns the last status read, so a job that is still
+     * running when the bound is hit comes back as SDK_PRN_STATUS_PRINTING.
+     */
+    int await(PrintJobQueue.Target printer) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        long backoff = initialBackoffMs;
+
+        while (true) {
+            Thread.sleep(backoff);
+            int status = printer.getPrinterStatus();
+            if (status != SdkResult.SDK_PRN_STATUS_PRINTING) {
+                return status;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return status;
+            }
+            long remainingMs = (remainingNanos + 999_999L) / 1_000_000L;
+            backoff = Math.min(Math.min(backoff * 2, maxBackoffMs), remainingMs);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PrintImageLoader - decodes logos and signatures for printing
+ *
+ * Images arrive as the raw encoded bytes from a Uint8List or as a file
+ * path, never as base64. File contents are read into a buffer kept between
+ * calls and decoded from there, and the decoder's scratch storage is reused
+ * as well.
+ *
+ * Decoding reads the bounds first and picks the largest power-of-two
+ * inSampleSize that still leaves the image at least as wide as the paper,
+ * so a phone photo is never decoded at full resolution. The decoder writes
+ * into a pooled bitmap (inBitmap), the result is scaled to the head width
+ * on another pooled bitmap and optionally dithered to 1-bit with a Ditherer
+ * kept per mode; the intermediates go back to the pool.
+ *
+ * Finished bitmaps are cached by a digest of the encoded bytes plus width
+ * and dither mode, so the logo printed on every receipt is decoded once.
+ * Returned bitmaps are shared: callers must not recycle or modify them.
+ * Receipt rendering and printImage decode from different executors, so
+ * decoding is serialized on the loader. stats() may be called from any
+ * thread.
+ */
+class PrintImageLoader {
+
+    static final long DEFAULT_CACHE_BYTES = 2L * 1024 * 1024;
+
+    private static final int TEMP_STORAGE_SIZE = 16 * 1024;
+    private static final int INITIAL_READ_BUFFER_SIZE = 64 * 1024;
+
+    // Larger files are not logos; refuse them rather than grow the buffer
+    static final int MAX_FILE_SIZE = 4 * 1024 * 1024;
+
+    /** The bitmap steps of a load; BitmapFactory, Canvas and Ditherer on the device. */
+    interface Codec {
+        /** Decodes at a sample size that keeps the image at least maxWidth wide. */
+        Bitmap decode(byte[] data, int length, int maxWidth);
+
+        /** A new bitmap holding source scaled to width. */
+        Bitmap scale(Bitmap source, int width);
+
+        /** A new bitmap holding source dithered to black and white. */
+        Bitmap dither(Bitmap source, Ditherer.Mode mode);
+    }
+
+    private byte[] readBuffer = new byte[INITIAL_READ_BUFFER_SIZE];
+    private final MessageDigest digest;
+
+    private final BitmapPool pool;
+    private final Codec codec;
+    private final BoundedLruCache<String, Bitmap> cache;
+
+    PrintImageLoader() {
+        this(new BitmapPool(), DEFAULT_CACHE_BYTES);
+    }
+
+    PrintImageLoader(BitmapPool pool, long cacheBytes) {
+        this(pool, cacheBytes, new AndroidCodec(pool));
+    }
+
+    PrintImageLoader(BitmapPool pool, long cacheBytes, Codec codec) {
+        this.pool = pool;
+        this.codec = codec;
+        this.cache = new BoundedLruCache<>(cacheBytes, bitmap -> (long) bitmap.getAllocationByteCount());
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android release ships SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Decodes encoded image bytes (PNG, JPEG, BMP, ...); a null mode skips dithering. */
+    synchronized Bitmap decode(byte[] data, int maxWidth, Ditherer.Mode dither) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Image data cannot be empty");
+        }
+        return load(data, data.length, maxWidth, dither);
+    }
+
+    /** Reads and decodes an image file. */
+    synchronized Bitmap decodeFile(String path, int maxWidth, Ditherer.Mode dither) throws IOException {
+        File file = new File(path);
+        long size = file.length();
+        if (!file.isFile() || size == 0) {
+            throw new IllegalArgumentException("Image file not found: " + path);
+        }
+        if (size > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("Image file too large: " + size + " bytes");
+        }
+
+        int length = (int) size;
+        if (readBuffer.length < length) {
+            readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < length) {
+                int n = in.read(readBuffer, read, length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            length = read;
+        } finally {
+            in.close();
+        }
+        return load(readBuffer, length, maxWidth, dither);
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cache", cache.stats());
+        stats.put("pool", pool.stats());
+        return stats;
+    }
+
+    void resetStats() {
+        cache.resetStats();
+        pool.resetStats();
+    }
+
+    /** Drops cached images; bitmaps handed out earlier stay valid. */
+    synchronized void clear() {
+        cache.clear();
+        pool.clear();
+    }
+
+    private Bitmap load(byte[] data, int length, int maxWidth, Ditherer.Mode dither) {
+        String key = key(data, length, maxWidth, dither);
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Bitmap decoded = codec.decode(data, length, maxWidth);
+        Bitmap fitted = decoded;
+        if (maxWidth > 0 && decoded.getWidth() > maxWidth) {
+            fitted = codec.scale(decoded, maxWidth);
+            pool.put(decoded);
+        }
+        Bitmap printable = fitted;
+        if (dither != null) {
+            printable = codec.dither(fitted, dither);
+            pool.put(fitted);
+        }
+        cache.put(key, printable);
+        return printable;
+    }
+
+    /** Largest power of two that keeps the decoded width at or above maxWidth. */
+    static int sampleSize(int imageWidth, int maxWidth) {
+        int sampleSize = 1;
+        if (maxWidth <= 0) {
+            return sampleSize;
+        }
+        while (imageWidth / (sampleSize * 2) >= maxWidth) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private String key(byte[] data, int length, int maxWidth, Ditherer.Mode dither) {
+        digest.reset();
+        digest.update(data, 0, length);
+        byte[] hash = digest.digest();
+        StringBuilder key = new StringBuilder(hash.length * 2 + 24);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        key.append(':').append(length).append(':').append(maxWidth).append(':').append(dither);
+        return key.toString();
+    }
+
+    // Decoder scratch, scaling paint and one Ditherer per mode, reused between loads
+    private static final class AndroidCodec implements Codec {
+        private final BitmapPool pool;
+        private final byte[] tempStorage = new byte[TEMP_STORAGE_SIZE];
+        private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        private final Map<Ditherer.Mode, Ditherer> ditherers = new EnumMap<>(Ditherer.Mode.class);
+
+        AndroidCodec(BitmapPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Bitmap decode(byte[] data, int length, int maxWidth) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(data, 0, length, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                throw new IllegalArgumentException("Unsupported image data");
+            }
+
+            int sampleSize = sampleSize(options.outWidth, maxWidth);
+            int width = (options.outWidth + sampleSize - 1) / sampleSize;
+            int height = (options.outHeight + sampleSize - 1) / sampleSize;
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSize;
+            // The print head is one bit per dot; 565 halves the memory of ARGB
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+            options.inTempStorage = tempStorage;
+            options.inMutable = true;
+            options.inBitmap = pool.getForDecode(width, height);
+
+            Bitmap decoded;
+            try {
+                decoded = BitmapFactory.decodeByteArray(data, 0, length, options);
+            } catch (IllegalArgumentException e) {
+                // The decoder refused the pooled bitmap (e.g. an unsupported format); decode fresh
+                pool.put(options.inBitmap);
+                options.inBitmap = null;
+                decoded = BitmapFactory.decodeByteArray(data, 0, length, options);
+            }
+            if (decoded == null) {
+                pool.put(options.inBitmap);
+                throw new IllegalArgumentException("Unsupported image data");
+            }
+            return decoded;
+        }
+
+        @Override
+        public Bitmap scale(Bitmap source, int width) {
+            int height = Math.max(1, source.getHeight() * width / source.getWidth());
+            Bitmap scaled = pool.get(width, height, Bitmap.Config.RGB_565);
+            // Transparent areas land on white, as they would on paper
+            scaled.eraseColor(Color.WHITE);
+            new Canvas(scaled).drawBitmap(source, null, new Rect(0, 0, width, height), scalePaint);
+            return scaled;
+        }
+
+        @Override
+        public Bitmap dither(Bitmap source, Ditherer.Mode mode) {
+            Ditherer ditherer = ditherers.get(mode);
+            if (ditherer == null) {
+                ditherer = new Ditherer(mode);
+                ditherers.put(mode, ditherer);
+            }
+            return ditherer.apply(source, 0);
+        }
+    }
+}
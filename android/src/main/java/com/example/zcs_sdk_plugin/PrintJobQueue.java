@@ -0,0 +1,312 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrintJobQueue - coalesces consecutive print calls into one printer start
+ *
+ * Every fragment (text, QR code, barcode) submitted within the coalescing
+ * window is appended to the printer buffer and started with a single
+ * setPrintStart() call, so a ticket built from several calls only pays one
+ * start/feed cycle. The window can be cut short with an explicit flush.
+ * Callbacks fire once the printer reports the batch as finished.
+ *
+ * All printer access happens on the executor passed in, which must be the
+ * same serial executor that owns the Printer. Fragments append straight to
+ * the Printer; the queue itself only needs the status and start calls. When
+ * a status monitor is given, the paper check before a batch reads its cached
+ * status instead of asking the printer.
+ *
+ * With Metrics, the queue records how long each fragment waited for its
+ * batch to start (QUEUE_WAIT) and how long the printer took to finish a
+ * batch (COMPLETION), counting a timeout when it was still printing.
+ *
+ * Fragments print in the order they were submitted. Content that takes a
+ * while to prepare, such as a decoded image, is queued as a deferred()
+ * fragment when the call arrives, so later calls cannot overtake it. Jobs
+ * printed outside the queue, such as pipeline receipts, take their place
+ * with hold(): fragments submitted after the barrier stay queued until the
+ * job releases it.
+ */
+class PrintJobQueue {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    // Default time a fragment waits for followers before the batch is started
+    static final long DEFAULT_WINDOW_MS = 80;
+
+    // Metrics names
+    static final String QUEUE_WAIT = "printQueueWait";
+    static final String COMPLETION = "printCompletion";
+
+    /** Printer status and start calls used to run a batch. */
+    interface Target {
+        int getPrinterStatus();
+
+        int setPrintStart();
+    }
+
+    /** Appends one piece of content to the printer buffer. */
+    interface Fragment {
+        void append() throws Exception;
+    }
+
+    /** Appends content that was prepared on another thread. */
+    interface Appender<T> {
+        void append(T content) throws Exception;
+    }
+
+    /** A place in the queue held for a job printed outside it. */
+    static final class Barrier {
+    }
+
+    /** Receives the outcome of the batch a fragment was printed in. */
+    interface Callback {
+        void onPrinted(int resultCode);
+
+        void onError(Exception e);
+    }
+
+    private static final class Entry {
+        final Fragment fragment;
+        final Callback callback;
+        // Set for a barrier, which has no fragment
+        final Barrier barrier;
+        final long queuedNanos = System.nanoTime();
+
+        Entry(Fragment fragment, Callback callback) {
+            this.fragment = fragment;
+            this.callback = callback;
+            this.barrier = null;
+        }
+
+        Entry(Barrier barrier) {
+            this.fragment = null;
+            this.callback = null;
+            this.barrier = barrier;
+        }
+    }
+
+    private final Target printer;
+    private final PrintCompletionWaiter completionWaiter;
+    private final ScheduledExecutorService executor;
+    private final PrinterStatusMonitor statusMonitor;
+    private final Metrics.Histogram queueWait;
+    private final Metrics.Histogram completion;
+
+    // Guarded by this
+    private final List<Entry> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private volatile long windowMs = DEFAULT_WINDOW_MS;
+
+    PrintJobQueue(Target printer, PrintCompletionWaiter completionWaiter,
+                  ScheduledExecutorService executor) {
+        this(printer, completionWaiter, executor, null);
+    }
+
+    PrintJobQueue(Target printer, PrintCompletionWaiter completionWaiter,
+                  ScheduledExecutorService executor, PrinterStatusMonitor statusMonitor) {
+        this(printer, completionWaiter, executor, statusMonitor, new Metrics());
+    }
+
+    PrintJobQueue(Target printer, PrintCompletionWaiter completionWaiter,
+                  ScheduledExecutorService executor, PrinterStatusMonitor statusMonitor, Metrics metrics) {
+        this.printer = printer;
+        this.completionWaiter = completionWaiter;
+        this.executor = executor;
+        this.statusMonitor = statusMonitor;
+        this.queueWait = metrics.get(QUEUE_WAIT);
+        this.completion = metrics.get(COMPLETION);
+    }
+
+    /**
+     * A fragment that takes its place in the queue now and, on the printer
+     * executor, waits for its content before appending it. A failed
+     * preparation reaches the callback as the ExecutionException.
+     */
+    static <T> Fragment deferred(Future<T> content, Appender<T> appender) {
+        return () -> appender.append(content.get());
+    }
+
+    void setWindowMs(long windowMs) {
+        this.windowMs = Math.max(0, windowMs);
+    }
+
+    long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Queues a fragment for the next batch. When flushNow is set the batch
+     * is started as soon as the executor is free instead of waiting for the
+     * window to close.
+     */
+    void submit(Fragment fragment, Callback callback, boolean flushNow) {
+        synchronized (this) {
+            pending.add(new Entry(fragment, callback));
+            if (flushNow) {
+                cancelScheduledFlush();
+                executor.execute(this::flushPending);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flushPending, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Holds the queue's current end for a job printed outside it. Fragments
+     * submitted from now on print only after release(barrier); those
+     * already queued are still printed by flushPending().
+     */
+    synchronized Barrier hold() {
+        Barrier barrier = new Barrier();
+        pending.add(new Entry(barrier));
+        return barrier;
+    }
+
+    /** Lets the fragments behind the barrier print. Releasing twice does nothing. */
+    void release(Barrier barrier) {
+        synchronized (this) {
+            int index = indexOf(barrier);
+            if (index < 0) {
+                return;
+            }
+            pending.remove(index);
+            if (pending.isEmpty() || pending.get(0).barrier != null) {
+                return;
+            }
+            // They have waited for the job already; no point in another window
+            cancelScheduledFlush();
+            executor.execute(this::flushPending);
+        }
+    }
+
+    synchronized int pendingCount() {
+        int count = 0;
+        for (Entry entry : pending) {
+            if (entry.barrier == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends and starts everything queued ahead of the first barrier. Must
+     * run on the printer executor. Returns the number of fragments that
+     * were printed.
+     */
+    int flushPending() {
+        List<Entry> batch;
+        synchronized (this) {
+            cancelScheduledFlush();
+            int end = indexOfFirstBarrier();
+            if (end == 0) {
+                return 0;
+            }
+            List<Entry> ready = pending.subList(0, end);
+            batch = new ArrayList<>(ready);
+            ready.clear();
+        }
+        long flushNanos = System.nanoTime();
+        for (Entry entry : batch) {
+            queueWait.record(flushNanos - entry.queuedNanos);
+        }
+
+        int printStatus;
+        try {
+            printStatus = statusMonitor != null ? statusMonitor.status() : printer.getPrinterStatus();
+        } catch (Exception e) {
+            failAll(batch, e);
+            return 0;
+        }
+        if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+            failAll(batch, new Exception("Out of paper"));
+            return 0;
+        }
+
+        List<Entry> appended = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            try {
+                entry.fragment.append();
+                appended.add(entry);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to append print fragment", e);
+                entry.callback.onError(e);
+            }
+        }
+        if (appended.isEmpty()) {
+            return 0;
+        }
+
+        int resultCode;
+        try {
+            resultCode = printer.setPrintStart();
+            if (resultCode == SdkResult.SDK_OK) {
+                long waitStart = System.nanoTime();
+                int finalStatus = completionWaiter.await(printer);
+                completion.record(System.nanoTime() - waitStart);
+                if (finalStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+                    completion.error();
+                    throw new Exception("Out of paper");
+                }
+                if (finalStatus == SdkResult.SDK_PRN_STATUS_PRINTING) {
+                    completion.timeout();
+                    Log.w(TAG, "Print batch still running after " + completionWaiter.getTimeoutMs() + " ms");
+                }
+            }
+        } catch (Exception e) {
+            failAll(appended, e);
+            return 0;
+        }
+        Log.d(TAG, "Printed " + appended.size() + " fragment(s) with one start, code: " + resultCode);
+
+        for (Entry entry : appended) {
+            entry.callback.onPrinted(resultCode);
+        }
+        return appended.size();
+    }
+
+    // Caller holds the lock
+    private int indexOf(Barrier barrier) {
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).barrier == barrier) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Caller holds the lock; the size when there is none
+    private int indexOfFirstBarrier() {
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).barrier != null) {
+                return i;
+            }
+        }
+        return pending.size();
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private static void failAll(List<Entry> entries, Exception e) {
+        for (Entry entry : entries) {
+            entry.callback.onError(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * PrintPipeline - renders the next print job while the current one prints
+ *
+ * A job runs in two stages. The render stage builds its content (layout,
+ * formats, bitmaps) on a CPU worker and never touches the printer. The
+ * device stage runs on the serial executor that owns the Printer and only
+ * appends, starts and waits for the job. Rendered jobs are handed over
+ * through a bounded queue: once it is full the render worker blocks, so no
+ * more than a few finished receipts are held in memory while the printer
+ * catches up. Jobs reach the device stage in the order they were submitted.
+ */
+class PrintPipeline {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    // Rendered jobs allowed to wait for the printer
+    static final int DEFAULT_CAPACITY = 2;
+
+    /** One print job, split into its render and device stages. */
+    interface Job<R> {
+        /** Builds the job's content. Runs on the render worker. */
+        R render() throws Exception;
+
+        /** Sends the rendered content to the printer. Runs on the device executor. */
+        void print(R rendered) throws Exception;
+
+        /** Called from whichever stage failed. */
+        void onError(Exception e);
+    }
+
+    private final Executor renderExecutor;
+    private final Executor deviceExecutor;
+    private final BlockingQueue<Runnable> handoff;
+
+    PrintPipeline(Executor renderExecutor, Executor deviceExecutor, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.renderExecutor = renderExecutor;
+        this.deviceExecutor = deviceExecutor;
+        this.handoff = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /** Queues a job for rendering; printing follows once the printer is free. */
+    <R> void submit(Job<R> job) {
+        renderExecutor.execute(() -> render(job));
+    }
+
+    /** Rendered jobs waiting for the device stage. */
+    int waitingCount() {
+        return handoff.size();
+    }
+
+    private <R> void render(Job<R> job) {
+        R rendered;
+        try {
+            rendered = job.render();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to render print job", e);
+            job.onError(e);
+            return;
+        }
+
+        try {
+            // Blocks while the printer is the bottleneck
+            handoff.put(() -> print(job, rendered));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.onError(e);
+            return;
+        }
+        deviceExecutor.execute(this::printNext);
+    }
+
+    private void printNext() {
+        Runnable next = handoff.poll();
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private static <R> void print(Job<R> job, R rendered) {
+        try {
+            job.print(rendered);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to print job", e);
+            job.onError(e);
+        }
+    }
+}
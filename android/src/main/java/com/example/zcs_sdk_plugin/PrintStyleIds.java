@@ -0,0 +1,24 @@
+package com.example.zcs_sdk_plugin;
+
+/**
+ * PrintStyleIds - IDs of the built-in print styles
+ *
+ * Kept apart from PrintStyleRegistry, which builds SDK formats, so receipt
+ * layouts can name styles without pulling in the SDK or android.text. The
+ * registry re-exports these as its own constants.
+ */
+final class PrintStyleIds {
+
+    static final String TEXT = "text";
+    static final String HEADER = "header";
+    static final String SUB_HEADER = "subHeader";
+    static final String NORMAL = "normal";
+    static final String BOLD = "bold";
+    static final String ORDER_NUMBER = "orderNumber";
+    static final String SMALL = "small";
+    static final String MEDIA = "media";
+    static final String BARCODE_TEXT = "barcodeText";
+
+    private PrintStyleIds() {
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.zcs_sdk_plugin;
+
+import android.text.Layout;
+
+import com.zcs.sdk.print.PrnStrFormat;
+import com.zcs.sdk.print.PrnTextFont;
+import com.zcs.sdk.print.PrnTextStyle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PrintStyleRegistry - named PrnStrFormat instances shared across print jobs
+ *
+ * The receipt and text styles are built once when the device is initialized
+ * and looked up by ID afterwards. Callers can add or replace styles over the
+ * method channel. A registered format is never mutated; re-registering an ID
+ * swaps in a new instance, so formats already handed to the printer stay as
+ * they were.
+ */
+class PrintStyleRegistry {
+
+    // Built-in style IDs
+    static final String TEXT = PrintStyleIds.TEXT;
+    static final String HEADER = PrintStyleIds.HEADER;
+    static final String SUB_HEADER = PrintStyleIds.SUB_HEADER;
+    static final String NORMAL = PrintStyleIds.NORMAL;
+    static final String BOLD = PrintStyleIds.BOLD;
+    static final String ORDER_NUMBER = PrintStyleIds.ORDER_NUMBER;
+    static final String SMALL = PrintStyleIds.SMALL;
+    static final String MEDIA = PrintStyleIds.MEDIA;
+    static final String BARCODE_TEXT = PrintStyleIds.BARCODE_TEXT;
+
+    private final Map<String, PrnStrFormat> styles = new ConcurrentHashMap<>();
+
+    PrintStyleRegistry() {
+        registerDefaults();
+    }
+
+    /** Restores the built-in styles, dropping anything registered since. */
+    void registerDefaults() {
+        styles.clear();
+        styles.put(TEXT, create(40, PrnTextStyle.NORMAL, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_NORMAL, false));
+        styles.put(HEADER, create(50, PrnTextStyle.BOLD, PrnTextFont.SANS_SERIF, Layout.Alignment.ALIGN_CENTER, false));
+        styles.put(SUB_HEADER, create(30, PrnTextStyle.BOLD, PrnTextFont.SANS_SERIF, Layout.Alignment.ALIGN_CENTER, false));
+        styles.put(NORMAL, create(22, PrnTextStyle.NORMAL, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_NORMAL, false));
+        styles.put(BOLD, create(26, PrnTextStyle.BOLD, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_NORMAL, false));
+        styles.put(ORDER_NUMBER, create(40, PrnTextStyle.BOLD, PrnTextFont.SANS_SERIF, Layout.Alignment.ALIGN_CENTER, false));
+        styles.put(SMALL, create(20, PrnTextStyle.NORMAL, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_NORMAL, false));
+        styles.put(MEDIA, create(25, PrnTextStyle.NORMAL, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_NORMAL, false));
+        styles.put(BARCODE_TEXT, create(20, PrnTextStyle.NORMAL, PrnTextFont.MONOSPACE, Layout.Alignment.ALIGN_CENTER, false));
+    }
+
+    /**
+     * Returns the style registered under id, or the fallback style when the
+     * ID is null or unknown.
+     */
+    PrnStrFormat get(String id, String fallbackId) {
+        PrnStrFormat format = id != null ? styles.get(id) : null;
+        return format != null ? format : styles.get(fallbackId);
+    }
+
+    PrnStrFormat get(String id) {
+        return styles.get(id);
+    }
+
+    boolean contains(String id) {
+        return styles.containsKey(id);
+    }
+
+    int size() {
+        return styles.size();
+    }
+
+    /**
+     * Builds a style from a method channel map and stores it under id.
+     * Missing keys inherit from the "base" style when given, otherwise from
+     * the plain text style.
+     */
+    PrnStrFormat register(String id, Map<String, Object> spec) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Style id cannot be null or empty");
+        }
+
+        Object baseId = spec.get("base");
+        PrnStrFormat base = get(baseId != null ? baseId.toString() : null, TEXT);
+
+        int textSize = base.getTextSize();
+        Object size = spec.get("fontSize");
+        if (size instanceof Number) {
+            textSize = ((Number) size).intValue();
+        }
+
+        PrnTextStyle style = base.getStyle();
+        Object isBold = spec.get("isBold");
+        if (isBold instanceof Boolean) {
+            style = (Boolean) isBold ? PrnTextStyle.BOLD : PrnTextStyle.NORMAL;
+        }
+
+        PrnTextFont font = base.getFont();
+        Object fontName = spec.get("font");
+        if (fontName != null) {
+            font = parseFont(fontName.toString());
+        }
+
+        Layout.Alignment alignment = base.getAli();
+        Object alignmentName = spec.get("alignment");
+        if (alignmentName != null) {
+            alignment = parseAlignment(alignmentName.toString());
+        }
+
+        boolean underline = base.isUnderline();
+        Object isUnderline = spec.get("isUnderline");
+        if (isUnderline instanceof Boolean) {
+            underline = (Boolean) isUnderline;
+        }
+
+        PrnStrFormat format = create(textSize, style, font, alignment, underline);
+        styles.put(id, format);
+        return format;
+    }
+
+    static PrnStrFormat create(int textSize, PrnTextStyle style, PrnTextFont font,
+                               Layout.Alignment alignment, boolean underline) {
+        PrnStrFormat format = new PrnStrFormat();
+        format.setTextSize(textSize);
+        format.setStyle(style);
+        format.setFont(font);
+        format.setAli(alignment);
+        format.setUnderline(underline);
+        return format;
+    }
+
+    static Layout.Alignment parseAlignment(String alignment) {
+        switch (alignment.toUpperCase()) {
+            case "CENTER":
+                return Layout.Alignment.ALIGN_CENTER;
+            case "RIGHT":
+                return Layout.Alignment.ALIGN_OPPOSITE;
+            case "LEFT":
+                return Layout.Alignment.ALIGN_NORMAL;
+            default:
+                throw new IllegalArgumentException("Unknown alignment: " + alignment);
+        }
+    }
+
+    static PrnTextFont parseFont(String font) {
+        switch (font.toUpperCase()) {
+            case "MONOSPACE":
+                return PrnTextFont.MONOSPACE;
+            case "SANS_SERIF":
+                return PrnTextFont.SANS_SERIF;
+            case "SERIF":
+                return PrnTextFont.SERIF;
+            case "DEFAULT":
+                return PrnTextFont.DEFAULT;
+            case "DEFAULT_BOLD":
+                return PrnTextFont.DEFAULT_BOLD;
+            default:
+                throw new IllegalArgumentException("Unknown font: " + font);
+        }
+    }
+}
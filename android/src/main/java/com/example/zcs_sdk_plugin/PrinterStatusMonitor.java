@@ -0,0 +1,187 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PrinterStatusMonitor - background-polled printer status with a freshness TTL
+ *
+ * The latest status is kept in an immutable snapshot published through an
+ * AtomicReference, so any thread can read it without locking or a JNI call.
+ * status() returns the snapshot while it is younger than the TTL and only
+ * goes to the printer once it has expired; refresh() always does.
+ *
+ * Polling adapts to what the printer is doing: it runs at the minimum
+ * interval while the printer is busy or the status just changed, and backs
+ * off by doubling up to the maximum interval while nothing happens. Live
+ * reads made elsewhere (the print completion waiter, for example) can be
+ * handed to publish() so the background poll skips a round-trip. Every
+ * published reading is passed to the listener, if one is set.
+ */
+class PrinterStatusMonitor {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_TTL_MS = 500;
+    static final long DEFAULT_MIN_INTERVAL_MS = 250;
+    static final long DEFAULT_MAX_INTERVAL_MS = 4000;
+
+    /** Reads the live status from the printer. */
+    interface Source {
+        int getPrinterStatus();
+    }
+
+    /** Sees every published reading, on the thread that published it. */
+    interface Listener {
+        void onStatus(int status);
+    }
+
+    /** One status reading and when it was taken. */
+    static final class Snapshot {
+        final int status;
+        final long readAtNanos;
+
+        Snapshot(int status, long readAtNanos) {
+            this.status = status;
+            this.readAtNanos = readAtNanos;
+        }
+
+        long ageMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readAtNanos);
+        }
+    }
+
+    private final Source source;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+
+    private volatile Listener listener;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+    private volatile long minIntervalMs = DEFAULT_MIN_INTERVAL_MS;
+    private volatile long maxIntervalMs = DEFAULT_MAX_INTERVAL_MS;
+
+    // Guarded by this
+    private ScheduledFuture<?> scheduledPoll;
+    private long intervalMs;
+    private boolean hasPolled;
+    private int lastPolledStatus;
+
+    PrinterStatusMonitor(Source source, ScheduledExecutorService scheduler) {
+        this.source = source;
+        this.scheduler = scheduler;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    void setTtlMs(long ttlMs) {
+        this.ttlMs = Math.max(0, ttlMs);
+    }
+
+    long getTtlMs() {
+        return ttlMs;
+    }
+
+    void setIntervalsMs(long minIntervalMs, long maxIntervalMs) {
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+    }
+
+    long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+
+    long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+
+    synchronized void start() {
+        if (scheduledPoll == null) {
+            intervalMs = minIntervalMs;
+            scheduledPoll = scheduler.schedule(this::poll, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void stop() {
+        if (scheduledPoll != null) {
+            scheduledPoll.cancel(false);
+            scheduledPoll = null;
+        }
+    }
+
+    synchronized boolean isRunning() {
+        return scheduledPoll != null;
+    }
+
+    /** The status, read from the printer only when the snapshot is older than the TTL. */
+    int status() {
+        Snapshot snapshot = latest.get();
+        if (snapshot != null && snapshot.ageMs() < ttlMs) {
+            return snapshot.status;
+        }
+        return refresh();
+    }
+
+    /** Reads the printer now and publishes the result. */
+    int refresh() {
+        int status = source.getPrinterStatus();
+        publish(status);
+        return status;
+    }
+
+    /** Records a status that was read elsewhere. */
+    void publish(int status) {
+        latest.set(new Snapshot(status, System.nanoTime()));
+        Listener current = listener;
+        if (current != null) {
+            current.onStatus(status);
+        }
+    }
+
+    /** The last published reading, or null before the first one. */
+    Snapshot snapshot() {
+        return latest.get();
+    }
+
+    private void poll() {
+        Snapshot current = latest.get();
+        int status;
+        try {
+            // A reading published since the last poll is as good as a new one
+            if (current != null && current.ageMs() < Math.min(getIntervalMs(), ttlMs)) {
+                status = current.status;
+            } else {
+                status = refresh();
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Printer status poll failed", e);
+            status = current != null ? current.status : SdkResult.SDK_OK;
+        }
+
+        synchronized (this) {
+            if (scheduledPoll == null) {
+                return;
+            }
+            boolean changed = !hasPolled || status != lastPolledStatus;
+            hasPolled = true;
+            lastPolledStatus = status;
+            if (changed || status == SdkResult.SDK_PRN_STATUS_PRINTING) {
+                intervalMs = minIntervalMs;
+            } else {
+                intervalMs = Math.min(intervalMs * 2, maxIntervalMs);
+            }
+            scheduledPoll = scheduler.schedule(this::poll, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized long getIntervalMs() {
+        return intervalMs;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.text.Layout;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.zcs.sdk.print.PrnStrFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReceiptCommands - a rendered receipt as a list of printer append calls
+ *
+ * Used as a ReceiptTemplate.Output on the render stage: styles are resolved,
+ * symbols are generated and images are decoded while the receipt is
+ * rendered, and only the final printer append calls are recorded.
+ * append() replays them on the printer executor.
+ */
+class ReceiptCommands implements ReceiptTemplate.Output, PrintJobQueue.Fragment {
+
+    private final PosHardware.Printer printer;
+    private final PrintStyleRegistry styles;
+    private final SymbolCache symbols;
+    private final PrintImageLoader images;
+    private final int width;
+    private final List<PrintJobQueue.Fragment> commands = new ArrayList<>();
+
+    ReceiptCommands(PosHardware.Printer printer, PrintStyleRegistry styles, SymbolCache symbols,
+                    PrintImageLoader images, int width) {
+        this.printer = printer;
+        this.styles = styles;
+        this.symbols = symbols;
+        this.images = images;
+        this.width = width;
+    }
+
+    @Override
+    public void text(String text, String styleId) {
+        PrnStrFormat format = styles.get(styleId, PrintStyleRegistry.NORMAL);
+        commands.add(() -> printer.appendText(text, format));
+    }
+
+    @Override
+    public void qrCode(String data, int size) throws Exception {
+        Bitmap qrCode = symbols.qrCode(data, size, ErrorCorrectionLevel.L);
+        commands.add(() -> printer.appendBitmap(qrCode, Layout.Alignment.ALIGN_CENTER));
+    }
+
+    @Override
+    public void barcode(String data, int width, int height) throws Exception {
+        Bitmap barcode = symbols.barcode(data, width, height, BarcodeFormat.CODE_128);
+        commands.add(() -> printer.appendBitmap(barcode, Layout.Alignment.ALIGN_CENTER));
+        text(data, PrintStyleRegistry.BARCODE_TEXT);
+    }
+
+    @Override
+    public void image(byte[] data) {
+        // Cached by content, so the same logo is decoded once
+        Bitmap bitmap = images.decode(data, width, null);
+        commands.add(() -> printer.appendBitmap(bitmap, Layout.Alignment.ALIGN_CENTER));
+    }
+
+    int size() {
+        return commands.size();
+    }
+
+    @Override
+    public void append() throws Exception {
+        for (PrintJobQueue.Fragment command : commands) {
+            command.append();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.Layout;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.zcs.sdk.print.PrnStrFormat;
+import com.zcs.sdk.print.PrnTextFont;
+import com.zcs.sdk.print.PrnTextStyle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReceiptRasterizer - renders a whole receipt into one black and white bitmap
+ *
+ * Used as a ReceiptTemplate.Output: every text line, QR code, barcode and
+ * image is laid out into blocks first, then drawn in a single pass onto a
+ * bitmap as wide as the print head. The finished bitmap is reduced to pure
+ * black and white so the printer receives it in one setPrintAppendBitmap call
+ * instead of one SDK call per line.
+ */
+class ReceiptRasterizer implements ReceiptTemplate.Output {
+
+    // Print head widths in dots
+    static final int WIDTH_58MM = 384;
+    static final int WIDTH_80MM = 576;
+
+    // Luminance at or below which a pixel prints black
+    private static final int BLACK_THRESHOLD = 128;
+
+    /** Text measurement; Paint on the device, a fixed pitch in tests. */
+    interface Measurer {
+        /** How many characters of text from start fit in width dots. */
+        int fit(String text, int start, int width);
+    }
+
+    private final int width;
+    private final PrintStyleRegistry styles;
+    private final SymbolCache symbols;
+    private final PrintImageLoader images;
+    private final List<Block> blocks = new ArrayList<>();
+    private int height;
+
+    ReceiptRasterizer(int width, PrintStyleRegistry styles, SymbolCache symbols, PrintImageLoader images) {
+        this.width = width;
+        this.styles = styles;
+        this.symbols = symbols;
+        this.images = images;
+    }
+
+    static int headWidth(boolean is80mm) {
+        return is80mm ? WIDTH_80MM : WIDTH_58MM;
+    }
+
+    @Override
+    public void text(String text, String styleId) {
+        PrnStrFormat format = styles.get(styleId, PrintStyleRegistry.NORMAL);
+        Paint paint = paintFor(format);
+        Paint.FontMetrics metrics = paint.getFontMetrics();
+        int lineHeight = (int) Math.ceil(metrics.descent - metrics.ascent);
+
+        Measurer measurer = (s, start, w) -> paint.breakText(s, start, s.length(), true, w, null);
+        for (String line : wrap(text, width, measurer)) {
+            if (line.isEmpty()) {
+                add(new SpaceBlock(lineHeight));
+            } else {
+                add(new TextBlock(line, paint, format.getAli(), lineHeight, -metrics.ascent));
+            }
+        }
+    }
+
+    /**
+     * Splits text into the lines it prints as: one per '\n'-separated
+     * segment, each wrapped the way the SDK text renderer does. An empty
+     * segment is a blank line, since it still advances the paper, so the
+     * raster receipt keeps the command output's line breaks.
+     */
+    static List<String> wrap(String text, int width, Measurer measurer) {
+        List<String> lines = new ArrayList<>();
+        int segmentStart = 0;
+        while (true) {
+            int newline = text.indexOf('\n', segmentStart);
+            String segment = newline >= 0 ? text.substring(segmentStart, newline) : text.substring(segmentStart);
+            wrapSegment(segment, width, measurer, lines);
+            if (newline < 0) {
+                return lines;
+            }
+            segmentStart = newline + 1;
+        }
+    }
+
+    private static void wrapSegment(String segment, int width, Measurer measurer, List<String> lines) {
+        if (segment.isEmpty()) {
+            lines.add(segment);
+            return;
+        }
+        int start = 0;
+        while (start < segment.length()) {
+            // A glyph wider than the head still gets a line of its own
+            int count = Math.max(1, measurer.fit(segment, start, width));
+            count = Math.min(count, segment.length() - start);
+            lines.add(segment.substring(start, start + count));
+            start += count;
+        }
+    }
+
+    @Override
+    public void qrCode(String data, int size) throws Exception {
+        int side = Math.min(size, width);
+        add(new ImageBlock(symbols.qrCode(data, side, ErrorCorrectionLevel.L)));
+    }
+
+    @Override
+    public void barcode(String data, int barWidth, int barHeight) throws Exception {
+        add(new ImageBlock(symbols.barcode(data, Math.min(barWidth, width), barHeight,
+                BarcodeFormat.CODE_128)));
+        text(data, PrintStyleRegistry.BARCODE_TEXT);
+    }
+
+    @Override
+    public void image(byte[] data) {
+        // Scaled to the head width and cached by content; shared like the symbols
+        add(new ImageBlock(images.decode(data, width, null)));
+    }
+
+    /** Draws all collected blocks and returns the black and white receipt. */
+    Bitmap finish() {
+        Bitmap bitmap = Bitmap.createBitmap(width, Math.max(1, height), Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.WHITE);
+
+        int y = 0;
+        for (Block block : blocks) {
+            block.draw(canvas, bitmap, width, y);
+            y += block.height;
+        }
+        threshold(bitmap);
+        return bitmap;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    private void add(Block block) {
+        blocks.add(block);
+        height += block.height;
+    }
+
+    private static Paint paintFor(PrnStrFormat format) {
+        // Anti-aliasing stays off so glyph edges are already black or white
+        Paint paint = new Paint();
+        paint.setColor(Color.BLACK);
+        paint.setTextSize(format.getTextSize());
+        paint.setUnderlineText(format.isUnderline());
+
+        Typeface family;
+        PrnTextFont font = format.getFont();
+        if (font == PrnTextFont.MONOSPACE) {
+            family = Typeface.MONOSPACE;
+        } else if (font == PrnTextFont.SANS_SERIF) {
+            family = Typeface.SANS_SERIF;
+        } else if (font == PrnTextFont.SERIF) {
+            family = Typeface.SERIF;
+        } else {
+            family = Typeface.DEFAULT;
+        }
+        PrnTextStyle style = format.getStyle();
+        int typefaceStyle = Typeface.NORMAL;
+        if (style == PrnTextStyle.BOLD || font == PrnTextFont.DEFAULT_BOLD) {
+            typefaceStyle = Typeface.BOLD;
+        } else if (style == PrnTextStyle.ITALIC) {
+            typefaceStyle = Typeface.ITALIC;
+        } else if (style == PrnTextStyle.BOLD_ITALIC) {
+            typefaceStyle = Typeface.BOLD_ITALIC;
+        }
+        paint.setTypeface(Typeface.create(family, typefaceStyle));
+        return paint;
+    }
+
+    /** Reduces the bitmap to pure black and white, one row at a time. */
+    private static void threshold(Bitmap bitmap) {
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        int[] row = new int[w];
+        Ditherer ditherer = new Ditherer(Ditherer.Mode.THRESHOLD, BLACK_THRESHOLD);
+        for (int y = 0; y < h; y++) {
+            bitmap.getPixels(row, 0, w, 0, y, w, 1);
+            ditherer.ditherRow(row, 0, w, y);
+            bitmap.setPixels(row, 0, w, 0, y, w, 1);
+        }
+    }
+
+    static int alignedLeft(Layout.Alignment alignment, int contentWidth, int width) {
+        if (alignment == Layout.Alignment.ALIGN_CENTER) {
+            return Math.max(0, (width - contentWidth) / 2);
+        }
+        if (alignment == Layout.Alignment.ALIGN_OPPOSITE) {
+            return Math.max(0, width - contentWidth);
+        }
+        return 0;
+    }
+
+    // ---------------------------------------------------------------------
+    // Layout blocks
+    // ---------------------------------------------------------------------
+
+    private abstract static class Block {
+        final int height;
+
+        Block(int height) {
+            this.height = height;
+        }
+
+        abstract void draw(Canvas canvas, Bitmap bitmap, int width, int top);
+    }
+
+    private static final class SpaceBlock extends Block {
+        SpaceBlock(int height) {
+            super(height);
+        }
+
+        @Override
+        void draw(Canvas canvas, Bitmap bitmap, int width, int top) {
+            // Nothing to draw
+        }
+    }
+
+    private static final class TextBlock extends Block {
+        private final String text;
+        private final Paint paint;
+        private final Layout.Alignment alignment;
+        private final float baseline;
+
+        TextBlock(String text, Paint paint, Layout.Alignment alignment, int height, float baseline) {
+            super(height);
+            this.text = text;
+            this.paint = paint;
+            this.alignment = alignment;
+            this.baseline = baseline;
+        }
+
+        @Override
+        void draw(Canvas canvas, Bitmap bitmap, int width, int top) {
+            int left = alignedLeft(alignment, (int) Math.ceil(paint.measureText(text)), width);
+            canvas.drawText(text, left, top + baseline, paint);
+        }
+    }
+
+    private static final class ImageBlock extends Block {
+        // Cached symbols and images are shared and must outlive this receipt
+        private final Bitmap image;
+
+        ImageBlock(Bitmap image) {
+            super(image.getHeight());
+            this.image = image;
+        }
+
+        @Override
+        void draw(Canvas canvas, Bitmap bitmap, int width, int top) {
+            int left = alignedLeft(Layout.Alignment.ALIGN_CENTER, image.getWidth(), width);
+            canvas.drawBitmap(image, left, top, null);
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReceiptTemplate - a receipt layout compiled into a flat instruction list
+ *
+ * A layout is described once as a list of elements (text lines with
+ * {{field}} placeholders, column rows, separators, feeds and QR codes) and
+ * compiled: placeholders are split into literal and field segments,
+ * separators and literal columns are pre-rendered and styles are reduced to
+ * IDs. Printing a receipt then only binds a data map against the
+ * instructions and streams the resulting lines to an Output.
+ *
+ * Element maps accepted by compile():
+ * - {"type": "text", "text": "Date: {{date}}", "style": "normal"}
+ * - {"type": "row", "source": "items", "style": "media", "columns": [
+ *       {"field": "name", "width": 15, "maxLength": 15, "default": "Unknown Item"},
+ *       {"text": " "},
+ *       {"field": "price", "width": 9, "align": "right", "prefix": "Kshs "}]}
+ * - {"type": "separator", "char": "=", "width": 32, "style": "small"}
+ * - {"type": "feed", "lines": 2, "style": "small"}
+ * - {"type": "qr", "data": "{{orderNumber}}", "sizeField": "qrSize", "size": 200}
+ * - {"type": "barcode", "data": "{{orderNumber}}", "width": 360, "height": 100}
+ * - {"type": "image", "field": "logo"} where the field holds encoded image bytes
+ *
+ * Every element may carry "when": "field" to print only when that field is
+ * present and not blank. A placeholder may name a default with
+ * {{field|default}}, used when the field is missing or blank.
+ *
+ * Data is read through the Data interface, so a receipt can be bound
+ * straight from a method-channel map or from a BinaryReceipt buffer.
+ */
+class ReceiptTemplate {
+
+    static final int DEFAULT_LINE_WIDTH = 32;
+    static final int DEFAULT_QR_SIZE = 200;
+
+    /** Receives the bound receipt, one printer operation at a time. */
+    interface Output {
+        void text(String text, String styleId) throws Exception;
+
+        void qrCode(String data, int size) throws Exception;
+
+        void barcode(String data, int width, int height) throws Exception;
+
+        void image(byte[] data) throws Exception;
+    }
+
+    /** Field lookup while binding. */
+    interface Data {
+        /** The field's value, or null when it is missing. */
+        Object get(String field);
+
+        /** A cursor over the rows of a list field, or null when there are none. */
+        Rows rows(String field);
+    }
+
+    /** Row cursor; get() reads the current row's columns. */
+    interface Rows extends Data {
+        boolean next();
+    }
+
+    private final String id;
+    private final List<Instruction> instructions;
+
+    private ReceiptTemplate(String id, List<Instruction> instructions) {
+        this.id = id;
+        this.instructions = Collections.unmodifiableList(instructions);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    int size() {
+        return instructions.size();
+    }
+
+    /** Binds data against the compiled instructions and writes to out. */
+    void render(Map<String, Object> data, Output out) throws Exception {
+        render(new MapData(data), out);
+    }
+
+    void render(Data data, Output out) throws Exception {
+        StringBuilder line = new StringBuilder(64);
+        for (Instruction instruction : instructions) {
+            if (instruction.when == null || isPresent(data.get(instruction.when))) {
+                instruction.emit(data, line, out);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Compilation
+    // ---------------------------------------------------------------------
+
+    /** Compiles a layout sent over the method channel. */
+    @SuppressWarnings("unchecked")
+    static ReceiptTemplate compile(String id, List<Map<String, Object>> elements) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Template id cannot be null or empty");
+        }
+        if (elements == null || elements.isEmpty()) {
+            throw new IllegalArgumentException("Template must contain at least one element");
+        }
+
+        Builder builder = new Builder(id);
+        for (Map<String, Object> element : elements) {
+            String type = stringOf(element.get("type"), "text");
+            String style = stringOf(element.get("style"), PrintStyleIds.NORMAL);
+            builder.when(stringOf(element.get("when"), null));
+
+            switch (type) {
+                case "text":
+                    builder.text(stringOf(element.get("text"), ""), style);
+                    break;
+                case "row":
+                    List<Map<String, Object>> columns = (List<Map<String, Object>>) element.get("columns");
+                    if (columns == null || columns.isEmpty()) {
+                        throw new IllegalArgumentException("Row element needs columns");
+                    }
+                    Column[] compiled = new Column[columns.size()];
+                    for (int i = 0; i < compiled.length; i++) {
+                        compiled[i] = compileColumn(columns.get(i));
+                    }
+                    builder.row(stringOf(element.get("source"), null), style, compiled);
+                    break;
+                case "separator":
+                    String separatorChar = stringOf(element.get("char"), "-");
+                    if (separatorChar.length() != 1) {
+                        throw new IllegalArgumentException("Separator char must be a single character");
+                    }
+                    builder.separator(separatorChar.charAt(0),
+                            intOf(element.get("width"), DEFAULT_LINE_WIDTH), style);
+                    break;
+                case "feed":
+                    builder.feed(intOf(element.get("lines"), 1), style);
+                    break;
+                case "qr":
+                    builder.qrCode(stringOf(element.get("data"), ""),
+                            stringOf(element.get("sizeField"), null),
+                            intOf(element.get("size"), DEFAULT_QR_SIZE));
+                    break;
+                case "barcode":
+                    builder.barcode(stringOf(element.get("data"), ""),
+                            intOf(element.get("width"), 360), intOf(element.get("height"), 100));
+                    break;
+                case "image":
+                    builder.image(stringOf(element.get("field"), "logo"));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown template element type: " + type);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Column compileColumn(Map<String, Object> spec) {
+        int width = intOf(spec.get("width"), 0);
+        boolean alignRight = "right".equalsIgnoreCase(stringOf(spec.get("align"), "left"));
+        int maxLength = intOf(spec.get("maxLength"), 0);
+        String prefix = stringOf(spec.get("prefix"), "");
+
+        Object field = spec.get("field");
+        if (field != null) {
+            return Column.field(field.toString(), stringOf(spec.get("default"), null),
+                    prefix, width, alignRight, maxLength);
+        }
+        return Column.literal(stringOf(spec.get("text"), ""), width, alignRight);
+    }
+
+    /** Assembles a template in code; used for the built-in layout and by compile(). */
+    static final class Builder {
+        private final String id;
+        private final List<Instruction> instructions = new ArrayList<>();
+        private String when;
+
+        Builder(String id) {
+            this.id = id;
+        }
+
+        /** Applies a presence condition to the next element only. */
+        Builder when(String field) {
+            this.when = field;
+            return this;
+        }
+
+        Builder text(String template, String style) {
+            return add(new TextInstruction(parseSegments(template), style));
+        }
+
+        Builder row(String source, String style, Column... columns) {
+            return add(new RowInstruction(source, style, columns));
+        }
+
+        Builder separator(char c, int width, String style) {
+            char[] chars = new char[Math.max(0, width)];
+            java.util.Arrays.fill(chars, c);
+            return add(new TextInstruction(new Segment[]{Segment.literal(new String(chars))}, style));
+        }
+
+        Builder feed(int lines, String style) {
+            return add(new FeedInstruction(Math.max(0, lines), style));
+        }
+
+        Builder qrCode(String dataTemplate, String sizeField, int size) {
+            return add(new QrInstruction(parseSegments(dataTemplate), sizeField, size));
+        }
+
+        Builder barcode(String dataTemplate, int width, int height) {
+            return add(new BarcodeInstruction(parseSegments(dataTemplate), width, height));
+        }
+
+        Builder image(String field) {
+            return add(new ImageInstruction(field));
+        }
+
+        ReceiptTemplate build() {
+            return new ReceiptTemplate(id, new ArrayList<>(instructions));
+        }
+
+        private Builder add(Instruction instruction) {
+            instruction.when = when;
+            when = null;
+            instructions.add(instruction);
+            return this;
+        }
+    }
+
+    /** Splits "Date: {{date|n/a}}" into literal and field segments. */
+    static Segment[] parseSegments(String template) {
+        List<Segment> segments = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf("{{", pos);
+            if (open < 0) {
+                segments.add(Segment.literal(template.substring(pos)));
+                break;
+            }
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in: " + template);
+            }
+            if (open > pos) {
+                segments.add(Segment.literal(template.substring(pos, open)));
+            }
+            String body = template.substring(open + 2, close).trim();
+            int bar = body.indexOf('|');
+            if (bar >= 0) {
+                segments.add(Segment.field(body.substring(0, bar).trim(), body.substring(bar + 1)));
+            } else {
+                segments.add(Segment.field(body, null));
+            }
+            pos = close + 2;
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    // ---------------------------------------------------------------------
+    // Compiled form
+    // ---------------------------------------------------------------------
+
+    static final class Segment {
+        final String literal;
+        final String field;
+        final String fallback;
+
+        private Segment(String literal, String field, String fallback) {
+            this.literal = literal;
+            this.field = field;
+            this.fallback = fallback;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(text, null, null);
+        }
+
+        static Segment field(String name, String fallback) {
+            return new Segment(null, name, fallback);
+        }
+
+        void appendTo(Data data, StringBuilder out) {
+            if (literal != null) {
+                out.append(literal);
+            } else {
+                out.append(valueOf(data.get(field), fallback));
+            }
+        }
+    }
+
+    static final class Column {
+        final String literal;
+        final String field;
+        final String fallback;
+        final String prefix;
+        final int width;
+        final boolean alignRight;
+        final int maxLength;
+
+        private Column(String literal, String field, String fallback, String prefix,
+                       int width, boolean alignRight, int maxLength) {
+            this.literal = literal;
+            this.field = field;
+            this.fallback = fallback;
+            this.prefix = prefix;
+            this.width = width;
+            this.alignRight = alignRight;
+            this.maxLength = maxLength;
+        }
+
+        /** A fixed column; padding is applied once here rather than per line. */
+        static Column literal(String text, int width, boolean alignRight) {
+            StringBuilder padded = new StringBuilder();
+            pad(padded, text, width, alignRight);
+            return new Column(padded.toString(), null, null, "", 0, false, 0);
+        }
+
+        static Column field(String name, String fallback, String prefix, int width,
+                            boolean alignRight, int maxLength) {
+            return new Column(null, name, fallback, prefix, width, alignRight, maxLength);
+        }
+
+        void appendTo(Data data, StringBuilder out) {
+            if (literal != null) {
+                out.append(literal);
+                return;
+            }
+            String value = valueOf(data.get(field), fallback);
+            if (maxLength > 3 && value.length() > maxLength) {
+                value = value.substring(0, maxLength - 3) + "...";
+            }
+            if (prefix.isEmpty()) {
+                pad(out, value, width, alignRight);
+            } else {
+                pad(out, prefix + value, width, alignRight);
+            }
+        }
+    }
+
+    abstract static class Instruction {
+        String when;
+
+        abstract void emit(Data data, StringBuilder line, Output out) throws Exception;
+    }
+
+    static final class TextInstruction extends Instruction {
+        private final Segment[] segments;
+        private final String style;
+        // Lines without placeholders are joined once at compile time
+        private final String constant;
+
+        TextInstruction(Segment[] segments, String style) {
+            this.segments = segments;
+            this.style = style;
+            this.constant = isConstant(segments) ? joinLiterals(segments) : null;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            if (constant != null) {
+                out.text(constant, style);
+                return;
+            }
+            line.setLength(0);
+            for (Segment segment : segments) {
+                segment.appendTo(data, line);
+            }
+            out.text(line.toString(), style);
+        }
+    }
+
+    static final class RowInstruction extends Instruction {
+        private final String source;
+        private final String style;
+        private final Column[] columns;
+
+        RowInstruction(String source, String style, Column[] columns) {
+            this.source = source;
+            this.style = style;
+            this.columns = columns;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            if (source == null) {
+                emitRow(data, line, out);
+                return;
+            }
+            Rows rows = data.rows(source);
+            if (rows != null) {
+                while (rows.next()) {
+                    emitRow(rows, line, out);
+                }
+            }
+        }
+
+        private void emitRow(Data row, StringBuilder line, Output out) throws Exception {
+            line.setLength(0);
+            for (Column column : columns) {
+                column.appendTo(row, line);
+            }
+            out.text(line.toString(), style);
+        }
+    }
+
+    static final class FeedInstruction extends Instruction {
+        private final int lines;
+        private final String style;
+
+        FeedInstruction(int lines, String style) {
+            this.lines = lines;
+            this.style = style;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            for (int i = 0; i < lines; i++) {
+                out.text("", style);
+            }
+        }
+    }
+
+    static final class QrInstruction extends Instruction {
+        private final Segment[] segments;
+        private final String sizeField;
+        private final int size;
+
+        QrInstruction(Segment[] segments, String sizeField, int size) {
+            this.segments = segments;
+            this.sizeField = sizeField;
+            this.size = size;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            line.setLength(0);
+            for (Segment segment : segments) {
+                segment.appendTo(data, line);
+            }
+            int qrSize = sizeField != null ? intOf(data.get(sizeField), size) : size;
+            out.qrCode(line.toString(), qrSize);
+        }
+    }
+
+    static final class BarcodeInstruction extends Instruction {
+        private final Segment[] segments;
+        private final int width;
+        private final int height;
+
+        BarcodeInstruction(Segment[] segments, int width, int height) {
+            this.segments = segments;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            line.setLength(0);
+            for (Segment segment : segments) {
+                segment.appendTo(data, line);
+            }
+            out.barcode(line.toString(), width, height);
+        }
+    }
+
+    static final class ImageInstruction extends Instruction {
+        private final String field;
+
+        ImageInstruction(String field) {
+            this.field = field;
+        }
+
+        @Override
+        void emit(Data data, StringBuilder line, Output out) throws Exception {
+            Object image = data.get(field);
+            if (image instanceof byte[] && ((byte[]) image).length > 0) {
+                out.image((byte[]) image);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Map binding
+    // ---------------------------------------------------------------------
+
+    /** Data over a method-channel map; list fields hold a list of maps. */
+    static final class MapData implements Data {
+        private final Map<String, Object> map;
+
+        MapData(Map<String, Object> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Object get(String field) {
+            return map.get(field);
+        }
+
+        @Override
+        public Rows rows(String field) {
+            Object rows = map.get(field);
+            return rows instanceof List ? new ListRows((List<?>) rows) : null;
+        }
+    }
+
+    private static final class ListRows implements Rows {
+        private final List<?> rows;
+        private int next;
+        private Map<?, ?> current;
+
+        ListRows(List<?> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            while (next < rows.size()) {
+                Object row = rows.get(next++);
+                if (row instanceof Map) {
+                    current = (Map<?, ?>) row;
+                    return true;
+                }
+            }
+            current = null;
+            return false;
+        }
+
+        @Override
+        public Object get(String field) {
+            return current != null ? current.get(field) : null;
+        }
+
+        @Override
+        public Rows rows(String field) {
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------
+
+    static boolean isPresent(Object value) {
+        return value != null && !value.toString().trim().isEmpty();
+    }
+
+    private static String valueOf(Object value, String fallback) {
+        if (fallback != null && !isPresent(value)) {
+            return fallback;
+        }
+        return value != null ? value.toString() : "";
+    }
+
+    private static void pad(StringBuilder out, String value, int width, boolean alignRight) {
+        int padding = width - value.length();
+        if (alignRight) {
+            for (int i = 0; i < padding; i++) out.append(' ');
+            out.append(value);
+        } else {
+            out.append(value);
+            for (int i = 0; i < padding; i++) out.append(' ');
+        }
+    }
+
+    private static boolean isConstant(Segment[] segments) {
+        for (Segment segment : segments) {
+            if (segment.literal == null) return false;
+        }
+        return true;
+    }
+
+    private static String joinLiterals(Segment[] segments) {
+        StringBuilder joined = new StringBuilder();
+        for (Segment segment : segments) {
+            joined.append(segment.literal);
+        }
+        return joined.toString();
+    }
+
+    private static String stringOf(Object value, String fallback) {
+        return value != null ? value.toString() : fallback;
+    }
+
+    static int intOf(Object value, int fallback) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReceiptTemplates - compiled receipt layouts available to printReceipt
+ *
+ * Holds the built-in "default" layout (the original Blankets And Wine
+ * receipt) plus any layouts registered from Flutter. Layouts are compiled on
+ * registration so printing only binds data.
+ */
+class ReceiptTemplates {
+
+    static final String DEFAULT_ID = "default";
+
+    private final Map<String, ReceiptTemplate> templates = new ConcurrentHashMap<>();
+
+    ReceiptTemplates() {
+        templates.put(DEFAULT_ID, buildDefault());
+    }
+
+    ReceiptTemplate get(String id) {
+        return templates.get(id != null ? id : DEFAULT_ID);
+    }
+
+    ReceiptTemplate register(String id, List<Map<String, Object>> elements) {
+        ReceiptTemplate template = ReceiptTemplate.compile(id, elements);
+        templates.put(id, template);
+        return template;
+    }
+
+    boolean remove(String id) {
+        if (DEFAULT_ID.equals(id)) {
+            return false;
+        }
+        return templates.remove(id) != null;
+    }
+
+    /** The receipt layout printReceipt has always produced. */
+    static ReceiptTemplate buildDefault() {
+        final String normal = PrintStyleIds.NORMAL;
+        final String small = PrintStyleIds.SMALL;
+        final String bold = PrintStyleIds.BOLD;
+        final String subHeader = PrintStyleIds.SUB_HEADER;
+        final int width = ReceiptTemplate.DEFAULT_LINE_WIDTH;
+
+        return new ReceiptTemplate.Builder(DEFAULT_ID)
+                // Store name and receipt title
+                .text("{{storeName|Blankets And Wine}}", PrintStyleIds.HEADER)
+                .text("{{receiptType}}", subHeader)
+                .feed(1, normal)
+                .when("date").text("Date: {{date}}", normal)
+                .when("time").text("Time: {{time}}", normal)
+
+                // Items table
+                .separator('-', width, normal)
+                .text("ITEM            QTY    AMOUNT", bold)
+                .separator('-', width, normal)
+                .row("items", PrintStyleIds.MEDIA,
+                        ReceiptTemplate.Column.field("name", "Unknown Item", "", 15, false, 15),
+                        ReceiptTemplate.Column.literal(" ", 0, false),
+                        ReceiptTemplate.Column.field("quantity", null, "", 3, true, 0),
+                        ReceiptTemplate.Column.literal("x ", 0, false),
+                        ReceiptTemplate.Column.field("price", null, "Kshs ", 9, true, 0))
+                .separator('-', width, normal)
+
+                // Financial summary
+                .when("subtotal").row(null, normal,
+                        ReceiptTemplate.Column.literal("Subtotal:", 20, false),
+                        ReceiptTemplate.Column.literal(" ", 0, false),
+                        ReceiptTemplate.Column.field("subtotal", null, "Kshs ", 10, true, 0))
+                .when("tax").row(null, normal,
+                        ReceiptTemplate.Column.literal("Tax:", 20, false),
+                        ReceiptTemplate.Column.literal(" ", 0, false),
+                        ReceiptTemplate.Column.field("tax", null, "Kshs ", 10, true, 0))
+                .when("total").separator('=', width, normal)
+                .when("total").row(null, bold,
+                        ReceiptTemplate.Column.literal("TOTAL:", 20, false),
+                        ReceiptTemplate.Column.literal(" ", 0, false),
+                        ReceiptTemplate.Column.field("total", null, "Kshs ", 10, true, 0))
+                .when("total").separator('=', width, normal)
+
+                // Payment method and footer
+                .when("paymentMethod").feed(1, small)
+                .when("paymentMethod").text("Payment Method: {{paymentMethod}}", small)
+                .feed(1, small)
+                .text("Thank you for your visit!", small)
+                .text("Enjoy responsibly!", small)
+                .feed(2, small)
+
+                // QR code and order number
+                .text("Scan QR Code:", normal)
+                .feed(1, small)
+                .qrCode("{{orderNumber}}", "qrSize", ReceiptTemplate.DEFAULT_QR_SIZE)
+                .feed(2, small)
+                .separator('=', width, small)
+                .text("ORDER NUMBER", subHeader)
+                .text("{{orderNumber}}", PrintStyleIds.ORDER_NUMBER)
+                .separator('=', width, small)
+
+                // Extra spacing for easy tearing
+                .feed(4, small)
+                .text("\n", small)
+                .text("\n", small)
+                .build();
+    }
+}
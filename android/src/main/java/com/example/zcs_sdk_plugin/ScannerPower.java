@@ -0,0 +1,226 @@
+package com.example.zcs_sdk_plugin;
+
+import android.util.Log;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScannerPower - warm-standby power policy for the QR scanner
+ *
+ * Powering the scanner up costs a power cycle plus the module's wake-up
+ * time. Instead of switching it off after every scan, release() only stops
+ * the decoder and leaves the module powered for the standby period; a scan
+ * that starts within that window skips the wake-up. The scanner is powered
+ * down when the standby timer expires, or at once with powerDown() (device
+ * close, engine detach, explicit stop). A standby of 0 powers down on every
+ * release, which is the old behaviour.
+ *
+ * With Metrics, every cold power-up is timed under POWER_ON and a failed
+ * one counted as an error; warm starts are timed under WARM_START.
+ */
+class ScannerPower {
+
+    private static final String TAG = "ZCSPLUGIN";
+
+    static final long DEFAULT_STANDBY_MS = 30_000;
+
+    // Metrics names
+    static final String POWER_ON = "scannerPowerOn";
+    static final String WARM_START = "scannerWarmStart";
+
+    /** The scanner's power and decoder switches. */
+    interface Switch {
+        /** Full power-up, including the wake-up wait; leaves the decoder on. */
+        void powerOn() throws Exception;
+
+        /** Turns the decoder on or off while the module stays powered. */
+        void activate(boolean on);
+
+        void powerOff();
+    }
+
+    interface Listener {
+        void onPowerChanged(boolean powered);
+    }
+
+    private final Switch scanner;
+    private final ScheduledExecutorService scheduler;
+    private final Listener listener;
+    private final Metrics.Histogram powerOnTime;
+    private final Metrics.Histogram warmStartTime;
+
+    private volatile long standbyMs = DEFAULT_STANDBY_MS;
+
+    // Guarded by this; the power sequence itself runs outside the lock so
+    // state reads from the main thread never wait out the wake-up
+    private boolean powered;
+    private boolean powering;
+    private boolean powerUpCancelled;
+    private boolean inUse;
+    private ScheduledFuture<?> standbyTimer;
+    private long standbyGeneration;
+    private long wakeUps;
+    private long warmStarts;
+
+    ScannerPower(Switch scanner, ScheduledExecutorService scheduler, Listener listener) {
+        this(scanner, scheduler, listener, new Metrics());
+    }
+
+    ScannerPower(Switch scanner, ScheduledExecutorService scheduler, Listener listener, Metrics metrics) {
+        this.scanner = scanner;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.powerOnTime = metrics.get(POWER_ON);
+        this.warmStartTime = metrics.get(WARM_START);
+    }
+
+    void setStandbyMs(long standbyMs) {
+        this.standbyMs = Math.max(0, standbyMs);
+    }
+
+    long getStandbyMs() {
+        return standbyMs;
+    }
+
+    /**
+     * Gets the scanner ready to decode. Returns true when it had to be
+     * powered up, false when it was still warm.
+     */
+    boolean acquire() throws Exception {
+        long start = System.nanoTime();
+        synchronized (this) {
+            cancelStandbyTimer();
+            inUse = true;
+            if (powered) {
+                scanner.activate(true);
+                warmStartTime.record(System.nanoTime() - start);
+                warmStarts++;
+                return false;
+            }
+            powering = true;
+            powerUpCancelled = false;
+        }
+
+        Exception failure = null;
+        try {
+            scanner.powerOn();
+        } catch (Exception e) {
+            failure = e;
+        }
+        powerOnTime.record(System.nanoTime() - start);
+
+        boolean cancelled;
+        synchronized (this) {
+            powering = false;
+            cancelled = powerUpCancelled;
+            if (failure == null && !cancelled) {
+                powered = true;
+                wakeUps++;
+            } else {
+                inUse = false;
+            }
+        }
+        if (failure != null || cancelled) {
+            scanner.powerOff();
+            if (failure != null) {
+                powerOnTime.error();
+                throw failure;
+            }
+            throw new Exception("Scanner powered down while waking up");
+        }
+        notifyPower(true);
+        return true;
+    }
+
+    /** Done decoding; the module stays warm for the standby period. */
+    void release() {
+        long standby = standbyMs;
+        boolean switchedOff;
+        synchronized (this) {
+            if (!powered || !inUse) {
+                return;
+            }
+            inUse = false;
+            scanner.activate(false);
+            if (standby > 0) {
+                long generation = ++standbyGeneration;
+                standbyTimer = scheduler.schedule(() -> standbyExpired(generation),
+                        standby, TimeUnit.MILLISECONDS);
+                return;
+            }
+            switchedOff = switchOff();
+        }
+        if (switchedOff) {
+            notifyPower(false);
+        }
+    }
+
+    /** Powers the scanner off now, whether or not it is in use. */
+    void powerDown() {
+        if (switchOff()) {
+            notifyPower(false);
+        }
+    }
+
+    synchronized boolean isPowered() {
+        return powered;
+    }
+
+    synchronized long wakeUpCount() {
+        return wakeUps;
+    }
+
+    synchronized long warmStartCount() {
+        return warmStarts;
+    }
+
+    private void standbyExpired(long generation) {
+        boolean switchedOff;
+        synchronized (this) {
+            // A scan may have taken the scanner while this task was queued
+            if (inUse || generation != standbyGeneration) {
+                return;
+            }
+            Log.d(TAG, "Scanner standby expired, powering down");
+            switchedOff = switchOff();
+        }
+        if (switchedOff) {
+            notifyPower(false);
+        }
+    }
+
+    private synchronized boolean switchOff() {
+        cancelStandbyTimer();
+        inUse = false;
+        if (powering) {
+            // acquire() switches it off again once the wake-up returns
+            powerUpCancelled = true;
+        }
+        if (!powered) {
+            return false;
+        }
+        try {
+            scanner.powerOff();
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to power off scanner", e);
+        }
+        powered = false;
+        return true;
+    }
+
+    private void cancelStandbyTimer() {
+        standbyGeneration++;
+        if (standbyTimer != null) {
+            standbyTimer.cancel(false);
+            standbyTimer = null;
+        }
+    }
+
+    private void notifyPower(boolean on) {
+        if (listener != null) {
+            listener.onPowerChanged(on);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.text.Layout;
+
+import com.zcs.sdk.DriverManager;
+import com.zcs.sdk.HQrsanner;
+import com.zcs.sdk.print.PrnStrFormat;
+
+/**
+ * SdkHardware - PosHardware on top of the SDK DriverManager
+ *
+ * The production binding: the printer and its status come from the SDK
+ * Printer, the scanner from HQrsanner when the terminal has one.
+ */
+class SdkHardware implements PosHardware {
+
+    /** Printer and Status on the SDK Printer. */
+    static final class SdkPrinter implements Printer, Status {
+        private final com.zcs.sdk.Printer printer;
+
+        SdkPrinter(com.zcs.sdk.Printer printer) {
+            this.printer = printer;
+        }
+
+        @Override
+        public boolean hasCutter() {
+            return printer.isSuppoerCutter();
+        }
+
+        @Override
+        public boolean is80mm() {
+            return printer.is80MMPrinter();
+        }
+
+        @Override
+        public void appendText(String text, PrnStrFormat format) {
+            printer.setPrintAppendString(text, format);
+        }
+
+        @Override
+        public void appendBitmap(Bitmap bitmap, Layout.Alignment alignment) {
+            printer.setPrintAppendBitmap(bitmap, alignment);
+        }
+
+        @Override
+        public int start() {
+            return printer.setPrintStart();
+        }
+
+        @Override
+        public int cut() {
+            return printer.openPrnCutter((byte) 1);
+        }
+
+        @Override
+        public int getPrinterStatus() {
+            return printer.getPrinterStatus();
+        }
+    }
+
+    private final SdkPrinter printer;
+    private final HQrScannerDevice scanner;
+
+    /** Throws when the terminal has no printer; a missing scanner is allowed. */
+    SdkHardware(DriverManager driverManager) throws Exception {
+        com.zcs.sdk.Printer sdkPrinter = driverManager.getPrinter();
+        if (sdkPrinter == null) {
+            throw new Exception("Failed to get Printer instance");
+        }
+        printer = new SdkPrinter(sdkPrinter);
+        HQrsanner sdkScanner = driverManager.getHQrsannerDriver();
+        scanner = sdkScanner != null ? new HQrScannerDevice(sdkScanner) : null;
+    }
+
+    @Override
+    public Printer printer() {
+        return printer;
+    }
+
+    @Override
+    public Status status() {
+        return printer;
+    }
+
+    @Override
+    public Scanner scanner() {
+        return scanner;
+    }
+}
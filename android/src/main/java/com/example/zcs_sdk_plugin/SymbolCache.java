@@ -0,0 +1,131 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.util.Map;
+
+/**
+ * SymbolCache - QR code and barcode bitmaps generated once and reused
+ *
+ * Symbols are encoded with the bundled ZXing (see SymbolEncoder) and kept in a byte-bounded LRU
+ * keyed by data, size, error correction level and format, so repeated
+ * payment and table codes skip both encoding and bitmap allocation. Cached
+ * bitmaps are shared and must not be recycled or modified by callers.
+ */
+class SymbolCache {
+
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    // RGB_565 uses two bytes per pixel
+    private static final int BYTES_PER_PIXEL = 2;
+
+    private final BoundedLruCache<Key, Bitmap> cache;
+
+    SymbolCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    SymbolCache(long maxBytes) {
+        cache = new BoundedLruCache<>(maxBytes,
+                bitmap -> (long) bitmap.getWidth() * bitmap.getHeight() * BYTES_PER_PIXEL);
+    }
+
+    Bitmap qrCode(String data, int size, ErrorCorrectionLevel level) throws WriterException {
+        Key key = new Key(data, size, size, level, BarcodeFormat.QR_CODE);
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = toBitmap(SymbolEncoder.qrCode(data, size, level));
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    Bitmap barcode(String data, int width, int height, BarcodeFormat format) throws WriterException {
+        Key key = new Key(data, width, height, null, format);
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = toBitmap(SymbolEncoder.barcode(data, width, height, format));
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    void resetStats() {
+        cache.resetStats();
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    /** Maps "L", "M", "Q" or "H" to a ZXing level; anything else falls back to L. */
+    static ErrorCorrectionLevel parseLevel(String level) {
+        if (level != null) {
+            switch (level.trim().toUpperCase()) {
+                case "M":
+                    return ErrorCorrectionLevel.M;
+                case "Q":
+                    return ErrorCorrectionLevel.Q;
+                case "H":
+                    return ErrorCorrectionLevel.H;
+                default:
+                    break;
+            }
+        }
+        return ErrorCorrectionLevel.L;
+    }
+
+    private static Bitmap toBitmap(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        bitmap.setPixels(SymbolEncoder.pixels(matrix), 0, width, 0, 0, width, height);
+        return bitmap;
+    }
+
+    private static final class Key {
+        final String data;
+        final int width;
+        final int height;
+        final ErrorCorrectionLevel level;
+        final BarcodeFormat format;
+        private final int hash;
+
+        Key(String data, int width, int height, ErrorCorrectionLevel level, BarcodeFormat format) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.level = level;
+            this.format = format;
+            int h = data.hashCode();
+            h = 31 * h + width;
+            h = 31 * h + height;
+            h = 31 * h + (level != null ? level.hashCode() : 0);
+            h = 31 * h + format.hashCode();
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height && level == other.level
+                    && format == other.format && data.equals(other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.zcs_sdk_plugin;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * SymbolEncoder - QR codes and barcodes as ARGB pixel arrays
+ *
+ * The ZXing half of symbol generation, kept free of android.graphics so it
+ * runs, and can be benchmarked, on a plain JVM. SymbolCache turns the
+ * pixels into a Bitmap with a single setPixels call.
+ */
+final class SymbolEncoder {
+
+    static final int BLACK = 0xFF000000;
+    static final int WHITE = 0xFFFFFFFF;
+
+    private SymbolEncoder() {
+    }
+
+    static BitMatrix qrCode(String data, int size, ErrorCorrectionLevel level) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.ERROR_CORRECTION, level);
+        return new MultiFormatWriter().encode(data, BarcodeFormat.QR_CODE, size, size, hints);
+    }
+
+    static BitMatrix barcode(String data, int width, int height, BarcodeFormat format) throws WriterException {
+        return new MultiFormatWriter().encode(data, format, width, height);
+    }
+
+    /** The matrix row by row, black for set modules and white elsewhere. */
+    static int[] pixels(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[offset + x] = matrix.get(x, y) ? BLACK : WHITE;
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.zcs_sdk_plugin;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tlv - BER-TLV reading and writing for EMV data without allocation
+ *
+ * Every card transaction produces TLV blobs (field 55, the kernel's
+ * receipt tags, the host's response), so tag lookup and field 55 assembly
+ * must not create garbage. Both classes here work over caller-owned
+ * storage and keep their state in ints:
+ * - Reader is a cursor over a byte[] range or a ByteBuffer. next() moves
+ *   to the following element and exposes its tag and the offset and length
+ *   of its value in the underlying storage; nothing is copied. find()
+ *   searches the rest of the data, optionally descending into constructed
+ *   templates.
+ * - Writer appends elements to a caller-supplied byte[]. Constructed
+ *   elements are opened with begin() and closed with end(), which fills in
+ *   the length afterwards.
+ *
+ * Tags are read as ints of up to four bytes (0x9F26, 0xDF8101), lengths in
+ * short form or long form with up to three length bytes. 0x00 and 0xFF
+ * bytes between elements are skipped as EMV padding. Malformed data throws
+ * IllegalArgumentException; reads never leave the given range. Instances
+ * can be reset and reused; they are not thread-safe.
+ */
+final class Tlv {
+
+    // Templates nest a few levels at most (70 > A5 > BF0C > ...)
+    static final int MAX_DEPTH = 8;
+
+    private Tlv() {
+    }
+
+    /** True for tags whose first byte has the constructed bit set. */
+    static boolean isConstructed(int tag) {
+        return (firstByte(tag) & 0x20) != 0;
+    }
+
+    /** Number of bytes the tag takes when encoded. */
+    static int tagSize(int tag) {
+        if ((tag & 0xFF000000) != 0) {
+            return 4;
+        }
+        if ((tag & 0xFF0000) != 0) {
+            return 3;
+        }
+        return (tag & 0xFF00) != 0 ? 2 : 1;
+    }
+
+    /** Number of bytes the length takes when encoded. */
+    static int lengthSize(int length) {
+        if (length < 0x80) {
+            return 1;
+        }
+        if (length <= 0xFF) {
+            return 2;
+        }
+        return length <= 0xFFFF ? 3 : 4;
+    }
+
+    private static int firstByte(int tag) {
+        return (tag >>> ((tagSize(tag) - 1) * 8)) & 0xFF;
+    }
+
+    /** Cursor over the elements of a TLV range. */
+    static final class Reader {
+        private byte[] array;
+        private ByteBuffer buffer;
+        private int position;
+        private int limit;
+
+        private int tag;
+        private int valueOffset;
+        private int valueLength;
+        private boolean constructed;
+
+        // find() remembers where each enclosing template ends
+        private final int[] limits = new int[MAX_DEPTH];
+        private int depth;
+
+        /** Reads length bytes of data from offset. */
+        Reader reset(byte[] data, int offset, int length) {
+            if (offset < 0 || length < 0 || offset + length > data.length) {
+                throw new IndexOutOfBoundsException("Range outside array: " + offset + "+" + length);
+            }
+            array = data;
+            buffer = null;
+            position = offset;
+            limit = offset + length;
+            return clear();
+        }
+
+        Reader reset(byte[] data) {
+            return reset(data, 0, data.length);
+        }
+
+        /**
+         * Reads the buffer from its position to its limit. The buffer's own
+         * position is left alone; offsets are absolute buffer indices.
+         */
+        Reader reset(ByteBuffer data) {
+            array = null;
+            buffer = data;
+            position = data.position();
+            limit = data.limit();
+            return clear();
+        }
+
+        /** Reads the value of the current element, which must be constructed. */
+        Reader enter(Reader parent) {
+            if (!parent.constructed) {
+                throw new IllegalStateException("Tag " + Integer.toHexString(parent.tag) + " is primitive");
+            }
+            array = parent.array;
+            buffer = parent.buffer;
+            position = parent.valueOffset;
+            limit = parent.valueOffset + parent.valueLength;
+            return clear();
+        }
+
+        private Reader clear() {
+            tag = 0;
+            valueOffset = position;
+            valueLength = 0;
+            constructed = false;
+            depth = 0;
+            return this;
+        }
+
+        /** Moves to the next element on this level; false at the end. */
+        boolean next() {
+            while (position < limit) {
+                int b = byteAt(position);
+                if (b != 0x00 && b != 0xFF) {
+                    break;
+                }
+                position++;
+            }
+            if (position >= limit) {
+                return false;
+            }
+
+            int p = position;
+            int first = byteAt(p++);
+            int t = first;
+            if ((first & 0x1F) == 0x1F) {
+                int b;
+                do {
+                    if (p >= limit) {
+                        throw new IllegalArgumentException("Tag runs past the end at " + position);
+                    }
+                    if (t > 0xFFFFFF) {
+                        throw new IllegalArgumentException("Tag longer than 4 bytes at " + position);
+                    }
+                    b = byteAt(p++);
+                    t = (t << 8) | b;
+                } while ((b & 0x80) != 0);
+            }
+
+            if (p >= limit) {
+                throw new IllegalArgumentException("Missing length at " + position);
+            }
+            int length = byteAt(p++);
+            if (length > 0x7F) {
+                int count = length & 0x7F;
+                if (count == 0 || count > 3) {
+                    throw new IllegalArgumentException("Unsupported length form 0x" + Integer.toHexString(length));
+                }
+                if (p + count > limit) {
+                    throw new IllegalArgumentException("Length runs past the end at " + position);
+                }
+                length = 0;
+                for (int i = 0; i < count; i++) {
+                    length = (length << 8) | byteAt(p++);
+                }
+            }
+            if (length > limit - p) {
+                throw new IllegalArgumentException("Value runs past the end at " + position);
+            }
+
+            tag = t;
+            constructed = (first & 0x20) != 0;
+            valueOffset = p;
+            valueLength = length;
+            position = p + length;
+            return true;
+        }
+
+        /**
+         * Moves to the next element with this tag. With descend, constructed
+         * elements are searched as well, up to MAX_DEPTH levels; the
+         * search continues from the match on the next call.
+         */
+        boolean find(int wanted, boolean descend) {
+            while (true) {
+                while (next()) {
+                    if (tag == wanted) {
+                        return true;
+                    }
+                    if (descend && constructed && depth < MAX_DEPTH) {
+                        limits[depth++] = limit;
+                        limit = valueOffset + valueLength;
+                        position = valueOffset;
+                    }
+                }
+                if (depth == 0) {
+                    return false;
+                }
+                // The template ended where its parent continues
+                limit = limits[--depth];
+            }
+        }
+
+        int tag() {
+            return tag;
+        }
+
+        boolean isConstructed() {
+            return constructed;
+        }
+
+        /** Offset of the value in the array or buffer being read. */
+        int valueOffset() {
+            return valueOffset;
+        }
+
+        int valueLength() {
+            return valueLength;
+        }
+
+        /** Byte i of the current value, 0 to 255. */
+        int valueByte(int i) {
+            if (i < 0 || i >= valueLength) {
+                throw new IndexOutOfBoundsException("Value byte " + i + " of " + valueLength);
+            }
+            return byteAt(valueOffset + i);
+        }
+
+        /** The value as an unsigned big-endian number; values of up to 8 bytes. */
+        long valueAsLong() {
+            if (valueLength > 8) {
+                throw new IllegalStateException("Value too long for a number: " + valueLength);
+            }
+            long value = 0;
+            for (int i = 0; i < valueLength; i++) {
+                value = (value << 8) | byteAt(valueOffset + i);
+            }
+            return value;
+        }
+
+        /** Copies the value into dst at dstOffset; returns the length. */
+        int copyValue(byte[] dst, int dstOffset) {
+            if (array != null) {
+                System.arraycopy(array, valueOffset, dst, dstOffset, valueLength);
+            } else {
+                for (int i = 0; i < valueLength; i++) {
+                    dst[dstOffset + i] = buffer.get(valueOffset + i);
+                }
+            }
+            return valueLength;
+        }
+
+        /** The value as upper-case hex; allocates the string. */
+        String valueHex() {
+            if (array != null) {
+                return Hex.encode(array, valueOffset, valueLength);
+            }
+            byte[] copy = new byte[valueLength];
+            copyValue(copy, 0);
+            return Hex.encode(copy);
+        }
+
+        private int byteAt(int index) {
+            return (array != null ? array[index] : buffer.get(index)) & 0xFF;
+        }
+    }
+
+    /** Appends elements to a caller-supplied array. */
+    static final class Writer {
+        private byte[] out;
+        private int start;
+        private int position;
+
+        // Start of each open constructed value
+        private final int[] open = new int[MAX_DEPTH];
+        private int depth;
+
+        /** Writes from offset onwards; earlier bytes are left alone. */
+        Writer reset(byte[] buffer, int offset) {
+            out = buffer;
+            start = offset;
+            position = offset;
+            depth = 0;
+            return this;
+        }
+
+        Writer reset(byte[] buffer) {
+            return reset(buffer, 0);
+        }
+
+        /** Index just past the last byte written. */
+        int position() {
+            return position;
+        }
+
+        /** Bytes written since reset. */
+        int length() {
+            return position - start;
+        }
+
+        Writer put(int tag, byte[] value, int offset, int length) {
+            ensure(tagSize(tag) + lengthSize(length) + length);
+            writeTag(tag);
+            writeLength(length);
+            System.arraycopy(value, offset, out, position, length);
+            position += length;
+            return this;
+        }
+
+        Writer put(int tag, byte[] value) {
+            return put(tag, value, 0, value.length);
+        }
+
+        /** A numeric value right-aligned in size bytes (amounts, counters). */
+        Writer putNumber(int tag, long value, int size) {
+            ensure(tagSize(tag) + lengthSize(size) + size);
+            writeTag(tag);
+            writeLength(size);
+            for (int i = size - 1; i >= 0; i--) {
+                out[position + i] = (byte) value;
+                value >>>= 8;
+            }
+            position += size;
+            return this;
+        }
+
+        /** Copies the reader's current element as it is. */
+        Writer put(Reader element) {
+            int length = element.valueLength();
+            ensure(tagSize(element.tag()) + lengthSize(length) + length);
+            writeTag(element.tag());
+            writeLength(length);
+            position += element.copyValue(out, position);
+            return this;
+        }
+
+        /** Opens a constructed element; its children follow until end(). */
+        Writer begin(int tag) {
+            if (depth == MAX_DEPTH) {
+                throw new IllegalStateException("Templates nested deeper than " + MAX_DEPTH);
+            }
+            ensure(tagSize(tag) + 1);
+            writeTag(tag);
+            // One length byte for now; end() makes room if the value is longer
+            out[position++] = 0;
+            open[depth++] = position;
+            return this;
+        }
+
+        /** Closes the element opened last and fills in its length. */
+        Writer end() {
+            if (depth == 0) {
+                throw new IllegalStateException("end() without begin()");
+            }
+            int valueStart = open[--depth];
+            int length = position - valueStart;
+            int extra = lengthSize(length) - 1;
+            if (extra > 0) {
+                ensure(extra);
+                System.arraycopy(out, valueStart, out, valueStart + extra, length);
+                position += extra;
+            }
+            int saved = position;
+            position = valueStart - 1;
+            writeLength(length);
+            position = saved;
+            return this;
+        }
+
+        private void writeTag(int tag) {
+            for (int shift = (tagSize(tag) - 1) * 8; shift >= 0; shift -= 8) {
+                out[position++] = (byte) (tag >>> shift);
+            }
+        }
+
+        private void writeLength(int length) {
+            int size = lengthSize(length);
+            if (size > 1) {
+                out[position++] = (byte) (0x80 | (size - 1));
+            }
+            for (int shift = (size - 2) * 8; shift >= 0; shift -= 8) {
+                out[position++] = (byte) (length >>> shift);
+            }
+            if (size == 1) {
+                out[position++] = (byte) length;
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > out.length) {
+                throw new BufferOverflowException();
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@ import androidx.annotation.NonNull;
 
 // Flutter imports
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
@@ -12,16 +15,18 @@ import io.flutter.plugin.common.MethodChannel.Result;
 // Android imports
 import android.content.Context;
 import android.util.Log;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.widget.EditText;
 import android.widget.TextView;
 
 // Java utilities
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
 
 // ZCS SDK Core imports
 import com.zcs.sdk.DriverManager;
@@ -62,7 +67,6 @@ import com.zcs.sdk.pin.PinWorkKeyTypeEnum;
 import com.zcs.sdk.pin.pinpad.PinPadManager;
 
 // Printer imports
-import com.zcs.sdk.Printer;
 import com.zcs.sdk.print.PrnStrFormat;
 import com.zcs.sdk.print.PrnTextFont;
 import com.zcs.sdk.print.PrnTextStyle;
@@ -71,7 +75,6 @@ import com.zcs.sdk.print.PrnTextStyle;
 import com.zcs.sdk.Beeper;
 import com.zcs.sdk.Led;
 import com.zcs.sdk.LedLightModeEnum;
-import com.zcs.sdk.HQrsanner;
 import android.os.SystemClock;
 
 import android.view.KeyEvent;
@@ -97,8 +100,14 @@ import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.text.Layout;
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * ZCSPlugin - Flutter plugin for ZCS ZCS SDK integration
@@ -118,29 +127,88 @@ public class ZcsSdkPlugin implements FlutterPlugin, MethodCallHandler {
     private static final String CHANNEL_NAME = "zcs_sdk_plugin";
     private static final String TAG = "ZCSPLUGIN";
     
+    // Rendered receipts kept for reprints
+    private static final int RENDERED_RECEIPT_CACHE_SIZE = 4;
+    
     // Flutter method channel for communication
     private MethodChannel channel;
+    // Receipts in the BinaryReceipt format, bypassing the map codec
+    private BasicMessageChannel<ByteBuffer> receiptChannel;
+    // Pushes printer and scanner state transitions
+    private EventChannel stateChannel;
+    private DeviceStateEvents stateEvents;
+    // Streams codes read in continuous scan mode
+    private EventChannel scanChannel;
+    private volatile EventChannel.EventSink scanEventSink;
+    private ContinuousScanner continuousScanner;
+
+    private EventChannel cardChannel;
+    private volatile EventChannel.EventSink cardEventSink;
+    private CardSearch cardSearch;
+
+    private EventChannel emvChannel;
+    private volatile EventChannel.EventSink emvEventSink;
+    private EmvEngine emvEngine;
+    private EmvParameterStore emvStore;
+
+    private EventChannel pinChannel;
+    private volatile EventChannel.EventSink pinEventSink;
+    private PinPad pinPad;
+    // Keeps the scanner warm between scans
+    private ScannerPower scannerPower;
     private Context context;
-    private HQrsanner mHQrsanner;
+    private PosHardware.Scanner mScanner;
     
-    // Background thread executor for SDK operations
-    private ExecutorService executor;
+    // One serial executor per peripheral, plus render and status threads
+    private DeviceExecutors executors;
+    private PrintPipeline printPipeline;
     private Handler mainHandler;
+    // Flags main-thread work that overruns a frame; off until the app enables it
+    private final MainThreadWatchdog watchdog = new MainThreadWatchdog();
+    // Latency from dispatch to answer per method, and per hardware call
+    private final Metrics methodMetrics = new Metrics();
+    private final Metrics deviceMetrics = new Metrics();
     
     // SDK instance variables
     private DriverManager mDriverManager;
-    private Printer mPrinter;
-    private boolean isSupportCutter = false;
+    // Printer, printer status and QR scanner, backed by the SDK unless
+    // setHardware() supplied them
+    private PosHardware hardware;
+    private PosHardware.Printer mPrinter;
+    private PrintJobQueue.Target printTarget;
+    private final PrintCompletionWaiter completionWaiter = new PrintCompletionWaiter();
+    private PrintJobQueue printQueue;
+    private PrinterStatusMonitor statusMonitor;
+    private PrintStyleRegistry styleRegistry;
+    private final ReceiptTemplates receiptTemplates = new ReceiptTemplates();
+    private final SymbolCache symbolCache = new SymbolCache();
+    // Used on the render executor only
+    private final PrintImageLoader imageLoader = new PrintImageLoader();
+    private volatile int printerWidth = ReceiptRasterizer.WIDTH_58MM;
+    private final Map<String, Bitmap> renderedReceipts =
+            new LinkedHashMap<String, Bitmap>(RENDERED_RECEIPT_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bitmap> eldest) {
+                    return size() > RENDERED_RECEIPT_CACHE_SIZE;
+                }
+            };
+    private volatile boolean isSupportCutter = false;
     
-    // Device state tracking
-    private boolean isDeviceInitialized = false;
-    private boolean isDeviceOpened = false;
-    private boolean isScannerActive = false;
+    // Device state tracking, read from every executor
+    private volatile boolean isDeviceInitialized = false;
+    private volatile boolean isDeviceOpened = false;
+    private volatile boolean isScannerActive = false;
 
 private String lastScannedData = "";
-private boolean isWaitingForScan = false;
-private Result pendingScanResult = null;
-private EditText scanResultEditText;
+private volatile boolean isWaitingForScan = false;
+private volatile Result pendingScanResult = null;
+private volatile EditText scanResultEditText;
+// Posted per scan and removed once it ends, so a stale timeout cannot end the next scan
+private final Runnable scanTimeoutTask = () -> {
+    if (isWaitingForScan) {
+        handleScanTimeout();
+    }
+};
 
 
     @Override
@@ -149,9 +217,78 @@ private EditText scanResultEditText;
         channel.setMethodCallHandler(this);
         context = flutterPluginBinding.getApplicationContext();
         
-        // Initialize background executor and main handler
-        executor = Executors.newSingleThreadExecutor();
-        mainHandler = new Handler(Looper.getMainLooper());
+        // Initialize background executors and main handler
+        executors = new DeviceExecutors();
+        printPipeline = new PrintPipeline(executors.render, executors.printer, PrintPipeline.DEFAULT_CAPACITY);
+        mainHandler = watchdog.handler(Looper.getMainLooper());
+        
+        stateEvents = new DeviceStateEvents(executors.status);
+        stateChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME + "/events");
+        stateChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                stateEvents.setSink(event -> mainHandler.post(() -> events.success(event)));
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                stateEvents.setSink(null);
+            }
+        });
+        // BinaryCodec.INSTANCE hands over a copy, so the buffer outlives the handler
+        receiptChannel = new BasicMessageChannel<>(flutterPluginBinding.getBinaryMessenger(),
+                CHANNEL_NAME + "/receipt", BinaryCodec.INSTANCE);
+        receiptChannel.setMessageHandler((message, reply) ->
+                printBinaryReceipt(message, new MeteredResult(new BinaryReplyResult(reply),
+                        methodMetrics.get("printBinaryReceipt"))));
+        scanChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME + "/scans");
+        scanChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                scanEventSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                scanEventSink = null;
+            }
+        });
+        cardChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME + "/cards");
+        cardChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                cardEventSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                cardEventSink = null;
+            }
+        });
+        emvChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME + "/emv");
+        emvChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                emvEventSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                emvEventSink = null;
+            }
+        });
+        pinChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME + "/pin");
+        pinChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                pinEventSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                pinEventSink = null;
+            }
+        });
         
         Log.d(TAG, "ZCS Plugin attached to engine");
     }
@@ -159,20 +296,41 @@ private EditText scanResultEditText;
     @Override
     public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
         channel.setMethodCallHandler(null);
+        stateChannel.setStreamHandler(null);
+        receiptChannel.setMessageHandler(null);
+        stateEvents.setSink(null);
+        scanChannel.setStreamHandler(null);
+        scanEventSink = null;
+        if (continuousScanner != null) {
+            continuousScanner.stop();
+        }
+        cardChannel.setStreamHandler(null);
+        cardEventSink = null;
+        if (cardSearch != null) {
+            cardSearch.stop();
+        }
+        emvChannel.setStreamHandler(null);
+        emvEventSink = null;
+        if (emvEngine != null) {
+            emvEngine.cancel();
+        }
+        pinChannel.setStreamHandler(null);
+        pinEventSink = null;
+        if (pinPad != null) {
+            pinPad.cancel();
+        }
         
         // Cleanup resources
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
+        if (statusMonitor != null) {
+            statusMonitor.stop();
+        }
+        if (executors != null) {
+            executors.shutdown();
         }
         
-        // Stop scanner if active
-        if (isScannerActive && mHQrsanner != null) {
-            try {
-                mHQrsanner.QRScanerPowerCtrl((byte) 0);
-                isScannerActive = false;
-            } catch (Exception e) {
-                Log.w(TAG, "Failed to stop scanner during cleanup", e);
-            }
+        // Power the scanner down, standby or not
+        if (scannerPower != null) {
+            scannerPower.powerDown();
         }
         
         Log.d(TAG, "ZCS Plugin detached from engine");
@@ -180,6 +338,15 @@ private EditText scanResultEditText;
 
     @Override
     public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+        long started = watchdog.begin();
+        try {
+            handleMethodCall(call, new MeteredResult(result, methodMetrics.get(call.method)));
+        } finally {
+            watchdog.end(call.method, started);
+        }
+    }
+
+    private void handleMethodCall(MethodCall call, Result result) {
         switch (call.method) {
             case "initializeDevice":
                 initializeDevice(result);
@@ -198,26 +365,105 @@ private EditText scanResultEditText;
                 break;
             case "printText":
                 String text = call.argument("text");
-                printText(text, result);
+                String textStyle = call.argument("style");
+                printText(text, textStyle, isFlushRequested(call), result);
+                break;
+            case "registerPrintStyle":
+                String styleId = call.argument("id");
+                Map<String, Object> styleSpec = call.arguments();
+                registerPrintStyle(styleId, styleSpec, result);
                 break;
             case "printReceipt":
                 Map<String, Object> receiptData = call.argument("receiptData");
-                printReceipt(receiptData, result);
+                String templateId = call.argument("template");
+                Boolean raster = call.argument("raster");
+                printReceipt(receiptData, templateId, raster != null && raster, result);
+                break;
+            case "reprintReceipt":
+                String renderId = call.argument("renderId");
+                reprintReceipt(renderId, result);
+                break;
+            case "registerReceiptTemplate":
+                String newTemplateId = call.argument("id");
+                List<Map<String, Object>> elements = call.argument("elements");
+                registerReceiptTemplate(newTemplateId, elements, result);
                 break;
             case "printQRCode":
                 String qrData = call.argument("data");
                 Integer qrSize = call.argument("size");
-                printQRCode(qrData, qrSize != null ? qrSize : 200, result);
+                String errorCorrectionLevel = call.argument("errorCorrectionLevel");
+                printQRCode(qrData, qrSize != null ? qrSize : 200, errorCorrectionLevel,
+                    isFlushRequested(call), result);
                 break;
             case "printBarcode":
                 String barcodeData = call.argument("data");
-                printBarcode(barcodeData, result);
+                printBarcode(barcodeData, isFlushRequested(call), result);
+                break;
+            case "printImage":
+                byte[] imageData = call.argument("imageData");
+                String imagePath = call.argument("path");
+                String dither = call.argument("dither");
+                printImage(imageData, imagePath, dither, isFlushRequested(call), result);
+                break;
+            case "getSymbolCacheStats":
+                Boolean resetStats = call.argument("reset");
+                getSymbolCacheStats(resetStats != null && resetStats, result);
+                break;
+            case "flushPrintQueue":
+                flushPrintQueue(result);
+                break;
+            case "configurePrintQueue":
+                Number windowMs = call.argument("windowMs");
+                Number completionTimeoutMs = call.argument("completionTimeoutMs");
+                configurePrintQueue(windowMs, completionTimeoutMs, result);
                 break;
             case "cutPaper":
                 cutPaper(result);
                 break;
+            case "searchCard":
+                List<String> cardSlots = call.argument("slots");
+                Number cardTimeoutMs = call.argument("timeoutMs");
+                searchCard(cardSlots, cardTimeoutMs != null ? cardTimeoutMs.longValue() : CardSearch.DEFAULT_TIMEOUT_MS, result);
+                break;
+            case "cancelCardSearch":
+                cancelCardSearch(result);
+                break;
+            case "configureEmv":
+                Map<String, Object> emvTerminal = call.argument("terminal");
+                List<Map<String, Object>> emvAids = call.argument("aids");
+                List<Map<String, Object>> emvCapks = call.argument("capks");
+                configureEmv(emvTerminal, emvAids, emvCapks, result);
+                break;
+            case "startEmvTransaction":
+                startEmvTransaction(call, result);
+                break;
+            case "respondEmv":
+                Number promptId = call.argument("id");
+                Map<String, Object> answer = call.argument("answer");
+                respondEmv(promptId, answer, result);
+                break;
+            case "cancelEmvTransaction":
+                cancelEmvTransaction(result);
+                break;
+            case "startPinEntry":
+                startPinEntry(call, result);
+                break;
+            case "cancelPinEntry":
+                cancelPinEntry(result);
+                break;
+            case "runSecureBatch":
+                List<Map<String, Object>> operations = call.argument("operations");
+                runSecureBatch(operations, result);
+                break;
             case "getPrinterStatus":
-                getPrinterStatus(result);
+                Boolean refreshStatus = call.argument("refresh");
+                getPrinterStatus(refreshStatus != null && refreshStatus, result);
+                break;
+            case "configureStatusMonitor":
+                Number ttlMs = call.argument("ttlMs");
+                Number minIntervalMs = call.argument("minIntervalMs");
+                Number maxIntervalMs = call.argument("maxIntervalMs");
+                configureStatusMonitor(ttlMs, minIntervalMs, maxIntervalMs, result);
                 break;
              
         case "stopQRScan":
@@ -226,6 +472,34 @@ private EditText scanResultEditText;
         case "scanQRCode":
             scanQRCodeOnce(result);
             break;
+        case "startContinuousScan":
+            Number idleTimeoutMs = call.argument("idleTimeoutMs");
+            Number duplicateWindowMs = call.argument("duplicateWindowMs");
+            startContinuousScan(
+                idleTimeoutMs != null ? idleTimeoutMs.longValue() : ContinuousScanner.DEFAULT_IDLE_TIMEOUT_MS,
+                duplicateWindowMs != null ? duplicateWindowMs.longValue() : ContinuousScanner.DEFAULT_DUPLICATE_WINDOW_MS,
+                result);
+            break;
+        case "stopContinuousScan":
+            stopContinuousScan(result);
+            break;
+        case "configureScanner":
+            Number standbyMs = call.argument("standbyMs");
+            configureScanner(standbyMs, result);
+            break;
+        case "configureStallDetection":
+            Boolean stallDetection = call.argument("enabled");
+            Number thresholdMs = call.argument("thresholdMs");
+            configureStallDetection(stallDetection, thresholdMs, result);
+            break;
+        case "getMainThreadStalls":
+            Boolean resetStalls = call.argument("reset");
+            getMainThreadStalls(resetStalls != null && resetStalls, result);
+            break;
+        case "getMetrics":
+            Boolean resetMetrics = call.argument("reset");
+            getMetrics(resetMetrics != null && resetMetrics, result);
+            break;
         // case "getLastScannedData":
         //     getLastScannedData(result);
         //     break;
@@ -237,44 +511,114 @@ private EditText scanResultEditText;
     }
 
     private void initializeDevice(Result result) {
-        executor.execute(() -> {
+        executors.printer.execute(() -> {
+            // Set up once per engine: a second run would orphan the status
+            // poller, drop queued print fragments and lose registered styles
+            if (isDeviceInitialized) {
+                mainHandler.post(() -> result.success(initializeResponse("ZCS SDK already initialized")));
+                return;
+            }
             try {
                 Log.d(TAG, "Initializing ZCS ZCS SDK...");
                 
-                // Initialize the ZCS SDK
-                mDriverManager = DriverManager.getInstance();
-                if (mDriverManager == null) {
-                    throw new Exception("Failed to get DriverManager instance");
-                }
-                
-                // Get printer instance
-                mPrinter = mDriverManager.getPrinter();
-                if (mPrinter == null) {
-                    throw new Exception("Failed to get Printer instance");
+                if (hardware == null) {
+                    // Initialize the ZCS SDK
+                    mDriverManager = DriverManager.getInstance();
+                    if (mDriverManager == null) {
+                        throw new Exception("Failed to get DriverManager instance");
+                    }
+
+                    // Get printer and scanner; fails when there is no printer
+                    hardware = new SdkHardware(mDriverManager);
                 }
+                mPrinter = hardware.printer();
                 
                 // Check if device supports paper cutter
-                isSupportCutter = mPrinter.isSuppoerCutter();
+                isSupportCutter = mPrinter.hasCutter();
+                printerWidth = ReceiptRasterizer.headWidth(mPrinter.is80mm());
+
+                // Print calls are coalesced into one setPrintStart per batch
+                printTarget = new PrintJobQueue.Target() {
+                    @Override
+                    public int getPrinterStatus() {
+                        // Completion polling keeps the cached status fresh for free
+                        int status = readPrinterStatus();
+                        statusMonitor.publish(status);
+                        return status;
+                    }
+
+                    @Override
+                    public int setPrintStart() {
+                        long start = System.nanoTime();
+                        int code = mPrinter.start();
+                        deviceMetrics.record("setPrintStart", start);
+                        if (code != SdkResult.SDK_OK) {
+                            deviceMetrics.error("setPrintStart");
+                        }
+                        return code;
+                    }
+                };
+                statusMonitor = new PrinterStatusMonitor(() -> readPrinterStatus(), executors.status);
+                statusMonitor.setListener(status -> {
+                    stateEvents.update(DeviceStateEvents.PAPER_OUT, status == SdkResult.SDK_PRN_STATUS_PAPEROUT);
+                    stateEvents.update(DeviceStateEvents.PRINTER_BUSY, status == SdkResult.SDK_PRN_STATUS_PRINTING);
+                });
+                printQueue = new PrintJobQueue(printTarget, completionWaiter, executors.printer, statusMonitor,
+                        deviceMetrics);
+
+                // Text formats are built once here and shared by every job
+                styleRegistry = new PrintStyleRegistry();
 
                 // Initialize QR scanner
-                mHQrsanner = mDriverManager.getHQrsannerDriver();
-                if (mHQrsanner == null) {
+                mScanner = hardware.scanner();
+                if (mScanner == null) {
 
                     Log.w(TAG, "QR Scanner not available on this device");
                     // Don't throw exception, just log warning as some devices may not have scanner
+                } else {
+                    scannerPower = new ScannerPower(mScanner,
+                        executors.scanner, powered -> setScannerPowered(powered), deviceMetrics);
+                    continuousScanner = new ContinuousScanner(
+                        new ContinuousScanner.PoweredDevice(mScanner, scannerPower), executors.scanner);
+                }
+
+                // Card readers are armed from their own thread, never the printer's
+                CardReaderManager cardReader = mDriverManager != null ? mDriverManager.getCardReadManager() : null;
+                if (cardReader == null) {
+                    Log.w(TAG, "Card reader not available on this device");
+                } else {
+                    cardSearch = new CardSearch(new CardReaderDevice(cardReader), executors.card);
+                }
+
+                // AIDs and CAPKs are loaded later by configureEmv and then stay resident
+                if (mDriverManager == null) {
+                    Log.w(TAG, "EMV kernel not available without the SDK");
+                } else {
+                    try {
+                        emvEngine = new EmvEngine(new EmvKernel(EmvHandler.getInstance()), executors.emv);
+                        emvEngine.setSequenceStore(
+                            new EmvSequenceStore(new File(context.getFilesDir(), EmvSequenceStore.FILE_NAME)));
+                        emvStore = new EmvParameterStore(new File(context.getFilesDir(), EmvParameterStore.FILE_NAME));
+                        restoreEmvParameters();
+                    } catch (Throwable t) {
+                        // A missing kernel library is an Error, not an Exception
+                        Log.w(TAG, "EMV kernel not available on this device", t);
+                    }
+                }
+
+                // PIN entry and MACing get the secure thread, away from the printer
+                PinPadManager padManager = mDriverManager != null ? mDriverManager.getPadManager() : null;
+                if (padManager == null) {
+                    Log.w(TAG, "PIN pad not available on this device");
+                } else {
+                    pinPad = new PinPad(new PinPadDevice(padManager, context), executors.secure);
                 }
            
                 isDeviceInitialized = true;
+                statusMonitor.start();
                 
                 // Return result on main thread
-                mainHandler.post(() -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("message", "ZCS SDK initialized successfully");
-                    response.put("supportsCutter", isSupportCutter);
-                    response.put("hasQRScanner", mHQrsanner != null);
-                    result.success(response);
-                });
+                mainHandler.post(() -> result.success(initializeResponse("ZCS SDK initialized successfully")));
                 
                 Log.d(TAG, "SDK initialization completed successfully");
                 
@@ -287,18 +631,36 @@ private EditText scanResultEditText;
         });
     }
 
+    /**
+     * Runs the plugin on the given hardware instead of the SDK's, for
+     * simulators and load tests. Call before initializeDevice; the card
+     * reader, PIN pad and EMV kernel come from the SDK alone and stay off.
+     */
+    void setHardware(PosHardware hardware) {
+        this.hardware = hardware;
+    }
+
+    private Map<String, Object> initializeResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("supportsCutter", isSupportCutter);
+        response.put("hasQRScanner", mScanner != null);
+        return response;
+    }
+
     private void openDevice(Result result) {
         if (!isDeviceInitialized) {
             result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
             return;
         }
         
-        executor.execute(() -> {
+        executors.status.execute(() -> {
             try {
                 Log.d(TAG, "Opening printer device...");
                 
                 // Check printer status first
-                int status = mPrinter.getPrinterStatus();
+                int status = statusMonitor.refresh();
 
                 if (status == SdkResult.SDK_OK) {
                     isDeviceOpened = true;
@@ -325,19 +687,20 @@ private EditText scanResultEditText;
     }
 
     private void closeDevice(Result result) {
-        executor.execute(() -> {
+        executors.scanner.execute(() -> {
             try {
                 Log.d(TAG, "Closing printer device...");
                 
-                // Stop scanner if active
-                if (isScannerActive && mHQrsanner != null) {
-                    try {
-                        mHQrsanner.QRScanerPowerCtrl((byte) 0);
-                        isScannerActive = false;
-                        Log.d(TAG, "QR Scanner stopped during device close");
-                    } catch (Exception e) {
-                        Log.w(TAG, "Failed to stop scanner during close", e);
-                    }
+                // End a continuous session first, so it does not decode on
+                // the unpowered scanner; it finishes on this executor
+                if (continuousScanner != null) {
+                    continuousScanner.stop();
+                }
+
+                // Stop scanner if powered, including warm standby
+                if (scannerPower != null && scannerPower.isPowered()) {
+                    scannerPower.powerDown();
+                    Log.d(TAG, "QR Scanner stopped during device close");
                 }
                 
                 // ZCS SDK doesn't require explicit close for printer
@@ -361,7 +724,7 @@ private EditText scanResultEditText;
     }
 
     private void getDeviceInfo(Result result) {
-        executor.execute(() -> {
+        executors.status.execute(() -> {
             try {
                 Log.d(TAG, "Getting device information...");
                 
@@ -374,9 +737,9 @@ private EditText scanResultEditText;
                 deviceInfo.put("serialNumber", "ZCS_" + System.currentTimeMillis());
                 deviceInfo.put("sdkVersion", "1.8.1+");
                 deviceInfo.put("supportsCutter", isSupportCutter);
-                deviceInfo.put("hasQRScanner", mHQrsanner != null);
-                deviceInfo.put("printerStatus", getPrinterStatusMessage(mPrinter.getPrinterStatus()));
-                deviceInfo.put("is80MMPrinter", mPrinter.is80MMPrinter());
+                deviceInfo.put("hasQRScanner", mScanner != null);
+                deviceInfo.put("printerStatus", getPrinterStatusMessage(statusMonitor.status()));
+                deviceInfo.put("is80MMPrinter", printerWidth == ReceiptRasterizer.WIDTH_80MM);
                 
                 mainHandler.post(() -> result.success(deviceInfo));
                 
@@ -395,12 +758,12 @@ private EditText scanResultEditText;
         status.put("opened", isDeviceOpened);
         status.put("ready", isDeviceInitialized && isDeviceOpened);
         status.put("supportsCutter", isSupportCutter);
-        status.put("hasQRScanner", mHQrsanner != null);
+        status.put("hasQRScanner", mScanner != null);
         status.put("scannerActive", isScannerActive);
         result.success(status);
     }
 
-    private void printText(String text, Result result) {
+    private void printText(String text, String styleId, boolean flush, Result result) {
         if (!checkDeviceReady(result)) return;
         
         if (text == null || text.trim().isEmpty()) {
@@ -408,45 +771,37 @@ private EditText scanResultEditText;
             return;
         }
         
-        executor.execute(() -> {
-            try {
-                int printStatus = mPrinter.getPrinterStatus();
-                if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
-                    throw new Exception("Out of paper");
-                }
-                
-                PrnStrFormat format = new PrnStrFormat();
-                format.setTextSize(40);
-                format.setStyle(PrnTextStyle.NORMAL);
-                format.setFont(PrnTextFont.MONOSPACE);
-                format.setAli(Layout.Alignment.ALIGN_NORMAL);
-                
-                mPrinter.setPrintAppendString(text, format);
-                mPrinter.setPrintAppendString("\n", format);
-                
-                int result_code = mPrinter.setPrintStart();
-                
+        PrnStrFormat format = styleRegistry.get(styleId, PrintStyleRegistry.TEXT);
+        
+        printQueue.submit(() -> {
+            mPrinter.appendText(text, format);
+            mPrinter.appendText("\n", format);
+        }, new PrintJobQueue.Callback() {
+            @Override
+            public void onPrinted(int resultCode) {
                 mainHandler.post(() -> {
-                    if (result_code == SdkResult.SDK_OK) {
+                    if (resultCode == SdkResult.SDK_OK) {
                         Map<String, Object> response = new HashMap<>();
                         response.put("success", true);
                         response.put("message", "Text printed successfully");
                         result.success(response);
                     } else {
-                        result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                        result.error("PRINT_ERROR", "Print failed with code: " + resultCode, null);
                     }
                 });
-                
-            } catch (Exception e) {
+            }
+
+            @Override
+            public void onError(Exception e) {
                 Log.e(TAG, "Failed to print text", e);
                 mainHandler.post(() -> {
                     result.error("PRINT_ERROR", "Failed to print text: " + e.getMessage(), null);
                 });
             }
-        });
+        }, flush);
     }
 
-    private void printReceipt(Map<String, Object> receiptData, Result result) {
+    private void printReceipt(Map<String, Object> receiptData, String templateId, boolean raster, Result result) {
         if (!checkDeviceReady(result)) return;
         
         if (receiptData == null) {
@@ -454,233 +809,122 @@ private EditText scanResultEditText;
             return;
         }
         
-        executor.execute(() -> {
-            try {
-                int printStatus = mPrinter.getPrinterStatus();
-                if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
-                    throw new Exception("Out of paper");
-                }
-                
-                // Create format objects
-                PrnStrFormat headerFormat = new PrnStrFormat();
-                headerFormat.setTextSize(50);
-                headerFormat.setAli(Layout.Alignment.ALIGN_CENTER);
-                headerFormat.setStyle(PrnTextStyle.BOLD);
-                headerFormat.setFont(PrnTextFont.SANS_SERIF);
-                
-                PrnStrFormat subHeaderFormat = new PrnStrFormat();
-                subHeaderFormat.setTextSize(30 );
-                subHeaderFormat.setAli(Layout.Alignment.ALIGN_CENTER);
-                subHeaderFormat.setStyle(PrnTextStyle.BOLD);
-                subHeaderFormat.setFont(PrnTextFont.SANS_SERIF);
-                
-                PrnStrFormat normalFormat = new PrnStrFormat();
-                normalFormat.setTextSize(22);
-                normalFormat.setStyle(PrnTextStyle.NORMAL);
-                normalFormat.setFont(PrnTextFont.MONOSPACE);
-                normalFormat.setAli(Layout.Alignment.ALIGN_NORMAL);
-                
-                PrnStrFormat boldFormat = new PrnStrFormat();
-                boldFormat.setTextSize(26);
-                boldFormat.setStyle(PrnTextStyle.BOLD);
-                boldFormat.setFont(PrnTextFont.MONOSPACE);
-                boldFormat.setAli(Layout.Alignment.ALIGN_NORMAL);
-                
-                PrnStrFormat orderNumberFormat = new PrnStrFormat();
-                orderNumberFormat.setTextSize(40);
-                orderNumberFormat.setAli(Layout.Alignment.ALIGN_CENTER);
-                orderNumberFormat.setStyle(PrnTextStyle.BOLD);
-                orderNumberFormat.setFont(PrnTextFont.SANS_SERIF);
-                
-                PrnStrFormat smallFormat = new PrnStrFormat();
-                smallFormat.setTextSize(20);
-                smallFormat.setStyle(PrnTextStyle.NORMAL);
-                smallFormat.setFont(PrnTextFont.MONOSPACE);
-                smallFormat.setAli(Layout.Alignment.ALIGN_NORMAL);
-                
-                PrnStrFormat mediaFormat = new PrnStrFormat();
-                mediaFormat.setTextSize(25);
-                mediaFormat.setStyle(PrnTextStyle.NORMAL);
-                mediaFormat.setFont(PrnTextFont.MONOSPACE);
-                mediaFormat.setAli(Layout.Alignment.ALIGN_NORMAL);
-                
-                // Print store name
-                String storeName = (String) receiptData.get("storeName");
-                String receiptType = (String) receiptData.get("receiptType");
-                if (storeName != null && !storeName.trim().isEmpty()) {
-                    mPrinter.setPrintAppendString(storeName, headerFormat);
-                } else {
-                    mPrinter.setPrintAppendString("Blankets And Wine", headerFormat);
-                }
-                
-                // Print receipt title
-                mPrinter.setPrintAppendString(receiptType, subHeaderFormat);
-                mPrinter.setPrintAppendString("", normalFormat); // Empty line
-                                                                                                                
-                // Print date and time
-                String date = (String) receiptData.get("date");
-                String time = (String) receiptData.get("time");
-                if (date != null && !date.trim().isEmpty()) {
-                    mPrinter.setPrintAppendString("Date: " + date, normalFormat);
-                }
-                if (time != null && !time.trim().isEmpty()) {
-                    mPrinter.setPrintAppendString("Time: " + time, normalFormat);
+        // Generate order number
+        Map<String, Object> data = receiptData;
+        String orderNumber = (String) receiptData.get("orderNumber");
+        if (orderNumber == null || orderNumber.trim().isEmpty()) {
+            orderNumber = "ORD-" + String.format("%04d", (int)(Math.random() * 9999) + 1);
+            data = new HashMap<>(receiptData);
+            data.put("orderNumber", orderNumber);
+        }
+        
+        submitReceipt(new ReceiptTemplate.MapData(data), orderNumber, templateId, raster, result);
+    }
+
+    private void printBinaryReceipt(ByteBuffer message, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        // Only checks the framing and indexes the fields; values are read while rendering
+        BinaryReceipt receipt;
+        try {
+            receipt = BinaryReceipt.decode(message);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", "Invalid receipt data: " + e.getMessage(), null);
+            return;
+        }
+        
+        // Generate order number
+        Object orderNumber = receipt.get("orderNumber");
+        String finalOrderNumber;
+        if (ReceiptTemplate.isPresent(orderNumber)) {
+            finalOrderNumber = orderNumber.toString();
+        } else {
+            finalOrderNumber = "ORD-" + String.format("%04d", (int)(Math.random() * 9999) + 1);
+            receipt.put("orderNumber", finalOrderNumber);
+        }
+        
+        submitReceipt(receipt, finalOrderNumber, receipt.getTemplateId(), receipt.isRaster(), result);
+    }
+
+    private void submitReceipt(ReceiptTemplate.Data finalData, String finalOrderNumber,
+                               String templateId, boolean raster, Result result) {
+        // Print calls made after this one wait in the queue until the receipt is out
+        PrintJobQueue.Barrier barrier = printQueue.hold();
+        printPipeline.submit(new PrintPipeline.Job<PrintJobQueue.Fragment>() {
+            @Override
+            public PrintJobQueue.Fragment render() throws Exception {
+                ReceiptTemplate template = receiptTemplates.get(templateId);
+                if (template == null) {
+                    throw new Exception("Unknown receipt template: " + templateId);
                 }
                 
-                // Print separator
-                String separator = "--------------------------------";
-                mPrinter.setPrintAppendString(separator, normalFormat);
-                
-                // Print column headers
-                mPrinter.setPrintAppendString("ITEM            QTY    AMOUNT", boldFormat);
-                mPrinter.setPrintAppendString(separator, normalFormat);
-                
-                // Print items
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> items = (List<Map<String, Object>>) receiptData.get("items");
-                if (items != null) {
-                    for (Map<String, Object> item : items) {
-                        String itemName = (String) item.get("name");
-                        String quantity = String.valueOf(item.get("quantity"));
-                        String price = String.valueOf(item.get("price"));
-                        
-                        // Handle null values and truncate long names
-                        if (itemName == null || itemName.trim().isEmpty()) itemName = "Unknown Item";
-                        if (itemName.length() > 15) {
-                            itemName = itemName.substring(0, 12) + "...";
-                        }
-                        
-                        // Format line
-                        String itemLine = String.format("%-15s %3sx %9s", 
-                            itemName, quantity, "Kshs " + price);
-                        mPrinter.setPrintAppendString(itemLine, mediaFormat);
+                // Bind the data against the compiled layout
+                if (raster) {
+                    // Render the whole receipt into one bitmap and hand it over in one call
+                    ReceiptRasterizer rasterizer = new ReceiptRasterizer(printerWidth, styleRegistry, symbolCache, imageLoader);
+                    template.render(finalData, rasterizer);
+                    Bitmap rendered = rasterizer.finish();
+                    synchronized (renderedReceipts) {
+                        renderedReceipts.put(finalOrderNumber, rendered);
                     }
+                    return () -> mPrinter.appendBitmap(rendered, Layout.Alignment.ALIGN_CENTER);
                 }
+                ReceiptCommands commands = new ReceiptCommands(mPrinter, styleRegistry, symbolCache, imageLoader, printerWidth);
+                template.render(finalData, commands);
+                return commands;
+            }
+
+            @Override
+            public void print(PrintJobQueue.Fragment receipt) throws Exception {
+                try {
+                    // Print anything still waiting in the queue before this receipt
+                    printQueue.flushPending();
                 
-                mPrinter.setPrintAppendString(separator, normalFormat);
-                
-                // Print financial summary
-                String subtotal = (String) receiptData.get("subtotal");
-                String tax = (String) receiptData.get("tax");
-                String total = (String) receiptData.get("total");
-                
-                if (subtotal != null && !subtotal.trim().isEmpty()) {
-                    String subtotalLine = String.format("%-20s %10s", "Subtotal:", "Kshs " + subtotal);
-                    mPrinter.setPrintAppendString(subtotalLine, normalFormat);
-                }
-                
-                if (tax != null && !tax.trim().isEmpty()) {
-                    String taxLine = String.format("%-20s %10s", "Tax:", "Kshs " + tax);
-                    mPrinter.setPrintAppendString(taxLine, normalFormat);
-                }
-                
-                if (total != null && !total.trim().isEmpty()) {
-                    String doubleSeparator = "================================";
-                    mPrinter.setPrintAppendString(doubleSeparator, normalFormat);
-                    
-                    String totalLine = String.format("%-20s %10s", "TOTAL:", "Kshs " + total);
-                    mPrinter.setPrintAppendString(totalLine, boldFormat);
-                    
-                    mPrinter.setPrintAppendString(doubleSeparator, normalFormat);
-                }
-                
-                // Add processing delay
-                Thread.sleep(100);
-                
-                // Print payment method
-                String paymentMethod = (String) receiptData.get("paymentMethod");
-                if (paymentMethod != null && !paymentMethod.trim().isEmpty()) {
-                    mPrinter.setPrintAppendString("", smallFormat);
-                    String paymentLine = String.format("Payment Method: %s", paymentMethod);
-                    mPrinter.setPrintAppendString(paymentLine, smallFormat);
-                }
-                
-                // Footer messages
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("Thank you for your visit!", smallFormat);
-                mPrinter.setPrintAppendString("Enjoy responsibly!", smallFormat);
-                
-                // Spacing before QR code
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                
-                // Generate order number
-                String orderNumber = (String) receiptData.get("orderNumber");
-                if (orderNumber == null || orderNumber.trim().isEmpty()) {
-                    orderNumber = "ORD-" + String.format("%04d", (int)(Math.random() * 9999) + 1);
-                }
-                
-                final String finalOrderNumber = orderNumber;
-                
-                // Print QR Code
-                Object qrSizeObj = receiptData.get("qrSize");
-                int qrSize = 200; // default size
-                if (qrSizeObj != null) {
-                    if (qrSizeObj instanceof Integer) {
-                        qrSize = (Integer) qrSizeObj;
-                    } else if (qrSizeObj instanceof String) {
-                        try {
-                            qrSize = Integer.parseInt((String) qrSizeObj);
-                        } catch (NumberFormatException e) {
-                            Log.w(TAG, "Invalid QR size, using default: " + qrSizeObj);
-                        }
+                    int printStatus = statusMonitor.status();
+                    if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+                        throw new Exception("Out of paper");
                     }
-                }
-                
-                // Add QR code to receipt
-                mPrinter.setPrintAppendString("Scan QR Code:", normalFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                
-                mPrinter.setPrintAppendQRCode(finalOrderNumber, qrSize, qrSize, Layout.Alignment.ALIGN_CENTER);
-                
-                // Spacing before order number
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                
-                // Print order number section
-                String doubleSeparator = "================================";
-                mPrinter.setPrintAppendString(doubleSeparator, smallFormat);
-                mPrinter.setPrintAppendString("ORDER NUMBER", subHeaderFormat);
-                mPrinter.setPrintAppendString(finalOrderNumber, orderNumberFormat);
-                mPrinter.setPrintAppendString(doubleSeparator, smallFormat);
-                
-                // Extra spacing for easy tearing
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                mPrinter.setPrintAppendString("", smallFormat);
-                
-                // Add line feeds for complete printing
-                try {
-                    mPrinter.setPrintAppendString("\n", smallFormat);
-                    mPrinter.setPrintAppendString("\n", smallFormat);
-                } catch (Exception e) {
-                    Log.w(TAG, "Line feeds not supported", e);
-                }
                 
-                // Start printing
-                int result_code = mPrinter.setPrintStart();
+                    receipt.append();
                 
-                // Add delay to ensure printing completes
-                Thread.sleep(2000);
+                    // Start printing
+                    int result_code = mPrinter.start();
                 
-                // Check final printer status
-                int finalStatus = mPrinter.getPrinterStatus();
-                Log.d(TAG, "Final printer status: " + finalStatus);
+                    // Wait until the printer reports the job as finished
+                    int finalStatus = result_code == SdkResult.SDK_OK
+                            ? completionWaiter.await(printTarget)
+                            : statusMonitor.refresh();
+                    Log.d(TAG, "Final printer status: " + finalStatus);
                 
-                mainHandler.post(() -> {
-                    if (result_code == SdkResult.SDK_OK) {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("success", true);
-                        response.put("message", "Receipt printed successfully");
-                        response.put("orderNumber", finalOrderNumber);
-                        result.success(response);
-                    } else {
-                        result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                    if (result_code == SdkResult.SDK_OK && finalStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+                        throw new Exception("Out of paper");
                     }
-                });
+                    boolean completed = finalStatus != SdkResult.SDK_PRN_STATUS_PRINTING;
                 
-            } catch (Exception e) {
+                    mainHandler.post(() -> {
+                        if (result_code == SdkResult.SDK_OK) {
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("success", true);
+                            response.put("message", "Receipt printed successfully");
+                            response.put("orderNumber", finalOrderNumber);
+                            response.put("completed", completed);
+                            if (raster) {
+                                response.put("renderId", finalOrderNumber);
+                            }
+                            result.success(response);
+                        } else {
+                            result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                        }
+                    });
+                } finally {
+                    printQueue.release(barrier);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Rendering may fail before print() runs
+                printQueue.release(barrier);
                 Log.e(TAG, "Failed to print receipt", e);
                 mainHandler.post(() -> {
                     result.error("PRINT_ERROR", "Failed to print receipt: " + e.getMessage(), null);
@@ -689,7 +933,7 @@ private EditText scanResultEditText;
         });
     }
 
-    private void printQRCode(String data, int size, Result result) {
+    private void printQRCode(String data, int size, String errorCorrectionLevel, boolean flush, Result result) {
         if (!checkDeviceReady(result)) return;
         
         if (data == null || data.trim().isEmpty()) {
@@ -697,86 +941,359 @@ private EditText scanResultEditText;
             return;
         }
         
-        executor.execute(() -> {
-            try {
-                int printStatus = mPrinter.getPrinterStatus();
-                if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
-                    throw new Exception("Out of paper");
-                }
-                
-                // Validate QR size
-                int validSize = Math.max(100, Math.min(size, 600)); // Clamp between 100-600
-                
-                mPrinter.setPrintAppendQRCode(data, validSize, validSize, Layout.Alignment.ALIGN_CENTER);
-                int result_code = mPrinter.setPrintStart();
-                
+        // Validate QR size
+        int validSize = Math.max(100, Math.min(size, 600)); // Clamp between 100-600
+        ErrorCorrectionLevel level = SymbolCache.parseLevel(errorCorrectionLevel);
+        
+        printQueue.submit(() -> {
+            Bitmap qrCode = symbolCache.qrCode(data, validSize, level);
+            mPrinter.appendBitmap(qrCode, Layout.Alignment.ALIGN_CENTER);
+        }, new PrintJobQueue.Callback() {
+            @Override
+            public void onPrinted(int resultCode) {
                 mainHandler.post(() -> {
-                    if (result_code == SdkResult.SDK_OK) {
+                    if (resultCode == SdkResult.SDK_OK) {
                         Map<String, Object> response = new HashMap<>();
                         response.put("success", true);
                         response.put("message", "QR Code printed successfully");
                         response.put("size", validSize);
                         result.success(response);
                     } else {
-                        result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                        result.error("PRINT_ERROR", "Print failed with code: " + resultCode, null);
                     }
                 });
-                
-            } catch (Exception e) {
+            }
+
+            @Override
+            public void onError(Exception e) {
                 Log.e(TAG, "Failed to print QR code", e);
                 mainHandler.post(() -> {
                     result.error("PRINT_ERROR", "Failed to print QR code: " + e.getMessage(), null);
                 });
             }
-        });
+        }, flush);
     }
-  private void printBarcode(String data, Result result) {
+
+    private void printImage(byte[] data, String path, String dither, boolean flush, Result result) {
         if (!checkDeviceReady(result)) return;
         
-        executor.execute(() -> {
-            try {
-                int printStatus = mPrinter.getPrinterStatus();
-                if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
-                    throw new Exception("Out of paper");
+        if ((data == null || data.length == 0) && (path == null || path.trim().isEmpty())) {
+            result.error("INVALID_INPUT", "Image bytes or a file path are required", null);
+            return;
+        }
+        
+        // Photos and signatures print best diffused; "none" leaves it to the printer
+        Ditherer.Mode ditherMode;
+        try {
+            ditherMode = Ditherer.Mode.parse(dither, Ditherer.Mode.FLOYD_STEINBERG);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+            return;
+        }
+        
+        // Queued now so later calls cannot overtake it; decoded off the printer thread meanwhile
+        Future<Bitmap> decoded = executors.image.submit(() -> data != null && data.length > 0
+                ? imageLoader.decode(data, printerWidth, ditherMode)
+                : imageLoader.decodeFile(path, printerWidth, ditherMode));
+        printQueue.submit(PrintJobQueue.deferred(decoded,
+                image -> mPrinter.appendBitmap(image, Layout.Alignment.ALIGN_CENTER)),
+                new PrintJobQueue.Callback() {
+            @Override
+            public void onPrinted(int resultCode) {
+                mainHandler.post(() -> {
+                    if (resultCode == SdkResult.SDK_OK) {
+                        // Appended, so the decode is done
+                        Bitmap image = decodedImage(decoded);
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("success", true);
+                        response.put("message", "Image printed successfully");
+                        response.put("width", image.getWidth());
+                        response.put("height", image.getHeight());
+                        result.success(response);
+                    } else {
+                        result.error("PRINT_ERROR", "Print failed with code: " + resultCode, null);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (e instanceof ExecutionException) {
+                    Throwable cause = e.getCause();
+                    Log.e(TAG, "Failed to decode image", cause);
+                    mainHandler.post(() -> {
+                        result.error("INVALID_INPUT", "Failed to decode image: " + cause.getMessage(), null);
+                    });
+                    return;
                 }
-                
-                mPrinter.setPrintAppendBarCode(context, data, 360, 100, true, 
-                    Layout.Alignment.ALIGN_CENTER, BarcodeFormat.CODE_128);
-                int result_code = mPrinter.setPrintStart();
-                
+                Log.e(TAG, "Failed to print image", e);
                 mainHandler.post(() -> {
-                    if (result_code == SdkResult.SDK_OK) {
+                    result.error("PRINT_ERROR", "Failed to print image: " + e.getMessage(), null);
+                });
+            }
+        }, flush);
+    }
+
+    private static Bitmap decodedImage(Future<Bitmap> decoded) {
+        try {
+            return decoded.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // Only called once the fragment has appended the image
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void printBarcode(String data, boolean flush, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        printQueue.submit(() -> {
+            appendBarcode(data, 360, 100);
+        }, new PrintJobQueue.Callback() {
+            @Override
+            public void onPrinted(int resultCode) {
+                mainHandler.post(() -> {
+                    if (resultCode == SdkResult.SDK_OK) {
                         Map<String, Object> response = new HashMap<>();
                         response.put("success", true);
                         response.put("message", "Barcode printed successfully");
                         result.success(response);
                     } else {
-                        result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                        result.error("PRINT_ERROR", "Print failed with code: " + resultCode, null);
                     }
                 });
-                
-            } catch (Exception e) {
+            }
+
+            @Override
+            public void onError(Exception e) {
                 Log.e(TAG, "Failed to print barcode", e);
                 mainHandler.post(() -> {
                     result.error("PRINT_ERROR", "Failed to print barcode: " + e.getMessage(), null);
                 });
             }
-        });
+        }, flush);
     }
 
-    private void cutPaper(Result result) {
+    private void registerPrintStyle(String styleId, Map<String, Object> styleSpec, Result result) {
+        if (!isDeviceInitialized) {
+            result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
+            return;
+        }
+        
+        try {
+            PrnStrFormat format = styleRegistry.register(styleId, styleSpec);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Print style registered");
+            response.put("id", styleId);
+            response.put("fontSize", format.getTextSize());
+            result.success(response);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+        }
+    }
+
+    private void reprintReceipt(String renderId, Result result) {
         if (!checkDeviceReady(result)) return;
         
-        if (!isSupportCutter) {
-            result.error("NOT_SUPPORTED", "Paper cutter not supported on this device", null);
+        Bitmap rendered;
+        synchronized (renderedReceipts) {
+            rendered = renderId != null ? renderedReceipts.get(renderId) : null;
+        }
+        if (rendered == null) {
+            result.error("INVALID_INPUT", "No rendered receipt for: " + renderId, null);
             return;
         }
         
-        executor.execute(() -> {
-            try {
-                int printStatus = mPrinter.getPrinterStatus();
-                if (printStatus == SdkResult.SDK_OK) {
-                    mPrinter.openPrnCutter((byte) 1);
+        // Behind receipts still rendering, and ahead of print calls made after it
+        PrintJobQueue.Barrier barrier = printQueue.hold();
+        printPipeline.submit(new PrintPipeline.Job<Bitmap>() {
+            @Override
+            public Bitmap render() {
+                return rendered;
+            }
+
+            @Override
+            public void print(Bitmap receipt) throws Exception {
+                try {
+                    printQueue.flushPending();
+                    
+                    int printStatus = statusMonitor.status();
+                    if (printStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+                        throw new Exception("Out of paper");
+                    }
+                    
+                    mPrinter.appendBitmap(receipt, Layout.Alignment.ALIGN_CENTER);
+                    int result_code = mPrinter.start();
+                    int finalStatus = result_code == SdkResult.SDK_OK
+                            ? completionWaiter.await(printTarget)
+                            : statusMonitor.refresh();
+                    if (result_code == SdkResult.SDK_OK && finalStatus == SdkResult.SDK_PRN_STATUS_PAPEROUT) {
+                        throw new Exception("Out of paper");
+                    }
+                    
+                    mainHandler.post(() -> {
+                        if (result_code == SdkResult.SDK_OK) {
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("success", true);
+                            response.put("message", "Receipt reprinted successfully");
+                            response.put("renderId", renderId);
+                            result.success(response);
+                        } else {
+                            result.error("PRINT_ERROR", "Print failed with code: " + result_code, null);
+                        }
+                    });
+                } finally {
+                    printQueue.release(barrier);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                printQueue.release(barrier);
+                Log.e(TAG, "Failed to reprint receipt", e);
+                mainHandler.post(() -> {
+                    result.error("PRINT_ERROR", "Failed to reprint receipt: " + e.getMessage(), null);
+                });
+            }
+        });
+    }
+
+    private void registerReceiptTemplate(String templateId, List<Map<String, Object>> elements, Result result) {
+        executors.render.execute(() -> {
+            try {
+                ReceiptTemplate template = receiptTemplates.register(templateId, elements);
+                
+                mainHandler.post(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", "Receipt template registered");
+                    response.put("id", template.getId());
+                    response.put("instructions", template.size());
+                    result.success(response);
+                });
+                
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to register receipt template", e);
+                mainHandler.post(() -> {
+                    result.error("INVALID_INPUT", "Failed to register receipt template: " + e.getMessage(), null);
+                });
+            }
+        });
+    }
+
+    // Cached CODE_128 bitmap with its human-readable text underneath
+    private void appendBarcode(String data, int width, int height) throws Exception {
+        Bitmap barcode = symbolCache.barcode(data, width, height, BarcodeFormat.CODE_128);
+        mPrinter.appendBitmap(barcode, Layout.Alignment.ALIGN_CENTER);
+        mPrinter.appendText(data, styleRegistry.get(PrintStyleRegistry.BARCODE_TEXT));
+    }
+
+    private void getSymbolCacheStats(boolean reset, Result result) {
+        Map<String, Object> response = symbolCache.stats();
+        response.put("images", imageLoader.stats());
+        if (reset) {
+            symbolCache.resetStats();
+            imageLoader.resetStats();
+        }
+        response.put("success", true);
+        result.success(response);
+    }
+
+    private void configureStallDetection(Boolean enabled, Number thresholdMs, Result result) {
+        if (thresholdMs != null) {
+            watchdog.setThresholdMs(thresholdMs.longValue());
+        }
+        if (enabled != null) {
+            setStallDetection(enabled);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("enabled", watchdog.isEnabled());
+        response.put("thresholdMs", watchdog.getThresholdMs());
+        result.success(response);
+    }
+
+    private void getMainThreadStalls(boolean reset, Result result) {
+        Map<String, Object> response = watchdog.stats();
+        if (reset) {
+            watchdog.reset();
+        }
+        response.put("success", true);
+        result.success(response);
+    }
+
+    private void getMetrics(boolean reset, Result result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("model", Build.MODEL);
+        response.put("methods", methodMetrics.snapshot(reset));
+        response.put("hardware", deviceMetrics.snapshot(reset));
+        result.success(response);
+    }
+
+    /** The printer's status, timed as a hardware call. */
+    private int readPrinterStatus() {
+        long start = System.nanoTime();
+        int status = hardware.status().getPrinterStatus();
+        deviceMetrics.record("getPrinterStatus", start);
+        return status;
+    }
+
+    private void setStallDetection(boolean enabled) {
+        watchdog.setEnabled(enabled);
+        Log.d(TAG, "Main thread stall detection " + (enabled ? "enabled" : "disabled"));
+    }
+
+    private void flushPrintQueue(Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        executors.printer.execute(() -> {
+            int printed = printQueue.flushPending();
+            mainHandler.post(() -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Print queue flushed");
+                response.put("fragments", printed);
+                result.success(response);
+            });
+        });
+    }
+
+    private void configurePrintQueue(Number windowMs, Number completionTimeoutMs, Result result) {
+        if (!isDeviceInitialized) {
+            result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
+            return;
+        }
+        
+        if (windowMs != null) {
+            printQueue.setWindowMs(windowMs.longValue());
+        }
+        if (completionTimeoutMs != null) {
+            completionWaiter.setTimeoutMs(completionTimeoutMs.longValue());
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("windowMs", printQueue.getWindowMs());
+        response.put("completionTimeoutMs", completionWaiter.getTimeoutMs());
+        result.success(response);
+    }
+
+    private void cutPaper(Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (!isSupportCutter) {
+            result.error("NOT_SUPPORTED", "Paper cutter not supported on this device", null);
+            return;
+        }
+        
+        executors.printer.execute(() -> {
+            try {
+                int printStatus = statusMonitor.status();
+                if (printStatus == SdkResult.SDK_OK) {
+                    mPrinter.cut();
                     
                     mainHandler.post(() -> {
                         Map<String, Object> response = new HashMap<>();
@@ -797,24 +1314,25 @@ private EditText scanResultEditText;
         });
     }
 
-    private void getPrinterStatus(Result result) {
+    private void getPrinterStatus(boolean refresh, Result result) {
         if (!isDeviceInitialized) {
             result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
             return;
         }
         
-        executor.execute(() -> {
+        // Fast path: answer from the cached snapshot without leaving the main thread
+        PrinterStatusMonitor.Snapshot snapshot = statusMonitor.snapshot();
+        if (!refresh && snapshot != null && snapshot.ageMs() < statusMonitor.getTtlMs()) {
+            result.success(printerStatusResponse(snapshot.status, snapshot.ageMs()));
+            return;
+        }
+        
+        executors.status.execute(() -> {
             try {
-                int status = mPrinter.getPrinterStatus();
-                String statusMessage = getPrinterStatusMessage(status);
+                int status = statusMonitor.refresh();
                 
                 mainHandler.post(() -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("statusCode", status);
-                    response.put("statusMessage", statusMessage);
-                    response.put("isReady", status == SdkResult.SDK_OK);
-                    response.put("isPaperOut", status == SdkResult.SDK_PRN_STATUS_PAPEROUT);
-                    result.success(response);
+                    result.success(printerStatusResponse(status, 0));
                 });
                 
             } catch (Exception e) {
@@ -827,6 +1345,340 @@ private EditText scanResultEditText;
     }
 
 
+    private Map<String, Object> printerStatusResponse(int status, long ageMs) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", status);
+        response.put("statusMessage", getPrinterStatusMessage(status));
+        response.put("isReady", status == SdkResult.SDK_OK);
+        response.put("isPaperOut", status == SdkResult.SDK_PRN_STATUS_PAPEROUT);
+        response.put("ageMs", ageMs);
+        return response;
+    }
+
+    private void configureStatusMonitor(Number ttlMs, Number minIntervalMs, Number maxIntervalMs, Result result) {
+        if (!isDeviceInitialized) {
+            result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
+            return;
+        }
+        
+        if (ttlMs != null) {
+            statusMonitor.setTtlMs(ttlMs.longValue());
+        }
+        if (minIntervalMs != null || maxIntervalMs != null) {
+            statusMonitor.setIntervalsMs(
+                minIntervalMs != null ? minIntervalMs.longValue() : statusMonitor.getMinIntervalMs(),
+                maxIntervalMs != null ? maxIntervalMs.longValue() : statusMonitor.getMaxIntervalMs());
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("ttlMs", statusMonitor.getTtlMs());
+        response.put("minIntervalMs", statusMonitor.getMinIntervalMs());
+        response.put("maxIntervalMs", statusMonitor.getMaxIntervalMs());
+        result.success(response);
+    }
+
+    private void searchCard(List<String> slots, long timeoutMs, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (cardSearch == null) {
+            result.error("DEVICE_NOT_INITIALIZED", "Card reader not available", null);
+            return;
+        }
+        if (emvEngine != null && emvEngine.isBusy()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "EMV transaction in progress");
+            result.success(response);
+            return;
+        }
+        
+        Set<CardSearch.Slot> searchSlots;
+        try {
+            searchSlots = CardSearch.Slot.parseAll(slots);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+            return;
+        }
+        
+        boolean started = cardSearch.start(searchSlots, timeoutMs, new CardSearch.Listener() {
+            @Override
+            public void onCard(Map<String, Object> card) {
+                card.put("type", "card");
+                sendCardEvent(card);
+            }
+
+            @Override
+            public void onStopped(String reason, int code) {
+                Map<String, Object> event = new HashMap<>();
+                event.put("type", reason);
+                if (CardSearch.ERROR.equals(reason)) {
+                    event.put("code", code);
+                } else if (CardSearch.TIMEOUT.equals(reason)) {
+                    methodMetrics.timeout("searchCard");
+                }
+                sendCardEvent(event);
+            }
+        });
+        
+        // Returns at once; the card, timeout or error arrives on the cards stream
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "Card search started" : "Card search already running");
+        result.success(response);
+    }
+
+    private void cancelCardSearch(Result result) {
+        boolean cancelled = cardSearch != null && cardSearch.stop();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", cancelled ? "Card search cancelled" : "Card search not running");
+        result.success(response);
+    }
+
+    private void configureEmv(Map<String, Object> terminal, List<Map<String, Object>> aids,
+                              List<Map<String, Object>> capks, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (emvEngine == null) {
+            result.error("DEVICE_NOT_INITIALIZED", "EMV kernel not available", null);
+            return;
+        }
+        
+        EmvParameters params;
+        try {
+            params = EmvParameters.fromChannel(terminal, aids, capks);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+            return;
+        }
+        
+        emvEngine.configure(params, (summary, error) -> {
+            if (error != null) {
+                mainHandler.post(() ->
+                    result.error("EMV_ERROR", "Failed to load EMV parameters: " + error.getMessage(), null));
+                return;
+            }
+            // Still on the EMV thread; the next start reads them back from here
+            boolean saved = false;
+            try {
+                saved = emvStore.save(params);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to save EMV parameters", e);
+            }
+            Map<String, Object> response = new HashMap<>(summary);
+            response.put("success", true);
+            response.put("message", "EMV parameters loaded");
+            response.put("saved", saved);
+            mainHandler.post(() -> result.success(response));
+        });
+    }
+
+    // A full kernel load: the engine is new, so nothing counts as already loaded
+    private void restoreEmvParameters() {
+        executors.emv.execute(() -> {
+            EmvParameters stored;
+            try {
+                stored = emvStore.load();
+            } catch (IOException e) {
+                Log.w(TAG, "Discarding unreadable EMV parameters", e);
+                emvStore.delete();
+                return;
+            }
+            if (stored == null) {
+                return;
+            }
+            emvEngine.configure(stored, (summary, error) -> {
+                if (error == null) {
+                    Log.d(TAG, "EMV parameters restored: " + summary);
+                }
+            });
+        });
+    }
+
+    private void startEmvTransaction(MethodCall call, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (emvEngine == null) {
+            result.error("DEVICE_NOT_INITIALIZED", "EMV kernel not available", null);
+            return;
+        }
+        Number amount = call.argument("amount");
+        if (amount == null || amount.longValue() < 0) {
+            result.error("INVALID_INPUT", "Amount is required", null);
+            return;
+        }
+        if (cardSearch != null && cardSearch.isRunning()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Card search in progress");
+            result.success(response);
+            return;
+        }
+        
+        EmvEngine.Transaction transaction = new EmvEngine.Transaction();
+        transaction.amount = amount.longValue();
+        Number amountOther = call.argument("amountOther");
+        transaction.amountOther = amountOther != null ? amountOther.longValue() : 0;
+        Number transType = call.argument("transType");
+        transaction.transType = transType != null ? transType.intValue() : 0;
+        transaction.contactless = "rf".equals(call.argument("slot"));
+        transaction.forceOnline = Boolean.TRUE.equals(call.argument("forceOnline"));
+        transaction.confirmCardNo = Boolean.TRUE.equals(call.argument("confirmCardNo"));
+        
+        boolean started;
+        try {
+            started = emvEngine.start(transaction, this::sendEmvEvent);
+        } catch (IllegalStateException e) {
+            result.error("EMV_ERROR", e.getMessage(), null);
+            return;
+        }
+        
+        // Prompts and the final result arrive on the emv stream
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "EMV transaction started" : "EMV transaction already running");
+        result.success(response);
+    }
+
+    private void respondEmv(Number promptId, Map<String, Object> answer, Result result) {
+        boolean delivered = emvEngine != null && promptId != null
+                && emvEngine.respond(promptId.intValue(), answer);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", delivered);
+        response.put("message", delivered ? "Answer delivered" : "No EMV prompt with this id is waiting");
+        result.success(response);
+    }
+
+    private void cancelEmvTransaction(Result result) {
+        boolean cancelled = emvEngine != null && emvEngine.cancel();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", cancelled ? "EMV transaction cancelling" : "EMV transaction not running");
+        result.success(response);
+    }
+
+    private void startPinEntry(MethodCall call, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (pinPad == null) {
+            result.error("DEVICE_NOT_INITIALIZED", "PIN pad not available", null);
+            return;
+        }
+        
+        PinPad.PinRequest request = new PinPad.PinRequest();
+        Number keyIndex = call.argument("keyIndex");
+        request.keyIndex = keyIndex != null ? keyIndex.intValue() : 0;
+        String pan = call.argument("pan");
+        request.pan = pan != null ? pan : "";
+        Number minLength = call.argument("minLength");
+        request.minLength = minLength != null ? minLength.intValue() : PinPad.DEFAULT_MIN_LENGTH;
+        Number maxLength = call.argument("maxLength");
+        request.maxLength = maxLength != null ? maxLength.intValue() : PinPad.DEFAULT_MAX_LENGTH;
+        Number timeoutMs = call.argument("timeoutMs");
+        request.timeoutMs = timeoutMs != null ? timeoutMs.longValue() : PinPad.DEFAULT_TIMEOUT_MS;
+        request.offline = Boolean.TRUE.equals(call.argument("offline"));
+        request.allowBypass = Boolean.TRUE.equals(call.argument("allowBypass"));
+        request.format3 = "x3.92".equals(call.argument("format"));
+        if (!request.offline && request.pan.isEmpty()) {
+            result.error("INVALID_INPUT", "Online PIN entry needs the card number", null);
+            return;
+        }
+        
+        boolean started;
+        try {
+            started = pinPad.start(request, this::sendPinEvent);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+            return;
+        }
+        
+        // The PIN block or the reason there is none arrives on the pin stream
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "PIN entry started" : "PIN entry already running");
+        result.success(response);
+    }
+
+    private void cancelPinEntry(Result result) {
+        boolean cancelled = pinPad != null && pinPad.cancel();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", cancelled ? "PIN entry cancelled" : "PIN entry not running");
+        result.success(response);
+    }
+
+    private void runSecureBatch(List<Map<String, Object>> operations, Result result) {
+        if (!checkDeviceReady(result)) return;
+        
+        if (pinPad == null) {
+            result.error("DEVICE_NOT_INITIALIZED", "PIN pad not available", null);
+            return;
+        }
+        if (operations == null || operations.isEmpty()) {
+            result.error("INVALID_INPUT", "At least one operation is required", null);
+            return;
+        }
+        
+        List<PinPad.Operation> batch = new ArrayList<>(operations.size());
+        try {
+            for (Map<String, Object> operation : operations) {
+                batch.add(PinPad.Operation.fromChannel(operation));
+            }
+            pinPad.run(batch, results -> {
+                int failed = 0;
+                for (Map<String, Object> item : results) {
+                    if (!Boolean.TRUE.equals(item.get("success"))) {
+                        failed++;
+                    }
+                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", failed == 0);
+                response.put("message", failed == 0 ? "All operations succeeded" : failed + " operations failed");
+                response.put("results", results);
+                mainHandler.post(() -> result.success(response));
+            });
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_INPUT", e.getMessage(), null);
+        }
+    }
+
+    private void sendPinEvent(Map<String, Object> event) {
+        mainHandler.post(() -> {
+            EventChannel.EventSink sink = pinEventSink;
+            if (sink != null) {
+                sink.success(event);
+            }
+        });
+    }
+
+    private void sendEmvEvent(Map<String, Object> event) {
+        mainHandler.post(() -> {
+            EventChannel.EventSink sink = emvEventSink;
+            if (sink != null) {
+                sink.success(event);
+            }
+        });
+    }
+
+    private void sendCardEvent(Map<String, Object> event) {
+        mainHandler.post(() -> {
+            EventChannel.EventSink sink = cardEventSink;
+            if (sink != null) {
+                sink.success(event);
+            }
+        });
+    }
+
+    private boolean isFlushRequested(MethodCall call) {
+        Boolean flush = call.argument("flush");
+        return flush != null && flush;
+    }
+
     private boolean checkDeviceReady(Result result) {
         if (!isDeviceInitialized) {
             result.error("DEVICE_NOT_INITIALIZED", "Device must be initialized first", null);
@@ -855,11 +1707,16 @@ private EditText scanResultEditText;
 private void stopQRScan(Result result) {
     if (!checkDeviceReady(result)) return;
     
-    executor.execute(() -> {
+    // A continuous session powers the scanner off itself once it ends
+    if (continuousScanner != null && continuousScanner.isBusy()) {
+        stopContinuousScan(result);
+        return;
+    }
+    
+    executors.scanner.execute(() -> {
         try {
-            // Power off scanner
-            mHQrsanner.QRScanerPowerCtrl((byte)0);
-            mHQrsanner.QRScanerCtrl((byte)0);
+            // Power off scanner, skipping standby
+            scannerPower.powerDown();
             
             mainHandler.post(() -> {
                 Map<String, Object> response = new HashMap<>();
@@ -884,7 +1741,7 @@ private void stopQRScan(Result result) {
 private void scanQRCodeOnce(Result result) {
     if (!checkDeviceReady(result)) return;
     
-    if (mHQrsanner == null) {
+    if (mScanner == null) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
         response.put("message", "QR Scanner not available on this device");
@@ -894,7 +1751,7 @@ private void scanQRCodeOnce(Result result) {
     }
     
     // Prevent multiple simultaneous scans
-    if (isWaitingForScan) {
+    if (isWaitingForScan || (continuousScanner != null && continuousScanner.isBusy())) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
         response.put("message", "Scanner is already in use");
@@ -903,15 +1760,15 @@ private void scanQRCodeOnce(Result result) {
         return;
     }
     
-    executor.execute(() -> {
+    executors.scanner.execute(() -> {
         try {
             Log.d(TAG, "Starting QR scan...");
             
             // Store the result callback
             pendingScanResult = result;
-            isWaitingForScan = true;
+            setScanActive(true);
             
-            // Create EditText to capture scan results
+            // Create EditText to capture scan results; the main thread only does UI work
             mainHandler.post(() -> {
                 scanResultEditText = new EditText(context);
                 scanResultEditText.setOnEditorActionListener((textView, actionId, keyEvent) -> {
@@ -923,10 +1780,11 @@ private void scanQRCodeOnce(Result result) {
                     }
                     return false;
                 });
-                
-                startScanningProcess();
             });
             
+            // Hardware calls stay on the scanner thread
+            startScanningProcess();
+            
         } catch (Exception e) {
             Log.e(TAG, "Failed to start QR scan", e);
             cleanupScan();
@@ -941,26 +1799,104 @@ private void scanQRCodeOnce(Result result) {
     });
 }
 
+private void startContinuousScan(long idleTimeoutMs, long duplicateWindowMs, Result result) {
+    if (!checkDeviceReady(result)) return;
+    
+    Map<String, Object> response = new HashMap<>();
+    if (continuousScanner == null) {
+        response.put("success", false);
+        response.put("message", "QR Scanner not available on this device");
+        result.success(response);
+        return;
+    }
+    if (isWaitingForScan) {
+        response.put("success", false);
+        response.put("message", "Scanner is already in use");
+        result.success(response);
+        return;
+    }
+    
+    boolean started = continuousScanner.start(idleTimeoutMs, duplicateWindowMs, new ContinuousScanner.Listener() {
+        @Override
+        public void onScan(String data) {
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "scan");
+            event.put("data", data);
+            event.put("timestamp", System.currentTimeMillis());
+            sendScanEvent(event);
+        }
+
+        @Override
+        public void onStopped(String reason) {
+            stateEvents.update(DeviceStateEvents.SCAN_ACTIVE, false);
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "stopped");
+            event.put("reason", reason);
+            sendScanEvent(event);
+        }
+    });
+    if (started) {
+        stateEvents.update(DeviceStateEvents.SCAN_ACTIVE, true);
+    }
+    
+    response.put("success", started);
+    response.put("message", started ? "Continuous scan started" : "Continuous scan already running");
+    result.success(response);
+}
+
+private void stopContinuousScan(Result result) {
+    boolean stopping = continuousScanner != null && continuousScanner.stop();
+    
+    Map<String, Object> response = new HashMap<>();
+    response.put("success", true);
+    response.put("message", stopping ? "Continuous scan stopping" : "Continuous scan not running");
+    response.put("data", "");
+    result.success(response);
+}
+
+private void configureScanner(Number standbyMs, Result result) {
+    if (scannerPower == null) {
+        result.error("DEVICE_NOT_INITIALIZED", "QR Scanner not available", null);
+        return;
+    }
+    
+    if (standbyMs != null) {
+        scannerPower.setStandbyMs(standbyMs.longValue());
+    }
+    
+    Map<String, Object> response = new HashMap<>();
+    response.put("success", true);
+    response.put("standbyMs", scannerPower.getStandbyMs());
+    response.put("powered", scannerPower.isPowered());
+    response.put("wakeUps", scannerPower.wakeUpCount());
+    response.put("warmStarts", scannerPower.warmStartCount());
+    result.success(response);
+}
+
+private void sendScanEvent(Map<String, Object> event) {
+    mainHandler.post(() -> {
+        EventChannel.EventSink sink = scanEventSink;
+        if (sink != null) {
+            sink.success(event);
+        }
+    });
+}
+
 private void startScanningProcess() {
     try {
-        // Power on and activate scanner
-        mHQrsanner.QRScanerCtrl((byte)1);
-        mHQrsanner.QRScanerPowerCtrl((byte)0);
-        SystemClock.sleep(10);
-        mHQrsanner.QRScanerPowerCtrl((byte)1);
-        SystemClock.sleep(100);
+        // Power on and activate scanner; skips the wake-up while in standby
+        boolean coldStart = scannerPower.acquire();
+        Log.d(TAG, coldStart ? "QR scanner powered up" : "QR scanner started from standby");
         
         // Request focus to capture scan input
-        if (scanResultEditText != null) {
-            scanResultEditText.requestFocus();
-        }
+        mainHandler.post(() -> {
+            if (scanResultEditText != null) {
+                scanResultEditText.requestFocus();
+            }
+        });
         
         // Set timeout for scan operation
-        mainHandler.postDelayed(() -> {
-            if (isWaitingForScan) {
-                handleScanTimeout();
-            }
-        }, 10000);
+        mainHandler.postDelayed(scanTimeoutTask, 10000);
         
         Log.d(TAG, "QR scanner activated, waiting for scan...");
         
@@ -998,6 +1934,7 @@ private void handleScanResult(String scannedData) {
 
 private void handleScanTimeout() {
     Log.d(TAG, "QR scan timeout");
+    methodMetrics.timeout("scanQRCode");
     closeScanner();
     
     if (pendingScanResult != null) {
@@ -1015,31 +1952,48 @@ private void handleScanError(String errorMessage) {
     Log.e(TAG, "QR scan error: " + errorMessage);
     closeScanner();
     
-    if (pendingScanResult != null) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", false);
-        response.put("message", errorMessage);
-        response.put("data", "");
-        
-        pendingScanResult.success(response);
-    }
-    cleanupScan();
+    // May be called from the scanner thread; results go out on the main thread
+    mainHandler.post(() -> {
+        if (pendingScanResult != null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", errorMessage);
+            response.put("data", "");
+            
+            pendingScanResult.success(response);
+        }
+        cleanupScan();
+    });
 }
 
 private void closeScanner() {
-    try {
-        if (mHQrsanner != null) {
-            mHQrsanner.QRScanerCtrl((byte)0);
-            mHQrsanner.QRScanerPowerCtrl((byte)0);
+    // Callers may be on the main thread; the JNI calls are not
+    executors.scanner.execute(() -> {
+        try {
+            // Decoder off; the module stays in standby until the idle timer fires
+            if (scannerPower != null) {
+                scannerPower.release();
+            }
+            Log.d(TAG, "Scanner closed successfully");
+        } catch (Exception e) {
+            Log.e(TAG, "Error closing scanner", e);
         }
-        Log.d(TAG, "Scanner closed successfully");
-    } catch (Exception e) {
-        Log.e(TAG, "Error closing scanner", e);
-    }
+    });
+}
+
+private void setScannerPowered(boolean powered) {
+    isScannerActive = powered;
+    stateEvents.update(DeviceStateEvents.SCANNER_POWERED, powered);
+}
+
+private void setScanActive(boolean active) {
+    isWaitingForScan = active;
+    stateEvents.update(DeviceStateEvents.SCAN_ACTIVE, active);
 }
 
 private void cleanupScan() {
-    isWaitingForScan = false;
+    mainHandler.removeCallbacks(scanTimeoutTask);
+    setScanActive(false);
     pendingScanResult = null;
     scanResultEditText = null;
 }
@@ -0,0 +1,250 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BinaryReceiptTest {
+
+  @Test
+  public void defaultTemplate_rendersSameAsMapData() throws Exception {
+    Map<String, Object> data = new HashMap<>();
+    data.put("receiptType", "SALE");
+    data.put("date", "2024-01-01");
+    data.put("items", Arrays.asList(item("Red Wine Bottle Large", 2, "1500"), item("Water", 1, "100")));
+    data.put("total", "3100");
+    data.put("orderNumber", "ORD-0042");
+    data.put("qrSize", "250");
+
+    ReceiptWriter writer = new ReceiptWriter("", 0, 6)
+        .string("receiptType", "SALE")
+        .string("date", "2024-01-01")
+        .table("items", new String[]{"name", "quantity", "price"},
+            new Object[][]{{"Red Wine Bottle Large", 2L, "1500"}, {"Water", 1L, "100"}})
+        .string("total", "3100")
+        .string("orderNumber", "ORD-0042")
+        .integer("qrSize", 250);
+
+    List<String> fromMap = render(new ReceiptTemplate.MapData(data));
+    List<String> fromBuffer = render(BinaryReceipt.decode(writer.toBuffer()));
+
+    assertEquals(fromMap, fromBuffer);
+  }
+
+  @Test
+  public void header_carriesTemplateAndRasterFlag() throws Exception {
+    BinaryReceipt receipt = BinaryReceipt.decode(
+        new ReceiptWriter("tab", BinaryReceipt.FLAG_RASTER, 1).string("table", "7").toBuffer());
+
+    assertEquals("tab", receipt.getTemplateId());
+    assertTrue(receipt.isRaster());
+    assertEquals("7", receipt.get("table"));
+    assertNull(receipt.get("missing"));
+
+    BinaryReceipt plain = BinaryReceipt.decode(new ReceiptWriter("", 0, 0).toBuffer());
+    assertNull(plain.getTemplateId());
+    assertFalse(plain.isRaster());
+  }
+
+  @Test
+  public void values_keepTheirTypes() throws Exception {
+    BinaryReceipt receipt = BinaryReceipt.decode(new ReceiptWriter("", 0, 5)
+        .integer("count", 3)
+        .decimal("price", 12.5)
+        .bool("paid", true)
+        .bytes("logo", new byte[]{1, 2, 3})
+        .nul("note")
+        .toBuffer());
+
+    assertEquals(3L, receipt.get("count"));
+    assertEquals(12.5, receipt.get("price"));
+    assertEquals(true, receipt.get("paid"));
+    assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) receipt.get("logo"));
+    assertNull(receipt.get("note"));
+  }
+
+  @Test
+  public void put_overridesBufferField() throws Exception {
+    BinaryReceipt receipt = BinaryReceipt.decode(
+        new ReceiptWriter("", 0, 1).string("orderNumber", "").toBuffer());
+
+    receipt.put("orderNumber", "ORD-0001");
+
+    assertEquals("ORD-0001", receipt.get("orderNumber"));
+  }
+
+  @Test
+  public void table_readsAsRowCount() throws Exception {
+    BinaryReceipt receipt = BinaryReceipt.decode(new ReceiptWriter("", 0, 1)
+        .table("items", new String[]{"name"}, new Object[][]{{"A"}, {"B"}, {null}})
+        .toBuffer());
+
+    assertEquals(3, receipt.get("items"));
+    ReceiptTemplate.Rows rows = receipt.rows("items");
+    List<Object> names = new ArrayList<>();
+    while (rows.next()) {
+      names.add(rows.get("name"));
+    }
+    assertEquals(Arrays.asList("A", "B", null), names);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void truncatedBuffer_isRejected() throws Exception {
+    ByteBuffer full = new ReceiptWriter("", 0, 1).string("total", "3100").toBuffer();
+    full.limit(full.limit() - 2);
+    BinaryReceipt.decode(full);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownVersion_isRejected() throws Exception {
+    ByteBuffer buffer = new ReceiptWriter("", 0, 0).toBuffer();
+    buffer.put(2, (byte) 9);
+    BinaryReceipt.decode(buffer);
+  }
+
+  private static List<String> render(ReceiptTemplate.Data data) throws Exception {
+    final List<String> lines = new ArrayList<>();
+    ReceiptTemplates.buildDefault().render(data, new ReceiptTemplate.Output() {
+      @Override
+      public void text(String text, String styleId) {
+        lines.add(text + "|" + styleId);
+      }
+
+      @Override
+      public void qrCode(String data, int size) {
+        lines.add("QR:" + data + "@" + size);
+      }
+
+      @Override
+      public void barcode(String data, int width, int height) {
+        lines.add("BAR:" + data);
+      }
+
+      @Override
+      public void image(byte[] data) {
+        lines.add("IMG:" + data.length);
+      }
+    });
+    return lines;
+  }
+
+  private static Map<String, Object> item(String name, int quantity, String price) {
+    Map<String, Object> item = new HashMap<>();
+    item.put("name", name);
+    item.put("quantity", quantity);
+    item.put("price", price);
+    return item;
+  }
+
+  /** Writes the format the Dart encoder produces. */
+  private static final class ReceiptWriter {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    ReceiptWriter(String templateId, int flags, int fieldCount) throws IOException {
+      out.write(new byte[]{'Z', 'R', BinaryReceipt.VERSION, (byte) flags});
+      writeString(templateId);
+      out.writeShort(fieldCount);
+    }
+
+    ReceiptWriter string(String name, String value) throws IOException {
+      writeString(name);
+      writeValue(value);
+      return this;
+    }
+
+    ReceiptWriter integer(String name, long value) throws IOException {
+      writeString(name);
+      writeValue(value);
+      return this;
+    }
+
+    ReceiptWriter decimal(String name, double value) throws IOException {
+      writeString(name);
+      writeValue(value);
+      return this;
+    }
+
+    ReceiptWriter bool(String name, boolean value) throws IOException {
+      writeString(name);
+      writeValue(value);
+      return this;
+    }
+
+    ReceiptWriter bytes(String name, byte[] value) throws IOException {
+      writeString(name);
+      writeValue(value);
+      return this;
+    }
+
+    ReceiptWriter nul(String name) throws IOException {
+      writeString(name);
+      writeValue(null);
+      return this;
+    }
+
+    ReceiptWriter table(String name, String[] columns, Object[][] rows) throws IOException {
+      writeString(name);
+      out.writeByte(BinaryReceipt.TAG_TABLE);
+      out.writeByte(columns.length);
+      for (String column : columns) {
+        writeString(column);
+      }
+      out.writeInt(rows.length);
+      for (Object[] row : rows) {
+        for (Object cell : row) {
+          writeValue(cell);
+        }
+      }
+      return this;
+    }
+
+    ByteBuffer toBuffer() {
+      return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private void writeValue(Object value) throws IOException {
+      if (value == null) {
+        out.writeByte(BinaryReceipt.TAG_NULL);
+      } else if (value instanceof String) {
+        out.writeByte(BinaryReceipt.TAG_STRING);
+        writeString((String) value);
+      } else if (value instanceof Long) {
+        out.writeByte(BinaryReceipt.TAG_INT);
+        out.writeLong((Long) value);
+      } else if (value instanceof Double) {
+        out.writeByte(BinaryReceipt.TAG_DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (value instanceof Boolean) {
+        out.writeByte(BinaryReceipt.TAG_BOOL);
+        out.writeByte((Boolean) value ? 1 : 0);
+      } else {
+        byte[] data = (byte[]) value;
+        out.writeByte(BinaryReceipt.TAG_BYTES);
+        out.writeInt(data.length);
+        out.write(data);
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      out.writeShort(utf8.length);
+      out.write(utf8);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BoundedLruCacheTest {
+
+  private static BoundedLruCache<String, String> lengthBounded(long maxSize) {
+    return new BoundedLruCache<>(maxSize, value -> value.length());
+  }
+
+  @Test
+  public void get_countsHitsAndMisses() {
+    BoundedLruCache<String, String> cache = lengthBounded(10);
+    cache.put("a", "aaa");
+
+    assertEquals("aaa", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedWhenOverBudget() {
+    BoundedLruCache<String, String> cache = lengthBounded(6);
+    cache.put("a", "aaa");
+    cache.put("b", "bbb");
+    cache.get("a");
+
+    cache.put("c", "ccc");
+
+    assertEquals("aaa", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("ccc", cache.get("c"));
+    assertEquals(1, cache.evictionCount());
+    assertEquals(6, cache.size());
+  }
+
+  @Test
+  public void put_replacingKeyAdjustsSize() {
+    BoundedLruCache<String, String> cache = lengthBounded(10);
+    cache.put("a", "aaaa");
+    cache.put("a", "aa");
+
+    assertEquals(1, cache.count());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void put_skipsValuesLargerThanBudget() {
+    BoundedLruCache<String, String> cache = lengthBounded(3);
+    cache.put("a", "aa");
+    cache.put("b", "bbbb");
+
+    assertNull(cache.get("b"));
+    assertEquals("aa", cache.get("a"));
+    assertEquals(0, cache.evictionCount());
+  }
+
+  @Test
+  public void resetStats_keepsEntries() {
+    BoundedLruCache<String, String> cache = lengthBounded(10);
+    cache.put("a", "a");
+    cache.get("a");
+    cache.get("b");
+
+    cache.resetStats();
+    Map<String, Object> stats = cache.stats();
+
+    assertEquals(0L, stats.get("hits"));
+    assertEquals(0L, stats.get("misses"));
+    assertEquals(1, stats.get("entries"));
+    assertEquals(10L, stats.get("maxSize"));
+  }
+}
@@ -0,0 +1,161 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CardSearchTest {
+
+  private static class FakeDevice implements CardSearch.Device {
+    volatile Set<CardSearch.Slot> slots;
+    volatile CardSearch.Callback callback;
+    final AtomicInteger searches = new AtomicInteger();
+    final AtomicInteger cancels = new AtomicInteger();
+    final CountDownLatch armed = new CountDownLatch(1);
+    volatile CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Override
+    public void search(Set<CardSearch.Slot> slots, long timeoutMs, CardSearch.Callback callback) {
+      this.slots = slots;
+      this.callback = callback;
+      searches.incrementAndGet();
+      armed.countDown();
+    }
+
+    @Override
+    public void cancel() {
+      cancels.incrementAndGet();
+      cancelled.countDown();
+    }
+
+    void detect(String slot) {
+      Map<String, Object> card = new HashMap<>();
+      card.put("slot", slot);
+      callback.onCard(card);
+    }
+  }
+
+  private static class RecordingListener implements CardSearch.Listener {
+    final CountDownLatch done = new CountDownLatch(1);
+    final AtomicInteger outcomes = new AtomicInteger();
+    volatile Map<String, Object> card;
+    volatile String reason;
+    volatile int code;
+
+    @Override
+    public void onCard(Map<String, Object> card) {
+      this.card = card;
+      outcomes.incrementAndGet();
+      done.countDown();
+    }
+
+    @Override
+    public void onStopped(String reason, int code) {
+      this.reason = reason;
+      this.code = code;
+      outcomes.incrementAndGet();
+      done.countDown();
+    }
+  }
+
+  private ScheduledExecutorService executor;
+  private FakeDevice device;
+  private CardSearch search;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadScheduledExecutor();
+    device = new FakeDevice();
+    search = new CardSearch(device, executor);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void firstCard_winsAndCancelsOtherSlots() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    assertTrue(search.start(EnumSet.allOf(CardSearch.Slot.class), 5_000, listener));
+    assertTrue(device.armed.await(1, TimeUnit.SECONDS));
+    assertEquals(EnumSet.allOf(CardSearch.Slot.class), device.slots);
+
+    device.detect("rf");
+    device.detect("mag");
+    device.callback.onError(-1);
+
+    assertTrue(listener.done.await(1, TimeUnit.SECONDS));
+    assertTrue(device.cancelled.await(1, TimeUnit.SECONDS));
+    assertEquals(1, listener.outcomes.get());
+    assertEquals("rf", listener.card.get("slot"));
+    assertNotNull(listener.card.get("elapsedMs"));
+    assertFalse(search.isRunning());
+  }
+
+  @Test
+  public void timeout_endsSearchWithoutCard() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    search.start(EnumSet.of(CardSearch.Slot.IC), 50, listener);
+
+    assertTrue(listener.done.await(1, TimeUnit.SECONDS));
+    assertEquals(CardSearch.TIMEOUT, listener.reason);
+    assertNull(listener.card);
+    assertTrue(device.cancelled.await(1, TimeUnit.SECONDS));
+
+    // A card arriving after the timeout is dropped
+    device.detect("ic");
+    Thread.sleep(20);
+    assertEquals(1, listener.outcomes.get());
+  }
+
+  @Test
+  public void stop_cancelsAndAllowsNewSearch() throws Exception {
+    RecordingListener first = new RecordingListener();
+    search.start(EnumSet.of(CardSearch.Slot.MAG), 5_000, first);
+    assertFalse(search.start(EnumSet.of(CardSearch.Slot.MAG), 5_000, new RecordingListener()));
+
+    assertTrue(search.stop());
+    assertFalse(search.stop());
+    assertEquals(CardSearch.CANCELLED, first.reason);
+
+    assertTrue(search.start(EnumSet.of(CardSearch.Slot.MAG), 5_000, new RecordingListener()));
+  }
+
+  @Test
+  public void deviceError_isReported() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    search.start(EnumSet.of(CardSearch.Slot.RF), 5_000, listener);
+    assertTrue(device.armed.await(1, TimeUnit.SECONDS));
+
+    device.callback.onError(-1303);
+
+    assertTrue(listener.done.await(1, TimeUnit.SECONDS));
+    assertEquals(CardSearch.ERROR, listener.reason);
+    assertEquals(-1303, listener.code);
+  }
+
+  @Test
+  public void parseAll_defaultsToEverySlot() {
+    assertEquals(EnumSet.allOf(CardSearch.Slot.class), CardSearch.Slot.parseAll(null));
+    assertEquals(EnumSet.of(CardSearch.Slot.MAG, CardSearch.Slot.RF),
+        CardSearch.Slot.parseAll(Arrays.asList("mag", "nfc")));
+  }
+}
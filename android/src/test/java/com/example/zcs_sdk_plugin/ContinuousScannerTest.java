@@ -0,0 +1,187 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContinuousScannerTest {
+
+  private ExecutorService executor;
+  private FakeScanner device;
+  private RecordingListener listener;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    device = new FakeScanner();
+    listener = new RecordingListener();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void session_powersOnOnceAndStreamsEveryCode() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+    device.codes.add("A");
+    device.codes.add("B");
+    device.codes.add("C");
+
+    assertTrue(scanner.start(0, 0, listener));
+    waitFor(() -> listener.scans.size() == 3);
+    assertTrue(scanner.stop());
+
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+    assertEquals(ContinuousScanner.STOPPED, listener.reason);
+    assertEquals(1, device.powerOns);
+    assertEquals(1, device.powerOffs);
+    assertEquals(3, listener.scans.size());
+    assertFalse(scanner.isBusy());
+  }
+
+  @Test
+  public void sameCodeWithinWindow_isReportedOnce() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+    device.codes.add("TICKET");
+    device.codes.add("TICKET");
+    device.codes.add("OTHER");
+
+    scanner.start(0, 10_000, listener);
+    waitFor(() -> listener.scans.size() == 2);
+    scanner.stop();
+
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+    assertEquals(2, listener.scans.size());
+    assertEquals("OTHER", listener.scans.get(1));
+  }
+
+  @Test
+  public void idleTimeout_endsSession() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+
+    scanner.start(30, 0, listener);
+
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+    assertEquals(ContinuousScanner.IDLE, listener.reason);
+    assertEquals(1, device.powerOffs);
+  }
+
+  @Test
+  public void start_isRejectedWhileSessionIsBusy() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+
+    assertTrue(scanner.start(0, 0, listener));
+    assertFalse(scanner.start(0, 0, new RecordingListener()));
+    scanner.stop();
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+
+    RecordingListener next = new RecordingListener();
+    assertTrue(scanner.start(0, 0, next));
+    scanner.stop();
+    assertTrue(next.stopped.await(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void powerOnFailure_endsSessionWithError() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+    device.failPowerOn = true;
+
+    scanner.start(0, 0, listener);
+
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+    assertEquals(ContinuousScanner.ERROR, listener.reason);
+    assertEquals(1, device.powerOffs);
+  }
+
+  @Test
+  public void decodeFailure_endsSessionWithoutRetrying() throws Exception {
+    ContinuousScanner scanner = new ContinuousScanner(device, executor);
+    device.failDecode = true;
+
+    scanner.start(0, 0, listener);
+
+    assertTrue(listener.stopped.await(2, TimeUnit.SECONDS));
+    assertEquals(ContinuousScanner.ERROR, listener.reason);
+    assertEquals(1, device.decodes);
+    assertEquals(1, device.powerOffs);
+  }
+
+  private interface Condition {
+    boolean met();
+  }
+
+  private static void waitFor(Condition condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (!condition.met()) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(2);
+    }
+  }
+
+  private static final class FakeScanner implements ContinuousScanner.Device {
+    final ConcurrentLinkedQueue<String> codes = new ConcurrentLinkedQueue<>();
+    volatile boolean failPowerOn;
+    volatile boolean failDecode;
+    volatile int decodes;
+    volatile int powerOns;
+    volatile int powerOffs;
+
+    @Override
+    public void powerOn() throws Exception {
+      powerOns++;
+      if (failPowerOn) {
+        throw new Exception("no scanner");
+      }
+    }
+
+    @Override
+    public String decode(int timeoutMs) throws Exception {
+      decodes++;
+      if (failDecode) {
+        throw new Exception("decoder fault");
+      }
+      String code = codes.poll();
+      if (code == null) {
+        Thread.sleep(1);
+      }
+      return code;
+    }
+
+    @Override
+    public void powerOff() {
+      powerOffs++;
+    }
+  }
+
+  private static final class RecordingListener implements ContinuousScanner.Listener {
+    final List<String> scans = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch stopped = new CountDownLatch(1);
+    volatile String reason;
+
+    @Override
+    public void onScan(String data) {
+      scans.add(data);
+    }
+
+    @Override
+    public void onStopped(String reason) {
+      this.reason = reason;
+      stopped.countDown();
+    }
+  }
+}
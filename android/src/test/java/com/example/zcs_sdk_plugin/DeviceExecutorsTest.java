@@ -0,0 +1,64 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeviceExecutorsTest {
+
+  private DeviceExecutors executors;
+
+  @Before
+  public void setUp() {
+    executors = new DeviceExecutors();
+  }
+
+  @After
+  public void tearDown() {
+    executors.shutdown();
+  }
+
+  @Test
+  public void statusAndScannerCalls_doNotWaitForBusyPrinter() throws Exception {
+    CountDownLatch releasePrinter = new CountDownLatch(1);
+    CountDownLatch statusDone = new CountDownLatch(1);
+    CountDownLatch scannerDone = new CountDownLatch(1);
+
+    executors.printer.execute(() -> {
+      try {
+        releasePrinter.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executors.status.execute(statusDone::countDown);
+    executors.scanner.execute(scannerDone::countDown);
+    CountDownLatch secureDone = new CountDownLatch(1);
+    executors.secure.execute(secureDone::countDown);
+
+    assertTrue(statusDone.await(1, TimeUnit.SECONDS));
+    assertTrue(scannerDone.await(1, TimeUnit.SECONDS));
+    assertTrue(secureDone.await(1, TimeUnit.SECONDS));
+    releasePrinter.countDown();
+  }
+
+  @Test
+  public void threadsAreNamedAfterTheirResource() throws Exception {
+    String[] name = new String[1];
+    CountDownLatch done = new CountDownLatch(1);
+
+    executors.scanner.execute(() -> {
+      name[0] = Thread.currentThread().getName();
+      done.countDown();
+    });
+
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    assertEquals("zcs-scanner", name[0]);
+  }
+}
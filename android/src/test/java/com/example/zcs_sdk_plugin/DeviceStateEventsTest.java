@@ -0,0 +1,96 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeviceStateEventsTest {
+
+  private ScheduledExecutorService scheduler;
+  private final List<Map<String, Object>> events = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void newListener_receivesFullState() throws Exception {
+    DeviceStateEvents stateEvents = new DeviceStateEvents(scheduler, 20);
+
+    stateEvents.setSink(events::add);
+    Thread.sleep(50);
+
+    assertEquals(1, events.size());
+    assertEquals(4, changes(0).size());
+  }
+
+  @Test
+  public void changesWithinInterval_areCoalesced() throws Exception {
+    DeviceStateEvents stateEvents = new DeviceStateEvents(scheduler, 200);
+    stateEvents.setSink(events::add);
+    Thread.sleep(20);
+    events.clear();
+
+    // Still inside the interval opened by the initial event
+    stateEvents.update(DeviceStateEvents.PRINTER_BUSY, true);
+    stateEvents.update(DeviceStateEvents.PAPER_OUT, true);
+    stateEvents.update(DeviceStateEvents.SCAN_ACTIVE, true);
+    Thread.sleep(300);
+    stateEvents.update(DeviceStateEvents.SCANNER_POWERED, true);
+    Thread.sleep(100);
+
+    assertEquals(2, events.size());
+    assertEquals(3, changes(0).size());
+    assertEquals(Boolean.TRUE, changes(1).get(DeviceStateEvents.SCANNER_POWERED));
+  }
+
+  @Test
+  public void stateThatFlipsBack_isNotSent() throws Exception {
+    DeviceStateEvents stateEvents = new DeviceStateEvents(scheduler, 100);
+    stateEvents.setSink(events::add);
+    Thread.sleep(20);
+    events.clear();
+
+    stateEvents.update(DeviceStateEvents.PRINTER_BUSY, true);
+    stateEvents.update(DeviceStateEvents.PRINTER_BUSY, false);
+    Thread.sleep(200);
+
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  public void unchangedValues_doNotEmit() throws Exception {
+    DeviceStateEvents stateEvents = new DeviceStateEvents(scheduler, 10);
+    stateEvents.setSink(events::add);
+    Thread.sleep(30);
+    events.clear();
+
+    stateEvents.update(DeviceStateEvents.PAPER_OUT, false);
+    Thread.sleep(30);
+
+    assertTrue(events.isEmpty());
+    assertFalse(stateEvents.get(DeviceStateEvents.PAPER_OUT));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> changes(int index) {
+    return (Map<String, Object>) events.get(index).get("changes");
+  }
+}
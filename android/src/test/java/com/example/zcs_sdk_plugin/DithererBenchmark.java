@@ -0,0 +1,55 @@
+package com.example.zcs_sdk_plugin;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark for the Ditherer row kernels; not part of the unit tests.
+ *
+ * Dithers a noisy 576-dot (80 mm) image of 1000 rows in every mode and
+ * prints nanoseconds per pixel. Run from the test classpath:
+ *   java -cp <test classes>:<main classes> com.example.zcs_sdk_plugin.DithererBenchmark
+ */
+public class DithererBenchmark {
+
+  private static final int WIDTH = ReceiptRasterizer.WIDTH_80MM;
+  private static final int HEIGHT = 1000;
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int MEASURED_ROUNDS = 50;
+
+  public static void main(String[] args) {
+    int[] image = new int[WIDTH * HEIGHT];
+    Random random = new Random(42);
+    for (int i = 0; i < image.length; i++) {
+      int level = (i % WIDTH) * 255 / WIDTH + random.nextInt(32) - 16;
+      level = Math.max(0, Math.min(255, level));
+      image[i] = 0xFF000000 | (level << 16) | (level << 8) | level;
+    }
+    int[] work = new int[image.length];
+
+    long sink = 0;
+    for (Ditherer.Mode mode : Ditherer.Mode.values()) {
+      Ditherer ditherer = new Ditherer(mode);
+      for (int round = 0; round < WARMUP_ROUNDS; round++) {
+        sink += run(ditherer, image, work);
+      }
+      long start = System.nanoTime();
+      for (int round = 0; round < MEASURED_ROUNDS; round++) {
+        sink += run(ditherer, image, work);
+      }
+      double nanosPerPixel = (System.nanoTime() - start) / (double) MEASURED_ROUNDS / image.length;
+      System.out.printf("%-16s %6.2f ns/pixel  %7.2f ms/image%n",
+          mode, nanosPerPixel, nanosPerPixel * image.length / 1e6);
+    }
+    // Keeps the results live so the JIT cannot drop the work
+    System.out.println("checksum " + sink);
+  }
+
+  private static long run(Ditherer ditherer, int[] image, int[] work) {
+    System.arraycopy(image, 0, work, 0, image.length);
+    ditherer.begin(WIDTH);
+    for (int y = 0; y < HEIGHT; y++) {
+      ditherer.ditherRow(work, y * WIDTH, WIDTH, y);
+    }
+    return work[work.length / 2] + work[WIDTH - 1];
+  }
+}
@@ -0,0 +1,164 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class DithererTest {
+
+  private static int gray(int level) {
+    return 0xFF000000 | (level << 16) | (level << 8) | level;
+  }
+
+  private static int[] fill(int width, int argb) {
+    int[] row = new int[width];
+    java.util.Arrays.fill(row, argb);
+    return row;
+  }
+
+  private static int blackCount(Ditherer ditherer, int width, int height, int argb) {
+    int black = 0;
+    ditherer.begin(width);
+    for (int y = 0; y < height; y++) {
+      int[] row = fill(width, argb);
+      ditherer.ditherRow(row, 0, width, y);
+      for (int pixel : row) {
+        assertTrue(pixel == Ditherer.BLACK || pixel == Ditherer.WHITE);
+        if (pixel == Ditherer.BLACK) {
+          black++;
+        }
+      }
+    }
+    return black;
+  }
+
+  @Test
+  public void threshold_splitsAtCutOff() {
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.THRESHOLD);
+    int[] row = {gray(0), gray(128), gray(129), gray(255)};
+
+    ditherer.ditherRow(row, 0, row.length, 0);
+
+    assertEquals(Ditherer.BLACK, row[0]);
+    assertEquals(Ditherer.BLACK, row[1]);
+    assertEquals(Ditherer.WHITE, row[2]);
+    assertEquals(Ditherer.WHITE, row[3]);
+  }
+
+  @Test
+  public void transparentPixels_printAsPaper() {
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.THRESHOLD);
+    int[] row = {0x00000000, 0xFF000000};
+
+    ditherer.ditherRow(row, 0, row.length, 0);
+
+    assertEquals(Ditherer.WHITE, row[0]);
+    assertEquals(Ditherer.BLACK, row[1]);
+  }
+
+  @Test
+  public void midGray_isHalfBlackWithDiffusionAndBayer() {
+    int width = 64;
+    int height = 64;
+    int pixels = width * height;
+
+    int floyd = blackCount(new Ditherer(Ditherer.Mode.FLOYD_STEINBERG), width, height, gray(128));
+    int bayer = blackCount(new Ditherer(Ditherer.Mode.BAYER), width, height, gray(128));
+
+    assertEquals(pixels / 2, floyd, pixels / 50);
+    assertEquals(pixels / 2, bayer, pixels / 50);
+  }
+
+  @Test
+  public void quarterGray_keepsToneWithDiffusion() {
+    int width = 96;
+    int height = 96;
+    int pixels = width * height;
+
+    // Luminance 64 of 255 should leave about three quarters of the dots black
+    int black = blackCount(new Ditherer(Ditherer.Mode.FLOYD_STEINBERG), width, height, gray(64));
+
+    assertEquals(pixels * 3 / 4, black, pixels / 25);
+  }
+
+  @Test
+  public void bayer_usesEveryLevelOnce() {
+    // A ramp over the 64 cells must switch each cell at a different level
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.BAYER);
+    Set<Integer> firstWhiteLevels = new HashSet<>();
+    for (int y = 0; y < 8; y++) {
+      for (int x = 0; x < 8; x++) {
+        int level = 0;
+        while (level < 256) {
+          int[] row = new int[8];
+          row[x] = gray(level);
+          ditherer.ditherRow(row, 0, 8, y);
+          if (row[x] == Ditherer.WHITE) {
+            break;
+          }
+          level++;
+        }
+        firstWhiteLevels.add(level);
+      }
+    }
+    assertEquals(64, firstWhiteLevels.size());
+  }
+
+  @Test
+  public void bayer_midGrayIsACheckerboard() {
+    // Banding (solid black and white rows) means the matrix bits are swapped
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.BAYER);
+    for (int y = 0; y < 16; y++) {
+      int[] row = fill(16, gray(128));
+      ditherer.ditherRow(row, 0, 16, y);
+      for (int x = 0; x < 16; x++) {
+        int expected = ((x ^ y) & 1) == 1 ? Ditherer.BLACK : Ditherer.WHITE;
+        assertEquals("pixel " + x + "," + y, expected, row[x]);
+      }
+    }
+  }
+
+  @Test
+  public void bayer_quarterGrayIsEvenlySpread() {
+    // Light gray puts one black dot in every 2x2 cell
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.BAYER);
+    int[][] rows = new int[8][];
+    for (int y = 0; y < 8; y++) {
+      rows[y] = fill(8, gray(191));
+      ditherer.ditherRow(rows[y], 0, 8, y);
+    }
+    for (int y = 0; y < 8; y += 2) {
+      for (int x = 0; x < 8; x += 2) {
+        int black = 0;
+        for (int i = 0; i < 4; i++) {
+          if (rows[y + i / 2][x + i % 2] == Ditherer.BLACK) {
+            black++;
+          }
+        }
+        assertEquals("cell " + x + "," + y, 1, black);
+      }
+    }
+  }
+
+  @Test
+  public void begin_clearsCarriedError() {
+    Ditherer ditherer = new Ditherer(Ditherer.Mode.FLOYD_STEINBERG);
+    int first = blackCount(ditherer, 32, 8, gray(100));
+    int second = blackCount(ditherer, 32, 8, gray(100));
+
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void parse_acceptsChannelNames() {
+    assertEquals(Ditherer.Mode.FLOYD_STEINBERG, Ditherer.Mode.parse("floydSteinberg", null));
+    assertEquals(Ditherer.Mode.BAYER, Ditherer.Mode.parse("bayer", null));
+    assertEquals(Ditherer.Mode.THRESHOLD, Ditherer.Mode.parse(null, Ditherer.Mode.THRESHOLD));
+    assertNull(Ditherer.Mode.parse("none", Ditherer.Mode.BAYER));
+  }
+}
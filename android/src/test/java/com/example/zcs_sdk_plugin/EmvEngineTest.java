@@ -0,0 +1,302 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EmvEngineTest {
+
+  // EmvResult and EmvData constants; the SDK classes themselves need the device runtime
+  private static final int EMV_OK = 0;
+  private static final int EMV_USER_CANCEL = -7;
+  private static final byte APPROVE_M = 0x40;
+
+  private static class FakeKernel implements EmvEngine.Kernel {
+    final AtomicInteger loads = new AtomicInteger();
+    final List<String> loadedTables = new ArrayList<>();
+    final Map<Integer, byte[]> tags = new HashMap<>();
+    final List<Integer> callbackResults = new ArrayList<>();
+    volatile EmvEngine.Transaction lastTransaction;
+    String[] apps = {"VISA CREDIT"};
+    byte[] packed = {(byte) 0x9F, 0x27, 0x01, (byte) 0x80};
+
+    @Override
+    public void loadTerminal(Map<String, String> terminal) {
+      loads.incrementAndGet();
+      loadedTables.add("terminal");
+    }
+
+    @Override
+    public void loadAids(List<EmvParameters.Aid> aids, Map<String, String> terminal) {
+      loadedTables.add("aids");
+    }
+
+    @Override
+    public void loadCapks(List<EmvParameters.Capk> capks) {
+      loadedTables.add("capks");
+    }
+
+    @Override
+    public int transact(EmvEngine.Transaction transaction, EmvEngine.Callbacks callbacks, byte[] outcome) {
+      lastTransaction = transaction;
+      int selected = callbacks.selectApp(apps);
+      callbackResults.add(selected);
+      if (selected < 0) {
+        return selected;
+      }
+      callbackResults.add(callbacks.confirmCardNo("4111111111111111"));
+      int online = callbacks.online();
+      callbackResults.add(online);
+      if (online != EMV_OK) {
+        return online;
+      }
+      outcome[0] = APPROVE_M;
+      return EMV_OK;
+    }
+
+    @Override
+    public byte[] packTags(int[] tags) {
+      return packed;
+    }
+
+    @Override
+    public void setTag(int tag, byte[] value) {
+      tags.put(tag, value);
+    }
+
+    @Override
+    public void setPinBlock(byte[] pinBlock) {
+    }
+  }
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ExecutorService executor;
+  private FakeKernel kernel;
+  private EmvEngine engine;
+  private final BlockingQueue<Map<String, Object>> events = new LinkedBlockingQueue<>();
+
+  @Before
+  public void setUp() throws Exception {
+    executor = Executors.newSingleThreadExecutor();
+    kernel = new FakeKernel();
+    engine = new EmvEngine(kernel, executor, 2_000);
+    CountDownLatch loaded = new CountDownLatch(1);
+    engine.configure(parameters(), (summary, error) -> loaded.countDown());
+    assertTrue(loaded.await(1, TimeUnit.SECONDS));
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  static EmvParameters parameters() {
+    return parameters(0);
+  }
+
+  static EmvParameters parameters(long floorLimit) {
+    Map<String, Object> terminal = new HashMap<>();
+    terminal.put(EmvParameters.COUNTRY_CODE, "0840");
+    terminal.put(EmvParameters.MERCHANT_NAME, "Corner Caf\u00E9");
+    Map<String, Object> aid = new HashMap<>();
+    aid.put("aid", "A0000000031010");
+    aid.put("floorLimit", floorLimit);
+    Map<String, Object> capk = new HashMap<>();
+    capk.put("rid", "A000000003");
+    capk.put("index", 0x92);
+    capk.put("modulus", "996AF56F569187D09293C14810450ED8EE3357397B18A2458EFAA92DA3B6DF65");
+    return EmvParameters.fromChannel(terminal, Collections.singletonList(aid), Collections.singletonList(capk));
+  }
+
+  private static EmvEngine.Transaction transaction(long amount) {
+    EmvEngine.Transaction transaction = new EmvEngine.Transaction();
+    transaction.amount = amount;
+    return transaction;
+  }
+
+  private Map<String, Object> nextEvent() throws InterruptedException {
+    Map<String, Object> event = events.poll(1, TimeUnit.SECONDS);
+    assertNotNull("no EMV event", event);
+    return event;
+  }
+
+  @Test
+  public void transactions_reuseLoadedParameters() throws Exception {
+    for (int i = 1; i <= 3; i++) {
+      assertTrue(engine.start(transaction(100 * i), events::add));
+      Map<String, Object> online = nextEvent();
+      assertEquals(EmvEngine.ONLINE, online.get("type"));
+      assertEquals("9F270180", online.get("field55"));
+
+      Map<String, Object> answer = new HashMap<>();
+      answer.put("connected", true);
+      answer.put("tags", Collections.singletonMap("8A", "3030"));
+      assertTrue(engine.respond((Integer) online.get("id"), answer));
+
+      Map<String, Object> result = nextEvent();
+      assertEquals(EmvEngine.RESULT, result.get("type"));
+      assertEquals(EmvEngine.APPROVED, result.get("outcome"));
+      assertEquals(i, result.get("sequence"));
+    }
+
+    assertEquals(1, kernel.loads.get());
+    assertTrue(Arrays.equals(new byte[] {0x30, 0x30}, kernel.tags.get(0x8A)));
+    // One application and no confirmation requested: neither reached Flutter
+    assertEquals(Arrays.asList(0, EMV_OK, EMV_OK), kernel.callbackResults.subList(0, 3));
+  }
+
+  @Test
+  public void result_splitsPackedTagsIntoField55AndReceipt() throws Exception {
+    // 9F27, then the receipt-only 50 and 9B
+    kernel.packed = Hex.decode("9F270180" + "500456495341" + "9B026800");
+    engine.start(transaction(500), events::add);
+    Map<String, Object> online = nextEvent();
+    assertEquals("9F270180", online.get("field55"));
+
+    Map<String, Object> answer = new HashMap<>();
+    answer.put("connected", true);
+    answer.put("responseTlv", "8A023030" + "91080102030405060708");
+    engine.respond((Integer) online.get("id"), answer);
+
+    Map<String, Object> result = nextEvent();
+    assertEquals("9F270180", result.get("field55"));
+    Map<?, ?> receipt = (Map<?, ?>) result.get("receipt");
+    assertEquals("VISA", receipt.get("appLabel"));
+    assertEquals("6800", receipt.get("tsi"));
+    assertEquals("80", receipt.get("cid"));
+    assertTrue(Arrays.equals(new byte[] {0x30, 0x30}, kernel.tags.get(0x8A)));
+    assertEquals(8, kernel.tags.get(0x91).length);
+  }
+
+  @Test
+  public void severalApps_promptForSelection() throws Exception {
+    kernel.apps = new String[] {"VISA CREDIT", "VISA DEBIT"};
+    engine.start(transaction(500), events::add);
+
+    Map<String, Object> select = nextEvent();
+    assertEquals(EmvEngine.SELECT_APP, select.get("type"));
+    assertEquals(Arrays.asList("VISA CREDIT", "VISA DEBIT"), select.get("apps"));
+    engine.respond((Integer) select.get("id"), Collections.<String, Object>singletonMap("index", 1));
+
+    Map<String, Object> online = nextEvent();
+    assertEquals(EmvEngine.ONLINE, online.get("type"));
+    assertEquals(Integer.valueOf(1), kernel.callbackResults.get(0));
+  }
+
+  @Test
+  public void cancel_answersWaitingPrompt() throws Exception {
+    engine.start(transaction(500), events::add);
+    Map<String, Object> online = nextEvent();
+
+    assertFalse(engine.start(transaction(1), events::add));
+    assertTrue(engine.cancel());
+
+    Map<String, Object> result = nextEvent();
+    assertEquals(EmvEngine.CANCELLED, result.get("outcome"));
+    assertFalse(engine.respond((Integer) online.get("id"), new HashMap<String, Object>()));
+    assertFalse(engine.isBusy());
+  }
+
+  @Test
+  public void unansweredPrompt_timesOut() throws Exception {
+    engine = new EmvEngine(kernel, executor, 50);
+    CountDownLatch loaded = new CountDownLatch(1);
+    engine.configure(parameters(), (summary, error) -> loaded.countDown());
+    assertTrue(loaded.await(1, TimeUnit.SECONDS));
+
+    engine.start(transaction(500), events::add);
+    assertEquals(EmvEngine.ONLINE, nextEvent().get("type"));
+
+    Map<String, Object> result = nextEvent();
+    assertEquals(EmvEngine.FAILED, result.get("outcome"));
+  }
+
+  @Test
+  public void configure_reloadsOnlyChangedTables() throws Exception {
+    assertEquals(Arrays.asList("terminal", "aids", "capks"), kernel.loadedTables);
+
+    List<Object> reloaded = new ArrayList<>();
+    CountDownLatch done = new CountDownLatch(2);
+    EmvEngine.Done collect = (summary, error) -> {
+      reloaded.add(summary.get("reloaded"));
+      done.countDown();
+    };
+    engine.configure(parameters(), collect);
+    engine.configure(parameters(5_000), collect);
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+
+    assertEquals(Collections.emptyList(), reloaded.get(0));
+    assertEquals(Collections.singletonList("aids"), reloaded.get(1));
+    assertEquals(1, kernel.loads.get());
+  }
+
+  @Test
+  public void sequence_continuesFromStoreAcrossRestarts() throws Exception {
+    EmvSequenceStore store = new EmvSequenceStore(new File(folder.getRoot(), EmvSequenceStore.FILE_NAME));
+    store.save(41);
+    engine.setSequenceStore(store);
+
+    engine.start(transaction(500), events::add);
+    assertEquals(EmvEngine.ONLINE, nextEvent().get("type"));
+    // Saved before the card saw it
+    assertEquals(42, store.load());
+    engine.cancel();
+    assertEquals(42, nextEvent().get("sequence"));
+
+    store.save(EmvEngine.MAX_SEQUENCE);
+    engine.setSequenceStore(store);
+    engine.start(transaction(500), events::add);
+    nextEvent();
+    engine.cancel();
+    assertEquals(1, nextEvent().get("sequence"));
+    assertEquals(1, store.load());
+  }
+
+  @Test
+  public void start_requiresParameters() {
+    EmvEngine unconfigured = new EmvEngine(kernel, executor);
+    try {
+      unconfigured.start(transaction(1), events::add);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      assertFalse(unconfigured.isBusy());
+    }
+  }
+
+  @Test
+  public void parameters_rejectIncompleteCapk() {
+    Map<String, Object> capk = new HashMap<>();
+    capk.put("rid", "A000000003");
+    try {
+      EmvParameters.fromChannel(null, null, Collections.singletonList(capk));
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // rid without index and modulus
+    }
+  }
+}
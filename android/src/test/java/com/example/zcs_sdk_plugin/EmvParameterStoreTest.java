@@ -0,0 +1,88 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EmvParameterStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private EmvParameterStore store() {
+    return new EmvParameterStore(new File(folder.getRoot(), EmvParameterStore.FILE_NAME));
+  }
+
+  @Test
+  public void load_withoutFile_returnsNull() throws Exception {
+    assertNull(store().load());
+    assertNull(store().storedChecksums());
+  }
+
+  @Test
+  public void saveAndLoad_roundTripsAllTables() throws Exception {
+    EmvParameters params = EmvEngineTest.parameters(2_500);
+    assertTrue(store().save(params));
+
+    EmvParameters loaded = store().load();
+
+    assertEquals(params.terminal, loaded.terminal);
+    assertEquals(1, loaded.aids.size());
+    EmvParameters.Aid aid = loaded.aids.get(0);
+    assertEquals("A0000000031010", aid.aid);
+    assertEquals(2_500, aid.floorLimit);
+    assertTrue(aid.partialMatch);
+    assertEquals("0000000000", aid.tacDenial);
+    EmvParameters.Capk capk = loaded.capks.get(0);
+    assertEquals("A000000003", capk.rid);
+    assertEquals(0x92, capk.index);
+    assertEquals(params.capks.get(0).modulus, capk.modulus);
+    assertEquals(EmvParameterStore.checksums(params), EmvParameterStore.checksums(loaded));
+  }
+
+  @Test
+  public void save_skipsUnchangedTables() throws Exception {
+    EmvParameterStore store = store();
+    assertTrue(store.save(EmvEngineTest.parameters()));
+    assertFalse(store.save(EmvEngineTest.parameters()));
+
+    EmvParameterStore.Checksums before = store.storedChecksums();
+    assertTrue(store.save(EmvEngineTest.parameters(1)));
+    EmvParameterStore.Checksums after = store.storedChecksums();
+
+    assertEquals(before.terminal, after.terminal);
+    assertEquals(before.capks, after.capks);
+    assertNotEquals(before.aids, after.aids);
+  }
+
+  @Test
+  public void load_rejectsCorruptedFile() throws Exception {
+    File file = new File(folder.getRoot(), EmvParameterStore.FILE_NAME);
+    store().save(EmvEngineTest.parameters());
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.seek(raf.length() - 3);
+      raf.write(raf.read() ^ 0xFF);
+    } finally {
+      raf.close();
+    }
+
+    try {
+      store().load();
+      fail("expected IOException");
+    } catch (IOException expected) {
+      // the CAPK section no longer matches its checksum
+    }
+  }
+}
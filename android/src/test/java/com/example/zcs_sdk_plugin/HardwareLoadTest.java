@@ -0,0 +1,300 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Print queue, print pipeline, completion waiting, status caching and
+ * scanner sessions wired as the plugin wires them, run against
+ * SimulatedHardware.
+ */
+public class HardwareLoadTest {
+
+  private DeviceExecutors executors;
+  private SimulatedHardware hardware;
+  private Metrics metrics;
+  private PrinterStatusMonitor monitor;
+
+  @Before
+  public void setUp() {
+    executors = new DeviceExecutors();
+    hardware = new SimulatedHardware();
+    metrics = new Metrics();
+  }
+
+  @After
+  public void tearDown() {
+    if (monitor != null) {
+      monitor.stop();
+    }
+    executors.shutdown();
+  }
+
+  private PrintJobQueue printQueue(PrintCompletionWaiter waiter) {
+    return new PrintJobQueue(printTarget(), waiter, executors.printer, monitor, metrics);
+  }
+
+  // Starts the status monitor that the target keeps fresh, as the plugin does
+  private PrintJobQueue.Target printTarget() {
+    monitor = new PrinterStatusMonitor(hardware.status()::getPrinterStatus, executors.status);
+    PrintJobQueue.Target target = new PrintJobQueue.Target() {
+      @Override
+      public int getPrinterStatus() {
+        int status = hardware.status().getPrinterStatus();
+        monitor.publish(status);
+        return status;
+      }
+
+      @Override
+      public int setPrintStart() {
+        return hardware.printer().start();
+      }
+    };
+    monitor.start();
+    return target;
+  }
+
+  private PrintJobQueue.Fragment lines(int count) {
+    return () -> {
+      for (int i = 0; i < count; i++) {
+        hardware.printer().appendText("line " + i, null);
+      }
+    };
+  }
+
+  private static Map<?, ?> operation(Metrics metrics, String name) {
+    return (Map<?, ?>) ((Map<?, ?>) metrics.snapshot(false).get("operations")).get(name);
+  }
+
+  @Test
+  public void concurrentSubmitters_areBatchedOntoOnePrinterThread() throws Exception {
+    hardware.setPrintTiming(40, 2, 20);
+    PrintJobQueue queue = printQueue(new PrintCompletionWaiter(5, 40));
+    queue.setWindowMs(20);
+    int threads = 4;
+    int jobsPerThread = 25;
+    RecordingCallback callback = new RecordingCallback(threads * jobsPerThread);
+
+    List<Thread> submitters = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread submitter = new Thread(() -> {
+        for (int i = 0; i < jobsPerThread; i++) {
+          queue.submit(lines(3), callback, false);
+          try {
+            Thread.sleep(5);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      });
+      submitters.add(submitter);
+      submitter.start();
+    }
+    for (Thread submitter : submitters) {
+      submitter.join();
+    }
+
+    assertTrue(callback.latch.await(20, TimeUnit.SECONDS));
+    assertEquals(0, callback.errors.size());
+    assertEquals(threads * jobsPerThread * 3L, hardware.linesPrinted());
+    // Jobs arriving while the printer is busy share the next start
+    assertTrue("starts: " + hardware.printStarts(), hardware.printStarts() < threads * jobsPerThread / 4);
+    assertEquals(0, hardware.overlappingCalls());
+    assertEquals(0L, operation(metrics, PrintJobQueue.COMPLETION).get("timeouts"));
+  }
+
+  @Test
+  public void paperOut_failsTheJobAndEverythingUntilReloaded() throws Exception {
+    hardware.setPrintTiming(20, 2, 20);
+    hardware.loadPaper(30);
+    PrintJobQueue queue = printQueue(new PrintCompletionWaiter(5, 20));
+
+    // Runs out part way through
+    RecordingCallback first = new RecordingCallback(1);
+    queue.submit(lines(50), first, true);
+    assertTrue(first.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(1, first.errors.size());
+    assertEquals(30L, hardware.linesPrinted());
+
+    // Refused without a start while the paper is out
+    RecordingCallback second = new RecordingCallback(1);
+    queue.submit(lines(5), second, true);
+    assertTrue(second.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(1, second.errors.size());
+    assertEquals(1, hardware.printStarts());
+
+    // The cached paper-out lasts until the next live read, as after openPrinter
+    hardware.loadPaper(1_000);
+    monitor.refresh();
+    RecordingCallback third = new RecordingCallback(1);
+    queue.submit(lines(5), third, true);
+    assertTrue(third.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(SdkResult.SDK_OK, (int) third.codes.get(0));
+    assertEquals(1L, operation(metrics, PrintJobQueue.COMPLETION).get("errors"));
+  }
+
+  @Test
+  public void slowPrint_isReportedAsCompletionTimeout() throws Exception {
+    hardware.setPrintTiming(400, 0, 0);
+    PrintCompletionWaiter waiter = new PrintCompletionWaiter(5, 20);
+    waiter.setTimeoutMs(100);
+    PrintJobQueue queue = printQueue(waiter);
+    RecordingCallback callback = new RecordingCallback(1);
+
+    queue.submit(lines(1), callback, true);
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(SdkResult.SDK_OK, (int) callback.codes.get(0));
+    assertEquals(1L, operation(metrics, PrintJobQueue.COMPLETION).get("timeouts"));
+  }
+
+  @Test
+  public void receiptPipeline_rendersAheadButNoFurtherThanItsCapacity() throws Exception {
+    // Each receipt prints for about 80 ms and takes 30 ms to render
+    hardware.setPrintTiming(60, 2, 0);
+    PrintJobQueue.Target target = printTarget();
+    PrintCompletionWaiter waiter = new PrintCompletionWaiter(5, 10);
+    int capacity = 2;
+    PrintPipeline pipeline = new PrintPipeline(executors.render, executors.printer, capacity);
+    int jobs = 8;
+    CountDownLatch done = new CountDownLatch(jobs);
+    List<Integer> printed = new ArrayList<>();
+    List<Exception> errors = new ArrayList<>();
+    AtomicBoolean printing = new AtomicBoolean();
+    AtomicBoolean renderedWhilePrinting = new AtomicBoolean();
+    AtomicInteger waiting = new AtomicInteger();
+    AtomicInteger mostWaiting = new AtomicInteger();
+
+    for (int i = 0; i < jobs; i++) {
+      int id = i;
+      pipeline.submit(new PrintPipeline.Job<PrintJobQueue.Fragment>() {
+        @Override
+        public PrintJobQueue.Fragment render() throws Exception {
+          Thread.sleep(30);
+          if (printing.get()) {
+            renderedWhilePrinting.set(true);
+          }
+          int rendered = waiting.incrementAndGet();
+          mostWaiting.accumulateAndGet(rendered, Math::max);
+          return lines(10);
+        }
+
+        @Override
+        public void print(PrintJobQueue.Fragment receipt) throws Exception {
+          waiting.decrementAndGet();
+          printing.set(true);
+          try {
+            receipt.append();
+            int code = hardware.printer().start();
+            if (code == SdkResult.SDK_OK) {
+              code = waiter.await(target);
+            }
+            if (code != SdkResult.SDK_OK) {
+              throw new Exception("Print failed: " + code);
+            }
+          } finally {
+            printing.set(false);
+          }
+          synchronized (printed) {
+            printed.add(id);
+          }
+          done.countDown();
+        }
+
+        @Override
+        public void onError(Exception e) {
+          synchronized (errors) {
+            errors.add(e);
+          }
+          done.countDown();
+        }
+      });
+    }
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertTrue(errors.isEmpty());
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), printed);
+    assertEquals(jobs * 10L, hardware.linesPrinted());
+    assertEquals(jobs, hardware.printStarts());
+    assertTrue(renderedWhilePrinting.get());
+    // The queue holds capacity jobs and the render worker one more, blocked
+    assertTrue("waiting: " + mostWaiting.get(), mostWaiting.get() <= capacity + 1);
+    assertTrue("waiting: " + mostWaiting.get(), mostWaiting.get() >= capacity);
+    assertEquals(0, hardware.overlappingCalls());
+  }
+
+  @Test
+  public void continuousScan_streamsArrivalsAndStopsWhenIdle() throws Exception {
+    hardware.setWakeUpMs(50);
+    ScannerPower power = new ScannerPower(hardware.scanner(), executors.scanner, null, metrics);
+    power.setStandbyMs(0);
+    ContinuousScanner scanner = new ContinuousScanner(
+        new ContinuousScanner.PoweredDevice(hardware.scanner(), power), executors.scanner);
+    BlockingQueue<String> scans = new LinkedBlockingQueue<>();
+    BlockingQueue<String> stops = new LinkedBlockingQueue<>();
+
+    hardware.queueScans(40, "TKT-1", "TKT-2", "TKT-2", "TKT-3");
+    assertTrue(scanner.start(300, 1_000, new ContinuousScanner.Listener() {
+      @Override
+      public void onScan(String data) {
+        scans.add(data);
+      }
+
+      @Override
+      public void onStopped(String reason) {
+        stops.add(reason);
+      }
+    }));
+
+    assertEquals(ContinuousScanner.IDLE, stops.poll(3, TimeUnit.SECONDS));
+    List<String> received = new ArrayList<>();
+    scans.drainTo(received);
+    // The repeated ticket falls inside the duplicate window
+    assertEquals(3, received.size());
+    assertEquals("TKT-3", received.get(2));
+    assertEquals(4, hardware.scansDecoded());
+    assertEquals(1, hardware.wakeUps());
+    assertEquals(0, hardware.overlappingCalls());
+    assertFalse(power.isPowered());
+  }
+
+  private static final class RecordingCallback implements PrintJobQueue.Callback {
+    final CountDownLatch latch;
+    final List<Integer> codes = new ArrayList<>();
+    final List<Exception> errors = new ArrayList<>();
+
+    RecordingCallback(int expected) {
+      latch = new CountDownLatch(expected);
+    }
+
+    @Override
+    public synchronized void onPrinted(int resultCode) {
+      codes.add(resultCode);
+      latch.countDown();
+    }
+
+    @Override
+    public synchronized void onError(Exception e) {
+      errors.add(e);
+      latch.countDown();
+    }
+  }
+}
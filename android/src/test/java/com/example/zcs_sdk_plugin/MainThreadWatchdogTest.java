@@ -0,0 +1,86 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class MainThreadWatchdogTest {
+
+  private static long ms(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> recent(MainThreadWatchdog watchdog) {
+    return (List<Map<String, Object>>) watchdog.stats().get("recent");
+  }
+
+  @Test
+  public void workOverThreshold_isRecorded() {
+    MainThreadWatchdog watchdog = new MainThreadWatchdog();
+    watchdog.setEnabled(true);
+
+    watchdog.record("fast", ms(2));
+    watchdog.record("printReceipt", ms(40));
+
+    Map<String, Object> stats = watchdog.stats();
+    assertEquals(2L, stats.get("checked"));
+    assertEquals(1L, stats.get("stalls"));
+    assertEquals(40L, stats.get("worstMs"));
+    assertEquals(1, recent(watchdog).size());
+    assertEquals("printReceipt", recent(watchdog).get(0).get("task"));
+  }
+
+  @Test
+  public void recentStalls_areBounded() {
+    MainThreadWatchdog watchdog = new MainThreadWatchdog();
+    watchdog.setEnabled(true);
+
+    for (int i = 0; i < MainThreadWatchdog.MAX_RECORDED_STALLS + 5; i++) {
+      watchdog.record("task" + i, ms(100));
+    }
+
+    List<Map<String, Object>> recent = recent(watchdog);
+    assertEquals(MainThreadWatchdog.MAX_RECORDED_STALLS, recent.size());
+    assertEquals("task5", recent.get(0).get("task"));
+  }
+
+  @Test
+  public void disabled_recordsNothing() throws Exception {
+    MainThreadWatchdog watchdog = new MainThreadWatchdog();
+    watchdog.setThresholdMs(0);
+
+    long started = watchdog.begin();
+    Thread.sleep(5);
+    watchdog.end("scanQRCode", started);
+
+    assertEquals(0L, watchdog.stats().get("checked"));
+  }
+
+  @Test
+  public void postedWork_isNamedByItsClass() {
+    Runnable posted = () -> { };
+
+    String task = MainThreadWatchdog.describe(posted, 0);
+
+    assertTrue(task, task.startsWith("MainThreadWatchdogTest$$Lambda"));
+    assertEquals("message 3", MainThreadWatchdog.describe(null, 3));
+  }
+
+  @Test
+  public void reset_clearsCounters() {
+    MainThreadWatchdog watchdog = new MainThreadWatchdog();
+    watchdog.setEnabled(true);
+    watchdog.record("openDevice", ms(50));
+
+    watchdog.reset();
+
+    assertEquals(0L, watchdog.stats().get("stalls"));
+    assertTrue(recent(watchdog).isEmpty());
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.flutter.plugin.common.MethodChannel;
+
+import org.junit.Test;
+
+public class MetricsTest {
+
+  private static final long MS = 1_000_000;
+
+  private static Map<?, ?> operation(Metrics metrics, String name, boolean reset) {
+    Map<?, ?> operations = (Map<?, ?>) metrics.snapshot(reset).get("operations");
+    return (Map<?, ?>) operations.get(name);
+  }
+
+  private static double ms(Map<?, ?> snapshot, String key) {
+    return ((Number) snapshot.get(key)).doubleValue();
+  }
+
+  @Test
+  public void buckets_coverEveryDurationInOrder() {
+    int previous = -1;
+    for (long micros = 0; micros < 1L << 20; micros += 1 + micros / 7) {
+      int bucket = Metrics.bucket(micros);
+      assertTrue(bucket >= previous);
+      assertTrue("upper bound of " + micros, micros < Metrics.upperBound(bucket));
+      // A bucket is at most a quarter wider than its lower bound
+      assertTrue(Metrics.upperBound(bucket) <= Math.max(micros + 1, micros * 5 / 4 + 1));
+      previous = bucket;
+    }
+    assertEquals(Metrics.BUCKET_COUNT - 1, Metrics.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void percentiles_comeFromTheRecordedDistribution() {
+    Metrics metrics = new Metrics();
+    Metrics.Histogram histogram = metrics.get("printText");
+    // 90 fast calls, 9 slow ones and one very slow one
+    for (int i = 0; i < 90; i++) {
+      histogram.record(2 * MS);
+    }
+    for (int i = 0; i < 9; i++) {
+      histogram.record(40 * MS);
+    }
+    histogram.record(900 * MS);
+    histogram.error();
+    histogram.timeout();
+
+    Map<?, ?> snapshot = operation(metrics, "printText", false);
+    assertEquals(100L, snapshot.get("count"));
+    assertEquals(1L, snapshot.get("errors"));
+    assertEquals(1L, snapshot.get("timeouts"));
+    assertEquals(2.0, ms(snapshot, "p50Ms"), 0.5);
+    assertEquals(40.0, ms(snapshot, "p95Ms"), 10.0);
+    assertEquals(40.0, ms(snapshot, "p99Ms"), 10.0);
+    assertEquals(900.0, ms(snapshot, "maxMs"), 0.001);
+  }
+
+  @Test
+  public void reset_startsANewPeriod() {
+    Metrics metrics = new Metrics();
+    metrics.get("getPrinterStatus").record(3 * MS);
+
+    assertEquals(1L, operation(metrics, "getPrinterStatus", true).get("count"));
+    Map<?, ?> after = operation(metrics, "getPrinterStatus", false);
+    assertEquals(0L, after.get("count"));
+    assertEquals(0.0, ms(after, "p99Ms"), 0.0);
+    assertEquals(0L, metrics.get("getPrinterStatus").count());
+  }
+
+  @Test
+  public void concurrentRecording_losesNothing() throws Exception {
+    Metrics metrics = new Metrics();
+    int threads = 4;
+    int perThread = 10_000;
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          metrics.get("setPrintStart").record(i * 1_000L);
+        }
+        done.countDown();
+      }).start();
+    }
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals((long) threads * perThread, operation(metrics, "setPrintStart", false).get("count"));
+  }
+
+  @Test
+  public void meteredResult_countsErrorsAndFailedResponsesOnce() {
+    Metrics metrics = new Metrics();
+    MethodChannel.Result ignored = new MethodChannel.Result() {
+      @Override
+      public void success(Object result) {
+      }
+
+      @Override
+      public void error(String errorCode, String errorMessage, Object errorDetails) {
+      }
+
+      @Override
+      public void notImplemented() {
+      }
+    };
+
+    new MeteredResult(ignored, metrics.get("printText")).success(Collections.singletonMap("success", true));
+    new MeteredResult(ignored, metrics.get("printText")).success(Collections.singletonMap("success", false));
+    MeteredResult twice = new MeteredResult(ignored, metrics.get("printText"));
+    twice.error("PRINT_ERROR", "Out of paper", null);
+    twice.error("PRINT_ERROR", "Out of paper", null);
+    new MeteredResult(ignored, metrics.get("unknown")).notImplemented();
+
+    Map<?, ?> snapshot = operation(metrics, "printText", false);
+    assertEquals(3L, snapshot.get("count"));
+    assertEquals(2L, snapshot.get("errors"));
+    assertEquals(0L, operation(metrics, "unknown", false).get("count"));
+  }
+}
@@ -0,0 +1,229 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PinPadTest {
+
+  // SdkResult constants; the SDK class itself needs the device runtime
+  private static final int SDK_OK = 0;
+  private static final int SDK_PAD_ERR_NOPIN = -1510;
+  private static final int SDK_PAD_ERR_NOTSET_KEY = -1516;
+
+  private static class FakeDevice implements PinPad.Device {
+    volatile PinPad.PinCallback callback;
+    volatile PinPad.PinRequest request;
+    final AtomicInteger cancels = new AtomicInteger();
+    final List<String> threads = new ArrayList<>();
+    int badKeyIndex = -1;
+
+    @Override
+    public void inputPin(PinPad.PinRequest request, PinPad.PinCallback callback) {
+      this.request = request;
+      this.callback = callback;
+    }
+
+    @Override
+    public void cancelPin() {
+      cancels.incrementAndGet();
+    }
+
+    @Override
+    public int mac(int keyIndex, PinPad.MacAlgorithm algorithm, byte[] data, byte[] out) {
+      threads.add(Thread.currentThread().getName());
+      if (keyIndex == badKeyIndex) {
+        return SDK_PAD_ERR_NOTSET_KEY;
+      }
+      // XOR of the 8-byte blocks, enough to tell inputs apart
+      Arrays.fill(out, (byte) 0);
+      for (int i = 0; i < data.length; i++) {
+        out[i % 8] ^= data[i];
+      }
+      return SDK_OK;
+    }
+
+    @Override
+    public int encrypt(int keyIndex, PinPad.KeyType keyType, byte[] data, byte[] out) {
+      threads.add(Thread.currentThread().getName());
+      for (int i = 0; i < data.length; i++) {
+        out[i] = (byte) ~data[i];
+      }
+      return SDK_OK;
+    }
+  }
+
+  private ScheduledExecutorService executor;
+  private FakeDevice device;
+  private PinPad pinPad;
+  private final BlockingQueue<Map<String, Object>> events = new LinkedBlockingQueue<>();
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadScheduledExecutor(DeviceExecutors.named("test-secure"));
+    device = new FakeDevice();
+    pinPad = new PinPad(device, executor);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static PinPad.PinRequest request(long timeoutMs) {
+    PinPad.PinRequest request = new PinPad.PinRequest();
+    request.pan = "4111111111111111";
+    request.timeoutMs = timeoutMs;
+    return request;
+  }
+
+  private Map<String, Object> nextEvent(long timeoutMs) throws InterruptedException {
+    Map<String, Object> event = events.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    assertNotNull("no PIN event", event);
+    return event;
+  }
+
+  private void awaitArmed() throws InterruptedException {
+    for (int i = 0; i < 100 && device.callback == null; i++) {
+      Thread.sleep(10);
+    }
+    assertNotNull("PIN pad not armed", device.callback);
+  }
+
+  @Test
+  public void pinBlock_isStreamedOnce() throws Exception {
+    assertTrue(pinPad.start(request(5_000), events::add));
+    assertFalse(pinPad.start(request(5_000), events::add));
+    awaitArmed();
+
+    device.callback.onPin(new byte[] {0x12, 0x34});
+    device.callback.onError(-1);
+
+    Map<String, Object> event = nextEvent(1_000);
+    assertEquals(PinPad.ENTERED, event.get("outcome"));
+    assertEquals("1234", event.get("pinBlock"));
+    assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    assertFalse(pinPad.isEntering());
+    assertEquals(0, device.cancels.get());
+  }
+
+  @Test
+  public void bypass_isReportedWithoutPinBlock() throws Exception {
+    pinPad.start(request(5_000), events::add);
+    awaitArmed();
+
+    device.callback.onError(SDK_PAD_ERR_NOPIN);
+
+    Map<String, Object> event = nextEvent(1_000);
+    assertEquals(PinPad.BYPASSED, event.get("outcome"));
+    assertNull(event.get("pinBlock"));
+  }
+
+  @Test
+  public void cancelAndTimeout_takeThePadDown() throws Exception {
+    pinPad.start(request(5_000), events::add);
+    awaitArmed();
+    assertTrue(pinPad.cancel());
+    assertEquals(PinPad.CANCELLED, nextEvent(1_000).get("outcome"));
+
+    device.callback = null;
+    // The backstop fires a second after the pad's own timeout
+    pinPad.start(request(1), events::add);
+    assertEquals(PinPad.TIMEOUT, nextEvent(3_000).get("outcome"));
+
+    CountDownLatch drained = new CountDownLatch(1);
+    executor.execute(drained::countDown);
+    assertTrue(drained.await(1, TimeUnit.SECONDS));
+    assertEquals(2, device.cancels.get());
+  }
+
+  @Test
+  public void batch_runsEveryOperationInOneTask() throws Exception {
+    device.badKeyIndex = 9;
+    List<PinPad.Operation> operations = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Map<String, Object> mac = new HashMap<>();
+      mac.put("op", "mac");
+      mac.put("keyIndex", i == 10 ? 9 : 1);
+      mac.put("algorithm", "x9.19");
+      mac.put("data", new byte[] {(byte) i, 1, 2, 3, 4, 5, 6, 7, 8});
+      operations.add(PinPad.Operation.fromChannel(mac));
+    }
+    Map<String, Object> encrypt = new HashMap<>();
+    encrypt.put("op", "encrypt");
+    encrypt.put("data", new byte[] {1, 2, 3});
+    operations.add(PinPad.Operation.fromChannel(encrypt));
+
+    List<List<Map<String, Object>>> done = new ArrayList<>();
+    CountDownLatch finished = new CountDownLatch(1);
+    pinPad.run(operations, results -> {
+      done.add(results);
+      finished.countDown();
+    });
+    assertTrue(finished.await(1, TimeUnit.SECONDS));
+
+    List<Map<String, Object>> results = done.get(0);
+    assertEquals(51, results.size());
+    assertEquals(Boolean.TRUE, results.get(0).get("success"));
+    assertEquals(8, ((byte[]) results.get(0).get("data")).length);
+    assertEquals(SDK_PAD_ERR_NOTSET_KEY, results.get(10).get("code"));
+    assertNull(results.get(10).get("data"));
+    assertEquals(Boolean.TRUE, results.get(11).get("success"));
+    // Zero-padded to one block before encrypting
+    assertArrayEquals(new byte[] {~1, ~2, ~3, -1, -1, -1, -1, -1}, (byte[]) results.get(50).get("data"));
+    for (String thread : device.threads) {
+      assertEquals("test-secure", thread);
+    }
+  }
+
+  @Test
+  public void encrypt_rejectsPinAndMacKeys() {
+    for (String keyType : new String[] {"pin", "mac", "PIN"}) {
+      Map<String, Object> encrypt = new HashMap<>();
+      encrypt.put("op", "encrypt");
+      encrypt.put("keyType", keyType);
+      encrypt.put("data", new byte[8]);
+      try {
+        PinPad.Operation.fromChannel(encrypt);
+        fail("accepted key type " + keyType);
+      } catch (IllegalArgumentException expected) {
+        // Only the data key may encrypt
+      }
+    }
+    Map<String, Object> data = new HashMap<>();
+    data.put("op", "encrypt");
+    data.put("keyType", "data");
+    data.put("data", new byte[8]);
+    assertEquals(PinPad.KeyType.DATA, PinPad.Operation.fromChannel(data).keyType);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void operation_rejectsUnknownAlgorithm() {
+    Map<String, Object> mac = new HashMap<>();
+    mac.put("op", "mac");
+    mac.put("algorithm", "cmac");
+    mac.put("data", new byte[8]);
+    PinPad.Operation.fromChannel(mac);
+  }
+}
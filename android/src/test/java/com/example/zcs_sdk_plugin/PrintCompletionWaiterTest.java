@@ -0,0 +1,65 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.zcs.sdk.SdkResult;
+
+import org.junit.Test;
+
+public class PrintCompletionWaiterTest {
+
+  @Test
+  public void await_returnsAsSoonAsPrinterStopsPrinting() throws Exception {
+    ScriptedPrinter printer = new ScriptedPrinter(3);
+    PrintCompletionWaiter waiter = new PrintCompletionWaiter(1, 4);
+
+    int status = waiter.await(printer);
+
+    assertEquals(SdkResult.SDK_OK, status);
+    assertEquals(4, printer.polls);
+  }
+
+  @Test
+  public void await_givesUpAtTimeout() throws Exception {
+    ScriptedPrinter printer = new ScriptedPrinter(Integer.MAX_VALUE);
+    PrintCompletionWaiter waiter = new PrintCompletionWaiter(1, 8);
+    waiter.setTimeoutMs(50);
+
+    long start = System.nanoTime();
+    int status = waiter.await(printer);
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+    assertEquals(SdkResult.SDK_PRN_STATUS_PRINTING, status);
+    assertTrue("waited " + elapsedMs + " ms", elapsedMs >= 50 && elapsedMs < 1000);
+  }
+
+  @Test
+  public void await_reportsPaperOutDuringJob() throws Exception {
+    ScriptedPrinter printer = new ScriptedPrinter(2);
+    printer.finalStatus = SdkResult.SDK_PRN_STATUS_PAPEROUT;
+
+    assertEquals(SdkResult.SDK_PRN_STATUS_PAPEROUT, new PrintCompletionWaiter(1, 4).await(printer));
+  }
+
+  /** Reports PRINTING for a fixed number of polls, then finalStatus. */
+  private static final class ScriptedPrinter implements PrintJobQueue.Target {
+    private final int busyPolls;
+    int finalStatus = SdkResult.SDK_OK;
+    int polls;
+
+    ScriptedPrinter(int busyPolls) {
+      this.busyPolls = busyPolls;
+    }
+
+    @Override
+    public int getPrinterStatus() {
+      return polls++ < busyPolls ? SdkResult.SDK_PRN_STATUS_PRINTING : finalStatus;
+    }
+
+    @Override
+    public int setPrintStart() {
+      return SdkResult.SDK_OK;
+    }
+  }
+}
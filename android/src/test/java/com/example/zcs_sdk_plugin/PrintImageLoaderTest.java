@@ -0,0 +1,145 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PrintImageLoaderTest {
+
+  private static final int HEAD_WIDTH = 384;
+  private static final byte[] LOGO = {1, 2, 3, 4};
+
+  private final RecordingPool pool = new RecordingPool();
+  private final FakeCodec codec = new FakeCodec();
+  private final PrintImageLoader loader =
+      new PrintImageLoader(pool, PrintImageLoader.DEFAULT_CACHE_BYTES, codec);
+
+  @Test
+  public void sampleSize_keepsImageAtLeastHeadWidth() {
+    assertEquals(1, PrintImageLoader.sampleSize(384, 384));
+    assertEquals(1, PrintImageLoader.sampleSize(767, 384));
+    assertEquals(2, PrintImageLoader.sampleSize(768, 384));
+    assertEquals(8, PrintImageLoader.sampleSize(4032, 384));
+    assertEquals(4, PrintImageLoader.sampleSize(4032, 576));
+  }
+
+  @Test
+  public void sampleSize_isOneWithoutWidthLimit() {
+    assertEquals(1, PrintImageLoader.sampleSize(4032, 0));
+    assertEquals(1, PrintImageLoader.sampleSize(100, 384));
+  }
+
+  @Test
+  public void fittingImageWithoutDither_isReturnedAsDecoded() {
+    codec.decodedWidth = HEAD_WIDTH;
+
+    Bitmap printable = loader.decode(LOGO, HEAD_WIDTH, null);
+
+    assertSame(codec.decoded.get(0), printable);
+    assertTrue(codec.scaled.isEmpty());
+    assertTrue(codec.dithered.isEmpty());
+    assertTrue(pool.returned.isEmpty());
+  }
+
+  @Test
+  public void wideImage_handsTheDecodedBitmapBack() {
+    codec.decodedWidth = HEAD_WIDTH * 2;
+
+    Bitmap printable = loader.decode(LOGO, HEAD_WIDTH, null);
+
+    assertSame(codec.scaled.get(0), printable);
+    assertEquals(1, pool.returned.size());
+    assertSame(codec.decoded.get(0), pool.returned.get(0));
+  }
+
+  @Test
+  public void ditheredImage_handsTheIntermediatesBack() {
+    codec.decodedWidth = HEAD_WIDTH * 2;
+
+    Bitmap printable = loader.decode(LOGO, HEAD_WIDTH, Ditherer.Mode.FLOYD_STEINBERG);
+
+    assertSame(codec.dithered.get(0), printable);
+    assertEquals(2, pool.returned.size());
+    assertSame(codec.decoded.get(0), pool.returned.get(0));
+    assertSame(codec.scaled.get(0), pool.returned.get(1));
+  }
+
+  @Test
+  public void unscaledDitheredImage_handsTheDecodedBitmapBack() {
+    codec.decodedWidth = HEAD_WIDTH;
+
+    Bitmap printable = loader.decode(LOGO, HEAD_WIDTH, Ditherer.Mode.FLOYD_STEINBERG);
+
+    assertSame(codec.dithered.get(0), printable);
+    assertTrue(codec.scaled.isEmpty());
+    assertEquals(1, pool.returned.size());
+    assertSame(codec.decoded.get(0), pool.returned.get(0));
+  }
+
+  @Test
+  public void repeatedImage_isDecodedOnce() {
+    codec.decodedWidth = HEAD_WIDTH * 2;
+
+    Bitmap first = loader.decode(LOGO, HEAD_WIDTH, Ditherer.Mode.FLOYD_STEINBERG);
+    Bitmap second = loader.decode(LOGO.clone(), HEAD_WIDTH, Ditherer.Mode.FLOYD_STEINBERG);
+
+    assertSame(first, second);
+    assertEquals(1, codec.decoded.size());
+    assertEquals(2, pool.returned.size());
+  }
+
+  private static Bitmap bitmap(int width) {
+    Bitmap bitmap = mock(Bitmap.class);
+    when(bitmap.getWidth()).thenReturn(width);
+    when(bitmap.getHeight()).thenReturn(width / 2);
+    when(bitmap.isMutable()).thenReturn(true);
+    when(bitmap.getAllocationByteCount()).thenReturn(width * (width / 2) * 2);
+    return bitmap;
+  }
+
+  private static final class RecordingPool extends BitmapPool {
+    final List<Bitmap> returned = new ArrayList<>();
+
+    @Override
+    void put(Bitmap bitmap) {
+      returned.add(bitmap);
+    }
+  }
+
+  private static final class FakeCodec implements PrintImageLoader.Codec {
+    int decodedWidth;
+    final List<Bitmap> decoded = new ArrayList<>();
+    final List<Bitmap> scaled = new ArrayList<>();
+    final List<Bitmap> dithered = new ArrayList<>();
+
+    @Override
+    public Bitmap decode(byte[] data, int length, int maxWidth) {
+      Bitmap bitmap = bitmap(decodedWidth);
+      decoded.add(bitmap);
+      return bitmap;
+    }
+
+    @Override
+    public Bitmap scale(Bitmap source, int width) {
+      Bitmap bitmap = bitmap(width);
+      scaled.add(bitmap);
+      return bitmap;
+    }
+
+    @Override
+    public Bitmap dither(Bitmap source, Ditherer.Mode mode) {
+      Bitmap bitmap = bitmap(source.getWidth());
+      dithered.add(bitmap);
+      return bitmap;
+    }
+  }
+}
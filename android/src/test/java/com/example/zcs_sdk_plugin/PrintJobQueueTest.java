@@ -0,0 +1,256 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrintJobQueueTest {
+
+  private ScheduledExecutorService executor;
+  private ExecutorService decoder;
+  private FakePrinter printer;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadScheduledExecutor();
+    decoder = Executors.newSingleThreadExecutor();
+    printer = new FakePrinter();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    decoder.shutdownNow();
+  }
+
+  // Stands in for an image decode that outlasts the coalescing window
+  private Future<String> slowDecode(String image, long ms) {
+    return decoder.submit(() -> {
+      Thread.sleep(ms);
+      return image;
+    });
+  }
+
+  @Test
+  public void fragmentsWithinWindow_shareOnePrintStart() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(200);
+    RecordingCallback callback = new RecordingCallback(3);
+
+    for (int i = 0; i < 3; i++) {
+      String line = "line " + i;
+      queue.submit(() -> printer.append(line), callback, false);
+    }
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(3, printer.appended.size());
+    assertEquals(1, printer.starts);
+    assertEquals(3, callback.codes.size());
+  }
+
+  @Test
+  public void flushNow_startsWithoutWaitingForWindow() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(60_000);
+    RecordingCallback callback = new RecordingCallback(2);
+
+    queue.submit(() -> printer.append("a"), callback, false);
+    queue.submit(() -> printer.append("b"), callback, true);
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(1, printer.starts);
+    assertEquals(0, queue.pendingCount());
+  }
+
+  @Test
+  public void deferredImage_keepsItsPlaceAheadOfLaterText() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(20);
+    RecordingCallback callback = new RecordingCallback(2);
+
+    queue.submit(PrintJobQueue.deferred(slowDecode("logo", 150), printer::append), callback, false);
+    queue.submit(() -> printer.append("header"), callback, false);
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("logo", "header"), printer.appended);
+    assertEquals(1, printer.starts);
+  }
+
+  @Test
+  public void flushedImage_printsAheadOfTextSubmittedWhileDecoding() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(60_000);
+    RecordingCallback callback = new RecordingCallback(2);
+
+    queue.submit(PrintJobQueue.deferred(slowDecode("logo", 150), printer::append), callback, true);
+    queue.submit(() -> printer.append("footer"), callback, true);
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("logo", "footer"), printer.appended);
+    assertEquals(2, callback.codes.size());
+  }
+
+  @Test
+  public void failedDecode_failsOnlyItsOwnFragment() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(20);
+    RecordingCallback image = new RecordingCallback(1);
+    RecordingCallback text = new RecordingCallback(1);
+    Future<String> broken = decoder.submit(() -> {
+      throw new IllegalArgumentException("Unsupported image data");
+    });
+
+    queue.submit(PrintJobQueue.deferred(broken, printer::append), image, false);
+    queue.submit(() -> printer.append("header"), text, false);
+
+    assertTrue(image.latch.await(2, TimeUnit.SECONDS));
+    assertTrue(text.latch.await(2, TimeUnit.SECONDS));
+    assertTrue(image.errors.get(0) instanceof ExecutionException);
+    assertEquals(Collections.singletonList("header"), printer.appended);
+    assertEquals(Collections.singletonList(SdkResult.SDK_OK), text.codes);
+  }
+
+  // A receipt job the way the plugin submits one: barrier first, then the pipeline
+  private void submitReceipt(PrintJobQueue queue, PrintPipeline pipeline, String receipt,
+                             long renderMs, CountDownLatch done) {
+    PrintJobQueue.Barrier barrier = queue.hold();
+    pipeline.submit(new PrintPipeline.Job<String>() {
+      @Override
+      public String render() throws Exception {
+        Thread.sleep(renderMs);
+        if (receipt == null) {
+          throw new Exception("Unknown receipt template");
+        }
+        return receipt;
+      }
+
+      @Override
+      public void print(String rendered) {
+        try {
+          queue.flushPending();
+          printer.append(rendered);
+          printer.setPrintStart();
+        } finally {
+          queue.release(barrier);
+        }
+        done.countDown();
+      }
+
+      @Override
+      public void onError(Exception e) {
+        queue.release(barrier);
+        done.countDown();
+      }
+    });
+  }
+
+  @Test
+  public void textAfterReceipt_waitsForTheReceipt() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(20);
+    PrintPipeline pipeline = new PrintPipeline(decoder, executor, PrintPipeline.DEFAULT_CAPACITY);
+    RecordingCallback callback = new RecordingCallback(3);
+    CountDownLatch receipts = new CountDownLatch(1);
+
+    queue.submit(() -> printer.append("before"), callback, false);
+    // Renders for far longer than the coalescing window
+    submitReceipt(queue, pipeline, "receipt", 200, receipts);
+    queue.submit(() -> printer.append("after"), callback, false);
+    queue.submit(() -> printer.append("flushed"), callback, true);
+
+    assertTrue(receipts.await(2, TimeUnit.SECONDS));
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("before", "receipt", "after", "flushed"), printer.appended);
+    assertEquals(0, queue.pendingCount());
+  }
+
+  @Test
+  public void failedReceipt_releasesTheTextBehindIt() throws Exception {
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    queue.setWindowMs(20);
+    PrintPipeline pipeline = new PrintPipeline(decoder, executor, PrintPipeline.DEFAULT_CAPACITY);
+    RecordingCallback callback = new RecordingCallback(1);
+    CountDownLatch receipts = new CountDownLatch(2);
+
+    submitReceipt(queue, pipeline, null, 50, receipts);
+    submitReceipt(queue, pipeline, "second", 50, receipts);
+    queue.submit(() -> printer.append("after"), callback, false);
+
+    assertTrue(receipts.await(2, TimeUnit.SECONDS));
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("second", "after"), printer.appended);
+  }
+
+  @Test
+  public void paperOut_failsBatchWithoutStarting() throws Exception {
+    printer.status = SdkResult.SDK_PRN_STATUS_PAPEROUT;
+    PrintJobQueue queue = new PrintJobQueue(printer, new PrintCompletionWaiter(1, 5), executor);
+    RecordingCallback callback = new RecordingCallback(1);
+
+    queue.submit(() -> printer.append("a"), callback, true);
+
+    assertTrue(callback.latch.await(2, TimeUnit.SECONDS));
+    assertEquals(1, callback.errors.size());
+    assertEquals(0, printer.starts);
+  }
+
+  private static final class FakePrinter implements PrintJobQueue.Target {
+    final List<String> appended = Collections.synchronizedList(new ArrayList<>());
+    volatile int status = SdkResult.SDK_OK;
+    int starts;
+
+    void append(String content) {
+      appended.add(content);
+    }
+
+    @Override
+    public int getPrinterStatus() {
+      return status;
+    }
+
+    @Override
+    public int setPrintStart() {
+      starts++;
+      return SdkResult.SDK_OK;
+    }
+  }
+
+  private static final class RecordingCallback implements PrintJobQueue.Callback {
+    final CountDownLatch latch;
+    final List<Integer> codes = new ArrayList<>();
+    final List<Exception> errors = new ArrayList<>();
+
+    RecordingCallback(int expected) {
+      latch = new CountDownLatch(expected);
+    }
+
+    @Override
+    public synchronized void onPrinted(int resultCode) {
+      codes.add(resultCode);
+      latch.countDown();
+    }
+
+    @Override
+    public synchronized void onError(Exception e) {
+      errors.add(e);
+      latch.countDown();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrintPipelineTest {
+
+  private ExecutorService renderExecutor;
+  private ExecutorService deviceExecutor;
+  private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setUp() {
+    renderExecutor = Executors.newSingleThreadExecutor();
+    deviceExecutor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    renderExecutor.shutdownNow();
+    deviceExecutor.shutdownNow();
+  }
+
+  @Test
+  public void jobsPrintInSubmissionOrder() throws Exception {
+    PrintPipeline pipeline = new PrintPipeline(renderExecutor, deviceExecutor, 2);
+    CountDownLatch done = new CountDownLatch(5);
+
+    for (int i = 0; i < 5; i++) {
+      pipeline.submit(new RecordingJob("job" + i, null, done));
+    }
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    List<String> printed = new ArrayList<>();
+    for (String event : events) {
+      if (event.startsWith("print:")) {
+        printed.add(event);
+      }
+    }
+    assertEquals(5, printed.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals("print:job" + i, printed.get(i));
+    }
+  }
+
+  @Test
+  public void nextJobRendersWhileCurrentOnePrints() throws Exception {
+    PrintPipeline pipeline = new PrintPipeline(renderExecutor, deviceExecutor, 2);
+    CountDownLatch printing = new CountDownLatch(1);
+    CountDownLatch secondRendered = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(2);
+
+    pipeline.submit(new RecordingJob("first", null, done) {
+      @Override
+      public void print(String rendered) throws Exception {
+        printing.countDown();
+        // Hold the printer until the next job has been rendered
+        assertTrue(secondRendered.await(2, TimeUnit.SECONDS));
+        super.print(rendered);
+      }
+    });
+    assertTrue(printing.await(2, TimeUnit.SECONDS));
+    pipeline.submit(new RecordingJob("second", null, done) {
+      @Override
+      public String render() throws Exception {
+        String rendered = super.render();
+        secondRendered.countDown();
+        return rendered;
+      }
+    });
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertTrue(events.indexOf("render:second") < events.indexOf("print:first"));
+  }
+
+  @Test
+  public void renderBlocksWhenHandoffIsFull() throws Exception {
+    PrintPipeline pipeline = new PrintPipeline(renderExecutor, deviceExecutor, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(4);
+
+    pipeline.submit(new RecordingJob("first", null, done) {
+      @Override
+      public void print(String rendered) throws Exception {
+        release.await(2, TimeUnit.SECONDS);
+        super.print(rendered);
+      }
+    });
+    pipeline.submit(new RecordingJob("second", null, done));
+    pipeline.submit(new RecordingJob("third", null, done));
+    pipeline.submit(new RecordingJob("fourth", null, done));
+
+    // "second" waits in the handoff and "third" is stuck handing over
+    Thread.sleep(100);
+    assertEquals(1, pipeline.waitingCount());
+    assertTrue(events.contains("render:third"));
+    assertTrue(!events.contains("render:fourth"));
+
+    release.countDown();
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertEquals(0, pipeline.waitingCount());
+  }
+
+  @Test
+  public void renderFailure_skipsDeviceStage() throws Exception {
+    PrintPipeline pipeline = new PrintPipeline(renderExecutor, deviceExecutor, 2);
+    CountDownLatch done = new CountDownLatch(2);
+
+    pipeline.submit(new RecordingJob("broken", new Exception("bad layout"), done));
+    pipeline.submit(new RecordingJob("ok", null, done));
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertTrue(events.contains("error:broken:bad layout"));
+    assertTrue(!events.contains("print:broken"));
+    assertTrue(events.contains("print:ok"));
+  }
+
+  private class RecordingJob implements PrintPipeline.Job<String> {
+    private final String name;
+    private final Exception renderFailure;
+    private final CountDownLatch done;
+
+    RecordingJob(String name, Exception renderFailure, CountDownLatch done) {
+      this.name = name;
+      this.renderFailure = renderFailure;
+      this.done = done;
+    }
+
+    @Override
+    public String render() throws Exception {
+      if (renderFailure != null) {
+        throw renderFailure;
+      }
+      events.add("render:" + name);
+      return name;
+    }
+
+    @Override
+    public void print(String rendered) throws Exception {
+      events.add("print:" + rendered);
+      done.countDown();
+    }
+
+    @Override
+    public void onError(Exception e) {
+      events.add("error:" + name + ":" + e.getMessage());
+      done.countDown();
+    }
+  }
+}
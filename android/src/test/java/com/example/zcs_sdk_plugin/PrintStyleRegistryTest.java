@@ -0,0 +1,66 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.text.Layout;
+
+import com.zcs.sdk.print.PrnStrFormat;
+import com.zcs.sdk.print.PrnTextFont;
+import com.zcs.sdk.print.PrnTextStyle;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PrintStyleRegistryTest {
+
+  @Test
+  public void defaults_areBuiltOnceAndShared() {
+    PrintStyleRegistry registry = new PrintStyleRegistry();
+
+    PrnStrFormat header = registry.get(PrintStyleRegistry.HEADER);
+    assertSame(header, registry.get(PrintStyleRegistry.HEADER));
+    assertEquals(50, header.getTextSize());
+    assertEquals(PrnTextStyle.BOLD, header.getStyle());
+    assertEquals(9, registry.size());
+  }
+
+  @Test
+  public void unknownId_fallsBackToGivenStyle() {
+    PrintStyleRegistry registry = new PrintStyleRegistry();
+
+    assertSame(registry.get(PrintStyleRegistry.TEXT), registry.get("missing", PrintStyleRegistry.TEXT));
+    assertSame(registry.get(PrintStyleRegistry.TEXT), registry.get(null, PrintStyleRegistry.TEXT));
+  }
+
+  @Test
+  public void register_inheritsUnsetFieldsFromBase() {
+    PrintStyleRegistry registry = new PrintStyleRegistry();
+    PrnStrFormat before = registry.get(PrintStyleRegistry.HEADER);
+    Map<String, Object> spec = new HashMap<>();
+    spec.put("base", PrintStyleRegistry.HEADER);
+    spec.put("fontSize", 36);
+    spec.put("alignment", "RIGHT");
+
+    PrnStrFormat total = registry.register("total", spec);
+
+    assertSame(total, registry.get("total"));
+    assertEquals(36, total.getTextSize());
+    assertEquals(Layout.Alignment.ALIGN_OPPOSITE, total.getAli());
+    assertEquals(PrnTextStyle.BOLD, total.getStyle());
+    assertEquals(PrnTextFont.SANS_SERIF, total.getFont());
+    assertNotSame(before, total);
+    assertEquals(50, before.getTextSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void register_rejectsUnknownAlignment() {
+    Map<String, Object> spec = new HashMap<>();
+    spec.put("alignment", "JUSTIFY");
+
+    new PrintStyleRegistry().register("bad", spec);
+  }
+}
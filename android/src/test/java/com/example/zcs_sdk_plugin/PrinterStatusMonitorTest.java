@@ -0,0 +1,122 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.zcs.sdk.SdkResult;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrinterStatusMonitorTest {
+
+  private ScheduledExecutorService scheduler;
+  private CountingSource source;
+
+  @Before
+  public void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    source = new CountingSource();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void status_usesSnapshotWithinTtl() {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(10_000);
+
+    monitor.status();
+    monitor.status();
+    monitor.status();
+
+    assertEquals(1, source.reads.get());
+  }
+
+  @Test
+  public void status_readsPrinterOnceSnapshotExpires() throws Exception {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(20);
+
+    monitor.status();
+    Thread.sleep(40);
+    source.status = SdkResult.SDK_PRN_STATUS_PAPEROUT;
+
+    assertEquals(SdkResult.SDK_PRN_STATUS_PAPEROUT, monitor.status());
+    assertEquals(2, source.reads.get());
+  }
+
+  @Test
+  public void refresh_alwaysReadsPrinter() {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(10_000);
+
+    monitor.status();
+    source.status = SdkResult.SDK_PRN_STATUS_PAPEROUT;
+
+    assertEquals(SdkResult.SDK_PRN_STATUS_PAPEROUT, monitor.refresh());
+    assertEquals(SdkResult.SDK_PRN_STATUS_PAPEROUT, monitor.status());
+  }
+
+  @Test
+  public void publish_servesReadingsTakenElsewhere() {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(10_000);
+
+    monitor.publish(SdkResult.SDK_PRN_STATUS_PRINTING);
+
+    assertEquals(SdkResult.SDK_PRN_STATUS_PRINTING, monitor.status());
+    assertEquals(0, source.reads.get());
+  }
+
+  @Test
+  public void polling_backsOffWhileStatusIsStable() throws Exception {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(0);
+    monitor.setIntervalsMs(5, 40);
+
+    monitor.start();
+    Thread.sleep(200);
+
+    assertTrue(monitor.isRunning());
+    assertEquals(40, monitor.getIntervalMs());
+    monitor.stop();
+    int reads = source.reads.get();
+    Thread.sleep(100);
+    assertEquals(reads, source.reads.get());
+  }
+
+  @Test
+  public void polling_staysFastWhilePrinting() throws Exception {
+    PrinterStatusMonitor monitor = new PrinterStatusMonitor(source, scheduler);
+    monitor.setTtlMs(0);
+    monitor.setIntervalsMs(5, 40);
+    source.status = SdkResult.SDK_PRN_STATUS_PRINTING;
+
+    monitor.start();
+    Thread.sleep(100);
+    monitor.stop();
+
+    assertEquals(5, monitor.getIntervalMs());
+    assertTrue(source.reads.get() > 5);
+  }
+
+  private static final class CountingSource implements PrinterStatusMonitor.Source {
+    final AtomicInteger reads = new AtomicInteger();
+    volatile int status = SdkResult.SDK_OK;
+
+    @Override
+    public int getPrinterStatus() {
+      reads.incrementAndGet();
+      return status;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import android.text.Layout;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ReceiptRasterizerTest {
+
+  // A fixed-pitch font, 12 dots per character
+  private static final ReceiptRasterizer.Measurer PITCH_12 =
+      (text, start, width) -> Math.min(width / 12, text.length() - start);
+
+  @Test
+  public void shortText_isOneLine() {
+    assertEquals(Collections.singletonList("TOTAL 14500.00"),
+        ReceiptRasterizer.wrap("TOTAL 14500.00", ReceiptRasterizer.WIDTH_58MM, PITCH_12));
+  }
+
+  @Test
+  public void longText_wrapsAtTheHeadWidth() {
+    // 384 dots hold 32 characters
+    String text = "0123456789012345678901234567890123456789012345678901234567890123456789";
+
+    assertEquals(Arrays.asList(text.substring(0, 32), text.substring(32, 64), text.substring(64)),
+        ReceiptRasterizer.wrap(text, ReceiptRasterizer.WIDTH_58MM, PITCH_12));
+    assertEquals(Arrays.asList(text.substring(0, 48), text.substring(48)),
+        ReceiptRasterizer.wrap(text, ReceiptRasterizer.WIDTH_80MM, PITCH_12));
+  }
+
+  @Test
+  public void blankText_isOneEmptyLine() {
+    assertEquals(Collections.singletonList(""), ReceiptRasterizer.wrap("", 384, PITCH_12));
+  }
+
+  @Test
+  public void newlines_breakTheLine() {
+    // A two-line address field prints on two lines, as in command mode
+    assertEquals(Arrays.asList("12 Riverside Dr", "Nairobi"),
+        ReceiptRasterizer.wrap("12 Riverside Dr\nNairobi", 384, PITCH_12));
+    // Every empty segment is a blank line of its own
+    assertEquals(Arrays.asList("A", "", "B"), ReceiptRasterizer.wrap("A\n\nB", 384, PITCH_12));
+    assertEquals(Arrays.asList("", "", ""), ReceiptRasterizer.wrap("\n\n", 384, PITCH_12));
+  }
+
+  @Test
+  public void eachSegment_wrapsOnItsOwn() {
+    String longLine = "0123456789012345678901234567890123456789";
+
+    assertEquals(Arrays.asList(longLine.substring(0, 32), longLine.substring(32), "end"),
+        ReceiptRasterizer.wrap(longLine + "\nend", ReceiptRasterizer.WIDTH_58MM, PITCH_12));
+  }
+
+  @Test
+  public void glyphWiderThanHead_stillAdvances() {
+    ReceiptRasterizer.Measurer nothingFits = (text, start, width) -> 0;
+
+    assertEquals(Arrays.asList("W", "I", "D", "E"), ReceiptRasterizer.wrap("WIDE", 384, nothingFits));
+  }
+
+  @Test
+  public void alignment_placesContentWithinTheHead() {
+    assertEquals(0, ReceiptRasterizer.alignedLeft(Layout.Alignment.ALIGN_NORMAL, 100, 384));
+    assertEquals(142, ReceiptRasterizer.alignedLeft(Layout.Alignment.ALIGN_CENTER, 100, 384));
+    assertEquals(284, ReceiptRasterizer.alignedLeft(Layout.Alignment.ALIGN_OPPOSITE, 100, 384));
+    // Wider than the head: drawn from the left edge and clipped
+    assertEquals(0, ReceiptRasterizer.alignedLeft(Layout.Alignment.ALIGN_CENTER, 500, 384));
+    assertEquals(0, ReceiptRasterizer.alignedLeft(Layout.Alignment.ALIGN_OPPOSITE, 500, 384));
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ReceiptTemplateTest {
+
+  @Test
+  public void defaultTemplate_matchesLegacyLayout() throws Exception {
+    Map<String, Object> data = new HashMap<>();
+    data.put("receiptType", "SALE");
+    data.put("date", "2024-01-01");
+    data.put("items", Arrays.asList(item("Red Wine Bottle Large", 2, "1500"), item("Water", 1, "100")));
+    data.put("total", "3100");
+    data.put("orderNumber", "ORD-0042");
+    data.put("qrSize", "250");
+
+    RecordingOutput out = new RecordingOutput();
+    ReceiptTemplates.buildDefault().render(data, out);
+
+    assertEquals("Blankets And Wine|header", out.lines.get(0));
+    assertEquals("SALE|subHeader", out.lines.get(1));
+    assertEquals("Date: 2024-01-01|normal", out.lines.get(3));
+    assertFalse(out.lines.contains("Time: |normal"));
+    assertTrue(out.lines.contains(
+        String.format("%-15s %3sx %9s", "Red Wine Bot...", "2", "Kshs 1500") + "|media"));
+    assertTrue(out.lines.contains(
+        String.format("%-15s %3sx %9s", "Water", "1", "Kshs 100") + "|media"));
+    assertTrue(out.lines.contains(String.format("%-20s %10s", "TOTAL:", "Kshs 3100") + "|bold"));
+    assertFalse(out.lines.contains(String.format("%-20s %10s", "Subtotal:", "Kshs null") + "|normal"));
+    assertTrue(out.lines.contains("QR:ORD-0042@250"));
+    assertTrue(out.lines.contains("ORD-0042|orderNumber"));
+  }
+
+  @Test
+  public void compile_buildsTemplateFromChannelMaps() throws Exception {
+    List<Map<String, Object>> elements = new ArrayList<>();
+    elements.add(element("type", "text", "text", "Table {{table|-}}", "style", "bold"));
+    elements.add(element("type", "separator", "char", "*", "width", 5));
+    Map<String, Object> row = element("type", "row", "source", "items", "style", "small");
+    row.put("columns", Arrays.asList(
+        element("field", "name", "width", 6),
+        element("field", "price", "width", 6, "align", "right", "prefix", "$")));
+    elements.add(row);
+    elements.add(element("type", "qr", "data", "T{{table}}", "size", 120, "when", "table"));
+
+    ReceiptTemplate template = ReceiptTemplate.compile("table", elements);
+    Map<String, Object> data = new HashMap<>();
+    data.put("items", Arrays.asList(item("Tea", 1, "3")));
+
+    RecordingOutput out = new RecordingOutput();
+    template.render(data, out);
+
+    assertEquals(Arrays.asList("Table -|bold", "*****|normal", "Tea       $3|small"), out.lines);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void compile_rejectsUnclosedPlaceholder() {
+    ReceiptTemplate.compile("bad", Arrays.asList(element("type", "text", "text", "{{name")));
+  }
+
+  private static Map<String, Object> item(String name, int quantity, String price) {
+    return element("name", name, "quantity", quantity, "price", price);
+  }
+
+  private static Map<String, Object> element(Object... keyValues) {
+    Map<String, Object> map = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      map.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return map;
+  }
+
+  private static final class RecordingOutput implements ReceiptTemplate.Output {
+    final List<String> lines = new ArrayList<>();
+
+    @Override
+    public void text(String text, String styleId) {
+      lines.add(text + "|" + styleId);
+    }
+
+    @Override
+    public void qrCode(String data, int size) {
+      lines.add("QR:" + data + "@" + size);
+    }
+
+    @Override
+    public void barcode(String data, int width, int height) {
+      lines.add("BAR:" + data);
+    }
+
+    @Override
+    public void image(byte[] data) {
+      lines.add("IMG:" + data.length);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScannerPowerTest {
+
+  private ScheduledExecutorService scheduler;
+  private FakeSwitch scanner;
+  private final List<Boolean> powerChanges = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    scanner = new FakeSwitch();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  private ScannerPower newPower(long standbyMs) {
+    ScannerPower power = new ScannerPower(scanner, scheduler, powerChanges::add);
+    power.setStandbyMs(standbyMs);
+    return power;
+  }
+
+  @Test
+  public void scanWithinStandby_skipsPowerUp() throws Exception {
+    ScannerPower power = newPower(10_000);
+
+    assertTrue(power.acquire());
+    power.release();
+    assertFalse(power.acquire());
+
+    assertEquals(1, scanner.powerOns);
+    assertEquals(0, scanner.powerOffs);
+    assertEquals(1, power.warmStartCount());
+    assertEquals("on,off,on", scanner.activations());
+  }
+
+  @Test
+  public void standbyExpiry_powersDown() throws Exception {
+    ScannerPower power = newPower(30);
+
+    power.acquire();
+    power.release();
+    Thread.sleep(150);
+
+    assertFalse(power.isPowered());
+    assertEquals(1, scanner.powerOffs);
+    assertEquals(2, powerChanges.size());
+    assertEquals(Boolean.FALSE, powerChanges.get(1));
+  }
+
+  @Test
+  public void reacquireBeforeExpiry_cancelsTimer() throws Exception {
+    ScannerPower power = newPower(50);
+
+    power.acquire();
+    power.release();
+    power.acquire();
+    Thread.sleep(150);
+
+    assertTrue(power.isPowered());
+    assertEquals(0, scanner.powerOffs);
+  }
+
+  @Test
+  public void zeroStandby_powersDownOnRelease() throws Exception {
+    ScannerPower power = newPower(0);
+
+    power.acquire();
+    power.release();
+
+    assertFalse(power.isPowered());
+    assertEquals(1, scanner.powerOffs);
+  }
+
+  @Test
+  public void powerDown_switchesOffImmediately() throws Exception {
+    ScannerPower power = newPower(10_000);
+
+    power.acquire();
+    power.release();
+    power.powerDown();
+    power.powerDown();
+
+    assertFalse(power.isPowered());
+    assertEquals(1, scanner.powerOffs);
+  }
+
+  @Test
+  public void failedPowerUp_leavesScannerOff() {
+    ScannerPower power = newPower(10_000);
+    scanner.failPowerOn = true;
+
+    try {
+      power.acquire();
+    } catch (Exception expected) {
+      // Reported to the caller
+    }
+
+    assertFalse(power.isPowered());
+    assertEquals(1, scanner.powerOffs);
+    assertTrue(powerChanges.isEmpty());
+  }
+
+  @Test
+  public void wakeUp_doesNotBlockStateReadsAndYieldsToPowerDown() throws Exception {
+    ScannerPower power = newPower(10_000);
+    scanner.powerOnStarted = new CountDownLatch(1);
+    scanner.powerOnGate = new CountDownLatch(1);
+    List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+    Thread waker = new Thread(() -> {
+      try {
+        power.acquire();
+      } catch (Exception e) {
+        failures.add(e);
+      }
+    });
+    waker.start();
+    assertTrue(scanner.powerOnStarted.await(2, TimeUnit.SECONDS));
+
+    // Answered while the wake-up is still running
+    assertFalse(power.isPowered());
+    assertEquals(0, power.wakeUpCount());
+    power.powerDown();
+
+    scanner.powerOnGate.countDown();
+    waker.join(2_000);
+    if (failures.isEmpty()) {
+      fail("acquire should report the power-down");
+    }
+    assertFalse(power.isPowered());
+    assertEquals(1, scanner.powerOffs);
+    assertTrue(powerChanges.isEmpty());
+  }
+
+  private static final class FakeSwitch implements ScannerPower.Switch {
+    volatile boolean failPowerOn;
+    volatile CountDownLatch powerOnStarted;
+    volatile CountDownLatch powerOnGate;
+    int powerOns;
+    int powerOffs;
+    final List<String> activations = new ArrayList<>();
+
+    @Override
+    public void powerOn() throws Exception {
+      powerOns++;
+      activations.add("on");
+      if (powerOnGate != null) {
+        powerOnStarted.countDown();
+        powerOnGate.await();
+      }
+      if (failPowerOn) {
+        throw new Exception("no scanner");
+      }
+    }
+
+    @Override
+    public void activate(boolean on) {
+      activations.add(on ? "on" : "off");
+    }
+
+    @Override
+    public void powerOff() {
+      powerOffs++;
+    }
+
+    String activations() {
+      return String.join(",", activations);
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package com.example.zcs_sdk_plugin;
+
+import android.graphics.Bitmap;
+import android.text.Layout;
+
+import com.zcs.sdk.SdkResult;
+import com.zcs.sdk.print.PrnStrFormat;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SimulatedHardware - PosHardware in memory, with terminal-like timing
+ *
+ * Stands in for the terminal in load tests. A print start takes startMs
+ * plus lineMs per appended text line and bitmapMs per bitmap, and the
+ * status reads SDK_PRN_STATUS_PRINTING until then. The paper roll holds a
+ * number of lines (a bitmap uses BITMAP_LINES); when it runs out part way
+ * through a job, printing stops there and the status reads
+ * SDK_PRN_STATUS_PAPEROUT until paper is loaded again. Scans are queued
+ * with an arrival time and handed to decode() once they have arrived and
+ * the decoder is on. Status reads and the scanner wake-up can be given a
+ * latency like their JNI calls have on the device.
+ *
+ * Printer and scanner calls that overlap are counted, since the plugin
+ * promises to make them from one executor per resource; status reads may
+ * come from any thread.
+ */
+class SimulatedHardware implements PosHardware {
+
+  // Paper a printed bitmap uses, in text lines
+  static final int BITMAP_LINES = 8;
+
+  private static final class Arrival implements Comparable<Arrival> {
+    final String data;
+    final long atNanos;
+    final long sequence;
+
+    Arrival(String data, long atNanos, long sequence) {
+      this.data = data;
+      this.atNanos = atNanos;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Arrival other) {
+      if (atNanos != other.atNanos) {
+        return atNanos < other.atNanos ? -1 : 1;
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+
+  // Timing; read when a call is made, so it can change during a test
+  private volatile long startMs = 150;
+  private volatile long lineMs = 25;
+  private volatile long bitmapMs = 200;
+  private volatile long statusLatencyMs;
+  private volatile long wakeUpMs = 110;
+  private volatile boolean cutter;
+  private volatile boolean wide;
+
+  // Printer state, guarded by printer
+  private int bufferedLines;
+  private int bufferedBitmaps;
+  private long busyUntilNanos;
+  private long paperOutAtNanos = Long.MAX_VALUE;
+  private long paperLines = Long.MAX_VALUE;
+  private int starts;
+  private long linesPrinted;
+  private int cuts;
+
+  // Scanner state, guarded by scanner
+  private final PriorityQueue<Arrival> arrivals = new PriorityQueue<>();
+  private long arrivalSequence;
+  private boolean powered;
+  private boolean decoding;
+  private boolean stopRequested;
+  private int wakeUps;
+  private int decoded;
+
+  private final AtomicInteger statusReads = new AtomicInteger();
+  private final AtomicInteger printerCalls = new AtomicInteger();
+  private final AtomicInteger scannerCalls = new AtomicInteger();
+  private final AtomicInteger overlaps = new AtomicInteger();
+
+  private final SimulatedPrinter printer = new SimulatedPrinter();
+  private final SimulatedScanner scanner = new SimulatedScanner();
+
+  // ---------------------------------------------------------------------
+  // Configuration and injected events
+  // ---------------------------------------------------------------------
+
+  void setPrintTiming(long startMs, long lineMs, long bitmapMs) {
+    this.startMs = startMs;
+    this.lineMs = lineMs;
+    this.bitmapMs = bitmapMs;
+  }
+
+  void setStatusLatencyMs(long statusLatencyMs) {
+    this.statusLatencyMs = statusLatencyMs;
+  }
+
+  void setWakeUpMs(long wakeUpMs) {
+    this.wakeUpMs = wakeUpMs;
+  }
+
+  void setCutter(boolean cutter) {
+    this.cutter = cutter;
+  }
+
+  void set80mm(boolean wide) {
+    this.wide = wide;
+  }
+
+  /** Loads a fresh roll holding the given number of text lines. */
+  void loadPaper(long lines) {
+    synchronized (printer) {
+      paperLines = lines;
+      paperOutAtNanos = Long.MAX_VALUE;
+    }
+  }
+
+  /** Paper out from now until loadPaper() is called. */
+  void removePaper() {
+    synchronized (printer) {
+      paperLines = 0;
+      paperOutAtNanos = System.nanoTime();
+    }
+  }
+
+  /** A code presented to the reader delayMs from now. */
+  void queueScan(String data, long delayMs) {
+    synchronized (scanner) {
+      long at = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+      arrivals.add(new Arrival(data, at, arrivalSequence++));
+      scanner.notifyAll();
+    }
+  }
+
+  /** Codes presented one every intervalMs, the first intervalMs from now. */
+  void queueScans(long intervalMs, String... data) {
+    for (int i = 0; i < data.length; i++) {
+      queueScan(data[i], intervalMs * (i + 1));
+    }
+  }
+
+  // ---------------------------------------------------------------------
+  // Counters
+  // ---------------------------------------------------------------------
+
+  int printStarts() {
+    synchronized (printer) {
+      return starts;
+    }
+  }
+
+  long linesPrinted() {
+    synchronized (printer) {
+      return linesPrinted;
+    }
+  }
+
+  int cuts() {
+    synchronized (printer) {
+      return cuts;
+    }
+  }
+
+  int statusReads() {
+    return statusReads.get();
+  }
+
+  int wakeUps() {
+    synchronized (scanner) {
+      return wakeUps;
+    }
+  }
+
+  int scansDecoded() {
+    synchronized (scanner) {
+      return decoded;
+    }
+  }
+
+  /** Printer or scanner calls made while another call to it was running. */
+  int overlappingCalls() {
+    return overlaps.get();
+  }
+
+  // ---------------------------------------------------------------------
+  // PosHardware
+  // ---------------------------------------------------------------------
+
+  @Override
+  public Printer printer() {
+    return printer;
+  }
+
+  @Override
+  public Status status() {
+    return printer;
+  }
+
+  @Override
+  public Scanner scanner() {
+    return scanner;
+  }
+
+  private void enter(AtomicInteger calls) {
+    if (calls.incrementAndGet() > 1) {
+      overlaps.incrementAndGet();
+    }
+  }
+
+  private static void sleep(long ms) {
+    if (ms <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private final class SimulatedPrinter implements Printer, Status {
+
+    @Override
+    public boolean hasCutter() {
+      return cutter;
+    }
+
+    @Override
+    public boolean is80mm() {
+      return wide;
+    }
+
+    @Override
+    public void appendText(String text, PrnStrFormat format) {
+      enter(printerCalls);
+      try {
+        synchronized (this) {
+          bufferedLines++;
+        }
+      } finally {
+        printerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void appendBitmap(Bitmap bitmap, Layout.Alignment alignment) {
+      enter(printerCalls);
+      try {
+        synchronized (this) {
+          bufferedBitmaps++;
+        }
+      } finally {
+        printerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int start() {
+      enter(printerCalls);
+      try {
+        synchronized (this) {
+          long now = System.nanoTime();
+          int status = statusAt(now);
+          if (status != SdkResult.SDK_OK) {
+            return status;
+          }
+          long lines = bufferedLines + (long) bufferedBitmaps * BITMAP_LINES;
+          long durationNanos = TimeUnit.MILLISECONDS.toNanos(
+              startMs + bufferedLines * lineMs + bufferedBitmaps * bitmapMs);
+          if (lines > paperLines) {
+            // The roll ends part way through; the head stops there
+            long fedNanos = lines > 0 ? durationNanos * paperLines / lines : 0;
+            paperOutAtNanos = now + fedNanos;
+            busyUntilNanos = paperOutAtNanos;
+            linesPrinted += paperLines;
+            paperLines = 0;
+          } else {
+            busyUntilNanos = now + durationNanos;
+            linesPrinted += lines;
+            if (paperLines != Long.MAX_VALUE) {
+              paperLines -= lines;
+            }
+          }
+          bufferedLines = 0;
+          bufferedBitmaps = 0;
+          starts++;
+          return SdkResult.SDK_OK;
+        }
+      } finally {
+        printerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int cut() {
+      enter(printerCalls);
+      try {
+        synchronized (this) {
+          cuts++;
+          return SdkResult.SDK_OK;
+        }
+      } finally {
+        printerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int getPrinterStatus() {
+      statusReads.incrementAndGet();
+      sleep(statusLatencyMs);
+      synchronized (this) {
+        return statusAt(System.nanoTime());
+      }
+    }
+
+    // Caller holds the lock
+    private int statusAt(long now) {
+      if (now >= paperOutAtNanos) {
+        return SdkResult.SDK_PRN_STATUS_PAPEROUT;
+      }
+      if (now < busyUntilNanos) {
+        return SdkResult.SDK_PRN_STATUS_PRINTING;
+      }
+      return SdkResult.SDK_OK;
+    }
+  }
+
+  private final class SimulatedScanner implements Scanner {
+
+    @Override
+    public void powerOn() {
+      enter(scannerCalls);
+      try {
+        sleep(wakeUpMs);
+        synchronized (this) {
+          powered = true;
+          decoding = true;
+          wakeUps++;
+        }
+      } finally {
+        scannerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void activate(boolean on) {
+      enter(scannerCalls);
+      try {
+        synchronized (this) {
+          decoding = powered && on;
+        }
+      } finally {
+        scannerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void powerOff() {
+      enter(scannerCalls);
+      try {
+        synchronized (this) {
+          powered = false;
+          decoding = false;
+          notifyAll();
+        }
+      } finally {
+        scannerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public String decode(int timeoutMs) {
+      enter(scannerCalls);
+      try {
+        synchronized (this) {
+          long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+          stopRequested = false;
+          while (decoding && !stopRequested) {
+            long now = System.nanoTime();
+            Arrival next = arrivals.peek();
+            if (next != null && next.atNanos <= now) {
+              arrivals.poll();
+              decoded++;
+              return next.data;
+            }
+            long waitNanos = deadline - now;
+            if (waitNanos <= 0) {
+              return null;
+            }
+            if (next != null) {
+              waitNanos = Math.min(waitNanos, next.atNanos - now);
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+          }
+          return null;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } finally {
+        scannerCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void stopDecoding() {
+      synchronized (this) {
+        stopRequested = true;
+        notifyAll();
+      }
+    }
+  }
+}
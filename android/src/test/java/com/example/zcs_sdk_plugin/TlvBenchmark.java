@@ -0,0 +1,77 @@
+package com.example.zcs_sdk_plugin;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Microbenchmark for Tlv lookup and field 55 assembly; not part of the unit tests.
+ *
+ * Runs the per-transaction TLV work on a kernel-sized blob (field 55 plus
+ * receipt tags) and prints nanoseconds and allocated bytes per operation.
+ * Run from the test classpath:
+ *   java -cp <test classes>:<main classes> com.example.zcs_sdk_plugin.TlvBenchmark
+ */
+public class TlvBenchmark {
+
+  private static final int WARMUP_ROUNDS = 200_000;
+  private static final int MEASURED_ROUNDS = 1_000_000;
+
+  private static final byte[] PACKED = Hex.decode(TlvTest.FIELD_55 + "500456495341" + "9B026800");
+  private static final int[] LOOKUPS = {0x9F26, 0x9F27, 0x95, 0x84, 0x50, 0x9B};
+
+  private interface Operation {
+    long run();
+  }
+
+  public static void main(String[] args) {
+    Tlv.Reader reader = new Tlv.Reader();
+    Tlv.Writer writer = new Tlv.Writer();
+    byte[] out = new byte[EmvEngine.FIELD_55_MAX];
+
+    long sink = 0;
+    sink += measure("walk", () -> {
+      long n = 0;
+      reader.reset(PACKED);
+      while (reader.next()) {
+        n += reader.valueLength();
+      }
+      return n;
+    });
+    sink += measure("find x6", () -> {
+      long n = 0;
+      for (int tag : LOOKUPS) {
+        if (reader.reset(PACKED).find(tag, false)) {
+          n += reader.valueByte(0);
+        }
+      }
+      return n;
+    });
+    sink += measure("assemble field 55", () ->
+        EmvEngine.assembleField55(reader.reset(PACKED), writer.reset(out)));
+    // Keeps the results live so the JIT cannot drop the work
+    System.out.println("checksum " + sink);
+  }
+
+  private static long measure(String name, Operation operation) {
+    long sink = 0;
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      sink += operation.run();
+    }
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      sink += operation.run();
+    }
+    double nanos = (System.nanoTime() - start) / (double) MEASURED_ROUNDS;
+    double bytes = (allocatedBytes() - allocatedBefore) / (double) MEASURED_ROUNDS;
+    System.out.printf("%-18s %8.1f ns/op  %6.2f bytes/op%n", name, nanos, bytes);
+    return sink;
+  }
+
+  private static long allocatedBytes() {
+    Object threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,276 @@
+package com.example.zcs_sdk_plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TlvTest {
+
+  // A contact transaction's field 55 as the kernel packs it
+  static final String FIELD_55 =
+      "9F2608C2F3A1B0D4E5F6079F2701809F101307010103A0A800010A0100000000005A3F1C629F3704A1B2C3D4"
+      + "9F360200419505008004E8009A032610189C01009F02060000000012345F2A020840820259009F1A020840"
+      + "9F03060000000000009F33036028C89F34034203009F3501229F1E0831323334353637388407A0000000031010"
+      + "9F090200969F4104000000425F340101";
+
+  static byte[] field55() {
+    return Hex.decode(FIELD_55);
+  }
+
+  @Test
+  public void reader_walksElementsInPlace() {
+    byte[] data = field55();
+    Tlv.Reader reader = new Tlv.Reader().reset(data);
+
+    assertTrue(reader.next());
+    assertEquals(0x9F26, reader.tag());
+    assertEquals(3, reader.valueOffset());
+    assertEquals(8, reader.valueLength());
+    assertFalse(reader.isConstructed());
+
+    int count = 1;
+    while (reader.next()) {
+      count++;
+    }
+    assertEquals(EmvEngine.FIELD_55_TAGS.length, count);
+    assertEquals(0x5F34, reader.tag());
+    assertEquals(1, reader.valueAsLong());
+  }
+
+  @Test
+  public void find_looksUpTagsAndDescendsIntoTemplates() {
+    // 70 { 5A, A5 { 50 } }, 9F27
+    byte[] data = Hex.decode("700D5A0441111111A50550035649539F270140");
+    Tlv.Reader reader = new Tlv.Reader();
+
+    assertFalse(reader.reset(data).find(0x50, false));
+    assertTrue(reader.reset(data).find(0x50, true));
+    assertEquals("564953", reader.valueHex());
+    // The search carries on after the template
+    assertTrue(reader.find(0x9F27, true));
+    assertEquals(0x40, reader.valueByte(0));
+    assertFalse(reader.find(0x5A, true));
+
+    Tlv.Reader child = new Tlv.Reader();
+    assertTrue(reader.reset(data).find(0x70, false));
+    assertTrue(child.enter(reader).next());
+    assertEquals(0x5A, child.tag());
+  }
+
+  @Test
+  public void reader_skipsPaddingAndReadsLongLengths() {
+    byte[] value = new byte[300];
+    Arrays.fill(value, (byte) 0x11);
+    byte[] data = new byte[2 + 4 + 300 + 3];
+    data[0] = 0x00;
+    data[1] = (byte) 0xFF;
+    System.arraycopy(Hex.decode("9182012C"), 0, data, 2, 4);
+    System.arraycopy(value, 0, data, 6, 300);
+    System.arraycopy(Hex.decode("8A00"), 0, data, 306, 2);
+
+    Tlv.Reader reader = new Tlv.Reader().reset(data);
+    assertTrue(reader.next());
+    assertEquals(0x91, reader.tag());
+    assertEquals(300, reader.valueLength());
+    assertTrue(reader.next());
+    assertEquals(0x8A, reader.tag());
+    assertEquals(0, reader.valueLength());
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void reader_readsByteBufferRange() {
+    byte[] data = field55();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(data.length + 4);
+    buffer.position(4);
+    buffer.put(data);
+    buffer.position(4);
+
+    Tlv.Reader reader = new Tlv.Reader().reset(buffer);
+    assertTrue(reader.find(0x84, false));
+    assertEquals("A0000000031010", reader.valueHex());
+    assertEquals(4, buffer.position());
+  }
+
+  @Test
+  public void writer_roundTripsNestedTemplates() {
+    byte[] label = "VISA".getBytes();
+    byte[] script = new byte[200];
+    new Random(1).nextBytes(script);
+    byte[] out = new byte[512];
+
+    Tlv.Writer writer = new Tlv.Writer().reset(out, 2);
+    writer.begin(0x72)
+        .put(0x9F18, new byte[] {0, 0, 0, 1})
+        .put(0x86, script)
+        .end()
+        .begin(0xBF0C).put(0x50, label).end()
+        .putNumber(0x9F02, 1234, 6);
+
+    Tlv.Reader reader = new Tlv.Reader().reset(out, 2, writer.length());
+    assertTrue(reader.next());
+    assertEquals(0x72, reader.tag());
+    assertTrue(reader.isConstructed());
+    // 7 + 3 + 200 bytes of children need a two-byte length
+    assertEquals(210, reader.valueLength());
+    assertEquals(0x81, out[3] & 0xFF);
+    // find() searches after the current element, so start over
+    assertTrue(reader.reset(out, 2, writer.length()).find(0x86, true));
+    byte[] copy = new byte[script.length];
+    reader.copyValue(copy, 0);
+    assertArrayEquals(script, copy);
+    assertTrue(reader.find(0x50, true));
+    assertEquals("56495341", reader.valueHex());
+    assertTrue(reader.find(0x9F02, true));
+    assertEquals(1234, reader.valueAsLong());
+  }
+
+  @Test
+  public void writer_failsWhenFull() {
+    Tlv.Writer writer = new Tlv.Writer().reset(new byte[4]);
+    try {
+      writer.put(0x9F02, new byte[6]);
+      fail("expected BufferOverflowException");
+    } catch (BufferOverflowException expected) {
+      assertEquals(0, writer.length());
+    }
+  }
+
+  @Test
+  public void assembleField55_keepsOnlyField55Tags() {
+    byte[] packed = Hex.decode(FIELD_55 + "500456495341" + "9B026800");
+    byte[] out = new byte[EmvEngine.FIELD_55_MAX];
+
+    int length = EmvEngine.assembleField55(new Tlv.Reader().reset(packed), new Tlv.Writer().reset(out));
+
+    assertEquals(FIELD_55, Hex.encode(out, 0, length));
+  }
+
+  @Test
+  public void fuzz_randomStructuresRoundTrip() {
+    Random random = new Random(55);
+    byte[] out = new byte[4096];
+    Tlv.Writer writer = new Tlv.Writer();
+    Tlv.Reader reader = new Tlv.Reader();
+    for (int round = 0; round < 2_000; round++) {
+      List<int[]> expected = new ArrayList<>();
+      writer.reset(out);
+      int elements = 1 + random.nextInt(12);
+      for (int i = 0; i < elements; i++) {
+        int tag = randomPrimitiveTag(random);
+        byte[] value = new byte[random.nextInt(8) == 0 ? 128 + random.nextInt(300) : random.nextInt(20)];
+        random.nextBytes(value);
+        if (random.nextBoolean()) {
+          writer.begin(0xE1).put(tag, value).end();
+        } else {
+          writer.put(tag, value);
+        }
+        expected.add(new int[] {tag, value.length, value.length > 0 ? value[value.length - 1] & 0xFF : -1});
+      }
+
+      reader.reset(out, 0, writer.length());
+      for (int[] element : expected) {
+        assertTrue("round " + round, reader.find(element[0], true));
+        assertEquals(element[1], reader.valueLength());
+        if (element[1] > 0) {
+          assertEquals(element[2], reader.valueByte(element[1] - 1));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void fuzz_corruptInputFailsCleanly() {
+    Random random = new Random(8583);
+    byte[] valid = field55();
+    Tlv.Reader reader = new Tlv.Reader();
+    int rejected = 0;
+    for (int round = 0; round < 20_000; round++) {
+      byte[] data;
+      if (round % 2 == 0) {
+        data = valid.clone();
+        for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+          data[random.nextInt(data.length)] = (byte) random.nextInt(256);
+        }
+        data = Arrays.copyOf(data, random.nextInt(data.length + 1));
+      } else {
+        data = new byte[random.nextInt(64)];
+        random.nextBytes(data);
+      }
+
+      try {
+        reader.reset(data);
+        int steps = 0;
+        while (reader.find(0x9F27, true)) {
+          assertTrue(reader.valueOffset() + reader.valueLength() <= data.length);
+          assertTrue("no progress", ++steps <= data.length);
+        }
+        reader.reset(data);
+        while (reader.next()) {
+          assertTrue(reader.valueOffset() + reader.valueLength() <= data.length);
+        }
+      } catch (IllegalArgumentException expected) {
+        rejected++;
+      }
+    }
+    assertTrue(rejected > 0);
+  }
+
+  @Test
+  public void lookupAndAssembly_doNotAllocate() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+    Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+
+    byte[] packed = field55();
+    byte[] out = new byte[EmvEngine.FIELD_55_MAX];
+    Tlv.Reader reader = new Tlv.Reader();
+    Tlv.Writer writer = new Tlv.Writer();
+    long thread = Thread.currentThread().getId();
+
+    // The first pass loads classes; measure the second
+    long sink = 0;
+    long allocated = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      long before = allocations.getThreadAllocatedBytes(thread);
+      for (int i = 0; i < 10_000; i++) {
+        sink += EmvEngine.assembleField55(reader.reset(packed), writer.reset(out));
+        if (reader.reset(packed).find(0x9F27, false)) {
+          sink += reader.valueByte(0);
+        }
+      }
+      allocated = allocations.getThreadAllocatedBytes(thread) - before;
+    }
+
+    assertTrue(sink > 0);
+    // A handful of bytes for the measurement itself, none per iteration
+    assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+  }
+
+  private static int randomPrimitiveTag(Random random) {
+    switch (random.nextInt(3)) {
+      case 0:
+        // One byte, primitive, not a multi-byte marker or padding
+        return 0x81 + random.nextInt(0x1E);
+      case 1:
+        return 0x9F00 | random.nextInt(0x80);
+      default:
+        return 0xDF8100 | random.nextInt(0x80);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.zcs_sdk_plugin;
+
+/**
+ * FakePrinter - a ReceiptTemplate.Output that only counts what it is sent
+ *
+ * Stands in for the printer so the layout can be measured without the
+ * device. Every operation folds into a checksum that the benchmark
+ * returns, so the JIT cannot drop the rendering as dead code.
+ */
+final class FakePrinter implements ReceiptTemplate.Output {
+
+    private long checksum;
+    private int operations;
+
+    @Override
+    public void text(String text, String styleId) {
+        checksum = 31 * checksum + text.hashCode() + styleId.hashCode();
+        operations++;
+    }
+
+    @Override
+    public void qrCode(String data, int size) {
+        checksum = 31 * checksum + data.hashCode() + size;
+        operations++;
+    }
+
+    @Override
+    public void barcode(String data, int width, int height) {
+        checksum = 31 * checksum + data.hashCode() + width * 31 + height;
+        operations++;
+    }
+
+    @Override
+    public void image(byte[] data) {
+        checksum = 31 * checksum + data.length;
+        operations++;
+    }
+
+    int operations() {
+        return operations;
+    }
+
+    /** Returns the checksum so far and starts over. */
+    long drain() {
+        long result = checksum + operations;
+        checksum = 0;
+        operations = 0;
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.zcs_sdk_plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receipt payload decoding: checking and indexing a printBinaryReceipt
+ * buffer, and decoding plus binding it end to end, for comparison with
+ * ReceiptLayoutBenchmark.renderMap.
+ */
+@State(Scope.Thread)
+public class ReceiptDecodeBenchmark {
+
+    @Param({"5", "50", "500"})
+    int items;
+
+    private ByteBuffer payload;
+    private ReceiptTemplate template;
+    private final FakePrinter printer = new FakePrinter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = Receipts.binary(items);
+        template = ReceiptTemplates.buildDefault();
+    }
+
+    @Benchmark
+    public int decode() {
+        return BinaryReceipt.decode(payload).fieldCount();
+    }
+
+    @Benchmark
+    public long decodeAndRender() throws Exception {
+        template.render(BinaryReceipt.decode(payload), printer);
+        return printer.drain();
+    }
+}
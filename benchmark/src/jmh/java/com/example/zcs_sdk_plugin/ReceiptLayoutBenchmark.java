@@ -0,0 +1,55 @@
+package com.example.zcs_sdk_plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The printReceipt layout path: building the receipt layout and binding a
+ * receipt against it into a fake printer.
+ *
+ * compile* measures the layout construction done once per template (the
+ * built-in one and one registered over the channel); render* measures the
+ * per-receipt work, the item row loop included, for short receipts and
+ * bar tabs.
+ */
+@State(Scope.Thread)
+public class ReceiptLayoutBenchmark {
+
+    @Param({"5", "50", "500"})
+    int items;
+
+    private ReceiptTemplate template;
+    private List<Map<String, Object>> elements;
+    private Map<String, Object> receipt;
+    private final FakePrinter printer = new FakePrinter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        template = ReceiptTemplates.buildDefault();
+        elements = Receipts.elements();
+        receipt = Receipts.map(items);
+    }
+
+    @Benchmark
+    public ReceiptTemplate compileDefault() {
+        return ReceiptTemplates.buildDefault();
+    }
+
+    @Benchmark
+    public ReceiptTemplate compileRegistered() {
+        return ReceiptTemplate.compile("bench", elements);
+    }
+
+    @Benchmark
+    public long renderMap() throws Exception {
+        template.render(receipt, printer);
+        return printer.drain();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.zcs_sdk_plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receipts - fixed receipt payloads for the benchmarks
+ *
+ * The same bar-tab receipt as the map printReceipt receives over the
+ * method channel and as a printBinaryReceipt buffer. Item names, prices
+ * and quantities are derived from the item index, so every run sees
+ * identical input.
+ */
+final class Receipts {
+
+    private static final String[] NAMES = {
+            "Tusker Lager", "White Cap", "Guinness", "Gin & Tonic", "Nyama Choma 1kg",
+            "Chips Masala", "Soda 500ml", "Mineral Water", "Blankets Special Cocktail", "Samosa"
+    };
+
+    private Receipts() {
+    }
+
+    static String name(int item) {
+        return NAMES[item % NAMES.length];
+    }
+
+    static int quantity(int item) {
+        return 1 + item % 4;
+    }
+
+    static String price(int item) {
+        return (150 + (item * 37) % 900) + ".00";
+    }
+
+    static Map<String, Object> map(int itemCount) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("storeName", "Blankets And Wine");
+        data.put("receiptType", "CUSTOMER COPY");
+        data.put("date", "2024-06-01");
+        data.put("time", "21:45:10");
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", name(i));
+            item.put("quantity", quantity(i));
+            item.put("price", price(i));
+            items.add(item);
+        }
+        data.put("items", items);
+        data.put("subtotal", "12500.00");
+        data.put("tax", "2000.00");
+        data.put("total", "14500.00");
+        data.put("paymentMethod", "M-PESA");
+        data.put("orderNumber", "ORD-20240601-0042");
+        return data;
+    }
+
+    /** The map receipt in the BinaryReceipt format, as the Dart side encodes it. */
+    static ByteBuffer binary(int itemCount) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(new byte[]{'Z', 'R', BinaryReceipt.VERSION, 0});
+            writeString(out, "");
+            out.writeShort(10);
+            field(out, "storeName", "Blankets And Wine");
+            field(out, "receiptType", "CUSTOMER COPY");
+            field(out, "date", "2024-06-01");
+            field(out, "time", "21:45:10");
+            writeString(out, "items");
+            out.writeByte(BinaryReceipt.TAG_TABLE);
+            out.writeByte(3);
+            writeString(out, "name");
+            writeString(out, "quantity");
+            writeString(out, "price");
+            out.writeInt(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                out.writeByte(BinaryReceipt.TAG_STRING);
+                writeString(out, name(i));
+                out.writeByte(BinaryReceipt.TAG_INT);
+                out.writeLong(quantity(i));
+                out.writeByte(BinaryReceipt.TAG_STRING);
+                writeString(out, price(i));
+            }
+            field(out, "subtotal", "12500.00");
+            field(out, "tax", "2000.00");
+            field(out, "total", "14500.00");
+            field(out, "paymentMethod", "M-PESA");
+            field(out, "orderNumber", "ORD-20240601-0042");
+            out.flush();
+            // A heap buffer, like the copy BinaryCodec.INSTANCE hands the plugin
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The default layout as element maps, the way registerReceiptTemplate receives it. */
+    static List<Map<String, Object>> elements() {
+        List<Map<String, Object>> elements = new ArrayList<>();
+        elements.add(element("type", "text", "text", "{{storeName|Blankets And Wine}}", "style", "header"));
+        elements.add(element("type", "text", "text", "{{receiptType}}", "style", "subHeader"));
+        elements.add(element("type", "text", "text", "Date: {{date}}", "style", "normal", "when", "date"));
+        elements.add(element("type", "separator", "char", "-", "width", 32));
+        List<Map<String, Object>> columns = new ArrayList<>();
+        columns.add(element("field", "name", "width", 15, "maxLength", 15, "default", "Unknown Item"));
+        columns.add(element("text", " "));
+        columns.add(element("field", "quantity", "width", 3, "align", "right"));
+        columns.add(element("text", "x "));
+        columns.add(element("field", "price", "width", 9, "align", "right", "prefix", "Kshs "));
+        elements.add(element("type", "row", "source", "items", "style", "media", "columns", columns));
+        elements.add(element("type", "separator", "char", "=", "width", 32));
+        elements.add(element("type", "text", "text", "TOTAL: Kshs {{total}}", "style", "bold", "when", "total"));
+        elements.add(element("type", "feed", "lines", 2, "style", "small"));
+        elements.add(element("type", "qr", "data", "{{orderNumber}}", "sizeField", "qrSize", "size", 200));
+        elements.add(element("type", "barcode", "data", "{{orderNumber}}", "width", 360, "height", 100));
+        return elements;
+    }
+
+    private static Map<String, Object> element(Object... keysAndValues) {
+        Map<String, Object> element = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            element.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return element;
+    }
+
+    private static void field(DataOutputStream out, String name, String value) throws IOException {
+        writeString(out, name);
+        out.writeByte(BinaryReceipt.TAG_STRING);
+        writeString(out, value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.zcs_sdk_plugin;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * QR code and barcode generation with the bundled ZXing: encoding to a
+ * BitMatrix and expanding it to the ARGB pixels SymbolCache hands to
+ * Bitmap.setPixels. Sizes are the receipt defaults.
+ */
+@State(Scope.Thread)
+public class SymbolBenchmark {
+
+    private static final String ORDER_NUMBER = "ORD-20240601-0042";
+
+    private BitMatrix qrMatrix;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WriterException {
+        qrMatrix = SymbolEncoder.qrCode(ORDER_NUMBER, ReceiptTemplate.DEFAULT_QR_SIZE, ErrorCorrectionLevel.L);
+    }
+
+    @Benchmark
+    public BitMatrix qrCode() throws WriterException {
+        return SymbolEncoder.qrCode(ORDER_NUMBER, ReceiptTemplate.DEFAULT_QR_SIZE, ErrorCorrectionLevel.L);
+    }
+
+    @Benchmark
+    public BitMatrix code128() throws WriterException {
+        return SymbolEncoder.barcode(ORDER_NUMBER, 360, 100, BarcodeFormat.CODE_128);
+    }
+
+    @Benchmark
+    public int[] qrPixels() {
+        return SymbolEncoder.pixels(qrMatrix);
+    }
+}
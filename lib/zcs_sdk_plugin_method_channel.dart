@@ -1,11 +1,40 @@
 import 'package:flutter/foundation.dart';
 import 'package:flutter/services.dart';
 import 'zcs_sdk_plugin_platform_interface.dart';
+import 'zcs_sdk_plugin_receipt_codec.dart';
 
 class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
   @visibleForTesting
   final channel = const MethodChannel('zcs_sdk_plugin');
 
+  @visibleForTesting
+  final receiptChannel = const BasicMessageChannel<ByteData?>('zcs_sdk_plugin/receipt', BinaryCodec());
+
+  @visibleForTesting
+  final stateChannel = const EventChannel('zcs_sdk_plugin/events');
+
+  Stream<Map<String, dynamic>>? _deviceStateChanges;
+
+  @visibleForTesting
+  final scanChannel = const EventChannel('zcs_sdk_plugin/scans');
+
+  Stream<Map<String, dynamic>>? _scanResults;
+
+  @visibleForTesting
+  final cardChannel = const EventChannel('zcs_sdk_plugin/cards');
+
+  Stream<Map<String, dynamic>>? _cardEvents;
+
+  @visibleForTesting
+  final emvChannel = const EventChannel('zcs_sdk_plugin/emv');
+
+  Stream<Map<String, dynamic>>? _emvEvents;
+
+  @visibleForTesting
+  final pinChannel = const EventChannel('zcs_sdk_plugin/pin');
+
+  Stream<Map<String, dynamic>>? _pinEvents;
+
   @override
   Future<String?> getPlatformVersion() async {
     final version = await channel.invokeMethod<String>('getPlatformVersion');
@@ -54,6 +83,8 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
   /// [isBold] - Make text bold (default: false)
   /// [isUnderline] - Underline text (default: false)
   /// [alignment] - Text alignment: "LEFT", "CENTER", "RIGHT" (default: "LEFT")
+  /// [style] - ID of a registered print style (default: "text")
+  /// [flush] - Start the printer now instead of waiting for more content
   /// 
  @override
   Future<Map<String, dynamic>> printText(
@@ -62,6 +93,8 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
     bool isBold = false,
     bool isUnderline = false,
     String alignment = "LEFT",
+    String? style,
+    bool flush = false,
   }) async {
     try {
       final Map<String, dynamic> result = Map<String, dynamic>.from(
@@ -71,6 +104,8 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
           'isBold': isBold,
           'isUnderline': isUnderline,
           'alignment': alignment,
+          'style': style,
+          'flush': flush,
         })
       );
       return result;
@@ -78,18 +113,55 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
       throw SmartPosException('Failed to print text: ${e.message}');
     }
   }
+
+  /// Register a named print style that print calls can refer to by [id]
+  ///
+  /// Unset fields are inherited from [base] (default "text").
+ @override
+  Future<Map<String, dynamic>> registerPrintStyle(
+    String id, {
+    int? fontSize,
+    bool? isBold,
+    bool? isUnderline,
+    String? alignment,
+    String? font,
+    String? base,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('registerPrintStyle', {
+          'id': id,
+          'fontSize': fontSize,
+          'isBold': isBold,
+          'isUnderline': isUnderline,
+          'alignment': alignment,
+          'font': font,
+          'base': base,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to register print style: ${e.message}');
+    }
+  }
   
   /// Print a formatted receipt
   /// 
   /// [receiptData] - Receipt data containing header, items, totals, etc.
+  /// [template] - ID of a registered receipt template (default: "default")
+  /// [raster] - Render the whole receipt into one bitmap before printing
  @override
   Future<Map<String, dynamic>> printReceipt(
-    Map<String, dynamic> receiptData
-  ) async {
+    Map<String, dynamic> receiptData, {
+    String? template,
+    bool raster = false,
+  }) async {
     try {
       final Map<String, dynamic> result = Map<String, dynamic>.from(
         await channel.invokeMethod('printReceipt', {
           'receiptData': receiptData,
+          'template': template,
+          'raster': raster,
         })
       );
       return result;
@@ -97,12 +169,79 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
       throw SmartPosException('Failed to print receipt: ${e.message}');
     }
   }
+
+  /// Print a formatted receipt sent in the binary receipt format
+  ///
+  /// [receiptData] - Receipt data; item lists must hold maps of plain values
+ @override
+  Future<Map<String, dynamic>> printReceiptBinary(
+    Map<String, dynamic> receiptData, {
+    String? template,
+    bool raster = false,
+  }) async {
+    final ByteData message;
+    try {
+      message = ReceiptEncoder.encode(receiptData, template: template, raster: raster);
+    } on ArgumentError catch (e) {
+      throw SmartPosException('Failed to encode receipt: ${e.message}');
+    }
+    final ByteData? reply = await receiptChannel.send(message);
+    if (reply == null) {
+      throw SmartPosException('Failed to print receipt: no reply from device');
+    }
+    final Map<String, dynamic> result = Map<String, dynamic>.from(
+      const StandardMessageCodec().decodeMessage(reply) as Map
+    );
+    if (result['error'] != null) {
+      throw SmartPosException('Failed to print receipt: ${result['message']}');
+    }
+    return result;
+  }
+
+  /// Print a receipt rendered earlier in raster mode again
+  ///
+  /// [renderId] - The "renderId" returned by printReceipt
+ @override
+  Future<Map<String, dynamic>> reprintReceipt(String renderId) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('reprintReceipt', {
+          'renderId': renderId,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to reprint receipt: ${e.message}');
+    }
+  }
+
+  /// Register a receipt layout that printReceipt can refer to by [id]
+  ///
+  /// [elements] - Layout elements, compiled once on the native side
+ @override
+  Future<Map<String, dynamic>> registerReceiptTemplate(
+    String id,
+    List<Map<String, dynamic>> elements,
+  ) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('registerReceiptTemplate', {
+          'id': id,
+          'elements': elements,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to register receipt template: ${e.message}');
+    }
+  }
   
  @override
   Future<Map<String, dynamic>> printQrCode(
     String data, {
     int size = 200,
     String errorCorrectionLevel = "L", // "L", "M", "Q", "H"
+    bool flush = false,
   }) async {
     try {
       final Map<String, dynamic> result = Map<String, dynamic>.from(
@@ -110,6 +249,7 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
           'data': data,
           'size': size,
           'errorCorrectionLevel': errorCorrectionLevel,
+          'flush': flush,
         })
       );
       return result;
@@ -119,17 +259,444 @@ class MethodChannelZcsSdkPlugin extends ZcsSdkPluginPlatform {
   }
 
 
+  /// Print everything waiting in the native print queue right away
+ @override
+  Future<Map<String, dynamic>> flushPrintQueue() async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('flushPrintQueue')
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to flush print queue: ${e.message}');
+    }
+  }
+
+  /// Set how long the native print queue waits for more content
+  ///
+  /// [windowMs] - Coalescing window in milliseconds, 0 starts every call immediately
+  /// [completionTimeoutMs] - Longest time to wait for the printer to finish a job
+ @override
+  Future<Map<String, dynamic>> configurePrintQueue({
+    int? windowMs,
+    int? completionTimeoutMs,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('configurePrintQueue', {
+          'windowMs': windowMs,
+          'completionTimeoutMs': completionTimeoutMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to configure print queue: ${e.message}');
+    }
+  }
+
+  /// Printer and scanner state transitions pushed by the native side
+ @override
+  Stream<Map<String, dynamic>> get deviceStateChanges {
+    return _deviceStateChanges ??= stateChannel
+        .receiveBroadcastStream()
+        .map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// Get the printer status
+  ///
+  /// [refresh] - Ask the printer instead of using the cached status
+ @override
+  Future<Map<String, dynamic>> getPrinterStatus({bool refresh = false}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('getPrinterStatus', {
+          'refresh': refresh,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to get printer status: ${e.message}');
+    }
+  }
+
+  /// Tune the native background printer status monitor
+ @override
+  Future<Map<String, dynamic>> configureStatusMonitor({
+    int? ttlMs,
+    int? minIntervalMs,
+    int? maxIntervalMs,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('configureStatusMonitor', {
+          'ttlMs': ttlMs,
+          'minIntervalMs': minIntervalMs,
+          'maxIntervalMs': maxIntervalMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to configure status monitor: ${e.message}');
+    }
+  }
+
+  /// Get hit/miss/eviction counts of the native QR code and barcode cache
+  ///
+  /// [reset] - Zero the counters after reading them
+ @override
+  Future<Map<String, dynamic>> getSymbolCacheStats({bool reset = false}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('getSymbolCacheStats', {
+          'reset': reset,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to get symbol cache stats: ${e.message}');
+    }
+  }
+
+  /// Keep the QR scanner powered and stream every code read to [scanResults]
+  ///
+  /// [idleTimeoutMs] - Stop after this long without a read, 0 to never time out
+  /// [duplicateWindowMs] - Ignore the same code read again within this window
+ @override
+  Future<Map<String, dynamic>> startContinuousScan({
+    int? idleTimeoutMs,
+    int? duplicateWindowMs,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('startContinuousScan', {
+          'idleTimeoutMs': idleTimeoutMs,
+          'duplicateWindowMs': duplicateWindowMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to start continuous scan: ${e.message}');
+    }
+  }
+
+  /// Stop continuous scanning and power the scanner off
+ @override
+  Future<Map<String, dynamic>> stopContinuousScan() async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('stopContinuousScan')
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to stop continuous scan: ${e.message}');
+    }
+  }
+
+  /// Set how long the QR scanner stays powered after a scan
+  ///
+  /// [standbyMs] - Idle time before the scanner powers down
+ @override
+  Future<Map<String, dynamic>> configureScanner({int? standbyMs}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('configureScanner', {
+          'standbyMs': standbyMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to configure scanner: ${e.message}');
+    }
+  }
+
+  /// Codes read in continuous mode
+ @override
+  Stream<Map<String, dynamic>> get scanResults {
+    return _scanResults ??= scanChannel
+        .receiveBroadcastStream()
+        .map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// Wait for a card on the magnetic, IC and contactless readers at once
+  ///
+  /// [slots] - Any of "mag", "ic", "rf"; all three when omitted
+  /// [timeoutMs] - End the search after this long without a card
+ @override
+  Future<Map<String, dynamic>> searchCard({List<String>? slots, int? timeoutMs}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('searchCard', {
+          'slots': slots,
+          'timeoutMs': timeoutMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to search card: ${e.message}');
+    }
+  }
+
+  /// Cancel the running card search
+ @override
+  Future<Map<String, dynamic>> cancelCardSearch() async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('cancelCardSearch')
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to cancel card search: ${e.message}');
+    }
+  }
+
+  /// Outcome of each card search
+ @override
+  Stream<Map<String, dynamic>> get cardEvents {
+    return _cardEvents ??= cardChannel
+        .receiveBroadcastStream()
+        .map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// Load terminal parameters, AIDs and CAPKs into the EMV kernel
+ @override
+  Future<Map<String, dynamic>> configureEmv({
+    required Map<String, dynamic> terminal,
+    required List<Map<String, dynamic>> aids,
+    required List<Map<String, dynamic>> capks,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('configureEmv', {
+          'terminal': terminal,
+          'aids': aids,
+          'capks': capks,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to configure EMV: ${e.message}');
+    }
+  }
+
+  /// Run an EMV transaction on the card found by searchCard
+ @override
+  Future<Map<String, dynamic>> startEmvTransaction({
+    required int amount,
+    int amountOther = 0,
+    int transType = 0,
+    String slot = 'ic',
+    bool forceOnline = false,
+    bool confirmCardNo = false,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('startEmvTransaction', {
+          'amount': amount,
+          'amountOther': amountOther,
+          'transType': transType,
+          'slot': slot,
+          'forceOnline': forceOnline,
+          'confirmCardNo': confirmCardNo,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to start EMV transaction: ${e.message}');
+    }
+  }
+
+  /// Answer an EMV prompt
+ @override
+  Future<Map<String, dynamic>> respondEmv(int id, Map<String, dynamic> answer) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('respondEmv', {
+          'id': id,
+          'answer': answer,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to answer EMV prompt: ${e.message}');
+    }
+  }
+
+  /// Cancel the running EMV transaction
+ @override
+  Future<Map<String, dynamic>> cancelEmvTransaction() async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('cancelEmvTransaction')
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to cancel EMV transaction: ${e.message}');
+    }
+  }
+
+  /// Prompts and results of EMV transactions
+ @override
+  Stream<Map<String, dynamic>> get emvEvents {
+    return _emvEvents ??= emvChannel
+        .receiveBroadcastStream()
+        .map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// Ask for the cardholder's PIN on the secure PIN pad
+ @override
+  Future<Map<String, dynamic>> startPinEntry({
+    String? pan,
+    int keyIndex = 0,
+    bool offline = false,
+    int minLength = 4,
+    int maxLength = 12,
+    int timeoutMs = 60000,
+    String format = 'x9.8',
+    bool allowBypass = false,
+  }) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('startPinEntry', {
+          'pan': pan,
+          'keyIndex': keyIndex,
+          'offline': offline,
+          'minLength': minLength,
+          'maxLength': maxLength,
+          'timeoutMs': timeoutMs,
+          'format': format,
+          'allowBypass': allowBypass,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to start PIN entry: ${e.message}');
+    }
+  }
+
+  /// Cancel the running PIN entry
+ @override
+  Future<Map<String, dynamic>> cancelPinEntry() async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('cancelPinEntry')
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to cancel PIN entry: ${e.message}');
+    }
+  }
+
+  /// Outcome of each PIN entry
+ @override
+  Stream<Map<String, dynamic>> get pinEvents {
+    return _pinEvents ??= pinChannel
+        .receiveBroadcastStream()
+        .map((event) => Map<String, dynamic>.from(event as Map));
+  }
+
+  /// MAC or encrypt many buffers with one call
+ @override
+  Future<Map<String, dynamic>> runSecureBatch(List<Map<String, dynamic>> operations) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('runSecureBatch', {
+          'operations': operations,
+        })
+      );
+      result['results'] = (result['results'] as List? ?? const [])
+          .map((item) => Map<String, dynamic>.from(item as Map))
+          .toList();
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to run secure batch: ${e.message}');
+    }
+  }
+
+  /// Latency histograms and error counts since the last reset
+ @override
+  Future<Map<String, dynamic>> getMetrics({bool reset = false}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('getMetrics', {
+          'reset': reset,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to get metrics: ${e.message}');
+    }
+  }
+
+  /// Turn main-thread stall detection on or off
+  ///
+  /// [enabled] - Time method calls and the plugin's main-thread work
+  /// [thresholdMs] - Work longer than this is reported as a stall
+ @override
+  Future<Map<String, dynamic>> configureStallDetection({bool? enabled, int? thresholdMs}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('configureStallDetection', {
+          'enabled': enabled,
+          'thresholdMs': thresholdMs,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to configure stall detection: ${e.message}');
+    }
+  }
+
+  /// Main-thread stalls seen since the last reset
+ @override
+  Future<Map<String, dynamic>> getMainThreadStalls({bool reset = false}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('getMainThreadStalls', {
+          'reset': reset,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to get main thread stalls: ${e.message}');
+    }
+  }
+
   /// Print an image (logo, signature, etc.)
   /// 
-  /// [imageData] - Image data (base64 encoded or file path)
+  /// [imageData] - Encoded image bytes; sent as a byte array, not base64
+  /// [dither] - "floydSteinberg", "bayer", "threshold" or "none"
+  /// [flush] - Start the printer now instead of waiting for more content
  @override
   Future<Map<String, dynamic>> printImage(
-    String imageData
-  ) async {
+    Uint8List imageData, {
+    String dither = 'floydSteinberg',
+    bool flush = false,
+  }) async {
     try {
       final Map<String, dynamic> result = Map<String, dynamic>.from(
         await channel.invokeMethod('printImage', {
           'imageData': imageData,
+          'dither': dither,
+          'flush': flush,
+        })
+      );
+      return result;
+    } on PlatformException catch (e) {
+      throw SmartPosException('Failed to print image: ${e.message}');
+    }
+  }
+
+  /// Print an image file (logo, signature, etc.)
+  ///
+  /// [path] - Path of an image file the app can read
+ @override
+  Future<Map<String, dynamic>> printImageFile(String path, {String dither = 'floydSteinberg', bool flush = false}) async {
+    try {
+      final Map<String, dynamic> result = Map<String, dynamic>.from(
+        await channel.invokeMethod('printImage', {
+          'path': path,
+          'dither': dither,
+          'flush': flush,
         })
       );
       return result;
@@ -1,3 +1,5 @@
+import 'dart:typed_data';
+
 import 'package:plugin_platform_interface/plugin_platform_interface.dart';
 
 import 'zcs_sdk_plugin_method_channel.dart';
@@ -44,32 +46,369 @@ abstract class ZcsSdkPluginPlatform extends PlatformInterface {
     bool isBold = false,
     bool isUnderline = false,
     String alignment = "LEFT",
+    String? style,
+    bool flush = false,
   }) {
     throw UnimplementedError('printText() has not been implemented.');
   }
 
+  /// Register a named print style that print calls can refer to by [id]
+  ///
+  /// Built-in IDs are "text", "header", "subHeader", "normal", "bold",
+  /// "orderNumber", "small" and "media"; registering one of them restyles the
+  /// receipt. Unset fields are inherited from [base] (default "text").
+  Future<Map<String, dynamic>> registerPrintStyle(
+    String id, {
+    int? fontSize,
+    bool? isBold,
+    bool? isUnderline,
+    String? alignment,
+    String? font,
+    String? base,
+  }) {
+    throw UnimplementedError('registerPrintStyle() has not been implemented.');
+  }
+
   /// Print a formatted receipt
   ///
   /// [receiptData] - Receipt data containing header, items, totals, etc.
-  Future<Map<String, dynamic>> printReceipt(Map<String, dynamic> receiptData) {
+  /// [template] - ID of a registered receipt template (default: "default")
+  /// [raster] - Render the whole receipt into one bitmap before printing; the
+  /// result carries a "renderId" that [reprintReceipt] accepts
+  Future<Map<String, dynamic>> printReceipt(
+    Map<String, dynamic> receiptData, {
+    String? template,
+    bool raster = false,
+  }) {
     throw UnimplementedError('printReceipt() has not been implemented.');
   }
 
+  /// Print a formatted receipt sent in the binary receipt format
+  ///
+  /// Same arguments and result as [printReceipt], but the data is encoded
+  /// into one flat buffer that the native side reads without building maps.
+  /// Meant for large receipts such as bar tabs with hundreds of items.
+  Future<Map<String, dynamic>> printReceiptBinary(
+    Map<String, dynamic> receiptData, {
+    String? template,
+    bool raster = false,
+  }) {
+    throw UnimplementedError('printReceiptBinary() has not been implemented.');
+  }
+
+  /// Print a receipt rendered earlier in raster mode again
+  ///
+  /// [renderId] - The "renderId" returned by printReceipt
+  Future<Map<String, dynamic>> reprintReceipt(String renderId) {
+    throw UnimplementedError('reprintReceipt() has not been implemented.');
+  }
+
+  /// Register a receipt layout that printReceipt can refer to by [id]
+  ///
+  /// [elements] - Layout elements ("text", "row", "separator", "feed", "qr",
+  /// "barcode"); text may contain {{field}} or {{field|default}} placeholders.
+  /// The layout is compiled once on the native side.
+  Future<Map<String, dynamic>> registerReceiptTemplate(
+    String id,
+    List<Map<String, dynamic>> elements,
+  ) {
+    throw UnimplementedError('registerReceiptTemplate() has not been implemented.');
+  }
+
   Future<Map<String, dynamic>> printQrCode(
     String data, {
     int size = 200,
     String errorCorrectionLevel = "L", // "L", "M", "Q", "H"
+    bool flush = false,
   }) {
     throw UnimplementedError('printQrCode() has not been implemented.');
   }
 
+  /// Print everything waiting in the native print queue right away
+  ///
+  /// printText, printQrCode and printImage calls made close together are
+  /// batched into a single printer start; this closes the current batch.
+  /// Passing flush: true to the last of those calls does the same without
+  /// another round trip.
+  Future<Map<String, dynamic>> flushPrintQueue() {
+    throw UnimplementedError('flushPrintQueue() has not been implemented.');
+  }
+
+  /// Set how long the native print queue waits for more content
+  ///
+  /// [windowMs] - Coalescing window in milliseconds, 0 starts every call immediately
+  /// [completionTimeoutMs] - Longest time to wait for the printer to finish a job
+  Future<Map<String, dynamic>> configurePrintQueue({
+    int? windowMs,
+    int? completionTimeoutMs,
+  }) {
+    throw UnimplementedError('configurePrintQueue() has not been implemented.');
+  }
+
+  /// Printer and scanner state transitions pushed by the native side
+  ///
+  /// Each event has "changes" (only the keys that changed) and "state" (all
+  /// keys): paperOut, printerBusy, scannerPowered, scanActive. The first
+  /// event after listening carries the full current state.
+  Stream<Map<String, dynamic>> get deviceStateChanges {
+    throw UnimplementedError('deviceStateChanges has not been implemented.');
+  }
+
+  /// Get the printer status
+  ///
+  /// [refresh] - Ask the printer instead of using the cached status; the
+  /// result's "ageMs" tells how old a cached status is
+  Future<Map<String, dynamic>> getPrinterStatus({bool refresh = false}) {
+    throw UnimplementedError('getPrinterStatus() has not been implemented.');
+  }
+
+  /// Tune the native background printer status monitor
+  ///
+  /// [ttlMs] - How long a cached status is served before the printer is asked again
+  /// [minIntervalMs] - Poll interval while printing or right after a change
+  /// [maxIntervalMs] - Longest poll interval while the status stays the same
+  Future<Map<String, dynamic>> configureStatusMonitor({
+    int? ttlMs,
+    int? minIntervalMs,
+    int? maxIntervalMs,
+  }) {
+    throw UnimplementedError('configureStatusMonitor() has not been implemented.');
+  }
+
+  /// Get hit/miss/eviction counts of the native QR code and barcode cache
+  ///
+  /// The "images" entry holds the decoded image cache and bitmap pool counts.
+  /// [reset] - Zero the counters after reading them
+  Future<Map<String, dynamic>> getSymbolCacheStats({bool reset = false}) {
+    throw UnimplementedError('getSymbolCacheStats() has not been implemented.');
+  }
+
+  /// Keep the QR scanner powered and stream every code read to [scanResults]
+  ///
+  /// [idleTimeoutMs] - Stop after this long without a read, 0 to never time out
+  /// [duplicateWindowMs] - Ignore the same code read again within this window
+  Future<Map<String, dynamic>> startContinuousScan({
+    int? idleTimeoutMs,
+    int? duplicateWindowMs,
+  }) {
+    throw UnimplementedError('startContinuousScan() has not been implemented.');
+  }
+
+  /// Stop continuous scanning and power the scanner off
+  Future<Map<String, dynamic>> stopContinuousScan() {
+    throw UnimplementedError('stopContinuousScan() has not been implemented.');
+  }
+
+  /// Set how long the QR scanner stays powered after a scan
+  ///
+  /// [standbyMs] - Idle time before the scanner powers down; a scan within
+  /// this window starts without the wake-up delay. 0 powers down after every scan.
+  Future<Map<String, dynamic>> configureScanner({int? standbyMs}) {
+    throw UnimplementedError('configureScanner() has not been implemented.');
+  }
+
+  /// Codes read in continuous mode
+  ///
+  /// Events are {"type": "scan", "data": ..., "timestamp": ...} for each code
+  /// and {"type": "stopped", "reason": "stopped" | "idle" | "error"} when the
+  /// session ends.
+  Stream<Map<String, dynamic>> get scanResults {
+    throw UnimplementedError('scanResults has not been implemented.');
+  }
+
+  /// Wait for a card on the magnetic, IC and contactless readers at once
+  ///
+  /// Returns as soon as the readers are armed. The first card on any slot
+  /// ends the search and arrives on [cardEvents]; the other slots are
+  /// cancelled. Only one search runs at a time.
+  /// [slots] - Any of "mag", "ic", "rf"; all three when omitted
+  /// [timeoutMs] - End the search after this long without a card (default 60000)
+  Future<Map<String, dynamic>> searchCard({List<String>? slots, int? timeoutMs}) {
+    throw UnimplementedError('searchCard() has not been implemented.');
+  }
+
+  /// Cancel the running card search; [cardEvents] reports "cancelled"
+  Future<Map<String, dynamic>> cancelCardSearch() {
+    throw UnimplementedError('cancelCardSearch() has not been implemented.');
+  }
+
+  /// Outcome of each card search
+  ///
+  /// Events are {"type": "card", "slot": "mag" | "ic" | "rf", "elapsedMs": ...}
+  /// with the card data (cardNo and tracks for mag, atr for ic, uid for rf),
+  /// or {"type": "timeout" | "cancelled"} and {"type": "error", "code": ...}
+  /// when the search ends without a card.
+  Stream<Map<String, dynamic>> get cardEvents {
+    throw UnimplementedError('cardEvents has not been implemented.');
+  }
+
+  /// Load terminal parameters, AIDs and CAPKs into the EMV kernel
+  ///
+  /// Call once after [openDevice] and again only when the tables change;
+  /// the kernel keeps them between transactions. The tables are saved on
+  /// the device and loaded again by [initializeDevice], so after a restart
+  /// transactions work without calling this. Only tables whose checksum
+  /// changed are reloaded; the result lists them under "reloaded".
+  /// [terminal] - countryCode, currencyCode, currencyExponent, terminalType,
+  /// capabilities, additionalCapabilities, merchantId, merchantName,
+  /// merchantCategoryCode, terminalId, acquirerId, ifdSerial, readerTtq
+  /// [aids] - Each with aid (hex) and optionally partialMatch, floorLimit,
+  /// threshold, targetPercent, maxTargetPercent, tacDenial, tacOnline,
+  /// tacDefault, ddol, tdol, version, contactlessTransLimit,
+  /// contactlessFloorLimit, contactlessCvmLimit, onlinePin
+  /// [capks] - Each with rid, index and modulus, and optionally exponent,
+  /// hashAlgorithm, keyAlgorithm, expiry, checksum
+  Future<Map<String, dynamic>> configureEmv({
+    required Map<String, dynamic> terminal,
+    required List<Map<String, dynamic>> aids,
+    required List<Map<String, dynamic>> capks,
+  }) {
+    throw UnimplementedError('configureEmv() has not been implemented.');
+  }
+
+  /// Run an EMV transaction on the card found by [searchCard]
+  ///
+  /// Returns once the transaction has started. Questions from the kernel and
+  /// the final result arrive on [emvEvents]; answer questions with [respondEmv].
+  /// [amount] - Amount in minor units
+  /// [slot] - "ic" for a chip card, "rf" for contactless
+  /// [confirmCardNo] - Ask before continuing with the card number
+  Future<Map<String, dynamic>> startEmvTransaction({
+    required int amount,
+    int amountOther = 0,
+    int transType = 0,
+    String slot = 'ic',
+    bool forceOnline = false,
+    bool confirmCardNo = false,
+  }) {
+    throw UnimplementedError('startEmvTransaction() has not been implemented.');
+  }
+
+  /// Answer the [emvEvents] prompt with this [id]
+  ///
+  /// selectApp: {"index": n}; confirmCardNo and verifyCert: {"confirmed": bool};
+  /// inputPin: {"confirmed": bool, "pinBlock": hex, "bypass": bool};
+  /// online: {"connected": bool, "responseTlv": hex} with the host's TLV
+  /// response as received, or {"connected": bool, "tags": {"8A": hex, ...}}
+  Future<Map<String, dynamic>> respondEmv(int id, Map<String, dynamic> answer) {
+    throw UnimplementedError('respondEmv() has not been implemented.');
+  }
+
+  /// Cancel the running EMV transaction at its next prompt
+  Future<Map<String, dynamic>> cancelEmvTransaction() {
+    throw UnimplementedError('cancelEmvTransaction() has not been implemented.');
+  }
+
+  /// Prompts and results of EMV transactions
+  ///
+  /// Prompts carry "type" (selectApp, confirmCardNo, inputPin, verifyCert,
+  /// online) and an "id" for [respondEmv]; online prompts include the
+  /// "field55" TLV as hex. The transaction ends with {"type": "result",
+  /// "outcome": "approved" | "declined" | "goOnline" | "cancelled" | "failed",
+  /// "code": ..., "field55": ..., "receipt": {"aid", "appLabel", "tvr",
+  /// "tsi", "cryptogram", "cid"}, "elapsedMs": ...}.
+  Stream<Map<String, dynamic>> get emvEvents {
+    throw UnimplementedError('emvEvents has not been implemented.');
+  }
+
+  /// Ask for the cardholder's PIN on the secure PIN pad
+  ///
+  /// Returns once the pad is showing; the outcome arrives on [pinEvents].
+  /// Runs on the PIN pad's own thread, so a receipt still printing does not
+  /// hold it up. Only one entry runs at a time.
+  /// [pan] - Card number, required for online PIN blocks
+  /// [keyIndex] - PIN work key index
+  /// [offline] - Offline PIN verified by the card instead of a PIN block
+  /// [format] - "x9.8" (ISO format 0, default) or "x3.92"
+  /// [allowBypass] - Accept confirming without a PIN
+  Future<Map<String, dynamic>> startPinEntry({
+    String? pan,
+    int keyIndex = 0,
+    bool offline = false,
+    int minLength = 4,
+    int maxLength = 12,
+    int timeoutMs = 60000,
+    String format = 'x9.8',
+    bool allowBypass = false,
+  }) {
+    throw UnimplementedError('startPinEntry() has not been implemented.');
+  }
+
+  /// Cancel the running PIN entry; [pinEvents] reports "cancelled"
+  Future<Map<String, dynamic>> cancelPinEntry() {
+    throw UnimplementedError('cancelPinEntry() has not been implemented.');
+  }
+
+  /// Outcome of each PIN entry
+  ///
+  /// Events are {"type": "pin", "outcome": "entered" | "bypassed" |
+  /// "cancelled" | "timeout" | "error", "elapsedMs": ...}, with "pinBlock"
+  /// as hex when entered and "code" for pad errors.
+  Stream<Map<String, dynamic>> get pinEvents {
+    throw UnimplementedError('pinEvents has not been implemented.');
+  }
+
+  /// MAC or encrypt many buffers with one call
+  ///
+  /// Each operation is {"op": "mac", "keyIndex": n, "algorithm": "x9.19" |
+  /// "x9.9" | "ecb" | "xor", "data": Uint8List} or {"op": "encrypt",
+  /// "keyIndex": n, "data": Uint8List}, encrypted under the data key and
+  /// zero-padded to 8 bytes; PIN and MAC keys are never used for data. The response holds "results"
+  /// in the same order, each {"success", "code", "data"}; a failing
+  /// operation does not stop the others.
+  Future<Map<String, dynamic>> runSecureBatch(List<Map<String, dynamic>> operations) {
+    throw UnimplementedError('runSecureBatch() has not been implemented.');
+  }
+
+  /// Latency histograms and error counts since the last reset
+  ///
+  /// "methods" times every method call from dispatch to its answer;
+  /// "hardware" times SDK calls (setPrintStart, getPrinterStatus, scanner
+  /// power-up, print completion) and print queue waits. Each holds
+  /// "periodMs" and "operations": {name: {"count", "errors", "timeouts",
+  /// "p50Ms", "p95Ms", "p99Ms", "maxMs", "meanMs"}}. "model" names the
+  /// terminal. Percentiles are accurate to within 25%.
+  /// [reset] - Start a new period after reading
+  Future<Map<String, dynamic>> getMetrics({bool reset = false}) {
+    throw UnimplementedError('getMetrics() has not been implemented.');
+  }
+
+  /// Turn main-thread stall detection on or off
+  ///
+  /// [enabled] - Time method calls and the plugin's main-thread work; off by default
+  /// [thresholdMs] - Work longer than this is reported as a stall (default 16)
+  Future<Map<String, dynamic>> configureStallDetection({bool? enabled, int? thresholdMs}) {
+    throw UnimplementedError('configureStallDetection() has not been implemented.');
+  }
+
+  /// Main-thread stalls seen since the last reset
+  ///
+  /// Returns counters and the most recent stalls, each with task, durationMs
+  /// and timestamp. [reset] clears them after reading.
+  Future<Map<String, dynamic>> getMainThreadStalls({bool reset = false}) {
+    throw UnimplementedError('getMainThreadStalls() has not been implemented.');
+  }
+
   /// Print an image (logo, signature, etc.)
   ///
-  /// [imageData] - Image data (base64 encoded or file path)
-  Future<Map<String, dynamic>> printImage(String imageData) {
+  /// [imageData] - Encoded image bytes (PNG, JPEG, BMP), sent as-is without
+  /// base64. Images wider than the paper are scaled down to fit.
+  /// [dither] - "floydSteinberg" (photos), "bayer", "threshold" (line art,
+  /// signatures) or "none" to leave the conversion to the printer
+  /// [flush] - Start the printer now instead of waiting for more content
+  Future<Map<String, dynamic>> printImage(Uint8List imageData, {String dither = 'floydSteinberg', bool flush = false}) {
     throw UnimplementedError('printImage() has not been implemented.');
   }
 
+  /// Print an image file (logo, signature, etc.)
+  ///
+  /// [path] - Path of an image file the app can read; only the path crosses
+  /// the channel
+  /// [dither] - As for [printImage]
+  Future<Map<String, dynamic>> printImageFile(String path, {String dither = 'floydSteinberg', bool flush = false}) {
+    throw UnimplementedError('printImageFile() has not been implemented.');
+  }
+
   Future<String?> connectToDevice(String deviceId) {
     throw UnimplementedError('connectToDevice() has not been implemented.');
   }
@@ -0,0 +1,163 @@
+import 'dart:convert';
+import 'dart:typed_data';
+
+/// Encodes receipt data into the binary receipt format read by the native
+/// BinaryReceipt class.
+///
+/// All numbers are big-endian; strings are a u16 byte length followed by
+/// UTF-8. The buffer starts with "ZR", the format version and a flags byte
+/// (bit 0: raster), then the template id and the top-level fields. A list of
+/// maps (the receipt items) becomes a table whose column names are written
+/// once, followed by one value per column for every row.
+class ReceiptEncoder {
+  static const int version = 1;
+  static const int flagRaster = 0x01;
+
+  static const int _tagNull = 0;
+  static const int _tagString = 1;
+  static const int _tagInt = 2;
+  static const int _tagDouble = 3;
+  static const int _tagBool = 4;
+  static const int _tagBytes = 5;
+  static const int _tagTable = 6;
+
+  Uint8List _bytes;
+  ByteData _view;
+  int _length = 0;
+
+  ReceiptEncoder._(Uint8List bytes)
+      : _bytes = bytes,
+        _view = ByteData.view(bytes.buffer);
+
+  /// Encodes [receiptData] for the template [template] (null for the default).
+  ///
+  /// Values may be null, String, int, double, bool, Uint8List or, at the top
+  /// level only, a list of maps holding those values.
+  static ByteData encode(
+    Map<String, dynamic> receiptData, {
+    String? template,
+    bool raster = false,
+  }) {
+    final encoder = ReceiptEncoder._(Uint8List(1024));
+    encoder._putBytes(const [0x5A, 0x52]); // "ZR"
+    encoder._putUint8(version);
+    encoder._putUint8(raster ? flagRaster : 0);
+    encoder._putString(template ?? '');
+    if (receiptData.length > 0xFFFF) {
+      throw ArgumentError('Too many receipt fields: ${receiptData.length}');
+    }
+    encoder._putUint16(receiptData.length);
+    receiptData.forEach((name, value) {
+      encoder._putString(name);
+      encoder._putValue(value, allowTable: true);
+    });
+    return ByteData.view(encoder._bytes.buffer, 0, encoder._length);
+  }
+
+  void _putValue(Object? value, {required bool allowTable}) {
+    if (value == null) {
+      _putUint8(_tagNull);
+    } else if (value is String) {
+      _putUint8(_tagString);
+      _putString(value);
+    } else if (value is int) {
+      _putUint8(_tagInt);
+      _reserve(8);
+      _view.setInt64(_length, value, Endian.big);
+      _length += 8;
+    } else if (value is double) {
+      _putUint8(_tagDouble);
+      _reserve(8);
+      _view.setFloat64(_length, value, Endian.big);
+      _length += 8;
+    } else if (value is bool) {
+      _putUint8(_tagBool);
+      _putUint8(value ? 1 : 0);
+    } else if (value is Uint8List) {
+      _putUint8(_tagBytes);
+      _putUint32(value.length);
+      _putBytes(value);
+    } else if (value is List && allowTable) {
+      _putTable(value);
+    } else {
+      throw ArgumentError('Unsupported receipt value: ${value.runtimeType}');
+    }
+  }
+
+  void _putTable(List<dynamic> rows) {
+    // Columns are the union of the row keys, in first-seen order
+    final columns = <String>[];
+    final seen = <String>{};
+    for (final row in rows) {
+      if (row is! Map) {
+        throw ArgumentError('Receipt lists must hold maps, got ${row.runtimeType}');
+      }
+      for (final key in row.keys) {
+        if (seen.add(key as String)) {
+          columns.add(key);
+        }
+      }
+    }
+    if (columns.length > 0xFF) {
+      throw ArgumentError('Too many columns in receipt list: ${columns.length}');
+    }
+
+    _putUint8(_tagTable);
+    _putUint8(columns.length);
+    for (final column in columns) {
+      _putString(column);
+    }
+    _putUint32(rows.length);
+    for (final row in rows) {
+      final map = row as Map;
+      for (final column in columns) {
+        _putValue(map[column], allowTable: false);
+      }
+    }
+  }
+
+  void _putString(String value) {
+    final utf8Bytes = utf8.encode(value);
+    if (utf8Bytes.length > 0xFFFF) {
+      throw ArgumentError('Receipt string too long: ${utf8Bytes.length} bytes');
+    }
+    _putUint16(utf8Bytes.length);
+    _putBytes(utf8Bytes);
+  }
+
+  void _putUint8(int value) {
+    _reserve(1);
+    _bytes[_length++] = value;
+  }
+
+  void _putUint16(int value) {
+    _reserve(2);
+    _view.setUint16(_length, value, Endian.big);
+    _length += 2;
+  }
+
+  void _putUint32(int value) {
+    _reserve(4);
+    _view.setUint32(_length, value, Endian.big);
+    _length += 4;
+  }
+
+  void _putBytes(List<int> bytes) {
+    _reserve(bytes.length);
+    _bytes.setRange(_length, _length + bytes.length, bytes);
+    _length += bytes.length;
+  }
+
+  void _reserve(int count) {
+    if (_length + count <= _bytes.length) {
+      return;
+    }
+    var capacity = _bytes.length * 2;
+    while (capacity < _length + count) {
+      capacity *= 2;
+    }
+    final grown = Uint8List(capacity)..setRange(0, _length, _bytes);
+    _bytes = grown;
+    _view = ByteData.view(grown.buffer);
+  }
+}
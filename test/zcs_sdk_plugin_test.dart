@@ -1,3 +1,5 @@
+import 'dart:typed_data';
+
 import 'package:flutter_test/flutter_test.dart';
 import 'package:zcs_sdk_plugin/zcs_sdk_plugin.dart';
 import 'package:zcs_sdk_plugin/zcs_sdk_plugin_platform_interface.dart';
@@ -54,29 +56,219 @@ class MockZcsSdkPluginPlatform
   }
   
   @override
-  Future<Map<String, dynamic>> printImage(String imageData) {
+  Future<Map<String, dynamic>> flushPrintQueue() {
+    // TODO: implement flushPrintQueue
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> configurePrintQueue({int? windowMs, int? completionTimeoutMs}) {
+    // TODO: implement configurePrintQueue
+    throw UnimplementedError();
+  }
+  
+  @override
+  // TODO: implement deviceStateChanges
+  Stream<Map<String, dynamic>> get deviceStateChanges => throw UnimplementedError();
+  
+  @override
+  Future<Map<String, dynamic>> getPrinterStatus({bool refresh = false}) {
+    // TODO: implement getPrinterStatus
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> configureStatusMonitor({int? ttlMs, int? minIntervalMs, int? maxIntervalMs}) {
+    // TODO: implement configureStatusMonitor
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> getSymbolCacheStats({bool reset = false}) {
+    // TODO: implement getSymbolCacheStats
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> startContinuousScan({int? idleTimeoutMs, int? duplicateWindowMs}) {
+    // TODO: implement startContinuousScan
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> stopContinuousScan() {
+    // TODO: implement stopContinuousScan
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> configureScanner({int? standbyMs}) {
+    // TODO: implement configureScanner
+    throw UnimplementedError();
+  }
+  
+  @override
+  // TODO: implement scanResults
+  Stream<Map<String, dynamic>> get scanResults => throw UnimplementedError();
+  
+  @override
+  Future<Map<String, dynamic>> searchCard({List<String>? slots, int? timeoutMs}) {
+    // TODO: implement searchCard
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> cancelCardSearch() {
+    // TODO: implement cancelCardSearch
+    throw UnimplementedError();
+  }
+  
+  @override
+  // TODO: implement cardEvents
+  Stream<Map<String, dynamic>> get cardEvents => throw UnimplementedError();
+  
+  @override
+  Future<Map<String, dynamic>> configureEmv({
+    required Map<String, dynamic> terminal,
+    required List<Map<String, dynamic>> aids,
+    required List<Map<String, dynamic>> capks,
+  }) {
+    // TODO: implement configureEmv
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> startEmvTransaction({
+    required int amount,
+    int amountOther = 0,
+    int transType = 0,
+    String slot = 'ic',
+    bool forceOnline = false,
+    bool confirmCardNo = false,
+  }) {
+    // TODO: implement startEmvTransaction
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> respondEmv(int id, Map<String, dynamic> answer) {
+    // TODO: implement respondEmv
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> cancelEmvTransaction() {
+    // TODO: implement cancelEmvTransaction
+    throw UnimplementedError();
+  }
+  
+  @override
+  // TODO: implement emvEvents
+  Stream<Map<String, dynamic>> get emvEvents => throw UnimplementedError();
+  
+  @override
+  Future<Map<String, dynamic>> startPinEntry({
+    String? pan,
+    int keyIndex = 0,
+    bool offline = false,
+    int minLength = 4,
+    int maxLength = 12,
+    int timeoutMs = 60000,
+    String format = 'x9.8',
+    bool allowBypass = false,
+  }) {
+    // TODO: implement startPinEntry
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> cancelPinEntry() {
+    // TODO: implement cancelPinEntry
+    throw UnimplementedError();
+  }
+  
+  @override
+  // TODO: implement pinEvents
+  Stream<Map<String, dynamic>> get pinEvents => throw UnimplementedError();
+  
+  @override
+  Future<Map<String, dynamic>> runSecureBatch(List<Map<String, dynamic>> operations) {
+    // TODO: implement runSecureBatch
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> getMetrics({bool reset = false}) {
+    // TODO: implement getMetrics
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> configureStallDetection({bool? enabled, int? thresholdMs}) {
+    // TODO: implement configureStallDetection
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> getMainThreadStalls({bool reset = false}) {
+    // TODO: implement getMainThreadStalls
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> printImage(Uint8List imageData, {String dither = 'floydSteinberg', bool flush = false}) {
     // TODO: implement printImage
     throw UnimplementedError();
   }
   
   @override
-  Future<Map<String, dynamic>> printQrCode(String data, {int size = 200, String errorCorrectionLevel = "L"}) {
+  Future<Map<String, dynamic>> printImageFile(String path, {String dither = 'floydSteinberg', bool flush = false}) {
+    // TODO: implement printImageFile
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> printQrCode(String data, {int size = 200, String errorCorrectionLevel = "L", bool flush = false}) {
     // TODO: implement printQrCode
     throw UnimplementedError();
   }
   
   @override
-  Future<Map<String, dynamic>> printReceipt(Map<String, dynamic> receiptData) {
+  Future<Map<String, dynamic>> printReceipt(Map<String, dynamic> receiptData, {String? template, bool raster = false}) {
     // TODO: implement printReceipt
     throw UnimplementedError();
   }
   
   @override
-  Future<Map<String, dynamic>> printText(String text, {int fontSize = 50, bool isBold = false, bool isUnderline = false, String alignment = "LEFT"}) {
+  Future<Map<String, dynamic>> printReceiptBinary(Map<String, dynamic> receiptData, {String? template, bool raster = false}) {
+    // TODO: implement printReceiptBinary
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> reprintReceipt(String renderId) {
+    // TODO: implement reprintReceipt
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> registerReceiptTemplate(String id, List<Map<String, dynamic>> elements) {
+    // TODO: implement registerReceiptTemplate
+    throw UnimplementedError();
+  }
+  
+  @override
+  Future<Map<String, dynamic>> printText(String text, {int fontSize = 50, bool isBold = false, bool isUnderline = false, String alignment = "LEFT", String? style, bool flush = false}) {
     // TODO: implement printText
     throw UnimplementedError();
   }
   
+  @override
+  Future<Map<String, dynamic>> registerPrintStyle(String id, {int? fontSize, bool? isBold, bool? isUnderline, String? alignment, String? font, String? base}) {
+    // TODO: implement registerPrintStyle
+    throw UnimplementedError();
+  }
+  
   @override
   Future<List<String>> scanForDevices() {
     // TODO: implement scanForDevices